@@ -0,0 +1,96 @@
+package com.nova.colis.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.function.LongConsumer;
+
+/**
+ * Lecture de ses propres écritures malgré le retard de la réplique.
+ *
+ * Le marqueur de cohérence est porté par le client : au commit d'une transaction d'écriture faite pendant
+ * une requête, sa date (ms) est renvoyée dans l'en-tête {@value #ENTETE} et le cookie {@value #COOKIE}
+ * (voir {@link FiltreCoherenceLectures}). Tant que le client renvoie un marqueur de moins de
+ * {@code replique.fenetre-ms} ms, ses lectures restent sur la base primaire, quelle que soit l'instance
+ * qui le sert et même sans être authentifié (création d'un colis anonyme). Les autres lectures de la
+ * requête qui a écrit vont aussi sur la primaire.
+ *
+ * Le marqueur n'est pas signé : un client qui le falsifie ne fait que lire la primaire. Les horloges des
+ * instances doivent être synchronisées à bien moins que la fenêtre près.
+ */
+public class CoherenceLectures {
+
+    public static final String ENTETE = "X-Derniere-Ecriture";
+    public static final String COOKIE = "derniere-ecriture";
+
+    private final long fenetreMs;
+    private final Clock clock;
+
+    // Requête en cours sur ce thread, ou null hors requête (tâches planifiées, pools)
+    private final ThreadLocal<Requete> requete = new ThreadLocal<>();
+
+    public CoherenceLectures(long fenetreMs, Clock clock) {
+        this.fenetreMs = fenetreMs;
+        this.clock = clock;
+    }
+
+    public long getFenetreMs() {
+        return fenetreMs;
+    }
+
+    /**
+     * Début d'une requête.
+     *
+     * @param marqueur date (ms) de la dernière écriture renvoyée par le client, ou null
+     * @param surEcriture reçoit la date de chaque écriture validée pendant la requête, pour la renvoyer au client
+     */
+    public void ouvrir(Long marqueur, LongConsumer surEcriture) {
+        requete.set(new Requete(marqueur, surEcriture));
+    }
+
+    public void fermer() {
+        requete.remove();
+    }
+
+    /**
+     * Note l'écriture en cours : le marqueur est émis au commit de la transaction.
+     */
+    void noterEcriture() {
+        Requete courante = requete.get();
+        if (courante == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long maintenant = clock.millis();
+                courante.marqueur = maintenant;
+                courante.surEcriture.accept(maintenant);
+            }
+        });
+    }
+
+    /**
+     * @return true si le client de la requête courante a écrit il y a moins de {@code replique.fenetre-ms} ms
+     */
+    boolean ecritureRecente() {
+        Requete courante = requete.get();
+        if (courante == null || courante.marqueur == null) {
+            return false;
+        }
+        // Un marqueur venu d'une instance à l'horloge légèrement en avance reste valable
+        long age = clock.millis() - courante.marqueur;
+        return age < fenetreMs && age > -fenetreMs;
+    }
+
+    private static final class Requete {
+        private Long marqueur;
+        private final LongConsumer surEcriture;
+
+        Requete(Long marqueur, LongConsumer surEcriture) {
+            this.marqueur = marqueur;
+            this.surEcriture = surEcriture;
+        }
+    }
+}
@@ -21,8 +21,9 @@ public class CorsConfig {
                         "http://3.140.185.230:8080"        // Votre URL publique AWS (ou autre URL de production)
                         // Vous pouvez ajouter d'autres origines si nécessaire
                     )
-                    .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                    .allowedHeaders("*");
+                    .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
+                    .allowedHeaders("*")
+                    .exposedHeaders(CoherenceLectures.ENTETE);
             }
         };
     }
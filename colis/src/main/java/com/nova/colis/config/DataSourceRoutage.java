@@ -0,0 +1,53 @@
+package com.nova.colis.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Aiguillage des connexions entre la base primaire et sa réplique.
+ *
+ * Va sur la réplique une transaction en lecture seule ouverte par une méthode de service
+ * ({@code @Transactional(readOnly = true)} d'une classe du paquet {@code prefixeLectures}), sauf si
+ * le client vient d'écrire (voir {@link CoherenceLectures}). Tout le reste va sur la primaire :
+ * écritures, lectures hors transaction, et transactions en lecture seule ouvertes par les dépôts
+ * eux-mêmes, souvent suivies d'une écriture qui ne doit pas partir d'une donnée en retard.
+ *
+ * La clé est lue à l'obtention de la connexion physique : la source doit être enveloppée dans une
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, pour que la transaction
+ * soit déjà déclarée (lecture seule, nom) à ce moment.
+ */
+public class DataSourceRoutage extends AbstractRoutingDataSource {
+
+    public enum Cible { PRIMAIRE, REPLIQUE }
+
+    private final String prefixeLectures;
+    private final CoherenceLectures coherence;
+
+    public DataSourceRoutage(DataSource primaire, DataSource replique, String prefixeLectures,
+                             CoherenceLectures coherence) {
+        this.prefixeLectures = prefixeLectures;
+        this.coherence = coherence;
+        setTargetDataSources(Map.of(Cible.PRIMAIRE, primaire, Cible.REPLIQUE, replique));
+        setDefaultTargetDataSource(primaire);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Cible determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Cible.PRIMAIRE;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            coherence.noterEcriture();
+            return Cible.PRIMAIRE;
+        }
+        String transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transaction == null || !transaction.startsWith(prefixeLectures) || coherence.ecritureRecente()) {
+            return Cible.PRIMAIRE;
+        }
+        return Cible.REPLIQUE;
+    }
+}
@@ -0,0 +1,64 @@
+package com.nova.colis.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Transmet le marqueur de {@link CoherenceLectures} entre le client et l'instance qui traite sa requête :
+ * lu dans l'en-tête {@value CoherenceLectures#ENTETE} (applications mobiles) ou, à défaut, dans le cookie
+ * {@value CoherenceLectures#COOKIE} (navigateurs), et renvoyé par les deux après chaque écriture.
+ */
+public class FiltreCoherenceLectures extends OncePerRequestFilter {
+
+    private final CoherenceLectures coherence;
+
+    public FiltreCoherenceLectures(CoherenceLectures coherence) {
+        this.coherence = coherence;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        coherence.ouvrir(marqueur(request), date -> {
+            if (response.isCommitted()) {
+                return;
+            }
+            response.setHeader(CoherenceLectures.ENTETE, String.valueOf(date));
+            Cookie cookie = new Cookie(CoherenceLectures.COOKIE, String.valueOf(date));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (coherence.getFenetreMs() + 999) / 1000));
+            response.addCookie(cookie);
+        });
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            coherence.fermer();
+        }
+    }
+
+    private static Long marqueur(HttpServletRequest request) {
+        String valeur = request.getHeader(CoherenceLectures.ENTETE);
+        if (valeur == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (CoherenceLectures.COOKIE.equals(cookie.getName())) {
+                    valeur = cookie.getValue();
+                }
+            }
+        }
+        if (valeur == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(valeur.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.nova.colis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool du géocodage des adresses après enregistrement d'un colis. Le fournisseur est de toute façon
+ * appelé au plus une fois par seconde : quelques threads suffisent, pour que les adresses déjà en cache
+ * ne patientent pas derrière un appel. File bornée ; au-delà, le colis reste sans coordonnées.
+ */
+@Configuration
+public class GeocodageConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor geocodageExecutor(@Value("${geocodage.executor.threads:2}") int threads,
+                                                    @Value("${geocodage.executor.file:10000}") int file) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(file);
+        executor.setThreadNamePrefix("geocodage-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
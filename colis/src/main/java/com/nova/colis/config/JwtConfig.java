@@ -0,0 +1,107 @@
+package com.nova.colis.config;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Jetons JWT signés en HMAC-SHA256 avec une clé symétrique chargée une seule fois au démarrage :
+ * la vérification d'un jeton est un simple contrôle de signature, sans accès à la base ni BCrypt.
+ *
+ * La clé est lue depuis "securite.jwt.secret" (Base64, 32 octets au moins) ; le démarrage échoue sans elle.
+ * Sous les profils "dev" et "test" seulement, une clé aléatoire est alors générée : les jetons ne survivent
+ * pas à un redémarrage et ne sont pas reconnus par les autres réplicas.
+ */
+@Configuration
+public class JwtConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtConfig.class);
+
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TYPE_ACCES = "acces";
+    public static final String TYPE_RAFRAICHISSEMENT = "rafraichissement";
+
+    private static final int TAILLE_CLE_MIN = 32;
+
+    @Bean
+    public SecretKey cleJwt(@Value("${securite.jwt.secret:}") String secret, Environment environment) {
+        byte[] octets;
+        if (secret == null || secret.isBlank()) {
+            if (!environment.acceptsProfiles(Profiles.of("dev", "test"))) {
+                throw new IllegalStateException("securite.jwt.secret est obligatoire (variable JWT_SECRET).");
+            }
+            logger.warn("securite.jwt.secret absent : clé de signature des jetons générée aléatoirement.");
+            octets = new byte[TAILLE_CLE_MIN];
+            new SecureRandom().nextBytes(octets);
+        } else {
+            octets = Base64.getDecoder().decode(secret.trim());
+            if (octets.length < TAILLE_CLE_MIN) {
+                throw new IllegalStateException("securite.jwt.secret doit faire au moins " + TAILLE_CLE_MIN + " octets.");
+            }
+        }
+        return new SecretKeySpec(octets, "HmacSHA256");
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey cleJwt) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(cleJwt));
+    }
+
+    /**
+     * Décodeur des requêtes authentifiées : seuls les jetons d'accès sont acceptés.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey cleJwt) {
+        return decodeur(cleJwt, TYPE_ACCES);
+    }
+
+    /**
+     * Pool dédié à la vérification des mots de passe (BCrypt, volontairement coûteux) : une rafale
+     * de connexions n'occupe pas les threads HTTP, et la file bornée refuse l'excédent (503).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor authentificationExecutor(
+            @Value("${securite.login.executor.threads:4}") int threads,
+            @Value("${securite.login.executor.file:100}") int file) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(file);
+        executor.setThreadNamePrefix("authentification-");
+        return executor;
+    }
+
+    /**
+     * @return un décodeur qui vérifie la signature, les dates de validité et le type du jeton
+     */
+    public static JwtDecoder decodeur(SecretKey cle, String type) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(cle).macAlgorithm(MacAlgorithm.HS256).build();
+        OAuth2TokenValidator<Jwt> typeAttendu = jwt -> type.equals(jwt.getClaimAsString(CLAIM_TYPE))
+                ? OAuth2TokenValidatorResult.success()
+                : OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Type de jeton invalide", null));
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), typeAttendu));
+        return decoder;
+    }
+}
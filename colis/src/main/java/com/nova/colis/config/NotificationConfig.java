@@ -0,0 +1,31 @@
+package com.nova.colis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool des notifications push déclenchées hors requête (arrivées détectées par les clôtures) :
+ * l'appel à FCM ne bloque pas le traitement des positions. File bornée ; au-delà, la notification
+ * la plus ancienne est abandonnée.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor(@Value("${notification.executor.threads:4}") int threads,
+                                                       @Value("${notification.executor.file:1000}") int file) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(file);
+        executor.setThreadNamePrefix("notification-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.nova.colis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool dédié aux appels à la passerelle de paiement : une passerelle lente n'occupe pas
+ * les threads HTTP, et la file bornée refuse les demandes au-delà de sa capacité (503).
+ */
+@Configuration
+public class PaiementConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor paiementExecutor(@Value("${paiement.executor.threads:8}") int threads,
+                                                   @Value("${paiement.executor.file:200}") int file) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(file);
+        executor.setThreadNamePrefix("paiement-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(15);
+        return executor;
+    }
+}
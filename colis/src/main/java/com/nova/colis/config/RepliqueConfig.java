@@ -0,0 +1,79 @@
+package com.nova.colis.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Réplique en lecture de la base MySQL, activée par {@code replique.url}.
+ *
+ * Deux pools : la primaire (propriétés {@code spring.datasource.*}) et la réplique ({@code replique.*},
+ * mêmes identifiants par défaut). La source exposée aiguille chaque transaction (voir
+ * {@link DataSourceRoutage}). Sans {@code replique.url}, la source unique de Spring Boot est conservée.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replique.url")
+public class RepliqueConfig {
+
+    // Pools non injectables : seule la source aiguillée sert aux dépôts, à Liquibase et au JdbcTemplate
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource sourcePrimaire(DataSourceProperties proprietes) {
+        HikariDataSource source = proprietes.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        source.setPoolName("primaire");
+        return source;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("replique.hikari")
+    public HikariDataSource sourceReplique(DataSourceProperties proprietes,
+                                           @Value("${replique.url}") String url,
+                                           @Value("${replique.username:${spring.datasource.username:}}") String utilisateur,
+                                           @Value("${replique.password:${spring.datasource.password:}}") String motDePasse) {
+        HikariDataSource source = new HikariDataSource();
+        source.setJdbcUrl(url);
+        source.setUsername(utilisateur);
+        source.setPassword(motDePasse);
+        source.setDriverClassName(proprietes.determineDriverClassName());
+        source.setReadOnly(true);
+        source.setPoolName("replique");
+        return source;
+    }
+
+    @Bean
+    public CoherenceLectures coherenceLectures(@Value("${replique.fenetre-ms:2000}") long fenetreMs) {
+        return new CoherenceLectures(fenetreMs, Clock.systemDefaultZone());
+    }
+
+    // Avant la sécurité : le marqueur vaut aussi pour les requêtes anonymes
+    @Bean
+    public FilterRegistrationBean<FiltreCoherenceLectures> filtreCoherenceLectures(CoherenceLectures coherenceLectures) {
+        FilterRegistrationBean<FiltreCoherenceLectures> inscription =
+                new FilterRegistrationBean<>(new FiltreCoherenceLectures(coherenceLectures));
+        inscription.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return inscription;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties proprietes, CoherenceLectures coherenceLectures,
+                                 @Value("${replique.url}") String url,
+                                 @Value("${replique.username:${spring.datasource.username:}}") String utilisateur,
+                                 @Value("${replique.password:${spring.datasource.password:}}") String motDePasse,
+                                 @Value("${replique.paquet-lectures:com.nova.colis.service.}") String paquetLectures) {
+        DataSourceRoutage routage = new DataSourceRoutage(sourcePrimaire(proprietes),
+                sourceReplique(proprietes, url, utilisateur, motDePasse), paquetLectures, coherenceLectures);
+        return new LazyConnectionDataSourceProxy(routage);
+    }
+}
@@ -1,5 +1,7 @@
 package com.nova.colis.config;
 
+import com.nova.colis.service.JetonService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod; // Import nécessaire pour HttpMethod
@@ -7,6 +9,12 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -14,9 +22,33 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * BCrypt au coût {@code securite.bcrypt.cout} : chaque +1 double le temps d'une connexion.
+     * Les mots de passe hachés avec un autre coût sont re-hachés à la connexion suivante.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${securite.bcrypt.cout:10}") int cout){
+        return new BCryptPasswordEncoder(cout);
+    }
+
+    /**
+     * Le claim "role" (ROLE_CLIENT, ROLE_LIVREUR...) devient l'autorité de l'utilisateur authentifié.
+     */
+    static JwtAuthenticationConverter conversionRoles() {
+        JwtGrantedAuthoritiesConverter roles = new JwtGrantedAuthoritiesConverter();
+        roles.setAuthoritiesClaimName(JetonService.CLAIM_ROLE);
+        roles.setAuthorityPrefix("");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(roles);
+        return converter;
+    }
+
+    /**
+     * Données propres à un livreur : lui seul (sujet du jeton = id du chemin) ou un administrateur.
+     */
+    static AuthorizationManager<RequestAuthorizationContext> livreurConcerneOuAdmin() {
+        return new WebExpressionAuthorizationManager(
+                "hasAuthority('ROLE_ADMIN') or (hasAuthority('ROLE_LIVREUR') and #id == authentication.name)");
     }
 
     @Bean
@@ -33,22 +65,43 @@ public class SecurityConfig {
                         .requestMatchers("/api/livreurs/register").permitAll()
                         .requestMatchers("/api/livreurs/login").permitAll()
 
+                        // Renouvellement des jetons (le jeton de rafraîchissement est vérifié par le contrôleur)
+                        .requestMatchers(HttpMethod.POST, "/api/auth/refresh").permitAll()
+
                         // Autoriser la création de colis sans authentification
                         .requestMatchers(HttpMethod.POST, "/api/colis").permitAll()
 
+                        // Compteur de non-lus et accusés de lecture : propres à l'utilisateur authentifié
+                        .requestMatchers("/api/colis/*/chat/non-lus", "/api/colis/*/chat/lu").authenticated()
+
                         // Autoriser l'accès aux endpoints du chat (ouvert à tous)
                         .requestMatchers("/api/colis/*/chat/**").permitAll()
 
+                        // Poignée de main WebSocket : le jeton est vérifié au CONNECT STOMP
+                        .requestMatchers("/ws/**").permitAll()
+
                         // Autoriser l'accès aux endpoints des notifications
                         .requestMatchers("/api/notifications/**").permitAll()
 
+                        // Simulateur de prix (devis et grille tarifaire)
+                        .requestMatchers(HttpMethod.GET, "/api/tarifs/**").permitAll()
+
                         // Les autres endpoints colis restent accessibles publiquement
                         .requestMatchers("/api/colis/**").permitAll()
 
+                        // Indicateurs financiers de la plateforme : réservés aux administrateurs
+                        .requestMatchers("/api/plateforme/**").hasAuthority("ROLE_ADMIN")
+
+                        // Gains d'un livreur : lui-même ou un administrateur
+                        .requestMatchers(HttpMethod.GET, "/api/livreurs/{id}/gains").access(livreurConcerneOuAdmin())
+
                         // Toute autre requête nécessite une authentification
                         .anyRequest().authenticated()
                 )
-                .httpBasic(Customizer.withDefaults());
+                // Authentification sans état par jeton JWT (Authorization: Bearer ...) : une vérification
+                // de signature HMAC par requête, sans session, sans lecture en base ni BCrypt
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(conversionRoles())));
 
         return http.build();
     }
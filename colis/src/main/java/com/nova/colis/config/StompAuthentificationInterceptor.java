@@ -0,0 +1,58 @@
+package com.nova.colis.config;
+
+import com.nova.colis.service.AutorisationsChat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentification et autorisation des sessions STOMP, une seule fois par session :
+ * - CONNECT : le jeton d'accès de l'en-tête natif "Authorization: Bearer ..." est vérifié et devient
+ *   l'utilisateur de la session ;
+ * - SUBSCRIBE à /topic/chat/{colisId} : l'utilisateur doit être le client ou le livreur du colis ;
+ *   le résultat est conservé dans les attributs de la session pour les messages suivants.
+ */
+@Component
+public class StompAuthentificationInterceptor implements ChannelInterceptor {
+
+    private static final String PREFIXE_BEARER = "Bearer ";
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private AutorisationsChat autorisationsChat;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String entete = accessor.getFirstNativeHeader("Authorization");
+            if (entete != null && entete.startsWith(PREFIXE_BEARER)) {
+                try {
+                    accessor.setUser(SecurityConfig.conversionRoles()
+                            .convert(jwtDecoder.decode(entete.substring(PREFIXE_BEARER.length()))));
+                } catch (JwtException e) {
+                    throw new MessageDeliveryException("Jeton d'accès invalide");
+                }
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            Long colisId = AutorisationsChat.colisDuTopic(accessor.getDestination());
+            if (colisId != null) {
+                autorisationsChat.autoriser(accessor.getUser(), colisId, accessor.getSessionAttributes());
+            }
+        }
+        return message;
+    }
+}
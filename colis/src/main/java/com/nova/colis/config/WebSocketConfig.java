@@ -1,6 +1,8 @@
 package com.nova.colis.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -11,12 +13,23 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private StompAuthentificationInterceptor stompAuthentificationInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Active un broker simple sur le préfixe /topic pour diffuser des notifications
-        config.enableSimpleBroker("/topic");
+        // Active un broker simple sur le préfixe /topic pour diffuser des notifications,
+        // et /queue pour les réponses adressées à un seul utilisateur (/user/queue/...)
+        config.enableSimpleBroker("/topic", "/queue");
         // Les messages envoyés par le client devront être préfixés par /app
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authentification au CONNECT, autorisation au SUBSCRIBE
+        registration.interceptors(stompAuthentificationInterceptor);
     }
 
     @Override
@@ -0,0 +1,29 @@
+package com.nova.colis.controller;
+
+import com.nova.colis.dto.JetonsDTO;
+import com.nova.colis.service.JetonService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Renouvellement des jetons JWT. La connexion elle-même se fait sur /api/clients/login et /api/livreurs/login.
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class AuthentificationController {
+
+    @Autowired
+    private JetonService jetonService;
+
+    /**
+     * Échange un jeton de rafraîchissement contre une nouvelle paire de jetons (401 s'il est invalide ou expiré).
+     * Endpoint : POST /api/auth/refresh avec {"refreshToken": "..."}
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JetonsDTO> rafraichir(@RequestBody Map<String, String> body) {
+        return ResponseEntity.ok(jetonService.rafraichir(body.get("refreshToken")));
+    }
+}
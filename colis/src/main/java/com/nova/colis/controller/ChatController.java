@@ -2,11 +2,15 @@ package com.nova.colis.controller;
 
 import com.nova.colis.dto.ChatMessageRequestDTO;
 import com.nova.colis.dto.ChatMessageResponseDTO;
+import com.nova.colis.dto.EvenementChatDTO;
+import com.nova.colis.dto.NonLusChatDTO;
+import com.nova.colis.service.AutorisationsChat;
 import com.nova.colis.service.ChatService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -16,6 +20,9 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private AutorisationsChat autorisationsChat;
+
     /**
      * Endpoint pour envoyer un message concernant un colis.
      */
@@ -38,4 +45,25 @@ public class ChatController {
         List<ChatMessageResponseDTO> conversation = chatService.getConversation(colisId);
         return ResponseEntity.ok(conversation);
     }
+
+    /**
+     * Nombre de messages non lus par l'utilisateur authentifié (client ou livreur du colis).
+     * Servi depuis la mémoire : à interroger à la place de la conversation complète.
+     */
+    @GetMapping("/non-lus")
+    public ResponseEntity<NonLusChatDTO> getNonLus(@PathVariable("colisId") Long colisId, Principal principal) {
+        autorisationsChat.autoriser(principal, colisId, null);
+        return ResponseEntity.ok(chatService.getNonLus(colisId, AutorisationsChat.role(principal)));
+    }
+
+    /**
+     * Accusé de lecture pour les applications sans WebSocket : {"messageId": ...}.
+     */
+    @PostMapping("/lu")
+    public ResponseEntity<NonLusChatDTO> marquerLu(@PathVariable("colisId") Long colisId,
+                                                   @RequestBody EvenementChatDTO evenement, Principal principal) {
+        autorisationsChat.autoriser(principal, colisId, null);
+        return ResponseEntity.ok(chatService.marquerLu(colisId, AutorisationsChat.idUtilisateur(principal),
+                AutorisationsChat.role(principal), evenement.getMessageId()));
+    }
 }
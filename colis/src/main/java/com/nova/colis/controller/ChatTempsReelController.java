@@ -0,0 +1,70 @@
+package com.nova.colis.controller;
+
+import com.nova.colis.dto.ChatMessageRequestDTO;
+import com.nova.colis.dto.EvenementChatDTO;
+import com.nova.colis.service.AutorisationsChat;
+import com.nova.colis.service.ChatService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * Chat temps réel : les messages envoyés sur /app/chat/{colisId} sont diffusés sur /topic/chat/{colisId},
+ * les indicateurs de saisie et accusés de lecture sur /topic/chat/{colisId}/evenements.
+ * L'expéditeur est l'utilisateur authentifié de la session STOMP.
+ */
+@Controller
+public class ChatTempsReelController {
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private AutorisationsChat autorisationsChat;
+
+    @MessageMapping("/chat/{colisId}")
+    public void envoyer(@DestinationVariable Long colisId, @Payload ChatMessageRequestDTO requestDTO,
+                        Principal principal, SimpMessageHeaderAccessor accessor) {
+        autorisationsChat.autoriserEnvoi(principal, colisId, accessor.getSessionAttributes());
+        chatService.publier(colisId, AutorisationsChat.idUtilisateur(principal), AutorisationsChat.role(principal),
+                requestDTO);
+    }
+
+    /**
+     * Indicateur "en train d'écrire" : diffusé aux participants, jamais enregistré.
+     */
+    @MessageMapping("/chat/{colisId}/saisie")
+    public void saisie(@DestinationVariable Long colisId, @Payload EvenementChatDTO evenement,
+                       Principal principal, SimpMessageHeaderAccessor accessor) {
+        autorisationsChat.autoriserEnvoi(principal, colisId, accessor.getSessionAttributes());
+        chatService.signalerSaisie(colisId, AutorisationsChat.idUtilisateur(principal), AutorisationsChat.role(principal),
+                Boolean.TRUE.equals(evenement.getEnCours()));
+    }
+
+    /**
+     * Accusé de lecture : {"messageId": ...}, dernier message lu par l'expéditeur.
+     */
+    @MessageMapping("/chat/{colisId}/lu")
+    public void lu(@DestinationVariable Long colisId, @Payload EvenementChatDTO evenement,
+                   Principal principal, SimpMessageHeaderAccessor accessor) {
+        autorisationsChat.autoriser(principal, colisId, accessor.getSessionAttributes());
+        chatService.marquerLu(colisId, AutorisationsChat.idUtilisateur(principal), AutorisationsChat.role(principal),
+                evenement.getMessageId());
+    }
+
+    /**
+     * Les refus (non autorisé, chat fermé, file pleine...) sont renvoyés au seul expéditeur.
+     */
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/erreurs", broadcast = false)
+    public String erreur(RuntimeException e) {
+        return e.getMessage();
+    }
+}
@@ -2,15 +2,20 @@ package com.nova.colis.controller;
 
 import com.nova.colis.dto.ClientDTO;
 import com.nova.colis.dto.ClientRequestDTO;
+import com.nova.colis.dto.ClientStatistiquesDTO;
+import com.nova.colis.dto.PageColisDTO;
+import com.nova.colis.service.AuthentificationService;
 import com.nova.colis.service.ClientService;
+import com.nova.colis.service.ClientStatistiquesService;
+import com.nova.colis.service.ColisService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller pour gérer les opérations liées aux Clients.
@@ -22,6 +27,15 @@ public class ClientController {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private ClientStatistiquesService clientStatistiquesService;
+
+    @Autowired
+    private AuthentificationService authentificationService;
+
     /**
      * Inscription d'un nouveau client.
      * Endpoint : POST /api/clients/register
@@ -40,24 +54,20 @@ public class ClientController {
      * Endpoint : POST /api/clients/login
      *
      * @param credentials L'email et le mot de passe du client.
-     * @return L'utilisateur + un token si la connexion est réussie, ou un code 401 si échec.
+     * @return L'utilisateur + les jetons JWT (accès dans "token", "refreshToken", "expiresIn")
+     * si la connexion est réussie, un code 401 si échec, 429 après trop de tentatives.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> loginClient(@RequestBody ClientRequestDTO credentials) {
-        // Appel de la méthode login dans ClientService
-        ClientDTO clientDTO = clientService.login(credentials.getEmail(), credentials.getPassword());
-
-        if (clientDTO == null) {
-            // Identifiants invalides
-            return ResponseEntity.status(401).body("Identifiants incorrects");
-        }
-
-        // Construire la réponse avec user + un token fictif (ou JWT si implémenté)
-        Map<String, Object> response = new HashMap<>();
-        response.put("user", clientDTO);
-        response.put("token", "fake-jwt-token");
-
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<?>> loginClient(@RequestBody ClientRequestDTO credentials,
+                                                            HttpServletRequest request) {
+        // Vérification du mot de passe hors du thread de la requête, puis émission des jetons JWT.
+        // getRemoteAddr() : adresse du client réel, reprise de X-Forwarded-For par le proxy de confiance
+        // (server.tomcat.remoteip.internal-proxies), jamais d'un en-tête envoyé directement par le client
+        return authentificationService.connecterClient(credentials.getEmail(), credentials.getPassword(),
+                        request.getRemoteAddr())
+                .thenApply(response -> response == null
+                        ? ResponseEntity.status(401).body("Identifiants incorrects")
+                        : ResponseEntity.ok(response));
     }
 
     /**
@@ -100,6 +110,36 @@ public class ClientController {
         return ResponseEntity.ok(updatedClient);
     }
 
+    /**
+     * Historique des colis d'un client, paginé par curseur.
+     * Endpoint : GET /api/clients/{id}/colis?avant={curseur}&taille=20
+     *
+     * @param id     L'ID du client.
+     * @param avant  Le curseur renvoyé par la page précédente (absent pour la première page).
+     * @param taille Le nombre de colis par page (100 au maximum).
+     * @return La page de colis et le curseur de la page suivante.
+     */
+    @GetMapping("/{id}/colis")
+    public ResponseEntity<PageColisDTO> getColisDuClient(@PathVariable Long id,
+                                                         @RequestParam(value = "avant", required = false) Long avant,
+                                                         @RequestParam(value = "taille", defaultValue = "20") int taille) {
+        PageColisDTO page = colisService.getColisDuClient(id, avant, taille);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Agrégats des colis d'un client (nombre par statut, total dépensé, dernière livraison).
+     * Endpoint : GET /api/clients/{id}/statistiques
+     *
+     * @param id L'ID du client.
+     * @return Les agrégats, lus sur une seule ligne pré-calculée.
+     */
+    @GetMapping("/{id}/statistiques")
+    public ResponseEntity<ClientStatistiquesDTO> getStatistiques(@PathVariable Long id) {
+        ClientStatistiquesDTO statistiques = clientStatistiquesService.getStatistiques(id);
+        return ResponseEntity.ok(statistiques);
+    }
+
     /**
      * Suppression d'un client.
      * Endpoint : DELETE /api/clients/{id}
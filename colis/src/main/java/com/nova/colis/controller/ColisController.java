@@ -2,12 +2,16 @@ package com.nova.colis.controller;
 
 import com.nova.colis.dto.ColisDTO;
 import com.nova.colis.dto.ColisRequestDTO;
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.dto.ResultatRechercheDTO;
 import com.nova.colis.service.ColisService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/colis")
@@ -30,13 +34,22 @@ public class ColisController {
         return ResponseEntity.ok(colisDTO);
     }
 
-    // Récupérer tous les colis
+    // Récupérer tous les colis (vue allégée ; le détail complet est servi par GET /{id})
     @GetMapping
-    public ResponseEntity<List<ColisDTO>> getAllColis() {
-        List<ColisDTO> colisList = colisService.getAllColis();
+    public ResponseEntity<List<ColisSummaryDTO>> getAllColis() {
+        List<ColisSummaryDTO> colisList = colisService.getAllColisSummaries();
         return ResponseEntity.ok(colisList);
     }
 
+    // Rechercher des colis par référence, nom, téléphone ou fragment d'adresse
+    @GetMapping("/recherche")
+    public ResponseEntity<ResultatRechercheDTO> rechercherColis(@RequestParam("q") String q,
+                                                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                @RequestParam(value = "taille", defaultValue = "20") int taille) {
+        ResultatRechercheDTO resultat = colisService.rechercherColis(q, page, taille);
+        return ResponseEntity.ok(resultat);
+    }
+
     // Mettre à jour un colis
     @PutMapping("/{id}")
     public ResponseEntity<ColisDTO> updateColis(@PathVariable Long id, @Valid @RequestBody ColisRequestDTO dto) {
@@ -44,6 +57,13 @@ public class ColisController {
         return ResponseEntity.ok(updated);
     }
 
+    // Mettre à jour partiellement un colis (JSON Merge Patch, RFC 7396)
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ColisDTO> patchColis(@PathVariable Long id, @RequestBody Map<String, Object> patch) {
+        ColisDTO updated = colisService.patchColis(id, patch);
+        return ResponseEntity.ok(updated);
+    }
+
     // Supprimer un colis
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteColis(@PathVariable Long id) {
@@ -1,16 +1,27 @@
 package com.nova.colis.controller;
 
+import com.nova.colis.dto.ColisSummaryDTO;
 import com.nova.colis.dto.LivreurDTO;
 import com.nova.colis.dto.LivreurRequestDTO;
+import com.nova.colis.dto.ReleveGainsDTO;
+import com.nova.colis.dto.TourneeDTO;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.service.AuthentificationService;
+import com.nova.colis.service.ColisService;
+import com.nova.colis.service.GrandLivreService;
+import com.nova.colis.service.LivreurColisIndex;
 import com.nova.colis.service.LivreurService;
+import com.nova.colis.service.TourneeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur REST pour la gestion des livreurs.
@@ -23,6 +34,18 @@ public class LivreurController {
     @Autowired
     private LivreurService livreurService;
 
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private GrandLivreService grandLivreService;
+
+    @Autowired
+    private TourneeService tourneeService;
+
+    @Autowired
+    private AuthentificationService authentificationService;
+
     // 1. Inscription d'un nouveau livreur
     @PostMapping("/register")
     public ResponseEntity<LivreurDTO> register(@Valid @RequestBody LivreurRequestDTO request) {
@@ -32,16 +55,15 @@ public class LivreurController {
 
     // 2. Connexion d'un livreur
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LivreurRequestDTO request) {
-        LivreurDTO dto = livreurService.login(request.getEmail(), request.getPassword());
-        if (dto == null) {
-            return ResponseEntity.status(401).body("Identifiants invalides pour le livreur.");
-        }
-        // Vous pouvez générer un token JWT réel si nécessaire
-        Map<String, Object> response = new HashMap<>();
-        response.put("livreur", dto);
-        response.put("token", "fake-livreur-jwt-token");
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LivreurRequestDTO request,
+                                                      HttpServletRequest httpRequest) {
+        // Réponse : livreur + jeton d'accès JWT ("token") et jeton de rafraîchissement ; 429 après trop de tentatives.
+        // L'adresse IP est celle du client réel derrière le proxy de confiance (server.tomcat.remoteip.*)
+        return authentificationService.connecterLivreur(request.getEmail(), request.getPassword(),
+                        httpRequest.getRemoteAddr())
+                .thenApply(response -> response == null
+                        ? ResponseEntity.status(401).body("Identifiants invalides pour le livreur.")
+                        : ResponseEntity.ok(response));
     }
 
     // 3. Récupération d'un livreur par ID
@@ -79,7 +101,38 @@ public class LivreurController {
         return ResponseEntity.ok(updated);
     }
 
-    // 7. Suppression d'un livreur
+    // 7. Colis du livreur (par défaut : ceux qu'il doit récupérer ou transporte actuellement)
+    @GetMapping("/{id}/colis")
+    public ResponseEntity<List<ColisSummaryDTO>> getColis(
+            @PathVariable Long id,
+            @RequestParam(value = "statut", required = false) List<StatutColis> statuts
+    ) {
+        if (statuts == null || statuts.isEmpty()) {
+            statuts = List.copyOf(LivreurColisIndex.STATUTS_INDEXES);
+        }
+        List<ColisSummaryDTO> list = colisService.getColisSummariesByLivreur(id, statuts);
+        return ResponseEntity.ok(list);
+    }
+
+    // 8. Gains du livreur par jour (par défaut : depuis le début du mois), pour lui-même ou un administrateur
+    @GetMapping("/{id}/gains")
+    public ResponseEntity<ReleveGainsDTO> getGains(
+            @PathVariable Long id,
+            @RequestParam(value = "du", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @RequestParam(value = "au", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au
+    ) {
+        LocalDate fin = au != null ? au : LocalDate.now();
+        LocalDate debut = du != null ? du : fin.withDayOfMonth(1);
+        return ResponseEntity.ok(grandLivreService.getGainsLivreur(id, debut, fin));
+    }
+
+    // 9. Tournée en cours du livreur
+    @GetMapping("/{id}/tournee")
+    public ResponseEntity<TourneeDTO> getTournee(@PathVariable Long id) {
+        return ResponseEntity.ok(tourneeService.getTourneeEnCours(id));
+    }
+
+    // 10. Suppression d'un livreur
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         livreurService.deleteLivreur(id);
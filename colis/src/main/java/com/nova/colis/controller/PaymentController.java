@@ -1,53 +1,45 @@
 package com.nova.colis.controller;
 
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
-import org.springframework.http.HttpStatus;
+import com.nova.colis.dto.IntentionPaiementDTO;
+import com.nova.colis.service.PaiementService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/colis")
 public class PaymentController {
 
-    // Initialisation de Stripe avec votre clé secrète (à NE JAMAIS exposer côté client)
-    static {
-        Stripe.apiKey = "sk_test_51QsrY6Gs7nPPcdDWSg6BUqxGmuBeXxaoelspkWvyflasNS67lvJ1pyAwHYaDTPKbfnYy8SzgPgvZp7HjTvmbzX1900Iio0BNXI";
-    }
+    @Autowired
+    private PaiementService paiementService;
 
     /**
      * Endpoint pour créer un PaymentIntent.
-     * Le frontend envoie le montant (en centimes) et la devise.
-     * Le PaymentIntent est créé et le clientSecret est renvoyé.
+     * Le frontend envoie l'identifiant du colis ("colisId") ; le montant est le prixTotal enregistré, en XAF.
+     * Le PaymentIntent est créé (ou retrouvé s'il existe déjà pour ce colis et ce montant)
+     * et le clientSecret est renvoyé. La réponse est produite hors du thread de la requête.
      */
     @PostMapping("/create-payment-intent")
-    public ResponseEntity<Map<String, Object>> createPaymentIntent(@RequestBody Map<String, Object> paymentData) {
-        try {
-            // Extraction du montant et de la devise depuis la requête
-            long amount = Long.parseLong(paymentData.get("amount").toString());
-            String currency = paymentData.get("currency").toString();
-
-            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                    .setAmount(amount)
-                    .setCurrency(currency)
-                    .build();
-
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
-
-            Map<String, Object> responseData = new HashMap<>();
-            responseData.put("clientSecret", paymentIntent.getClientSecret());
-
-            return ResponseEntity.ok(responseData);
-        } catch (StripeException e) {
-            e.printStackTrace();
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorData);
+    public CompletableFuture<ResponseEntity<IntentionPaiementDTO>> createPaymentIntent(@RequestBody Map<String, Object> paymentData) {
+        Object colisId = paymentData.get("colisId");
+        if (colisId == null) {
+            throw new IllegalArgumentException("Le champ 'colisId' est obligatoire.");
         }
+        return paiementService.creerIntention(Long.valueOf(colisId.toString()))
+                .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Webhook de la passerelle de paiement (payment_intent.succeeded, payment_intent.canceled...).
+     * Répond 200 une fois le nouveau statut de paiement enregistré, 400 si la signature est invalide.
+     */
+    @PostMapping("/paiements/webhook")
+    public CompletableFuture<ResponseEntity<Void>> webhook(@RequestBody String payload,
+                                                           @RequestHeader(value = "Stripe-Signature", required = false) String signature) {
+        return paiementService.traiterNotification(payload, signature)
+                .thenApply(v -> ResponseEntity.ok().build());
     }
 }
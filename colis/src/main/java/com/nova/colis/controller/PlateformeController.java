@@ -0,0 +1,33 @@
+package com.nova.colis.controller;
+
+import com.nova.colis.dto.ReleveGainsDTO;
+import com.nova.colis.service.GrandLivreService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Indicateurs financiers de la plateforme, lus dans les cumuls journaliers du grand livre.
+ * Réservés aux comptes ROLE_ADMIN (voir {@link com.nova.colis.config.SecurityConfig}).
+ */
+@RestController
+@RequestMapping("/api/plateforme")
+public class PlateformeController {
+
+    @Autowired
+    private GrandLivreService grandLivreService;
+
+    // Commissions et encaissements par jour (par défaut : depuis le début du mois)
+    @GetMapping("/commissions")
+    public ResponseEntity<ReleveGainsDTO> getCommissions(
+            @RequestParam(value = "du", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @RequestParam(value = "au", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au
+    ) {
+        LocalDate fin = au != null ? au : LocalDate.now();
+        LocalDate debut = du != null ? du : fin.withDayOfMonth(1);
+        return ResponseEntity.ok(grandLivreService.getCommissionsPlateforme(debut, fin));
+    }
+}
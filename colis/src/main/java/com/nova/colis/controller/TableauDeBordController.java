@@ -0,0 +1,26 @@
+package com.nova.colis.controller;
+
+import com.nova.colis.dto.TableauDeBordDTO;
+import com.nova.colis.service.TableauDeBordService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Tableau de bord opérationnel. Le même instantané est poussé sur /topic/dashboard.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class TableauDeBordController {
+
+    @Autowired
+    private TableauDeBordService tableauDeBordService;
+
+    // Instantané courant, lu en mémoire sans requête SQL
+    @GetMapping
+    public ResponseEntity<TableauDeBordDTO> getTableauDeBord() {
+        return ResponseEntity.ok(tableauDeBordService.getInstantane());
+    }
+}
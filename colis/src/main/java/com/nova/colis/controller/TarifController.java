@@ -0,0 +1,57 @@
+package com.nova.colis.controller;
+
+import com.nova.colis.dto.DevisTarifDTO;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.service.GrilleTarifaire;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulateur de prix : les tarifs sont calculés en mémoire, sans lecture ni écriture en base.
+ * Les réponses portent l'ETag fort de la grille, qui ne change qu'avec les tarifs.
+ */
+@RestController
+@RequestMapping("/api/tarifs")
+public class TarifController {
+
+    private static final CacheControl CACHE_GRILLE = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
+    @Autowired
+    private GrilleTarifaire grilleTarifaire;
+
+    // Devis pour un colis : /api/tarifs/quote?type=STANDARD&expedition=Urbain&poids=3.5&assurance=true
+    @GetMapping("/quote")
+    public ResponseEntity<DevisTarifDTO> devis(@RequestParam("type") TypeColis type,
+                                               @RequestParam("expedition") String expedition,
+                                               @RequestParam("poids") double poids,
+                                               @RequestParam(value = "assurance", defaultValue = "false") boolean assurance,
+                                               WebRequest request) {
+        if (request.checkNotModified(grilleTarifaire.getEtag())) {
+            return null;
+        }
+        DevisTarifDTO devis = grilleTarifaire.devis(type, expedition, poids, assurance);
+        return ResponseEntity.ok()
+                .cacheControl(CACHE_GRILLE)
+                .eTag(grilleTarifaire.getEtag())
+                .body(devis);
+    }
+
+    // Grille complète, sérialisée une seule fois au démarrage
+    @GetMapping("/grille")
+    public ResponseEntity<byte[]> grille(WebRequest request) {
+        if (request.checkNotModified(grilleTarifaire.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CACHE_GRILLE)
+                .eTag(grilleTarifaire.getEtag())
+                .body(grilleTarifaire.getGrilleJson());
+    }
+}
@@ -0,0 +1,40 @@
+package com.nova.colis.controller;
+
+import com.nova.colis.dto.TourneeDTO;
+import com.nova.colis.dto.TourneeRequestDTO;
+import com.nova.colis.service.TourneeService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Tournées multi-arrêts des livreurs.
+ */
+@RestController
+@RequestMapping("/api/tournees")
+public class TourneeController {
+
+    @Autowired
+    private TourneeService tourneeService;
+
+    // 1. Création d'une tournée : arrêts ordonnés (plus proche voisin + 2-opt), colis passés RECUPERE
+    @PostMapping
+    public ResponseEntity<TourneeDTO> creer(@Valid @RequestBody TourneeRequestDTO request) {
+        TourneeDTO tournee = tourneeService.creerTournee(request.getLivreurId(), request.getColisIds());
+        return new ResponseEntity<>(tournee, HttpStatus.CREATED);
+    }
+
+    // 2. Détail d'une tournée et de ses arrêts
+    @GetMapping("/{id}")
+    public ResponseEntity<TourneeDTO> getById(@PathVariable Long id) {
+        return ResponseEntity.ok(tourneeService.getTournee(id));
+    }
+
+    // 3. Validation d'un arrêt (enlèvement ou livraison du colis)
+    @PostMapping("/{id}/arrets/{arretId}/valider")
+    public ResponseEntity<TourneeDTO> validerArret(@PathVariable Long id, @PathVariable Long arretId) {
+        return ResponseEntity.ok(tourneeService.validerArret(id, arretId));
+    }
+}
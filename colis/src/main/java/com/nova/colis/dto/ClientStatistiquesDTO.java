@@ -0,0 +1,50 @@
+package com.nova.colis.dto;
+
+import com.nova.colis.model.StatutColis;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Résumé de l'activité d'un client : nombre de colis par statut,
+ * total dépensé (colis livrés) et date de la dernière livraison.
+ */
+public class ClientStatistiquesDTO {
+
+    private Long clientId;
+    private Map<StatutColis, Long> nombreParStatut;
+    private Long totalDepense;
+    private LocalDateTime derniereLivraison;
+
+    public ClientStatistiquesDTO() {
+    }
+
+    // Getters et Setters
+
+    public Long getClientId() {
+        return clientId;
+    }
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Map<StatutColis, Long> getNombreParStatut() {
+        return nombreParStatut;
+    }
+    public void setNombreParStatut(Map<StatutColis, Long> nombreParStatut) {
+        this.nombreParStatut = nombreParStatut;
+    }
+
+    public Long getTotalDepense() {
+        return totalDepense;
+    }
+    public void setTotalDepense(Long totalDepense) {
+        this.totalDepense = totalDepense;
+    }
+
+    public LocalDateTime getDerniereLivraison() {
+        return derniereLivraison;
+    }
+    public void setDerniereLivraison(LocalDateTime derniereLivraison) {
+        this.derniereLivraison = derniereLivraison;
+    }
+}
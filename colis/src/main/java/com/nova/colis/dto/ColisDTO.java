@@ -29,6 +29,10 @@ public class ColisDTO {
     private String emailDestinataire;
     private String adresseLivraison;
     private String villeDestination;
+    private Double latitudeEnlevement;
+    private Double longitudeEnlevement;
+    private Double latitudeDestination;
+    private Double longitudeDestination;
 
     private Long livreurId;
     private String nomLivreur;
@@ -40,9 +44,9 @@ public class ColisDTO {
     private LocalDateTime dateLivraisonEstimee;
     private LocalDateTime dateLivraisonEffective;
 
-    private Double prixTotal;
-    private Double fraisLivraison;
-    private Double commissionPlateforme;
+    private Long prixTotal;
+    private Long fraisLivraison;
+    private Long commissionPlateforme;
     private ModePaiement modePaiement;
     private StatutPaiement statutPaiement;
 
@@ -212,6 +216,38 @@ public class ColisDTO {
         this.villeDestination = villeDestination;
     }
 
+    public Double getLatitudeEnlevement() {
+        return latitudeEnlevement;
+    }
+
+    public void setLatitudeEnlevement(Double latitudeEnlevement) {
+        this.latitudeEnlevement = latitudeEnlevement;
+    }
+
+    public Double getLongitudeEnlevement() {
+        return longitudeEnlevement;
+    }
+
+    public void setLongitudeEnlevement(Double longitudeEnlevement) {
+        this.longitudeEnlevement = longitudeEnlevement;
+    }
+
+    public Double getLatitudeDestination() {
+        return latitudeDestination;
+    }
+
+    public void setLatitudeDestination(Double latitudeDestination) {
+        this.latitudeDestination = latitudeDestination;
+    }
+
+    public Double getLongitudeDestination() {
+        return longitudeDestination;
+    }
+
+    public void setLongitudeDestination(Double longitudeDestination) {
+        this.longitudeDestination = longitudeDestination;
+    }
+
     public Long getLivreurId() {
         return livreurId;
     }
@@ -276,27 +312,27 @@ public class ColisDTO {
         this.dateLivraisonEffective = dateLivraisonEffective;
     }
 
-    public Double getPrixTotal() {
+    public Long getPrixTotal() {
         return prixTotal;
     }
 
-    public void setPrixTotal(Double prixTotal) {
+    public void setPrixTotal(Long prixTotal) {
         this.prixTotal = prixTotal;
     }
 
-    public Double getFraisLivraison() {
+    public Long getFraisLivraison() {
         return fraisLivraison;
     }
 
-    public void setFraisLivraison(Double fraisLivraison) {
+    public void setFraisLivraison(Long fraisLivraison) {
         this.fraisLivraison = fraisLivraison;
     }
 
-    public Double getCommissionPlateforme() {
+    public Long getCommissionPlateforme() {
         return commissionPlateforme;
     }
 
-    public void setCommissionPlateforme(Double commissionPlateforme) {
+    public void setCommissionPlateforme(Long commissionPlateforme) {
         this.commissionPlateforme = commissionPlateforme;
     }
 
@@ -38,6 +38,8 @@ public class ColisRequestDTO {
      * via ce champ (bien que le nom reste "villeDestination")
      */
     private String villeDestination;
+    private Double latitudeDestination;
+    private Double longitudeDestination;
 
     // Livreur (optionnel)
     private Long livreurId;
@@ -204,6 +206,22 @@ public class ColisRequestDTO {
         this.villeDestination = villeDestination;
     }
 
+    public Double getLatitudeDestination() {
+        return latitudeDestination;
+    }
+
+    public void setLatitudeDestination(Double latitudeDestination) {
+        this.latitudeDestination = latitudeDestination;
+    }
+
+    public Double getLongitudeDestination() {
+        return longitudeDestination;
+    }
+
+    public void setLongitudeDestination(Double longitudeDestination) {
+        this.longitudeDestination = longitudeDestination;
+    }
+
     public Long getLivreurId() {
         return livreurId;
     }
@@ -0,0 +1,150 @@
+package com.nova.colis.dto;
+
+import com.nova.colis.model.StatutColis;
+import java.time.LocalDateTime;
+
+/**
+ * Vue allégée d'un Colis pour les listes.
+ * Construite directement par les requêtes JPQL ("SELECT new ..."), elle ne charge jamais
+ * les colonnes TEXT (description, paiementInfo, historiqueSuivi, preuveLivraison).
+ */
+public class ColisSummaryDTO {
+
+    private Long id;
+    private String referenceColis;
+    private StatutColis statutColis;
+    private Long clientId;
+
+    private Long livreurId;
+    private String nomLivreur;
+
+    private Long prixTotal;
+
+    private LocalDateTime dateCreation;
+    private LocalDateTime datePriseEnCharge;
+    private LocalDateTime dateLivraisonEstimee;
+    private LocalDateTime dateLivraisonEffective;
+
+    // Version du colis au moment de la lecture, pour ordonner les mises à jour de l'index des livreurs
+    private Long version;
+
+    public ColisSummaryDTO() {
+    }
+
+    public ColisSummaryDTO(Long id, String referenceColis, StatutColis statutColis, Long clientId,
+                           Long livreurId, String nomLivreur, Long prixTotal,
+                           LocalDateTime dateCreation, LocalDateTime datePriseEnCharge,
+                           LocalDateTime dateLivraisonEstimee, LocalDateTime dateLivraisonEffective,
+                           Long version) {
+        this.id = id;
+        this.referenceColis = referenceColis;
+        this.statutColis = statutColis;
+        this.clientId = clientId;
+        this.livreurId = livreurId;
+        this.nomLivreur = nomLivreur;
+        this.prixTotal = prixTotal;
+        this.dateCreation = dateCreation;
+        this.datePriseEnCharge = datePriseEnCharge;
+        this.dateLivraisonEstimee = dateLivraisonEstimee;
+        this.dateLivraisonEffective = dateLivraisonEffective;
+        this.version = version;
+    }
+
+    // --- GETTERS / SETTERS ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getReferenceColis() {
+        return referenceColis;
+    }
+
+    public void setReferenceColis(String referenceColis) {
+        this.referenceColis = referenceColis;
+    }
+
+    public StatutColis getStatutColis() {
+        return statutColis;
+    }
+
+    public void setStatutColis(StatutColis statutColis) {
+        this.statutColis = statutColis;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+
+    public void setLivreurId(Long livreurId) {
+        this.livreurId = livreurId;
+    }
+
+    public String getNomLivreur() {
+        return nomLivreur;
+    }
+
+    public void setNomLivreur(String nomLivreur) {
+        this.nomLivreur = nomLivreur;
+    }
+
+    public Long getPrixTotal() {
+        return prixTotal;
+    }
+
+    public void setPrixTotal(Long prixTotal) {
+        this.prixTotal = prixTotal;
+    }
+
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
+    public LocalDateTime getDatePriseEnCharge() {
+        return datePriseEnCharge;
+    }
+
+    public void setDatePriseEnCharge(LocalDateTime datePriseEnCharge) {
+        this.datePriseEnCharge = datePriseEnCharge;
+    }
+
+    public LocalDateTime getDateLivraisonEstimee() {
+        return dateLivraisonEstimee;
+    }
+
+    public void setDateLivraisonEstimee(LocalDateTime dateLivraisonEstimee) {
+        this.dateLivraisonEstimee = dateLivraisonEstimee;
+    }
+
+    public LocalDateTime getDateLivraisonEffective() {
+        return dateLivraisonEffective;
+    }
+
+    public void setDateLivraisonEffective(LocalDateTime dateLivraisonEffective) {
+        this.dateLivraisonEffective = dateLivraisonEffective;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
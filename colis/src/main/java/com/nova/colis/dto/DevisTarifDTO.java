@@ -0,0 +1,84 @@
+package com.nova.colis.dto;
+
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.model.TypeExpedition;
+
+/**
+ * Devis calculé par le simulateur de prix, sans création de colis.
+ */
+public class DevisTarifDTO {
+
+    private TypeColis typeColis;
+    private TypeExpedition expedition;
+    private Double poids;
+    private Boolean assurance;
+
+    private Long prixTotal;
+    private Long fraisLivraison;
+    private Long commissionPlateforme;
+
+    public DevisTarifDTO() {
+    }
+
+    public DevisTarifDTO(TypeColis typeColis, TypeExpedition expedition, Double poids, Boolean assurance,
+                         Long prixTotal, Long fraisLivraison, Long commissionPlateforme) {
+        this.typeColis = typeColis;
+        this.expedition = expedition;
+        this.poids = poids;
+        this.assurance = assurance;
+        this.prixTotal = prixTotal;
+        this.fraisLivraison = fraisLivraison;
+        this.commissionPlateforme = commissionPlateforme;
+    }
+
+    // Getters et Setters
+
+    public TypeColis getTypeColis() {
+        return typeColis;
+    }
+    public void setTypeColis(TypeColis typeColis) {
+        this.typeColis = typeColis;
+    }
+
+    public TypeExpedition getExpedition() {
+        return expedition;
+    }
+    public void setExpedition(TypeExpedition expedition) {
+        this.expedition = expedition;
+    }
+
+    public Double getPoids() {
+        return poids;
+    }
+    public void setPoids(Double poids) {
+        this.poids = poids;
+    }
+
+    public Boolean getAssurance() {
+        return assurance;
+    }
+    public void setAssurance(Boolean assurance) {
+        this.assurance = assurance;
+    }
+
+    public Long getPrixTotal() {
+        return prixTotal;
+    }
+    public void setPrixTotal(Long prixTotal) {
+        this.prixTotal = prixTotal;
+    }
+
+    public Long getFraisLivraison() {
+        return fraisLivraison;
+    }
+    public void setFraisLivraison(Long fraisLivraison) {
+        this.fraisLivraison = fraisLivraison;
+    }
+
+    public Long getCommissionPlateforme() {
+        return commissionPlateforme;
+    }
+    public void setCommissionPlateforme(Long commissionPlateforme) {
+        this.commissionPlateforme = commissionPlateforme;
+    }
+}
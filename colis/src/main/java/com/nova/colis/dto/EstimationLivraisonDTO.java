@@ -0,0 +1,93 @@
+package com.nova.colis.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estimation de l'heure d'arrivée d'un colis en cours de livraison, poussée sur /topic/suivi/{colisId}.
+ */
+public class EstimationLivraisonDTO {
+
+    private Long colisId;
+    private Long livreurId;
+    private Double latitude;
+    private Double longitude;
+    private long distanceRestanteMetres;
+    private double vitesseKmh;
+    // Nombre de livraisons passées dont la vitesse a servi à l'estimation (0 : vitesse par défaut)
+    private long echantillons;
+    private LocalDateTime dateLivraisonEstimee;
+
+    public EstimationLivraisonDTO() {
+    }
+
+    public EstimationLivraisonDTO(Long colisId, Long livreurId, Double latitude, Double longitude,
+                                  long distanceRestanteMetres, double vitesseKmh, long echantillons,
+                                  LocalDateTime dateLivraisonEstimee) {
+        this.colisId = colisId;
+        this.livreurId = livreurId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceRestanteMetres = distanceRestanteMetres;
+        this.vitesseKmh = vitesseKmh;
+        this.echantillons = echantillons;
+        this.dateLivraisonEstimee = dateLivraisonEstimee;
+    }
+
+    // Getters et Setters
+
+    public Long getColisId() {
+        return colisId;
+    }
+    public void setColisId(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+    public void setLivreurId(Long livreurId) {
+        this.livreurId = livreurId;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public long getDistanceRestanteMetres() {
+        return distanceRestanteMetres;
+    }
+    public void setDistanceRestanteMetres(long distanceRestanteMetres) {
+        this.distanceRestanteMetres = distanceRestanteMetres;
+    }
+
+    public double getVitesseKmh() {
+        return vitesseKmh;
+    }
+    public void setVitesseKmh(double vitesseKmh) {
+        this.vitesseKmh = vitesseKmh;
+    }
+
+    public long getEchantillons() {
+        return echantillons;
+    }
+    public void setEchantillons(long echantillons) {
+        this.echantillons = echantillons;
+    }
+
+    public LocalDateTime getDateLivraisonEstimee() {
+        return dateLivraisonEstimee;
+    }
+    public void setDateLivraisonEstimee(LocalDateTime dateLivraisonEstimee) {
+        this.dateLivraisonEstimee = dateLivraisonEstimee;
+    }
+}
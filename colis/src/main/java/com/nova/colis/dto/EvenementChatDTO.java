@@ -0,0 +1,83 @@
+package com.nova.colis.dto;
+
+/**
+ * Événement éphémère du chat (saisie en cours, accusé de lecture), diffusé sur /topic/chat/{colisId}/evenements.
+ * Jamais enregistré en base, à l'exception du dernier message lu de chaque participant.
+ */
+public class EvenementChatDTO {
+
+    public static final String SAISIE = "SAISIE";
+    public static final String LU = "LU";
+
+    // SAISIE ou LU (renseigné par le serveur)
+    private String type;
+    private Long colisId;
+    private Long participantId;
+    private String role;
+    // SAISIE : le participant est en train d'écrire
+    private Boolean enCours;
+    // LU : identifiant du dernier message lu
+    private Long messageId;
+
+    public EvenementChatDTO() {
+    }
+
+    public EvenementChatDTO(String type, Long colisId, Long participantId, String role, Boolean enCours, Long messageId) {
+        this.type = type;
+        this.colisId = colisId;
+        this.participantId = participantId;
+        this.role = role;
+        this.enCours = enCours;
+        this.messageId = messageId;
+    }
+
+    // Getters et Setters
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public void setColisId(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public Long getParticipantId() {
+        return participantId;
+    }
+
+    public void setParticipantId(Long participantId) {
+        this.participantId = participantId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Boolean getEnCours() {
+        return enCours;
+    }
+
+    public void setEnCours(Boolean enCours) {
+        this.enCours = enCours;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+}
@@ -0,0 +1,123 @@
+package com.nova.colis.dto;
+
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.model.TypeExpedition;
+
+import java.util.List;
+
+/**
+ * Grille tarifaire complète, que l'application mobile met en cache pour simuler les prix hors ligne.
+ * Chaque ligne donne le prix d'une tranche de poids (jusqu'à {@code poidsMax} kg inclus), en unités
+ * mineures de la devise (XAF : francs entiers).
+ */
+public class GrilleTarifaireDTO {
+
+    private String devise;
+    private Integer majorationAssurancePourcent;
+    private Integer partLivreurPourcent;
+    private Integer partPlateformePourcent;
+    private List<Ligne> lignes;
+
+    public GrilleTarifaireDTO() {
+    }
+
+    public GrilleTarifaireDTO(String devise, Integer majorationAssurancePourcent, Integer partLivreurPourcent,
+                              Integer partPlateformePourcent, List<Ligne> lignes) {
+        this.devise = devise;
+        this.majorationAssurancePourcent = majorationAssurancePourcent;
+        this.partLivreurPourcent = partLivreurPourcent;
+        this.partPlateformePourcent = partPlateformePourcent;
+        this.lignes = lignes;
+    }
+
+    // Getters et Setters
+
+    public String getDevise() {
+        return devise;
+    }
+    public void setDevise(String devise) {
+        this.devise = devise;
+    }
+
+    public Integer getMajorationAssurancePourcent() {
+        return majorationAssurancePourcent;
+    }
+    public void setMajorationAssurancePourcent(Integer majorationAssurancePourcent) {
+        this.majorationAssurancePourcent = majorationAssurancePourcent;
+    }
+
+    public Integer getPartLivreurPourcent() {
+        return partLivreurPourcent;
+    }
+    public void setPartLivreurPourcent(Integer partLivreurPourcent) {
+        this.partLivreurPourcent = partLivreurPourcent;
+    }
+
+    public Integer getPartPlateformePourcent() {
+        return partPlateformePourcent;
+    }
+    public void setPartPlateformePourcent(Integer partPlateformePourcent) {
+        this.partPlateformePourcent = partPlateformePourcent;
+    }
+
+    public List<Ligne> getLignes() {
+        return lignes;
+    }
+    public void setLignes(List<Ligne> lignes) {
+        this.lignes = lignes;
+    }
+
+    public static class Ligne {
+        private TypeColis typeColis;
+        private TypeExpedition expedition;
+        private Integer poidsMax;
+        private Long prix;
+        private Long prixAvecAssurance;
+
+        public Ligne() {
+        }
+
+        public Ligne(TypeColis typeColis, TypeExpedition expedition, Integer poidsMax, Long prix, Long prixAvecAssurance) {
+            this.typeColis = typeColis;
+            this.expedition = expedition;
+            this.poidsMax = poidsMax;
+            this.prix = prix;
+            this.prixAvecAssurance = prixAvecAssurance;
+        }
+
+        public TypeColis getTypeColis() {
+            return typeColis;
+        }
+        public void setTypeColis(TypeColis typeColis) {
+            this.typeColis = typeColis;
+        }
+
+        public TypeExpedition getExpedition() {
+            return expedition;
+        }
+        public void setExpedition(TypeExpedition expedition) {
+            this.expedition = expedition;
+        }
+
+        public Integer getPoidsMax() {
+            return poidsMax;
+        }
+        public void setPoidsMax(Integer poidsMax) {
+            this.poidsMax = poidsMax;
+        }
+
+        public Long getPrix() {
+            return prix;
+        }
+        public void setPrix(Long prix) {
+            this.prix = prix;
+        }
+
+        public Long getPrixAvecAssurance() {
+            return prixAvecAssurance;
+        }
+        public void setPrixAvecAssurance(Long prixAvecAssurance) {
+            this.prixAvecAssurance = prixAvecAssurance;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.nova.colis.dto;
+
+/**
+ * Intention de paiement ouverte pour un colis. Le frontend confirme le paiement avec {@code clientSecret} ;
+ * le statut du colis est ensuite mis à jour par le webhook de la passerelle.
+ */
+public class IntentionPaiementDTO {
+
+    private Long colisId;
+    private String paymentIntentId;
+    private String clientSecret;
+    private Long montant;   // en unités mineures de la devise
+    private String devise;
+
+    public IntentionPaiementDTO() {
+    }
+
+    public IntentionPaiementDTO(Long colisId, String paymentIntentId, String clientSecret, Long montant, String devise) {
+        this.colisId = colisId;
+        this.paymentIntentId = paymentIntentId;
+        this.clientSecret = clientSecret;
+        this.montant = montant;
+        this.devise = devise;
+    }
+
+    // Getters et Setters
+
+    public Long getColisId() {
+        return colisId;
+    }
+    public void setColisId(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+    public void setPaymentIntentId(String paymentIntentId) {
+        this.paymentIntentId = paymentIntentId;
+    }
+
+    public String getClientSecret() {
+        return clientSecret;
+    }
+    public void setClientSecret(String clientSecret) {
+        this.clientSecret = clientSecret;
+    }
+
+    public Long getMontant() {
+        return montant;
+    }
+    public void setMontant(Long montant) {
+        this.montant = montant;
+    }
+
+    public String getDevise() {
+        return devise;
+    }
+    public void setDevise(String devise) {
+        this.devise = devise;
+    }
+}
@@ -0,0 +1,57 @@
+package com.nova.colis.dto;
+
+/**
+ * Jetons délivrés à la connexion : un jeton d'accès de courte durée, à présenter dans l'en-tête
+ * "Authorization: Bearer ...", et un jeton de rafraîchissement pour en obtenir un nouveau.
+ */
+public class JetonsDTO {
+
+    private String accessToken;
+    private String refreshToken;
+    private String tokenType = "Bearer";
+    // Durée de validité du jeton d'accès, en secondes
+    private long expiresIn;
+
+    public JetonsDTO() {
+    }
+
+    public JetonsDTO(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    // Getters et Setters
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
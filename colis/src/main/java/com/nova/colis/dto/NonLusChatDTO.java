@@ -0,0 +1,47 @@
+package com.nova.colis.dto;
+
+/**
+ * Compteur de messages non lus du chat d'un colis, pour un participant.
+ */
+public class NonLusChatDTO {
+
+    private Long colisId;
+    // Messages de l'autre participant postérieurs au dernier message lu
+    private int nonLus;
+    private Long dernierMessageLu;
+
+    public NonLusChatDTO() {
+    }
+
+    public NonLusChatDTO(Long colisId, int nonLus, Long dernierMessageLu) {
+        this.colisId = colisId;
+        this.nonLus = nonLus;
+        this.dernierMessageLu = dernierMessageLu;
+    }
+
+    // Getters et Setters
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public void setColisId(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public int getNonLus() {
+        return nonLus;
+    }
+
+    public void setNonLus(int nonLus) {
+        this.nonLus = nonLus;
+    }
+
+    public Long getDernierMessageLu() {
+        return dernierMessageLu;
+    }
+
+    public void setDernierMessageLu(Long dernierMessageLu) {
+        this.dernierMessageLu = dernierMessageLu;
+    }
+}
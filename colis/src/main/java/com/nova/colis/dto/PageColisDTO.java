@@ -0,0 +1,38 @@
+package com.nova.colis.dto;
+
+import java.util.List;
+
+/**
+ * Page de colis obtenue par pagination par curseur (keyset) :
+ * pour la page suivante, repasser {@code curseurSuivant} dans le paramètre "avant".
+ * {@code curseurSuivant} vaut null sur la dernière page.
+ */
+public class PageColisDTO {
+
+    private List<ColisSummaryDTO> colis;
+    private Long curseurSuivant;
+
+    public PageColisDTO() {
+    }
+
+    public PageColisDTO(List<ColisSummaryDTO> colis, Long curseurSuivant) {
+        this.colis = colis;
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    // Getters et Setters
+
+    public List<ColisSummaryDTO> getColis() {
+        return colis;
+    }
+    public void setColis(List<ColisSummaryDTO> colis) {
+        this.colis = colis;
+    }
+
+    public Long getCurseurSuivant() {
+        return curseurSuivant;
+    }
+    public void setCurseurSuivant(Long curseurSuivant) {
+        this.curseurSuivant = curseurSuivant;
+    }
+}
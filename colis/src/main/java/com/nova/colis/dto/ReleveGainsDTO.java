@@ -0,0 +1,125 @@
+package com.nova.colis.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Relevé des gains sur une période, jour par jour, lu dans les cumuls journaliers.
+ * Pour un livreur, {@code montant} est la somme de ses fraisLivraison ; pour la plateforme,
+ * la somme des commissions ({@code encaisse} donne alors le total payé par les clients).
+ * Montants en XAF.
+ */
+public class ReleveGainsDTO {
+
+    private LocalDate du;
+    private LocalDate au;
+    private long nbColis;
+    private long montant;
+    private Long encaisse;
+    private List<Jour> jours;
+
+    public ReleveGainsDTO() {
+    }
+
+    public ReleveGainsDTO(LocalDate du, LocalDate au, List<Jour> jours) {
+        this.du = du;
+        this.au = au;
+        this.jours = jours;
+        for (Jour jour : jours) {
+            nbColis += jour.getNbColis();
+            montant += jour.getMontant();
+            if (jour.getEncaisse() != null) {
+                encaisse = (encaisse == null ? 0 : encaisse) + jour.getEncaisse();
+            }
+        }
+    }
+
+    // Getters et Setters
+
+    public LocalDate getDu() {
+        return du;
+    }
+    public void setDu(LocalDate du) {
+        this.du = du;
+    }
+
+    public LocalDate getAu() {
+        return au;
+    }
+    public void setAu(LocalDate au) {
+        this.au = au;
+    }
+
+    public long getNbColis() {
+        return nbColis;
+    }
+    public void setNbColis(long nbColis) {
+        this.nbColis = nbColis;
+    }
+
+    public long getMontant() {
+        return montant;
+    }
+    public void setMontant(long montant) {
+        this.montant = montant;
+    }
+
+    public Long getEncaisse() {
+        return encaisse;
+    }
+    public void setEncaisse(Long encaisse) {
+        this.encaisse = encaisse;
+    }
+
+    public List<Jour> getJours() {
+        return jours;
+    }
+    public void setJours(List<Jour> jours) {
+        this.jours = jours;
+    }
+
+    public static class Jour {
+        private LocalDate jour;
+        private long nbColis;
+        private long montant;
+        private Long encaisse;
+
+        public Jour() {
+        }
+
+        public Jour(LocalDate jour, long nbColis, long montant, Long encaisse) {
+            this.jour = jour;
+            this.nbColis = nbColis;
+            this.montant = montant;
+            this.encaisse = encaisse;
+        }
+
+        public LocalDate getJour() {
+            return jour;
+        }
+        public void setJour(LocalDate jour) {
+            this.jour = jour;
+        }
+
+        public long getNbColis() {
+            return nbColis;
+        }
+        public void setNbColis(long nbColis) {
+            this.nbColis = nbColis;
+        }
+
+        public long getMontant() {
+            return montant;
+        }
+        public void setMontant(long montant) {
+            this.montant = montant;
+        }
+
+        public Long getEncaisse() {
+            return encaisse;
+        }
+        public void setEncaisse(Long encaisse) {
+            this.encaisse = encaisse;
+        }
+    }
+}
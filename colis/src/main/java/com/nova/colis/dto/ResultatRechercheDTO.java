@@ -0,0 +1,54 @@
+package com.nova.colis.dto;
+
+import java.util.List;
+
+/**
+ * Page de résultats de la recherche de colis, triés par pertinence.
+ */
+public class ResultatRechercheDTO {
+
+    private List<ColisSummaryDTO> colis;
+    private long total;
+    private int page;
+    private int taille;
+
+    public ResultatRechercheDTO() {
+    }
+
+    public ResultatRechercheDTO(List<ColisSummaryDTO> colis, long total, int page, int taille) {
+        this.colis = colis;
+        this.total = total;
+        this.page = page;
+        this.taille = taille;
+    }
+
+    // Getters et Setters
+
+    public List<ColisSummaryDTO> getColis() {
+        return colis;
+    }
+    public void setColis(List<ColisSummaryDTO> colis) {
+        this.colis = colis;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+    public void setTaille(int taille) {
+        this.taille = taille;
+    }
+}
@@ -0,0 +1,130 @@
+package com.nova.colis.dto;
+
+import com.nova.colis.model.StatutColis;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Instantané du tableau de bord opérationnel, calculé en mémoire.
+ * Les durées de livraison (prise en charge -> livraison effective) portent sur la dernière heure.
+ */
+public class TableauDeBordDTO {
+
+    private LocalDateTime horodatage;
+    private Map<StatutColis, Long> colisParStatut;
+    private long livreursEnCourse;
+    private long livraisonsDerniereHeure;
+    private long messagesChatDerniereHeure;
+    private DureesLivraison dureesLivraison;
+
+    // Getters et Setters
+
+    public LocalDateTime getHorodatage() {
+        return horodatage;
+    }
+    public void setHorodatage(LocalDateTime horodatage) {
+        this.horodatage = horodatage;
+    }
+
+    public Map<StatutColis, Long> getColisParStatut() {
+        return colisParStatut;
+    }
+    public void setColisParStatut(Map<StatutColis, Long> colisParStatut) {
+        this.colisParStatut = colisParStatut;
+    }
+
+    public long getLivreursEnCourse() {
+        return livreursEnCourse;
+    }
+    public void setLivreursEnCourse(long livreursEnCourse) {
+        this.livreursEnCourse = livreursEnCourse;
+    }
+
+    public long getLivraisonsDerniereHeure() {
+        return livraisonsDerniereHeure;
+    }
+    public void setLivraisonsDerniereHeure(long livraisonsDerniereHeure) {
+        this.livraisonsDerniereHeure = livraisonsDerniereHeure;
+    }
+
+    public long getMessagesChatDerniereHeure() {
+        return messagesChatDerniereHeure;
+    }
+    public void setMessagesChatDerniereHeure(long messagesChatDerniereHeure) {
+        this.messagesChatDerniereHeure = messagesChatDerniereHeure;
+    }
+
+    public DureesLivraison getDureesLivraison() {
+        return dureesLivraison;
+    }
+    public void setDureesLivraison(DureesLivraison dureesLivraison) {
+        this.dureesLivraison = dureesLivraison;
+    }
+
+    /**
+     * Distribution des durées de livraison, en secondes.
+     */
+    public static class DureesLivraison {
+        private long nombre;
+        private double moyenne;
+        private long p50;
+        private long p90;
+        private long p99;
+        private long max;
+
+        public DureesLivraison() {
+        }
+
+        public DureesLivraison(long nombre, double moyenne, long p50, long p90, long p99, long max) {
+            this.nombre = nombre;
+            this.moyenne = moyenne;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getNombre() {
+            return nombre;
+        }
+        public void setNombre(long nombre) {
+            this.nombre = nombre;
+        }
+
+        public double getMoyenne() {
+            return moyenne;
+        }
+        public void setMoyenne(double moyenne) {
+            this.moyenne = moyenne;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+        public void setP50(long p50) {
+            this.p50 = p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+        public void setP90(long p90) {
+            this.p90 = p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+        public void setP99(long p99) {
+            this.p99 = p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+        public void setMax(long max) {
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.nova.colis.dto;
+
+import com.nova.colis.model.StatutArret;
+import com.nova.colis.model.StatutTournee;
+import com.nova.colis.model.TypeArret;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tournée d'un livreur et ses arrêts, dans l'ordre du parcours.
+ */
+public class TourneeDTO {
+
+    private Long id;
+    private Long livreurId;
+    private StatutTournee statut;
+    private long distanceEstimeeMetres;
+    private LocalDateTime dateCreation;
+    private LocalDateTime dateFin;
+    private List<Arret> arrets;
+
+    // Getters et Setters
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+    public void setLivreurId(Long livreurId) {
+        this.livreurId = livreurId;
+    }
+
+    public StatutTournee getStatut() {
+        return statut;
+    }
+    public void setStatut(StatutTournee statut) {
+        this.statut = statut;
+    }
+
+    public long getDistanceEstimeeMetres() {
+        return distanceEstimeeMetres;
+    }
+    public void setDistanceEstimeeMetres(long distanceEstimeeMetres) {
+        this.distanceEstimeeMetres = distanceEstimeeMetres;
+    }
+
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
+    public LocalDateTime getDateFin() {
+        return dateFin;
+    }
+    public void setDateFin(LocalDateTime dateFin) {
+        this.dateFin = dateFin;
+    }
+
+    public List<Arret> getArrets() {
+        return arrets;
+    }
+    public void setArrets(List<Arret> arrets) {
+        this.arrets = arrets;
+    }
+
+    /**
+     * Arrêt de la tournée.
+     */
+    public static class Arret {
+        private Long id;
+        private int ordre;
+        private Long colisId;
+        private TypeArret typeArret;
+        private StatutArret statut;
+        private double latitude;
+        private double longitude;
+        private LocalDateTime dateRealisation;
+
+        public Long getId() {
+            return id;
+        }
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public int getOrdre() {
+            return ordre;
+        }
+        public void setOrdre(int ordre) {
+            this.ordre = ordre;
+        }
+
+        public Long getColisId() {
+            return colisId;
+        }
+        public void setColisId(Long colisId) {
+            this.colisId = colisId;
+        }
+
+        public TypeArret getTypeArret() {
+            return typeArret;
+        }
+        public void setTypeArret(TypeArret typeArret) {
+            this.typeArret = typeArret;
+        }
+
+        public StatutArret getStatut() {
+            return statut;
+        }
+        public void setStatut(StatutArret statut) {
+            this.statut = statut;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+        public void setLatitude(double latitude) {
+            this.latitude = latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+        public void setLongitude(double longitude) {
+            this.longitude = longitude;
+        }
+
+        public LocalDateTime getDateRealisation() {
+            return dateRealisation;
+        }
+        public void setDateRealisation(LocalDateTime dateRealisation) {
+            this.dateRealisation = dateRealisation;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.nova.colis.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Création d'une tournée : le livreur et les colis EN_ATTENTE à enlever puis livrer.
+ */
+public class TourneeRequestDTO {
+
+    @NotNull
+    private Long livreurId;
+
+    @NotEmpty
+    private List<Long> colisIds;
+
+    // Getters et Setters
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+    public void setLivreurId(Long livreurId) {
+        this.livreurId = livreurId;
+    }
+
+    public List<Long> getColisIds() {
+        return colisIds;
+    }
+    public void setColisIds(List<Long> colisIds) {
+        this.colisIds = colisIds;
+    }
+}
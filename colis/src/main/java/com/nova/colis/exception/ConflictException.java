@@ -0,0 +1,13 @@
+package com.nova.colis.exception;
+
+/**
+ * Exception levée lorsqu'une modification entre en conflit avec l'état courant
+ * de la ressource (transition de statut interdite, mise à jour concurrente, etc.).
+ * Renvoyée au client avec le code HTTP 409.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
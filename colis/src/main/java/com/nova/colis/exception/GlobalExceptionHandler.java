@@ -1,11 +1,17 @@
 package com.nova.colis.exception;
 
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
 
 import java.util.Date;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Gestionnaire global des exceptions pour l'application.
@@ -26,6 +32,101 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Gestion des conflits : transition de statut invalide ou modification concurrente
+     * détectée par le verrouillage optimiste.
+     *
+     * @param ex      L'exception.
+     * @param request La requête web.
+     * @return La réponse d'erreur (409).
+     */
+    @ExceptionHandler({ConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<?> conflictException(RuntimeException ex, WebRequest request){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Gestion des paramètres invalides (devis hors grille, patch invalide...).
+     *
+     * @param ex      L'exception.
+     * @param request La requête web.
+     * @return La réponse d'erreur (400).
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> illegalArgumentException(IllegalArgumentException ex, WebRequest request){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Gestion des échecs d'authentification (jeton de rafraîchissement invalide ou expiré).
+     *
+     * @param ex      L'exception.
+     * @param request La requête web.
+     * @return La réponse d'erreur (401).
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<?> authenticationException(AuthenticationException ex, WebRequest request){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Gestion des accès refusés (utilisateur authentifié mais non participant, par exemple).
+     *
+     * @param ex      L'exception.
+     * @param request La requête web.
+     * @return La réponse d'erreur (403).
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<?> accessDeniedException(AccessDeniedException ex, WebRequest request){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
+    }
+
+    /**
+     * Gestion des dépassements de limite (tentatives de connexion), avec le délai d'attente en Retry-After.
+     *
+     * @param ex      L'exception.
+     * @param request La requête web.
+     * @return La réponse d'erreur (429).
+     */
+    @ExceptionHandler(TropDeRequetesException.class)
+    public ResponseEntity<?> tropDeRequetesException(TropDeRequetesException ex, WebRequest request){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getDelaiSecondes()))
+                .body(errorDetails);
+    }
+
+    /**
+     * Gestion des erreurs de la passerelle de paiement.
+     *
+     * @param ex      L'exception.
+     * @param request La requête web.
+     * @return La réponse d'erreur (502).
+     */
+    @ExceptionHandler(PaiementException.class)
+    public ResponseEntity<?> paiementException(PaiementException ex, WebRequest request){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_GATEWAY);
+    }
+
+    /**
+     * Gestion des surcharges : délai dépassé (504) ou file de traitement pleine (503).
+     *
+     * @param ex      L'exception.
+     * @param request La requête web.
+     * @return La réponse d'erreur.
+     */
+    @ExceptionHandler({TimeoutException.class, TaskRejectedException.class})
+    public ResponseEntity<?> surchargeException(Exception ex, WebRequest request){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        HttpStatus status = ex instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE;
+        return new ResponseEntity<>(errorDetails, status);
+    }
+
     /**
      * Gestion des autres exceptions.
      *
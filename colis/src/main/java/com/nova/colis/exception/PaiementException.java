@@ -0,0 +1,16 @@
+package com.nova.colis.exception;
+
+/**
+ * Exception levée lorsque la passerelle de paiement refuse ou n'a pas pu traiter une requête.
+ * Renvoyée au client avec le code HTTP 502.
+ */
+public class PaiementException extends RuntimeException {
+
+    public PaiementException(String message) {
+        super(message);
+    }
+
+    public PaiementException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,22 @@
+package com.nova.colis.exception;
+
+/**
+ * Exception levée lorsqu'un client dépasse la limite de tentatives autorisées (connexions...).
+ * Renvoyée avec le code HTTP 429 et un en-tête Retry-After.
+ */
+public class TropDeRequetesException extends RuntimeException {
+
+    private final long delaiSecondes;
+
+    public TropDeRequetesException(String message, long delaiSecondes) {
+        super(message);
+        this.delaiSecondes = delaiSecondes;
+    }
+
+    /**
+     * @return le délai, en secondes, avant qu'une nouvelle tentative soit acceptée
+     */
+    public long getDelaiSecondes() {
+        return delaiSecondes;
+    }
+}
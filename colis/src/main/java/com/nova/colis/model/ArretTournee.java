@@ -0,0 +1,112 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Arrêt d'une tournée : enlèvement ou livraison d'un colis, à la position {@code ordre} du parcours.
+ * Le statut de l'arrêt suit celui du colis (voir TourneeServiceImpl).
+ */
+@Entity
+@Table(name = "arrets_tournee")
+public class ArretTournee {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long tourneeId;
+
+    @Column(nullable = false)
+    private Long colisId;
+
+    private int ordre;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TypeArret typeArret;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutArret statut;
+
+    private double latitude;
+    private double longitude;
+
+    private LocalDateTime dateRealisation;
+
+    // Getters et Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTourneeId() {
+        return tourneeId;
+    }
+
+    public void setTourneeId(Long tourneeId) {
+        this.tourneeId = tourneeId;
+    }
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public void setColisId(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public int getOrdre() {
+        return ordre;
+    }
+
+    public void setOrdre(int ordre) {
+        this.ordre = ordre;
+    }
+
+    public TypeArret getTypeArret() {
+        return typeArret;
+    }
+
+    public void setTypeArret(TypeArret typeArret) {
+        this.typeArret = typeArret;
+    }
+
+    public StatutArret getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutArret statut) {
+        this.statut = statut;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public LocalDateTime getDateRealisation() {
+        return dateRealisation;
+    }
+
+    public void setDateRealisation(LocalDateTime dateRealisation) {
+        this.dateRealisation = dateRealisation;
+    }
+}
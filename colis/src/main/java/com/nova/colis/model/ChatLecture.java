@@ -0,0 +1,104 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Dernier message lu par un participant du chat d'un colis : une ligne par participant,
+ * et non une ligne par message lu.
+ */
+@Entity
+@Table(name = "chat_lectures")
+@IdClass(ChatLecture.Cle.class)
+public class ChatLecture {
+
+    @Id
+    private Long colisId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TypeCompte typeCompte;
+
+    @Id
+    private Long participantId;
+
+    // Identifiant du dernier message lu (les identifiants des messages sont croissants)
+    private long dernierMessageLu;
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public void setColisId(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public TypeCompte getTypeCompte() {
+        return typeCompte;
+    }
+
+    public void setTypeCompte(TypeCompte typeCompte) {
+        this.typeCompte = typeCompte;
+    }
+
+    public Long getParticipantId() {
+        return participantId;
+    }
+
+    public void setParticipantId(Long participantId) {
+        this.participantId = participantId;
+    }
+
+    public long getDernierMessageLu() {
+        return dernierMessageLu;
+    }
+
+    public void setDernierMessageLu(long dernierMessageLu) {
+        this.dernierMessageLu = dernierMessageLu;
+    }
+
+    /**
+     * Clé composite (colis, type de compte, participant).
+     */
+    public static class Cle implements Serializable {
+        private Long colisId;
+        private TypeCompte typeCompte;
+        private Long participantId;
+
+        public Cle() {
+        }
+
+        public Cle(Long colisId, TypeCompte typeCompte, Long participantId) {
+            this.colisId = colisId;
+            this.typeCompte = typeCompte;
+            this.participantId = participantId;
+        }
+
+        public Long getColisId() {
+            return colisId;
+        }
+
+        public TypeCompte getTypeCompte() {
+            return typeCompte;
+        }
+
+        public Long getParticipantId() {
+            return participantId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cle cle)) return false;
+            return Objects.equals(colisId, cle.colisId) && typeCompte == cle.typeCompte
+                    && Objects.equals(participantId, cle.participantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(colisId, typeCompte, participantId);
+        }
+    }
+}
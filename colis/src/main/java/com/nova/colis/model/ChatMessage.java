@@ -1,17 +1,29 @@
 package com.nova.colis.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+/**
+ * Message du chat d'un colis.
+ *
+ * L'identifiant est attribué par l'application (identifiant 63 bits croissant, voir
+ * ReferenceColisGenerator) avant l'écriture en base : le message peut être diffusé avec son
+ * identifiant définitif avant d'être enregistré, et les insertions peuvent être groupées.
+ */
 @Entity
 @Table(name = "chat_messages")
-public class ChatMessage {
+public class ChatMessage implements Persistable<Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Message pas encore enregistré : persist direct, sans SELECT préalable de merge
+    @Transient
+    private boolean nouveau = true;
+
     // Identifiant du colis associé (clé étrangère vers la table colis)
     @Column(name = "colis_id", nullable = false)
     private Long colisId;
@@ -50,11 +62,27 @@ public class ChatMessage {
         this.photo = photo;
     }
 
+    @PostLoad
+    @PostPersist
+    void marquerEnregistre() {
+        nouveau = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nouveau;
+    }
+
     // Getters et Setters
+    @Override
     public Long getId() {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Long getColisId() {
         return colisId;
     }
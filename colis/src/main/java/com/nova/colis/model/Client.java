@@ -1,12 +1,15 @@
 package com.nova.colis.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.SoftDelete;
 import java.util.Objects;
 
 /**
  * Entité représentant un Client dans le système.
+ * La suppression est logique ({@link SoftDelete}) ; ses colis puis la ligne sont purgés en différé.
  */
 @Entity
+@SoftDelete(columnName = "supprime")
 @Table(name = "clients")
 public class Client {
 
@@ -0,0 +1,92 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Agrégats des colis d'un client, maintenus de façon incrémentale
+ * (une ligne par client, mise à jour à chaque création / changement de statut / suppression de colis)
+ * pour ne jamais recalculer un GROUP BY sur la table colis.
+ */
+@Entity
+@Table(name = "client_statistiques")
+public class ClientStatistiques {
+
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+
+    // Nombre de colis par statut
+    private long nbEnAttente;
+    private long nbRecupere;
+    private long nbEnCoursDeLivraison;
+    private long nbLivre;
+    private long nbAnnule;
+
+    // Somme des prixTotal des colis livrés, en XAF
+    private long totalDepense;
+
+    private LocalDateTime derniereLivraison;
+
+    public ClientStatistiques() {
+    }
+
+    public ClientStatistiques(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public long getNombre(StatutColis statut) {
+        switch (statut) {
+            case EN_ATTENTE:
+                return nbEnAttente;
+            case RECUPERE:
+                return nbRecupere;
+            case EN_COURS_DE_LIVRAISON:
+                return nbEnCoursDeLivraison;
+            case LIVRE:
+                return nbLivre;
+            default:
+                return nbAnnule;
+        }
+    }
+
+    // --- Getters / Setters ---
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public long getTotalDepense() {
+        return totalDepense;
+    }
+
+    public void setTotalDepense(long totalDepense) {
+        this.totalDepense = totalDepense;
+    }
+
+    public LocalDateTime getDerniereLivraison() {
+        return derniereLivraison;
+    }
+
+    public void setDerniereLivraison(LocalDateTime derniereLivraison) {
+        this.derniereLivraison = derniereLivraison;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ClientStatistiques that = (ClientStatistiques) o;
+        return Objects.equals(clientId, that.clientId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientId);
+    }
+}
@@ -1,13 +1,20 @@
 package com.nova.colis.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SoftDelete;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 /**
  * Entité JPA représentant un Colis.
+ * La table est large : {@link DynamicUpdate} limite chaque UPDATE aux colonnes réellement modifiées.
+ * La suppression est logique ({@link SoftDelete}, colonne supprime) : la ligne, ses messages de chat
+ * et ses accusés de lecture sont effacés plus tard, par lots (voir PurgeSuppressions).
  */
 @Entity
+@DynamicUpdate
+@SoftDelete(columnName = "supprime")
 @Table(name = "colis")
 public class Colis {
 
@@ -15,6 +22,13 @@ public class Colis {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Version pour le verrouillage optimiste : deux mises à jour concurrentes
+     * du même colis ne peuvent pas s'écraser silencieusement.
+     */
+    @Version
+    private Long version;
+
     /**
      * Référence unique (ex: "COL-XXXXXX") pour le suivi du colis.
      */
@@ -39,6 +53,9 @@ public class Colis {
     private String emailExpediteur;
     private String adresseEnlevement;
     private String villeDepart;
+    // Coordonnées du point d'enlèvement, géocodées depuis adresseEnlevement
+    private Double latitudeEnlevement;
+    private Double longitudeEnlevement;
 
     // Informations Destinataire
     private String nomDestinataire;
@@ -49,6 +66,9 @@ public class Colis {
      * Ce champ contient le type d'expédition (ex: "Urbain", "Interurbain", "International")
      */
     private String villeDestination;
+    // Coordonnées du point de livraison (estimation de l'heure d'arrivée)
+    private Double latitudeDestination;
+    private Double longitudeDestination;
 
     // Informations Livreurs
     private Long livreurId;
@@ -65,10 +85,13 @@ public class Colis {
     private LocalDateTime dateLivraisonEstimee;
     private LocalDateTime dateLivraisonEffective;
 
-    // Tarification & Paiement
-    private Double prixTotal;
-    private Double fraisLivraison;
-    private Double commissionPlateforme;
+    // Tarification & Paiement : montants entiers en XAF (unités mineures, sans décimales)
+    @Column(nullable = false)
+    private long prixTotal;
+    @Column(nullable = false)
+    private long fraisLivraison;
+    @Column(nullable = false)
+    private long commissionPlateforme;
 
     @Enumerated(EnumType.STRING)
     private ModePaiement modePaiement;    // ESPECES, MOBILE_MONEY, CARTE_BANCAIRE, PAYPAL
@@ -83,6 +106,12 @@ public class Colis {
     @Column(name = "paiement_info", columnDefinition = "TEXT")
     private String paiementInfo;
 
+    // PaymentIntent de la passerelle de paiement associé au colis
+    private String paymentIntentId;
+
+    // Tournée à laquelle le colis appartient (null : colis livré seul)
+    private Long tourneeId;
+
     // Suivi du colis
     @Lob
     @Column(columnDefinition = "TEXT")
@@ -115,6 +144,14 @@ public class Colis {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getReferenceColis() {
         return referenceColis;
     }
@@ -259,6 +296,38 @@ public class Colis {
         this.villeDestination = villeDestination;
     }
 
+    public Double getLatitudeEnlevement() {
+        return latitudeEnlevement;
+    }
+
+    public void setLatitudeEnlevement(Double latitudeEnlevement) {
+        this.latitudeEnlevement = latitudeEnlevement;
+    }
+
+    public Double getLongitudeEnlevement() {
+        return longitudeEnlevement;
+    }
+
+    public void setLongitudeEnlevement(Double longitudeEnlevement) {
+        this.longitudeEnlevement = longitudeEnlevement;
+    }
+
+    public Double getLatitudeDestination() {
+        return latitudeDestination;
+    }
+
+    public void setLatitudeDestination(Double latitudeDestination) {
+        this.latitudeDestination = latitudeDestination;
+    }
+
+    public Double getLongitudeDestination() {
+        return longitudeDestination;
+    }
+
+    public void setLongitudeDestination(Double longitudeDestination) {
+        this.longitudeDestination = longitudeDestination;
+    }
+
     public Long getLivreurId() {
         return livreurId;
     }
@@ -325,27 +394,27 @@ public class Colis {
 
     // Méthodes de tarification
 
-    public Double getPrixTotal() {
+    public long getPrixTotal() {
         return prixTotal;
     }
 
-    public void setPrixTotal(Double prixTotal) {
+    public void setPrixTotal(long prixTotal) {
         this.prixTotal = prixTotal;
     }
 
-    public Double getFraisLivraison() {
+    public long getFraisLivraison() {
         return fraisLivraison;
     }
 
-    public void setFraisLivraison(Double fraisLivraison) {
+    public void setFraisLivraison(long fraisLivraison) {
         this.fraisLivraison = fraisLivraison;
     }
 
-    public Double getCommissionPlateforme() {
+    public long getCommissionPlateforme() {
         return commissionPlateforme;
     }
 
-    public void setCommissionPlateforme(Double commissionPlateforme) {
+    public void setCommissionPlateforme(long commissionPlateforme) {
         this.commissionPlateforme = commissionPlateforme;
     }
 
@@ -373,6 +442,22 @@ public class Colis {
         this.paiementInfo = paiementInfo;
     }
 
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public void setPaymentIntentId(String paymentIntentId) {
+        this.paymentIntentId = paymentIntentId;
+    }
+
+    public Long getTourneeId() {
+        return tourneeId;
+    }
+
+    public void setTourneeId(Long tourneeId) {
+        this.tourneeId = tourneeId;
+    }
+
     public String getHistoriqueSuivi() {
         return historiqueSuivi;
     }
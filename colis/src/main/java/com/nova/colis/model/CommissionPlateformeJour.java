@@ -0,0 +1,51 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Cumul journalier de la plateforme : montants encaissés et commissions des colis livrés et payés.
+ */
+@Entity
+@Table(name = "commissions_plateforme_jour")
+public class CommissionPlateformeJour {
+
+    @Id
+    private LocalDate jour;
+
+    private long nbColis;
+    private long totalEncaisse;
+    private long totalCommission;
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    public long getNbColis() {
+        return nbColis;
+    }
+
+    public void setNbColis(long nbColis) {
+        this.nbColis = nbColis;
+    }
+
+    public long getTotalEncaisse() {
+        return totalEncaisse;
+    }
+
+    public void setTotalEncaisse(long totalEncaisse) {
+        this.totalEncaisse = totalEncaisse;
+    }
+
+    public long getTotalCommission() {
+        return totalCommission;
+    }
+
+    public void setTotalCommission(long totalCommission) {
+        this.totalCommission = totalCommission;
+    }
+}
@@ -0,0 +1,109 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Écriture du grand livre : une seule par colis, créée quand le colis est à la fois LIVRE et PAYE.
+ * Les montants (XAF) sont figés au moment de l'écriture ; les cumuls journaliers
+ * ({@link GainLivreurJour}, {@link CommissionPlateformeJour}) sont incrémentés dans la même transaction.
+ */
+@Entity
+@Table(name = "ecritures_comptables")
+public class EcritureComptable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private Long colisId;
+
+    private Long livreurId;
+    private Long clientId;
+
+    // Jour comptable : date de livraison effective
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    private long montantTotal;
+    private long fraisLivraison;
+    private long commissionPlateforme;
+
+    private LocalDateTime dateCreation;
+
+    // Getters et Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public void setColisId(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+
+    public void setLivreurId(Long livreurId) {
+        this.livreurId = livreurId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    public long getMontantTotal() {
+        return montantTotal;
+    }
+
+    public void setMontantTotal(long montantTotal) {
+        this.montantTotal = montantTotal;
+    }
+
+    public long getFraisLivraison() {
+        return fraisLivraison;
+    }
+
+    public void setFraisLivraison(long fraisLivraison) {
+        this.fraisLivraison = fraisLivraison;
+    }
+
+    public long getCommissionPlateforme() {
+        return commissionPlateforme;
+    }
+
+    public void setCommissionPlateforme(long commissionPlateforme) {
+        this.commissionPlateforme = commissionPlateforme;
+    }
+
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+}
@@ -0,0 +1,85 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Cumul journalier des gains d'un livreur (somme des fraisLivraison de ses colis livrés et payés).
+ * Alimenté uniquement par des incréments atomiques en base, jamais recalculé sur la table colis.
+ */
+@Entity
+@Table(name = "gains_livreur_jour")
+@IdClass(GainLivreurJour.Cle.class)
+public class GainLivreurJour {
+
+    @Id
+    private Long livreurId;
+
+    @Id
+    private LocalDate jour;
+
+    private long nbColis;
+    private long totalFraisLivraison;
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+
+    public void setLivreurId(Long livreurId) {
+        this.livreurId = livreurId;
+    }
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    public long getNbColis() {
+        return nbColis;
+    }
+
+    public void setNbColis(long nbColis) {
+        this.nbColis = nbColis;
+    }
+
+    public long getTotalFraisLivraison() {
+        return totalFraisLivraison;
+    }
+
+    public void setTotalFraisLivraison(long totalFraisLivraison) {
+        this.totalFraisLivraison = totalFraisLivraison;
+    }
+
+    /**
+     * Clé composite (livreur, jour).
+     */
+    public static class Cle implements Serializable {
+        private Long livreurId;
+        private LocalDate jour;
+
+        public Cle() {
+        }
+
+        public Cle(Long livreurId, LocalDate jour) {
+            this.livreurId = livreurId;
+            this.jour = jour;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cle cle)) return false;
+            return Objects.equals(livreurId, cle.livreurId) && Objects.equals(jour, cle.jour);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(livreurId, jour);
+        }
+    }
+}
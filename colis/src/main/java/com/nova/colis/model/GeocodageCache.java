@@ -0,0 +1,89 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Résultat de géocodage d'une adresse normalisée, partagé par toutes les instances.
+ * Les adresses introuvables sont aussi conservées (trouve = false) pour ne pas réinterroger le fournisseur.
+ * La table est bornée : les lignes les moins récemment utilisées (dernierAcces) sont purgées.
+ */
+@Entity
+@Table(name = "geocodage_cache")
+public class GeocodageCache {
+
+    // Empreinte SHA-256 (hexadécimal) de l'adresse normalisée
+    @Id
+    @Column(length = 64)
+    private String cle;
+
+    @Column(length = 500, nullable = false)
+    private String adresse;
+
+    private Double latitude;
+    private Double longitude;
+
+    @Column(columnDefinition = "TINYINT(1)", nullable = false)
+    private boolean trouve;
+
+    private LocalDateTime dateCreation;
+    private LocalDateTime dernierAcces;
+
+    // Getters et Setters
+
+    public String getCle() {
+        return cle;
+    }
+
+    public void setCle(String cle) {
+        this.cle = cle;
+    }
+
+    public String getAdresse() {
+        return adresse;
+    }
+
+    public void setAdresse(String adresse) {
+        this.adresse = adresse;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public boolean isTrouve() {
+        return trouve;
+    }
+
+    public void setTrouve(boolean trouve) {
+        this.trouve = trouve;
+    }
+
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
+    public LocalDateTime getDernierAcces() {
+        return dernierAcces;
+    }
+
+    public void setDernierAcces(LocalDateTime dernierAcces) {
+        this.dernierAcces = dernierAcces;
+    }
+}
@@ -0,0 +1,80 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Annuaire commun des comptes (clients et livreurs) : l'email normalisé (sans espaces, en minuscules)
+ * est unique par type de compte. C'est cette contrainte, et non une vérification préalable, qui
+ * refuse une inscription en double, même sous requêtes concurrentes.
+ */
+@Entity
+@Table(name = "identites",
+        uniqueConstraints = @UniqueConstraint(name = "uk_identites_email_type", columnNames = {"emailNormalise", "typeCompte"}))
+public class Identite {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String emailNormalise;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private TypeCompte typeCompte;
+
+    // Identifiant du Client ou du Livreur ; renseigné dans la transaction d'inscription
+    private Long compteId;
+
+    private LocalDateTime dateCreation;
+
+    @PrePersist
+    protected void onCreate() {
+        if (dateCreation == null) {
+            dateCreation = LocalDateTime.now();
+        }
+    }
+
+    // Getters et Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEmailNormalise() {
+        return emailNormalise;
+    }
+
+    public void setEmailNormalise(String emailNormalise) {
+        this.emailNormalise = emailNormalise;
+    }
+
+    public TypeCompte getTypeCompte() {
+        return typeCompte;
+    }
+
+    public void setTypeCompte(TypeCompte typeCompte) {
+        this.typeCompte = typeCompte;
+    }
+
+    public Long getCompteId() {
+        return compteId;
+    }
+
+    public void setCompteId(Long compteId) {
+        this.compteId = compteId;
+    }
+
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+}
@@ -1,14 +1,17 @@
 package com.nova.colis.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.SoftDelete;
 import java.util.Objects;
 
 /**
  * Entité représentant un Livreur dans le système.
  * Permet de gérer l'inscription, la connexion, la photo,
  * et la localisation en temps réel.
+ * La suppression est logique ({@link SoftDelete}) ; la ligne est purgée en différé.
  */
 @Entity
+@SoftDelete(columnName = "supprime")
 @Table(name = "livreurs")
 public class Livreur {
 
@@ -50,6 +53,19 @@ public class Livreur {
     private Double latitudeActuelle;
     private Double longitudeActuelle;
 
+    /**
+     * Colis actuellement pris en charge (RECUPERE ou EN_COURS_DE_LIVRAISON).
+     * Réservé et libéré par des UPDATE conditionnels : c'est ce champ qui garantit
+     * qu'un livreur ne porte qu'un seul colis actif hors tournée, même sous requêtes concurrentes.
+     */
+    private Long colisActifId;
+
+    /**
+     * Tournée EN_COURS du livreur. Une tournée et un colis actif hors tournée s'excluent :
+     * les deux créneaux sont réservés par des UPDATE conditionnels qui vérifient l'autre.
+     */
+    private Long tourneeActiveId;
+
     /**
      * Role = "ROLE_LIVREUR" par défaut
      * (utilisé en Spring Security si besoin).
@@ -167,6 +183,22 @@ public class Livreur {
         this.longitudeActuelle = longitudeActuelle;
     }
 
+    public Long getColisActifId() {
+        return colisActifId;
+    }
+
+    public void setColisActifId(Long colisActifId) {
+        this.colisActifId = colisActifId;
+    }
+
+    public Long getTourneeActiveId() {
+        return tourneeActiveId;
+    }
+
+    public void setTourneeActiveId(Long tourneeActiveId) {
+        this.tourneeActiveId = tourneeActiveId;
+    }
+
     public String getRole() {
         return role;
     }
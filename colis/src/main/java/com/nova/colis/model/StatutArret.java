@@ -0,0 +1,7 @@
+package com.nova.colis.model;
+
+public enum StatutArret {
+    A_FAIRE,
+    FAIT,
+    ANNULE      // Colis annulé ou remis en attente pendant la tournée
+}
@@ -1,9 +1,40 @@
 package com.nova.colis.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum StatutColis {
     EN_ATTENTE,
     RECUPERE,                // Nouveau statut : le colis a été récupéré par le livreur
     EN_COURS_DE_LIVRAISON,
     LIVRE,
-    ANNULE
+    ANNULE;
+
+    /**
+     * Statuts dans lesquels le colis est entre les mains d'un livreur.
+     */
+    public static final Set<StatutColis> ACTIFS = EnumSet.of(RECUPERE, EN_COURS_DE_LIVRAISON);
+
+    /**
+     * Machine à états des colis :
+     * EN_ATTENTE -> RECUPERE -> EN_COURS_DE_LIVRAISON -> LIVRE,
+     * un colis récupéré peut être remis en attente, et tout colis non livré peut être annulé.
+     * LIVRE et ANNULE sont des états terminaux.
+     */
+    public boolean peutPasserA(StatutColis cible) {
+        switch (this) {
+            case EN_ATTENTE:
+                return cible == RECUPERE || cible == ANNULE;
+            case RECUPERE:
+                return cible == EN_COURS_DE_LIVRAISON || cible == EN_ATTENTE || cible == ANNULE;
+            case EN_COURS_DE_LIVRAISON:
+                return cible == LIVRE || cible == ANNULE;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isTerminal() {
+        return this == LIVRE || this == ANNULE;
+    }
 }
@@ -0,0 +1,6 @@
+package com.nova.colis.model;
+
+public enum StatutTournee {
+    EN_COURS,
+    TERMINEE    // Plus aucun arrêt à faire : le livreur est libéré
+}
@@ -0,0 +1,100 @@
+package com.nova.colis.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Tournée d'un livreur : un ensemble ordonné d'arrêts ({@link ArretTournee}) d'enlèvement et de livraison.
+ * Un livreur n'a qu'une tournée EN_COURS à la fois (voir {@link Livreur#getTourneeActiveId()}),
+ * mais une tournée porte plusieurs colis actifs en même temps.
+ */
+@Entity
+@Table(name = "tournees")
+public class Tournee {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    private Long version;
+
+    @Column(nullable = false)
+    private Long livreurId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutTournee statut;
+
+    // Longueur du parcours optimisé, à vol d'oiseau, depuis la position du livreur
+    private long distanceEstimeeMetres;
+
+    private LocalDateTime dateCreation;
+    private LocalDateTime dateFin;
+
+    @PrePersist
+    protected void onCreate() {
+        this.dateCreation = LocalDateTime.now();
+        if (this.statut == null) {
+            this.statut = StatutTournee.EN_COURS;
+        }
+    }
+
+    // Getters et Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+
+    public void setLivreurId(Long livreurId) {
+        this.livreurId = livreurId;
+    }
+
+    public StatutTournee getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutTournee statut) {
+        this.statut = statut;
+    }
+
+    public long getDistanceEstimeeMetres() {
+        return distanceEstimeeMetres;
+    }
+
+    public void setDistanceEstimeeMetres(long distanceEstimeeMetres) {
+        this.distanceEstimeeMetres = distanceEstimeeMetres;
+    }
+
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
+    public LocalDateTime getDateFin() {
+        return dateFin;
+    }
+
+    public void setDateFin(LocalDateTime dateFin) {
+        this.dateFin = dateFin;
+    }
+}
@@ -0,0 +1,6 @@
+package com.nova.colis.model;
+
+public enum TypeArret {
+    ENLEVEMENT, // Récupération du colis chez l'expéditeur : le colis passe EN_COURS_DE_LIVRAISON
+    LIVRAISON   // Remise au destinataire : le colis passe LIVRE
+}
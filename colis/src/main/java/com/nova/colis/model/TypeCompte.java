@@ -0,0 +1,6 @@
+package com.nova.colis.model;
+
+public enum TypeCompte {
+    CLIENT,
+    LIVREUR
+}
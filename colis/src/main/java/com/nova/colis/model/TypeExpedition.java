@@ -0,0 +1,35 @@
+package com.nova.colis.model;
+
+/**
+ * Zone d'expédition utilisée par la grille tarifaire.
+ * Côté colis, elle est saisie en texte libre dans "villeDestination" ("Urbain", "Interurbain", "International").
+ */
+public enum TypeExpedition {
+    URBAIN("Urbain"),
+    INTERURBAIN("Interurbain"),
+    INTERNATIONAL("International");
+
+    private final String libelle;
+
+    TypeExpedition(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    /**
+     * @return la zone correspondant au libellé (sans tenir compte de la casse), ou null si elle est inconnue.
+     */
+    public static TypeExpedition depuisLibelle(String libelle) {
+        if (libelle != null) {
+            for (TypeExpedition type : values()) {
+                if (type.libelle.equalsIgnoreCase(libelle.trim()) || type.name().equalsIgnoreCase(libelle.trim())) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+}
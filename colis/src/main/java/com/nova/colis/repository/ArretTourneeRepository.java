@@ -0,0 +1,36 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.ArretTournee;
+import com.nova.colis.model.StatutArret;
+import com.nova.colis.model.TypeArret;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArretTourneeRepository extends JpaRepository<ArretTournee, Long> {
+
+    List<ArretTournee> findByTourneeIdOrderByOrdreAsc(Long tourneeId);
+
+    Optional<ArretTournee> findByTourneeIdAndColisIdAndTypeArret(Long tourneeId, Long colisId, TypeArret typeArret);
+
+    long countByTourneeIdAndStatut(Long tourneeId, StatutArret statut);
+
+    /**
+     * Passe les arrêts encore à faire d'un colis (d'un type donné, ou tous si {@code type} est null)
+     * au statut indiqué. Conditionnel : un arrêt déjà fait ou annulé n'est pas modifié.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ArretTournee a SET a.statut = :statut, a.dateRealisation = :date " +
+            "WHERE a.tourneeId = :tourneeId AND a.colisId = :colisId " +
+            "AND (:type IS NULL OR a.typeArret = :type) AND a.statut = :aFaire")
+    int cloturerArrets(@Param("tourneeId") Long tourneeId, @Param("colisId") Long colisId,
+                       @Param("type") TypeArret type, @Param("statut") StatutArret statut,
+                       @Param("date") LocalDateTime date, @Param("aFaire") StatutArret aFaire);
+}
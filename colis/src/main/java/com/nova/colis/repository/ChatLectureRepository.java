@@ -0,0 +1,30 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.ChatLecture;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChatLectureRepository extends JpaRepository<ChatLecture, ChatLecture.Cle> {
+
+    List<ChatLecture> findByColisId(Long colisId);
+
+    // Le marqueur de lecture ne recule jamais, même si deux mises à jour arrivent dans le désordre
+    @Modifying
+    @Query(value = "INSERT INTO chat_lectures (colis_id, type_compte, participant_id, dernier_message_lu) " +
+            "VALUES (:colisId, :typeCompte, :participantId, :messageId) " +
+            "ON DUPLICATE KEY UPDATE dernier_message_lu = GREATEST(dernier_message_lu, :messageId)",
+            nativeQuery = true)
+    int enregistrer(@Param("colisId") Long colisId, @Param("typeCompte") String typeCompte,
+                    @Param("participantId") Long participantId, @Param("messageId") long messageId);
+
+    @Modifying
+    @Query(value = "DELETE FROM chat_lectures WHERE colis_id IN (:colisIds)", nativeQuery = true)
+    int supprimerParColisIdIn(@Param("colisIds") Collection<Long> colisIds);
+}
@@ -2,9 +2,11 @@ package com.nova.colis.repository;
 
 import com.nova.colis.model.ChatMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
@@ -18,4 +20,32 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
      */
     @Query("SELECT m FROM ChatMessage m WHERE m.colisId = :colisId ORDER BY m.timestamp ASC")
     List<ChatMessage> findByColisId(@Param("colisId") Long colisId);
+
+    /**
+     * Identifiants des messages d'un rôle postérieurs à un message donné (messages non lus par l'autre participant).
+     */
+    @Query("SELECT m.id FROM ChatMessage m WHERE m.colisId = :colisId AND m.senderRole = :senderRole " +
+            "AND m.id > :apres ORDER BY m.id ASC")
+    List<Long> findIdsApres(@Param("colisId") Long colisId, @Param("senderRole") String senderRole,
+                            @Param("apres") long apres);
+
+    /**
+     * Conversation d'un colis archivé (table chat_messages_archive), dans l'ordre chronologique.
+     */
+    @Query(value = "SELECT * FROM chat_messages_archive WHERE colis_id = :colisId ORDER BY timestamp ASC, id ASC",
+            nativeQuery = true)
+    List<ChatMessage> findArchivesByColisId(@Param("colisId") Long colisId);
+
+    @Modifying
+    @Query(value = "INSERT INTO chat_messages_archive SELECT * FROM chat_messages WHERE colis_id IN (:colisIds)",
+            nativeQuery = true)
+    int copierDansArchive(@Param("colisIds") Collection<Long> colisIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM chat_messages WHERE colis_id IN (:colisIds)", nativeQuery = true)
+    int supprimerParColisIdIn(@Param("colisIds") Collection<Long> colisIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM chat_messages_archive WHERE colis_id IN (:colisIds)", nativeQuery = true)
+    int supprimerArchivesParColisIdIn(@Param("colisIds") Collection<Long> colisIds);
 }
@@ -2,6 +2,13 @@ package com.nova.colis.repository;
 
 import com.nova.colis.model.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -10,4 +17,27 @@ import java.util.Optional;
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByEmail(String email);
     Boolean existsByEmail(String email);
+
+    // Rôle actuel du compte (vide s'il a été supprimé), vérifié au renouvellement des jetons
+    @Query("SELECT c.role FROM Client c WHERE c.id = :id")
+    Optional<String> findRoleById(@Param("id") Long id);
+
+    /**
+     * Remplace le hachage du mot de passe, sauf s'il a changé entre-temps.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Client c SET c.password = :nouveau WHERE c.id = :id AND c.password = :ancien")
+    int remplacerMotDePasse(@Param("id") Long id, @Param("ancien") String ancien, @Param("nouveau") String nouveau);
+
+    // Clients supprimés logiquement dont plus aucun colis ne dépend (clé étrangère fk_colis_client)
+    @Query(value = "SELECT id FROM clients cl WHERE supprime = TRUE " +
+            "AND NOT EXISTS (SELECT 1 FROM colis c WHERE c.client_id = cl.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM colis_archive a WHERE a.client_id = cl.id) ORDER BY id LIMIT :lot",
+            nativeQuery = true)
+    List<Long> findIdsPurgeables(@Param("lot") int lot);
+
+    @Modifying
+    @Query(value = "DELETE FROM clients WHERE id IN (:ids)", nativeQuery = true)
+    int purger(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,41 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.ClientStatistiques;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClientStatistiquesRepository extends JpaRepository<ClientStatistiques, Long> {
+
+    /**
+     * Ajoute les deltas aux agrégats du client en une seule instruction : la ligne est créée si elle
+     * n'existe pas, sinon incrémentée par la base. Aucun verrou n'est posé avant l'écriture et deux
+     * transactions concurrentes ne peuvent ni perdre un incrément ni insérer la ligne deux fois.
+     * La date de dernière livraison n'avance que si {@code livraison} est plus récente.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO client_statistiques (client_id, nb_en_attente, nb_recupere, nb_en_cours_de_livraison, " +
+            "nb_livre, nb_annule, total_depense, derniere_livraison) " +
+            "VALUES (:clientId, :enAttente, :recupere, :enCours, :livre, :annule, :depense, :livraison) " +
+            "ON DUPLICATE KEY UPDATE nb_en_attente = nb_en_attente + VALUES(nb_en_attente), " +
+            "nb_recupere = nb_recupere + VALUES(nb_recupere), " +
+            "nb_en_cours_de_livraison = nb_en_cours_de_livraison + VALUES(nb_en_cours_de_livraison), " +
+            "nb_livre = nb_livre + VALUES(nb_livre), nb_annule = nb_annule + VALUES(nb_annule), " +
+            "total_depense = total_depense + VALUES(total_depense), " +
+            "derniere_livraison = GREATEST(COALESCE(derniere_livraison, VALUES(derniere_livraison)), " +
+            "COALESCE(VALUES(derniere_livraison), derniere_livraison))",
+            nativeQuery = true)
+    void appliquerDeltas(@Param("clientId") Long clientId,
+                         @Param("enAttente") long enAttente,
+                         @Param("recupere") long recupere,
+                         @Param("enCours") long enCours,
+                         @Param("livre") long livre,
+                         @Param("annule") long annule,
+                         @Param("depense") long depense,
+                         @Param("livraison") LocalDateTime livraison);
+}
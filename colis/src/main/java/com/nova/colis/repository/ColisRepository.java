@@ -1,11 +1,26 @@
 package com.nova.colis.repository;
 
+import com.nova.colis.dto.ColisSummaryDTO;
 import com.nova.colis.model.Colis;
 import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.StatutPaiement;
+import com.nova.colis.repository.projection.ColisEtaView;
+import com.nova.colis.repository.projection.ColisGeofenceView;
+import com.nova.colis.repository.projection.ColisPaiementView;
+import com.nova.colis.repository.projection.ColisParticipantsView;
+import com.nova.colis.repository.projection.ColisRechercheView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ColisRepository extends JpaRepository<Colis, Long> {
@@ -14,4 +29,201 @@ public interface ColisRepository extends JpaRepository<Colis, Long> {
 
     // Nouvelle méthode pour récupérer les colis d'un livreur dont le statut est dans une liste donnée
     List<Colis> findByLivreurIdAndStatutColisIn(Long livreurId, List<StatutColis> statuts);
+
+    // Colonnes de ColisSummaryDTO, dans l'ordre de son constructeur
+    String SUMMARY = "SELECT new com.nova.colis.dto.ColisSummaryDTO(c.id, c.referenceColis, c.statutColis, c.clientId, " +
+            "c.livreurId, c.nomLivreur, c.prixTotal, c.dateCreation, c.datePriseEnCharge, " +
+            "c.dateLivraisonEstimee, c.dateLivraisonEffective, c.version) FROM Colis c ";
+
+    // Liste allégée de tous les colis, du plus récent au plus ancien
+    @Query(SUMMARY + "ORDER BY c.id DESC")
+    List<ColisSummaryDTO> findAllSummaries();
+
+    // Liste allégée des colis d'un livreur dont le statut est dans la liste donnée
+    @Query(SUMMARY + "WHERE c.livreurId = :livreurId AND c.statutColis IN :statuts ORDER BY c.id DESC")
+    List<ColisSummaryDTO> findSummariesByLivreurIdAndStatutIn(@Param("livreurId") Long livreurId,
+                                                              @Param("statuts") Collection<StatutColis> statuts);
+
+    // Liste allégée des colis affectés à un livreur, pour les statuts donnés
+    @Query(SUMMARY + "WHERE c.livreurId IS NOT NULL AND c.statutColis IN :statuts")
+    List<ColisSummaryDTO> findSummariesByLivreurIdNotNullAndStatutIn(@Param("statuts") Collection<StatutColis> statuts);
+
+    // Historique allégé d'un client, paginé par curseur sur l'id (première page puis pages suivantes)
+    @Query(SUMMARY + "WHERE c.clientId = :clientId ORDER BY c.id DESC")
+    List<ColisSummaryDTO> findSummariesByClientId(@Param("clientId") Long clientId, Limit limit);
+
+    @Query(SUMMARY + "WHERE c.clientId = :clientId AND c.id < :avant ORDER BY c.id DESC")
+    List<ColisSummaryDTO> findSummariesByClientIdAndIdLessThan(@Param("clientId") Long clientId,
+                                                               @Param("avant") Long avant, Limit limit);
+
+    // Liste allégée de colis à partir de leurs identifiants
+    @Query(SUMMARY + "WHERE c.id IN :ids ORDER BY c.id DESC")
+    List<ColisSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Participants et statut d'un colis, sans charger les autres colonnes
+    Optional<ColisParticipantsView> findParticipantsById(Long id);
+
+    // Parcours par lots des champs indexés par la recherche (reconstruction de l'index)
+    List<ColisRechercheView> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Mêmes champs pour quelques colis modifiés par une requête groupée
+    List<ColisRechercheView> findRechercheByIdIn(Collection<Long> ids);
+
+    // Empreinte des colis indexés (nombre, somme des ids, somme des versions), comparée à celle de l'index
+    @Query("SELECT COUNT(c), COALESCE(SUM(c.id), 0), COALESCE(SUM(c.version), 0) FROM Colis c")
+    List<Object[]> calculerEmpreinteRecherche();
+
+    /**
+     * Transition de statut conditionnelle : la ligne n'est modifiée que si le colis
+     * est toujours dans le statut attendu. Renvoie 0 si une autre requête est passée avant.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colis c SET c.statutColis = :nouveau, c.coordonneesGPS = :coordonneesGPS, " +
+            "c.datePriseEnCharge = :datePriseEnCharge, c.dateLivraisonEffective = :dateLivraisonEffective, " +
+            "c.version = c.version + 1 " +
+            "WHERE c.id = :id AND c.statutColis = :attendu")
+    int transitionStatut(@Param("id") Long id,
+                         @Param("attendu") StatutColis attendu,
+                         @Param("nouveau") StatutColis nouveau,
+                         @Param("coordonneesGPS") String coordonneesGPS,
+                         @Param("datePriseEnCharge") LocalDateTime datePriseEnCharge,
+                         @Param("dateLivraisonEffective") LocalDateTime dateLivraisonEffective);
+
+    /**
+     * Met à jour la position des colis d'un livreur en une seule requête.
+     * La version n'est pas incrémentée : la position n'entre pas en conflit avec les autres champs.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colis c SET c.coordonneesGPS = :coordonneesGPS WHERE c.livreurId = :livreurId AND c.statutColis = :statut")
+    int updateCoordonneesGPS(@Param("livreurId") Long livreurId,
+                             @Param("statut") StatutColis statut,
+                             @Param("coordonneesGPS") String coordonneesGPS);
+
+    Optional<ColisPaiementView> findPaiementById(Long id);
+
+    // Clôtures géographiques : le point d'enlèvement est l'adresse géocodée, à défaut la position du client expéditeur
+    String GEOFENCE = "SELECT c.id AS id, c.referenceColis AS referenceColis, c.livreurId AS livreurId, " +
+            "c.clientId AS clientId, c.statutColis AS statutColis, " +
+            "COALESCE(c.latitudeEnlevement, cl.latitude) AS latitudeEnlevement, " +
+            "COALESCE(c.longitudeEnlevement, cl.longitude) AS longitudeEnlevement, " +
+            "c.latitudeDestination AS latitudeDestination, c.longitudeDestination AS longitudeDestination " +
+            "FROM Colis c LEFT JOIN Client cl ON cl.id = c.clientId ";
+
+    @Query(GEOFENCE + "WHERE c.id = :id")
+    Optional<ColisGeofenceView> findGeofenceById(@Param("id") Long id);
+
+    @Query(GEOFENCE + "WHERE c.livreurId IS NOT NULL AND c.statutColis IN :statuts")
+    List<ColisGeofenceView> findGeofencesByStatutIn(@Param("statuts") Collection<StatutColis> statuts);
+
+    // Colis d'une tournée pas encore enlevés : le livreur est en route vers leur point d'enlèvement
+    @Query(GEOFENCE + "WHERE c.livreurId IS NOT NULL AND c.tourneeId IS NOT NULL " +
+            "AND c.statutColis = com.nova.colis.model.StatutColis.EN_ATTENTE")
+    List<ColisGeofenceView> findGeofencesEnAttenteDeTournee();
+
+    /**
+     * Rattache un colis EN_ATTENTE, libre ou déjà affecté à ce livreur, à une tournée du livreur.
+     * Renvoie 0 si le colis a changé entre-temps ou appartient déjà à une tournée.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colis c SET c.tourneeId = :tourneeId, c.livreurId = :livreurId, c.nomLivreur = :nomLivreur, " +
+            "c.telephoneLivreur = :telephoneLivreur, c.version = c.version + 1 " +
+            "WHERE c.id = :id AND c.statutColis = :enAttente AND c.tourneeId IS NULL " +
+            "AND (c.livreurId IS NULL OR c.livreurId = :livreurId)")
+    int affecterTournee(@Param("id") Long id, @Param("tourneeId") Long tourneeId, @Param("livreurId") Long livreurId,
+                        @Param("nomLivreur") String nomLivreur, @Param("telephoneLivreur") String telephoneLivreur,
+                        @Param("enAttente") StatutColis enAttente);
+
+    // Un colis remis en attente quitte sa tournée
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colis c SET c.tourneeId = NULL, c.version = c.version + 1 WHERE c.id = :id")
+    int retirerDeTournee(@Param("id") Long id);
+
+    // Estimation de l'heure d'arrivée : un colis, ou tous les colis d'un statut affectés à un livreur
+    Optional<ColisEtaView> findEtaById(Long id);
+
+    List<ColisEtaView> findEtaByLivreurIdIsNotNullAndStatutColis(StatutColis statutColis);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Colis c SET c.dateLivraisonEstimee = :date WHERE c.id = :id")
+    int updateDateLivraisonEstimee(@Param("id") Long id, @Param("date") LocalDateTime date);
+
+    // Agrégats de démarrage du tableau de bord : lignes [statut, nombre]
+    @Query("SELECT c.statutColis, COUNT(c) FROM Colis c GROUP BY c.statutColis")
+    List<Object[]> compterParStatut();
+
+    // Lignes [livreurId, nombre de colis] pour les statuts donnés
+    @Query("SELECT c.livreurId, COUNT(c) FROM Colis c WHERE c.livreurId IS NOT NULL AND c.statutColis IN :statuts " +
+            "GROUP BY c.livreurId")
+    List<Object[]> compterParLivreur(@Param("statuts") Collection<StatutColis> statuts);
+
+    // Archive (colis_archive, même structure que colis) : colis terminés sortis de la table vive
+    @Query(value = "SELECT * FROM colis_archive WHERE id = :id", nativeQuery = true)
+    Optional<Colis> findArchiveById(@Param("id") Long id);
+
+    @Query(value = "SELECT * FROM colis_archive WHERE client_id = :clientId AND id < :avant " +
+            "ORDER BY id DESC LIMIT :limite", nativeQuery = true)
+    List<Colis> findArchivesByClientId(@Param("clientId") Long clientId, @Param("avant") Long avant,
+                                       @Param("limite") int limite);
+
+    // Lignes [statut, nombre] des colis archivés
+    @Query(value = "SELECT statut_colis, COUNT(*) FROM colis_archive GROUP BY statut_colis", nativeQuery = true)
+    List<Object[]> compterArchivesParStatut();
+
+    /**
+     * Colis terminés depuis avant le seuil, les plus anciens d'abord. Les lignes sont verrouillées
+     * jusqu'à la fin de la transaction d'archivage.
+     */
+    @Query(value = "SELECT id FROM colis WHERE statut_colis IN ('LIVRE', 'ANNULE') AND supprime = FALSE " +
+            "AND COALESCE(date_livraison_effective, date_creation) < :seuil ORDER BY id LIMIT :lot FOR UPDATE",
+            nativeQuery = true)
+    List<Long> findIdsArchivables(@Param("seuil") LocalDateTime seuil, @Param("lot") int lot);
+
+    @Modifying
+    @Query(value = "INSERT INTO colis_archive SELECT * FROM colis WHERE id IN (:ids)", nativeQuery = true)
+    int copierDansArchive(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM colis WHERE id IN (:ids)", nativeQuery = true)
+    int supprimerParIdIn(@Param("ids") Collection<Long> ids);
+
+    // Purge des suppressions logiques (requêtes natives : le filtre de suppression logique ne s'y applique pas)
+    @Query(value = "SELECT id FROM colis WHERE supprime = TRUE ORDER BY id LIMIT :lot", nativeQuery = true)
+    List<Long> findIdsSupprimes(@Param("lot") int lot);
+
+    // Colis encore visibles d'un client supprimé
+    @Query(value = "SELECT c.id FROM colis c JOIN clients cl ON cl.id = c.client_id " +
+            "WHERE cl.supprime = TRUE AND c.supprime = FALSE ORDER BY c.id LIMIT :lot", nativeQuery = true)
+    List<Long> findIdsDeClientsSupprimes(@Param("lot") int lot);
+
+    @Query(value = "SELECT a.id FROM colis_archive a JOIN clients cl ON cl.id = a.client_id " +
+            "WHERE cl.supprime = TRUE ORDER BY a.id LIMIT :lot", nativeQuery = true)
+    List<Long> findIdsArchivesDeClientsSupprimes(@Param("lot") int lot);
+
+    @Modifying
+    @Query(value = "DELETE FROM colis_archive WHERE id IN (:ids)", nativeQuery = true)
+    int supprimerArchivesParIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.id FROM Colis c WHERE c.id IN :ids AND c.statutColis = :statut")
+    List<Long> findIdsByIdInAndStatut(@Param("ids") Collection<Long> ids, @Param("statut") StatutColis statut);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colis c SET c.paymentIntentId = :paymentIntentId WHERE c.id = :id")
+    int enregistrerPaymentIntent(@Param("id") Long id, @Param("paymentIntentId") String paymentIntentId);
+
+    /**
+     * Applique un statut de paiement à un lot de colis en une seule requête.
+     * Seuls les colis dont le statut actuel figure dans {@code depuis} (ou est vide) sont modifiés :
+     * un paiement confirmé n'est jamais annulé par une notification arrivée en retard.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colis c SET c.statutPaiement = :statut, c.version = c.version + 1 " +
+            "WHERE c.id IN :ids AND (c.statutPaiement IS NULL OR c.statutPaiement IN :depuis)")
+    int updateStatutPaiement(@Param("ids") Collection<Long> ids,
+                             @Param("statut") StatutPaiement statut,
+                             @Param("depuis") Collection<StatutPaiement> depuis);
 }
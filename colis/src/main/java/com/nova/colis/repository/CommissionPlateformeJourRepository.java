@@ -0,0 +1,26 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.CommissionPlateformeJour;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CommissionPlateformeJourRepository extends JpaRepository<CommissionPlateformeJour, LocalDate> {
+
+    List<CommissionPlateformeJour> findByJourBetweenOrderByJourAsc(LocalDate du, LocalDate au);
+
+    // Incrément atomique du cumul du jour, créé au premier colis du jour
+    @Modifying
+    @Query(value = "INSERT INTO commissions_plateforme_jour (jour, nb_colis, total_encaisse, total_commission) " +
+            "VALUES (:jour, 1, :encaisse, :commission) " +
+            "ON DUPLICATE KEY UPDATE nb_colis = nb_colis + 1, total_encaisse = total_encaisse + :encaisse, " +
+            "total_commission = total_commission + :commission",
+            nativeQuery = true)
+    int ajouter(@Param("jour") LocalDate jour, @Param("encaisse") long encaisse, @Param("commission") long commission);
+}
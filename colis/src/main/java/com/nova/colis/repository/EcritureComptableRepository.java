@@ -0,0 +1,32 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.EcritureComptable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EcritureComptableRepository extends JpaRepository<EcritureComptable, Long> {
+
+    Optional<EcritureComptable> findByColisId(Long colisId);
+
+    /**
+     * Crée l'écriture d'un colis s'il est LIVRE et PAYE et n'a pas encore été comptabilisé.
+     * Les conditions sont vérifiées par la base sur la ligne courante, et l'index unique sur colis_id
+     * garantit une seule écriture même si la livraison et le paiement sont confirmés en même temps.
+     *
+     * @return 1 si l'écriture a été créée, 0 sinon
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO ecritures_comptables (colis_id, livreur_id, client_id, jour, montant_total, " +
+            "frais_livraison, commission_plateforme, date_creation) " +
+            "SELECT c.id, c.livreur_id, c.client_id, CAST(COALESCE(c.date_livraison_effective, CURRENT_TIMESTAMP) AS DATE), " +
+            "c.prix_total, c.frais_livraison, c.commission_plateforme, CURRENT_TIMESTAMP " +
+            "FROM colis c WHERE c.id = :colisId AND c.statut_colis = 'LIVRE' AND c.statut_paiement = 'PAYE'",
+            nativeQuery = true)
+    int creerSiLivreEtPaye(@Param("colisId") Long colisId);
+}
@@ -0,0 +1,25 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.GainLivreurJour;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface GainLivreurJourRepository extends JpaRepository<GainLivreurJour, GainLivreurJour.Cle> {
+
+    List<GainLivreurJour> findByLivreurIdAndJourBetweenOrderByJourAsc(Long livreurId, LocalDate du, LocalDate au);
+
+    // Incrément atomique du cumul (livreur, jour), créé au premier colis du jour
+    @Modifying
+    @Query(value = "INSERT INTO gains_livreur_jour (livreur_id, jour, nb_colis, total_frais_livraison) " +
+            "VALUES (:livreurId, :jour, 1, :montant) " +
+            "ON DUPLICATE KEY UPDATE nb_colis = nb_colis + 1, total_frais_livraison = total_frais_livraison + :montant",
+            nativeQuery = true)
+    int ajouter(@Param("livreurId") Long livreurId, @Param("jour") LocalDate jour, @Param("montant") long montant);
+}
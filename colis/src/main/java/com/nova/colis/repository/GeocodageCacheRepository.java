@@ -0,0 +1,43 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.GeocodageCache;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface GeocodageCacheRepository extends JpaRepository<GeocodageCache, String> {
+
+    // Écriture idempotente : deux instances qui géocodent la même adresse en même temps ne se gênent pas
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO geocodage_cache (cle, adresse, latitude, longitude, trouve, date_creation, dernier_acces) " +
+            "VALUES (:cle, :adresse, :latitude, :longitude, :trouve, :date, :date) " +
+            "ON DUPLICATE KEY UPDATE latitude = :latitude, longitude = :longitude, trouve = :trouve, " +
+            "date_creation = :date, dernier_acces = :date",
+            nativeQuery = true)
+    int enregistrer(@Param("cle") String cle, @Param("adresse") String adresse, @Param("latitude") Double latitude,
+                    @Param("longitude") Double longitude, @Param("trouve") boolean trouve,
+                    @Param("date") LocalDateTime date);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE GeocodageCache g SET g.dernierAcces = :date WHERE g.cle = :cle")
+    int toucher(@Param("cle") String cle, @Param("date") LocalDateTime date);
+
+    // Dates d'accès de la plus récente à la plus ancienne ; avec un décalage, donne le seuil de purge
+    @Query("SELECT g.dernierAcces FROM GeocodageCache g ORDER BY g.dernierAcces DESC")
+    List<LocalDateTime> findDerniersAcces(Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GeocodageCache g WHERE g.dernierAcces < :seuil")
+    int supprimerAccedesAvant(@Param("seuil") LocalDateTime seuil);
+}
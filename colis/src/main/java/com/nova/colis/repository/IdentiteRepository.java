@@ -0,0 +1,28 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.Identite;
+import com.nova.colis.model.TypeCompte;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdentiteRepository extends JpaRepository<Identite, Long> {
+
+    // Seul l'identifiant du compte est lu : une lecture d'index, sans charger l'entité
+    @Query("SELECT i.compteId FROM Identite i WHERE i.emailNormalise = :email AND i.typeCompte = :type")
+    Optional<Long> findCompteId(@Param("email") String emailNormalise, @Param("type") TypeCompte type);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Identite i SET i.emailNormalise = :email WHERE i.typeCompte = :type AND i.compteId = :compteId")
+    int changerEmail(@Param("type") TypeCompte type, @Param("compteId") Long compteId,
+                     @Param("email") String emailNormalise);
+
+    @Modifying
+    @Query("DELETE FROM Identite i WHERE i.typeCompte = :type AND i.compteId = :compteId")
+    int supprimer(@Param("type") TypeCompte type, @Param("compteId") Long compteId);
+}
@@ -2,8 +2,14 @@ package com.nova.colis.repository;
 
 import com.nova.colis.model.Livreur;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +18,58 @@ public interface LivreurRepository extends JpaRepository<Livreur, Long> {
     Optional<Livreur> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // Rôle actuel du compte (vide s'il a été supprimé), vérifié au renouvellement des jetons
+    @Query("SELECT l.role FROM Livreur l WHERE l.id = :id")
+    Optional<String> findRoleById(@Param("id") Long id);
+
+    /**
+     * Remplace le hachage du mot de passe, sauf s'il a changé entre-temps.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Livreur l SET l.password = :nouveau WHERE l.id = :id AND l.password = :ancien")
+    int remplacerMotDePasse(@Param("id") Long id, @Param("ancien") String ancien, @Param("nouveau") String nouveau);
+
+    /**
+     * Réserve le créneau "colis actif" du livreur pour ce colis.
+     * Renvoie 0 si le livreur porte déjà un autre colis ou a une tournée en cours.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Livreur l SET l.colisActifId = :colisId " +
+            "WHERE l.id = :livreurId AND l.tourneeActiveId IS NULL " +
+            "AND (l.colisActifId IS NULL OR l.colisActifId = :colisId)")
+    int reserverColisActif(@Param("livreurId") Long livreurId, @Param("colisId") Long colisId);
+
+    /**
+     * Libère le créneau "colis actif" du livreur s'il est occupé par ce colis.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Livreur l SET l.colisActifId = NULL WHERE l.id = :livreurId AND l.colisActifId = :colisId")
+    int libererColisActif(@Param("livreurId") Long livreurId, @Param("colisId") Long colisId);
+
+    /**
+     * Réserve le créneau "tournée" du livreur, s'il n'a ni tournée en cours ni colis actif hors tournée.
+     * Renvoie 0 si le créneau n'a pas pu être pris.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Livreur l SET l.tourneeActiveId = :tourneeId " +
+            "WHERE l.id = :livreurId AND l.tourneeActiveId IS NULL AND l.colisActifId IS NULL")
+    int reserverTournee(@Param("livreurId") Long livreurId, @Param("tourneeId") Long tourneeId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Livreur l SET l.tourneeActiveId = NULL WHERE l.id = :livreurId AND l.tourneeActiveId = :tourneeId")
+    int libererTournee(@Param("livreurId") Long livreurId, @Param("tourneeId") Long tourneeId);
+
+    // Livreurs supprimés logiquement, à effacer
+    @Query(value = "SELECT id FROM livreurs WHERE supprime = TRUE ORDER BY id LIMIT :lot", nativeQuery = true)
+    List<Long> findIdsPurgeables(@Param("lot") int lot);
+
+    @Modifying
+    @Query(value = "DELETE FROM livreurs WHERE id IN (:ids)", nativeQuery = true)
+    int purger(@Param("ids") Collection<Long> ids);
 }
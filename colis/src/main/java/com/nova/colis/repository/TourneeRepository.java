@@ -0,0 +1,24 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.model.StatutTournee;
+import com.nova.colis.model.Tournee;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TourneeRepository extends JpaRepository<Tournee, Long> {
+
+    /**
+     * Clôt la tournée si elle est encore en cours. Renvoie 0 si elle l'était déjà.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Tournee t SET t.statut = :terminee, t.dateFin = :dateFin, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.statut = :enCours")
+    int terminer(@Param("id") Long id, @Param("dateFin") LocalDateTime dateFin,
+                 @Param("enCours") StatutTournee enCours, @Param("terminee") StatutTournee terminee);
+}
@@ -0,0 +1,22 @@
+package com.nova.colis.repository.projection;
+
+import com.nova.colis.model.StatutColis;
+
+/**
+ * Projection d'un Colis limitée à ce qu'il faut pour estimer son heure d'arrivée.
+ */
+public interface ColisEtaView {
+
+    Long getId();
+
+    Long getLivreurId();
+
+    StatutColis getStatutColis();
+
+    Double getLatitudeDestination();
+
+    Double getLongitudeDestination();
+
+    // Dernière position connue du livreur ("lat,lon")
+    String getCoordonneesGPS();
+}
@@ -0,0 +1,28 @@
+package com.nova.colis.repository.projection;
+
+import com.nova.colis.model.StatutColis;
+
+/**
+ * Projection d'un Colis actif pour les clôtures géographiques : point d'enlèvement (adresse
+ * géocodée, à défaut coordonnées du client expéditeur) et point de livraison.
+ */
+public interface ColisGeofenceView {
+
+    Long getId();
+
+    String getReferenceColis();
+
+    Long getLivreurId();
+
+    Long getClientId();
+
+    StatutColis getStatutColis();
+
+    Double getLatitudeEnlevement();
+
+    Double getLongitudeEnlevement();
+
+    Double getLatitudeDestination();
+
+    Double getLongitudeDestination();
+}
@@ -0,0 +1,15 @@
+package com.nova.colis.repository.projection;
+
+import com.nova.colis.model.StatutPaiement;
+
+/**
+ * Projection d'un Colis limitée à ce qu'il faut pour ouvrir un paiement.
+ */
+public interface ColisPaiementView {
+
+    Long getId();
+
+    long getPrixTotal();
+
+    StatutPaiement getStatutPaiement();
+}
@@ -0,0 +1,18 @@
+package com.nova.colis.repository.projection;
+
+import com.nova.colis.model.StatutColis;
+
+/**
+ * Projection minimale d'un Colis : les participants et le statut.
+ * Suffit pour les contrôles d'autorisation (chat, suivi) sans charger la ligne complète.
+ */
+public interface ColisParticipantsView {
+
+    Long getId();
+
+    Long getClientId();
+
+    Long getLivreurId();
+
+    StatutColis getStatutColis();
+}
@@ -0,0 +1,25 @@
+package com.nova.colis.repository.projection;
+
+/**
+ * Projection des champs d'un Colis indexés par la recherche plein texte.
+ */
+public interface ColisRechercheView {
+
+    Long getId();
+
+    String getReferenceColis();
+
+    String getNomExpediteur();
+
+    String getTelephoneExpediteur();
+
+    String getAdresseEnlevement();
+
+    String getNomDestinataire();
+
+    String getTelephoneDestinataire();
+
+    String getAdresseLivraison();
+
+    Long getVersion();
+}
@@ -0,0 +1,31 @@
+package com.nova.colis.service;
+
+/**
+ * Événement publié quand l'adresse d'enlèvement ou de livraison d'un colis est saisie ou modifiée.
+ * Une adresse à null n'est pas à géocoder (inchangée, absente ou destination fournie en coordonnées).
+ * Consommé après le commit par {@link GeocodageColis}.
+ */
+public class AdressesColisEvenement {
+
+    private final Long colisId;
+    private final String adresseEnlevement;
+    private final String adresseLivraison;
+
+    public AdressesColisEvenement(Long colisId, String adresseEnlevement, String adresseLivraison) {
+        this.colisId = colisId;
+        this.adresseEnlevement = adresseEnlevement;
+        this.adresseLivraison = adresseLivraison;
+    }
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public String getAdresseEnlevement() {
+        return adresseEnlevement;
+    }
+
+    public String getAdresseLivraison() {
+        return adresseLivraison;
+    }
+}
@@ -0,0 +1,155 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.Identite;
+import com.nova.colis.model.TypeCompte;
+import com.nova.colis.repository.IdentiteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Recherche des comptes par email et réservation des emails à l'inscription.
+ *
+ * - Inscription : l'email est réservé par un INSERT dans la table identites, dont la contrainte
+ *   d'unicité tranche entre deux inscriptions concurrentes (pas de "existsByEmail" préalable).
+ *   L'appelant convertit la violation de contrainte en conflit (409).
+ * - Connexion : l'identifiant du compte est lu par l'index unique ; les emails inconnus sont mémorisés
+ *   dans un cache négatif borné (LRU, {@code annuaire.cache-negatif.taille} entrées) pendant
+ *   {@code annuaire.cache-negatif.ttl-secondes}, pour ne pas relire la base à chaque tentative.
+ *   Une inscription sur une autre instance n'est visible ici qu'à l'expiration de l'entrée.
+ *   Une inscription locale invalide l'entrée à la réservation et à nouveau après son commit : une recherche
+ *   faite entre les deux ne voyait pas encore le compte. Une recherche commencée avant une invalidation
+ *   ne mémorise pas son résultat négatif.
+ */
+@Service
+public class AnnuaireIdentites {
+
+    @Autowired
+    private IdentiteRepository identiteRepository;
+
+    @Value("${annuaire.cache-negatif.taille:10000}")
+    private int tailleCacheNegatif = 10000;
+
+    @Value("${annuaire.cache-negatif.ttl-secondes:30}")
+    private long ttlCacheNegatifSecondes = 30;
+
+    // (type, email normalisé) -> échéance de l'entrée (System.nanoTime)
+    private final Map<String, Long> inconnus = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > tailleCacheNegatif;
+        }
+    };
+
+    // Nombre d'invalidations (protégé par le verrou de "inconnus") : une recherche qui en a vu passer une
+    // pendant sa lecture en base ne met pas son résultat en cache
+    private long invalidations;
+
+    public static String normaliser(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return l'identifiant du compte de ce type portant cet email, ou vide s'il n'existe pas
+     */
+    public Optional<Long> trouverCompte(String email, TypeCompte type) {
+        String normalise = normaliser(email);
+        if (normalise == null || normalise.isEmpty()) {
+            return Optional.empty();
+        }
+        String cle = cle(type, normalise);
+        long maintenant = System.nanoTime();
+        long generation;
+        synchronized (inconnus) {
+            generation = invalidations;
+            Long echeance = inconnus.get(cle);
+            if (echeance != null) {
+                if (echeance - maintenant > 0) {
+                    return Optional.empty();
+                }
+                inconnus.remove(cle);
+            }
+        }
+        Optional<Long> compteId = identiteRepository.findCompteId(normalise, type);
+        if (compteId.isEmpty()) {
+            synchronized (inconnus) {
+                if (invalidations == generation) {
+                    inconnus.put(cle, maintenant + ttlCacheNegatifSecondes * 1_000_000_000L);
+                }
+            }
+        }
+        return compteId;
+    }
+
+    /**
+     * Réserve l'email pour un nouveau compte. À appeler dans la transaction d'inscription, avant
+     * l'insertion du compte : l'INSERT est exécuté immédiatement.
+     *
+     * @return l'identité créée, dont l'appelant renseigne le compteId une fois le compte enregistré
+     * @throws org.springframework.dao.DataIntegrityViolationException si l'email est déjà pris
+     */
+    public Identite reserver(String email, TypeCompte type) {
+        String normalise = normaliser(email);
+        if (normalise == null || normalise.isEmpty()) {
+            throw new IllegalArgumentException("L'email est obligatoire.");
+        }
+        oublier(type, normalise);
+        Identite identite = new Identite();
+        identite.setEmailNormalise(normalise);
+        identite.setTypeCompte(type);
+        return identiteRepository.saveAndFlush(identite);
+    }
+
+    /**
+     * Change l'email d'un compte existant (dans la transaction de mise à jour du compte).
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException si le nouvel email est déjà pris
+     */
+    public void changerEmail(TypeCompte type, Long compteId, String nouvelEmail) {
+        String normalise = normaliser(nouvelEmail);
+        oublier(type, normalise);
+        if (identiteRepository.changerEmail(type, compteId, normalise) == 0) {
+            // Compte antérieur à l'annuaire : son identité est créée à cette occasion
+            Identite identite = new Identite();
+            identite.setEmailNormalise(normalise);
+            identite.setTypeCompte(type);
+            identite.setCompteId(compteId);
+            identiteRepository.saveAndFlush(identite);
+        }
+    }
+
+    public void supprimer(TypeCompte type, Long compteId) {
+        identiteRepository.supprimer(type, compteId);
+    }
+
+    private void oublier(TypeCompte type, String normalise) {
+        String cle = cle(type, normalise);
+        invalider(cle);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalider(cle);
+                }
+            });
+        }
+    }
+
+    private void invalider(String cle) {
+        synchronized (inconnus) {
+            inconnus.remove(cle);
+            invalidations++;
+        }
+    }
+
+    private static String cle(TypeCompte type, String normalise) {
+        return type.name() + ':' + normalise;
+    }
+}
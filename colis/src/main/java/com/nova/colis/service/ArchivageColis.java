@@ -0,0 +1,100 @@
+package com.nova.colis.service;
+
+import com.nova.colis.repository.ChatLectureRepository;
+import com.nova.colis.repository.ChatMessageRepository;
+import com.nova.colis.repository.ColisRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Archivage des colis terminés.
+ *
+ * Les colis LIVRE ou ANNULE depuis plus de {@code archivage.jours} jours quittent les tables vives
+ * (colis, chat_messages, chat_lectures) pour colis_archive et chat_messages_archive, de même structure.
+ * Chaque lot de {@code archivage.lot} colis est copié puis supprimé dans sa propre transaction : un arrêt
+ * en cours de passage laisse chaque colis d'un côté ou de l'autre, jamais des deux.
+ *
+ * Les lectures par identifiant se replient sur l'archive (fiche du colis, conversation, historique
+ * du client) ; un colis archivé n'est plus modifiable et sort de l'index de recherche.
+ */
+@Component
+public class ArchivageColis {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivageColis.class);
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatLectureRepository chatLectureRepository;
+
+    @Autowired
+    private IndexRechercheColis indexRechercheColis;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${archivage.jours:90}")
+    private int jours;
+
+    @Value("${archivage.lot:500}")
+    private int tailleLot;
+
+    // Pause entre deux lots, pour laisser passer le trafic et la réplication
+    @Value("${archivage.pause-ms:200}")
+    private long pauseMs;
+
+    /**
+     * Archive, lot par lot, tous les colis éligibles.
+     *
+     * @return le nombre de colis archivés
+     */
+    @Scheduled(cron = "${archivage.cron:0 30 3 * * *}")
+    public int archiver() {
+        LocalDateTime seuil = LocalDateTime.now().minusDays(jours);
+        int total = 0;
+        while (true) {
+            List<Long> ids = transactionTemplate.execute(tx -> archiverLot(seuil));
+            ids.forEach(indexRechercheColis::supprimer);
+            total += ids.size();
+            if (ids.size() < tailleLot) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Archivage : {} colis terminés depuis plus de {} jours déplacés", total, jours);
+        }
+        return total;
+    }
+
+    private List<Long> archiverLot(LocalDateTime seuil) {
+        List<Long> ids = colisRepository.findIdsArchivables(seuil, tailleLot);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        // Les lignes filles d'abord : elles référencent le colis
+        chatMessageRepository.copierDansArchive(ids);
+        chatMessageRepository.supprimerParColisIdIn(ids);
+        chatLectureRepository.supprimerParColisIdIn(ids);
+        colisRepository.copierDansArchive(ids);
+        colisRepository.supprimerParIdIn(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,53 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.TypeArret;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement "arrivée" : le livreur vient d'entrer dans la clôture d'enlèvement ou de livraison d'un colis.
+ * Publié par {@link MoteurGeofences} et poussé tel quel sur /topic/suivi/{colisId}.
+ */
+public class ArriveeColisEvenement {
+
+    private final Long colisId;
+    private final String referenceColis;
+    private final Long livreurId;
+    private final Long clientId;
+    private final TypeArret typeArret;
+    private final LocalDateTime dateArrivee;
+
+    public ArriveeColisEvenement(Long colisId, String referenceColis, Long livreurId, Long clientId,
+                                 TypeArret typeArret, LocalDateTime dateArrivee) {
+        this.colisId = colisId;
+        this.referenceColis = referenceColis;
+        this.livreurId = livreurId;
+        this.clientId = clientId;
+        this.typeArret = typeArret;
+        this.dateArrivee = dateArrivee;
+    }
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public String getReferenceColis() {
+        return referenceColis;
+    }
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public TypeArret getTypeArret() {
+        return typeArret;
+    }
+
+    public LocalDateTime getDateArrivee() {
+        return dateArrivee;
+    }
+}
@@ -0,0 +1,79 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ClientDTO;
+import com.nova.colis.dto.JetonsDTO;
+import com.nova.colis.dto.LivreurDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Connexion des clients et des livreurs.
+ *
+ * Les tentatives sont d'abord limitées par adresse IP et par email (429 au-delà), puis la vérification
+ * BCrypt s'exécute sur le pool "authentificationExecutor" ; la réponse contient le compte et les jetons
+ * JWT. Un résultat null signifie des identifiants incorrects.
+ */
+@Service
+public class AuthentificationService {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private LivreurService livreurService;
+
+    @Autowired
+    private JetonService jetonService;
+
+    @Autowired
+    private LimiteurConnexions limiteurConnexions;
+
+    @Autowired
+    @Qualifier("authentificationExecutor")
+    private Executor authentificationExecutor;
+
+    /**
+     * @return {"user": client, "token": jeton d'accès, ...} ou null si les identifiants sont incorrects
+     */
+    public CompletableFuture<Map<String, Object>> connecterClient(String email, String password, String adresseIp) {
+        limiteurConnexions.verifier(adresseIp, email);
+        return CompletableFuture.supplyAsync(() -> {
+            ClientDTO client = clientService.login(email, password);
+            if (client == null) {
+                return null;
+            }
+            return reponse("user", client, jetonService.emettre(client.getId(), client.getEmail(), client.getRole()));
+        }, authentificationExecutor);
+    }
+
+    /**
+     * @return {"livreur": livreur, "token": jeton d'accès, ...} ou null si les identifiants sont incorrects
+     */
+    public CompletableFuture<Map<String, Object>> connecterLivreur(String email, String password, String adresseIp) {
+        limiteurConnexions.verifier(adresseIp, email);
+        return CompletableFuture.supplyAsync(() -> {
+            LivreurDTO livreur = livreurService.login(email, password);
+            if (livreur == null) {
+                return null;
+            }
+            return reponse("livreur", livreur,
+                    jetonService.emettre(livreur.getId(), livreur.getEmail(), livreur.getRole()));
+        }, authentificationExecutor);
+    }
+
+    private static Map<String, Object> reponse(String cle, Object compte, JetonsDTO jetons) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(cle, compte);
+        // "token" reste le jeton d'accès, comme attendu par les applications existantes
+        response.put("token", jetons.getAccessToken());
+        response.put("refreshToken", jetons.getRefreshToken());
+        response.put("expiresIn", jetons.getExpiresIn());
+        return response;
+    }
+}
@@ -0,0 +1,201 @@
+package com.nova.colis.service;
+
+import com.nova.colis.exception.ResourceNotFoundException;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisParticipantsView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.Principal;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Autorisations du chat temps réel (STOMP).
+ *
+ * Les participants d'un colis (client, livreur) et son statut sont lus une fois, puis partagés :
+ * - par toutes les sessions, dans un cache colisId -> participants ;
+ * - par chaque session, dans ses attributs : une session déjà autorisée pour un colis n'est plus
+ *   revérifiée à chaque message, seul le statut (lecture d'un champ) est contrôlé.
+ * Chaque changement de statut, réaffectation ou suppression (voir {@link ColisStatutEvenement})
+ * périme l'entrée après le commit : le message suivant relit le colis et refait la vérification.
+ */
+@Component
+public class AutorisationsChat {
+
+    /** Attribut de session WebSocket : colisId -> participants autorisés pour cette session. */
+    static final String ATTRIBUT_SESSION = "chat.colis";
+
+    private static final String PREFIXE_TOPIC = "/topic/chat/";
+
+    /** Statuts dans lesquels les échanges sont autorisés. */
+    static final Set<StatutColis> STATUTS_CHAT = EnumSet.of(StatutColis.EN_ATTENTE, StatutColis.EN_COURS_DE_LIVRAISON);
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    private final Map<Long, Participants> participantsParColis = new ConcurrentHashMap<>();
+
+    // Incrémenté à chaque invalidation : une lecture concurrente d'un colis modifié n'est pas mise en cache
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Vérifie que l'utilisateur de la session est le client ou le livreur du colis (abonnement au topic,
+     * accusés de lecture, compteur de non-lus).
+     *
+     * @param sessionAttributes attributs de la session WebSocket (null hors session : requête REST)
+     * @throws AccessDeniedException si l'utilisateur n'est pas authentifié ou pas participant
+     */
+    public Participants autoriser(Principal principal, Long colisId, Map<String, Object> sessionAttributes) {
+        Long utilisateurId = idUtilisateur(principal);
+        if (utilisateurId == null) {
+            throw new AccessDeniedException("Utilisateur non authentifié");
+        }
+        Map<Long, Participants> autorises = autorisesDeLaSession(sessionAttributes);
+        Participants participants = autorises != null ? autorises.get(colisId) : null;
+        if (participants == null || participants.perime) {
+            participants = participants(colisId);
+            if (!participants.estParticipant(utilisateurId, role(principal))) {
+                if (autorises != null) {
+                    autorises.remove(colisId);
+                }
+                throw new AccessDeniedException("L'utilisateur n'est pas autorisé à échanger pour ce colis");
+            }
+            if (autorises != null) {
+                autorises.put(colisId, participants);
+            }
+        }
+        return participants;
+    }
+
+    /**
+     * Comme {@link #autoriser}, et vérifie en plus que le statut du colis permet encore les échanges.
+     */
+    public Participants autoriserEnvoi(Principal principal, Long colisId, Map<String, Object> sessionAttributes) {
+        Participants participants = autoriser(principal, colisId, sessionAttributes);
+        if (!STATUTS_CHAT.contains(participants.getStatut())) {
+            throw new AccessDeniedException("Les échanges ne sont autorisés que pour les colis EN_ATTENTE ou EN_COURS_DE_LIVRAISON");
+        }
+        return participants;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surChangementDeStatut(ColisStatutEvenement evenement) {
+        invalidations.incrementAndGet();
+        Participants participants = participantsParColis.remove(evenement.getColisId());
+        if (participants != null) {
+            participants.perime = true;
+        }
+    }
+
+    /**
+     * @return l'identifiant du colis d'une destination "/topic/chat/{colisId}" ou "/topic/chat/{colisId}/...",
+     * ou null pour une autre destination
+     */
+    public static Long colisDuTopic(String destination) {
+        if (destination == null || !destination.startsWith(PREFIXE_TOPIC)) {
+            return null;
+        }
+        int fin = destination.indexOf('/', PREFIXE_TOPIC.length());
+        try {
+            return Long.valueOf(destination.substring(PREFIXE_TOPIC.length(), fin < 0 ? destination.length() : fin));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return l'identifiant de l'utilisateur (sujet du jeton), ou null si la session n'est pas authentifiée
+     */
+    public static Long idUtilisateur(Principal principal) {
+        if (!(principal instanceof JwtAuthenticationToken jeton) || jeton.getToken().getSubject() == null) {
+            return null;
+        }
+        return Long.valueOf(jeton.getToken().getSubject());
+    }
+
+    /**
+     * @return le rôle porté par le jeton (ROLE_CLIENT, ROLE_LIVREUR...), ou null
+     */
+    public static String role(Principal principal) {
+        if (!(principal instanceof JwtAuthenticationToken jeton)) {
+            return null;
+        }
+        return jeton.getToken().getClaimAsString(JetonService.CLAIM_ROLE);
+    }
+
+    /**
+     * @return les participants du colis, depuis le cache partagé ou relus en base
+     * @throws ResourceNotFoundException si le colis n'existe pas
+     */
+    Participants participants(Long colisId) {
+        Participants participants = participantsParColis.get(colisId);
+        if (participants != null && !participants.perime) {
+            return participants;
+        }
+        long generation = invalidations.get();
+        ColisParticipantsView colis = colisRepository.findParticipantsById(colisId)
+                .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", colisId));
+        participants = new Participants(colis.getClientId(), colis.getLivreurId(), colis.getStatutColis());
+        participantsParColis.put(colisId, participants);
+        // Un colis modifié pendant la lecture peut avoir été lu avant le commit : il sera relu au prochain message
+        if (invalidations.get() != generation) {
+            participantsParColis.remove(colisId, participants);
+            participants.perime = true;
+        }
+        return participants;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Participants> autorisesDeLaSession(Map<String, Object> sessionAttributes) {
+        if (sessionAttributes == null) {
+            return null;
+        }
+        return (Map<Long, Participants>) sessionAttributes.computeIfAbsent(ATTRIBUT_SESSION,
+                k -> new ConcurrentHashMap<Long, Participants>());
+    }
+
+    /**
+     * Participants et statut d'un colis, tels que lus en base ; immuables, sauf l'indicateur de péremption.
+     */
+    public static final class Participants {
+        private final Long clientId;
+        private final Long livreurId;
+        private final StatutColis statut;
+        private volatile boolean perime;
+
+        Participants(Long clientId, Long livreurId, StatutColis statut) {
+            this.clientId = clientId;
+            this.livreurId = livreurId;
+            this.statut = statut;
+        }
+
+        boolean estParticipant(Long utilisateurId, String role) {
+            return ("ROLE_CLIENT".equals(role) && utilisateurId.equals(clientId))
+                    || ("ROLE_LIVREUR".equals(role) && utilisateurId.equals(livreurId));
+        }
+
+        public Long getClientId() {
+            return clientId;
+        }
+
+        public Long getLivreurId() {
+            return livreurId;
+        }
+
+        public StatutColis getStatut() {
+            return statut;
+        }
+
+        public boolean isPerime() {
+            return perime;
+        }
+    }
+}
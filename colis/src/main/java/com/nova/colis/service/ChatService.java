@@ -2,6 +2,7 @@ package com.nova.colis.service;
 
 import com.nova.colis.dto.ChatMessageRequestDTO;
 import com.nova.colis.dto.ChatMessageResponseDTO;
+import com.nova.colis.dto.NonLusChatDTO;
 import java.util.List;
 
 public interface ChatService {
@@ -16,6 +17,15 @@ public interface ChatService {
      */
     ChatMessageResponseDTO sendMessage(ChatMessageRequestDTO requestDTO);
 
+    /**
+     * Publie un message reçu sur une session STOMP déjà autorisée pour ce colis (voir AutorisationsChat) :
+     * le message est diffusé immédiatement avec son identifiant définitif, puis enregistré en différé.
+     * L'expéditeur est celui de la session, les champs senderId/senderRole du DTO sont ignorés.
+     *
+     * @return le message diffusé
+     */
+    ChatMessageResponseDTO publier(Long colisId, Long senderId, String senderRole, ChatMessageRequestDTO requestDTO);
+
     /**
      * Récupère la conversation (liste de messages) associée à un colis.
      *
@@ -23,4 +33,21 @@ public interface ChatService {
      * @return la liste des messages pour ce colis
      */
     List<ChatMessageResponseDTO> getConversation(Long colisId);
+
+    /**
+     * Nombre de messages de l'autre participant non lus, servi depuis la mémoire (sans requête une fois
+     * le chat du colis chargé). Le participant doit avoir été autorisé pour ce colis.
+     */
+    NonLusChatDTO getNonLus(Long colisId, String role);
+
+    /**
+     * Enregistre (en différé) le dernier message lu d'un participant autorisé, et diffuse l'accusé
+     * de lecture sur /topic/chat/{colisId}/evenements.
+     */
+    NonLusChatDTO marquerLu(Long colisId, Long participantId, String role, Long messageId);
+
+    /**
+     * Diffuse l'indicateur de saisie d'un participant autorisé ; rien n'est enregistré.
+     */
+    void signalerSaisie(Long colisId, Long participantId, String role, boolean enCours);
 }
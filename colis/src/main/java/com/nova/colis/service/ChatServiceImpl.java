@@ -2,17 +2,25 @@ package com.nova.colis.service;
 
 import com.nova.colis.dto.ChatMessageRequestDTO;
 import com.nova.colis.dto.ChatMessageResponseDTO;
+import com.nova.colis.dto.EvenementChatDTO;
+import com.nova.colis.dto.NonLusChatDTO;
 import com.nova.colis.model.ChatMessage;
-import com.nova.colis.model.Colis;
 import com.nova.colis.repository.ChatMessageRepository;
 import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisParticipantsView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,14 +38,34 @@ public class ChatServiceImpl implements ChatService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReferenceColisGenerator referenceColisGenerator;
+
+    @Autowired
+    private TamponMessagesChat tamponMessagesChat;
+
+    @Autowired
+    private LecturesChat lecturesChat;
+
+    // Colonne TEXT (64 Ko) : 4 octets au plus par caractère en utf8mb4
+    private static final int LONGUEUR_MESSAGE_MAX = 10_000;
+
+    // Une photo doit tenir dans une requête d'insertion (max_allowed_packet)
+    @Value("${chat.photo.taille-max-octets:1048576}")
+    private int taillePhotoMax = 1048576;
+
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatMessageResponseDTO sendMessage(ChatMessageRequestDTO requestDTO) {
-        // Vérifier que le colis existe
-        Optional<Colis> colisOpt = colisRepository.findById(requestDTO.getColisId());
+        // Vérifier que le colis existe (projection : participants et statut uniquement)
+        Optional<ColisParticipantsView> colisOpt = colisRepository.findParticipantsById(requestDTO.getColisId());
         if (colisOpt.isEmpty()) {
             throw new IllegalArgumentException("Colis non trouvé");
         }
-        Colis colis = colisOpt.get();
+        ColisParticipantsView colis = colisOpt.get();
 
         // Vérifier que le colis a un statut autorisant le chat
         if (!(colis.getStatutColis().name().equals("EN_ATTENTE") ||
@@ -62,32 +90,99 @@ public class ChatServiceImpl implements ChatService {
             throw new IllegalArgumentException("L'expéditeur n'est pas autorisé à échanger pour ce colis");
         }
 
-        // Créer le message et définir l'horodatage
-        ChatMessage chatMessage = new ChatMessage();
-        chatMessage.setColisId(requestDTO.getColisId());
-        chatMessage.setSenderId(senderId);
-        chatMessage.setSenderRole(senderRole);
-        chatMessage.setMessage(requestDTO.getMessage());
-        chatMessage.setTimestamp(LocalDateTime.now());
-        chatMessage.setPhoto(requestDTO.getPhoto()); // Peut être null si aucune image n'est envoyée
-
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
-
-        // Notifier en temps réel via WebSocket
-        ChatMessageResponseDTO responseDTO = mapToResponseDTO(savedMessage);
-        messagingTemplate.convertAndSend("/topic/chat/" + requestDTO.getColisId(), responseDTO);
+        return diffuser(nouveauMessage(requestDTO.getColisId(), senderId, senderRole, requestDTO));
+    }
 
-        return responseDTO;
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChatMessageResponseDTO publier(Long colisId, Long senderId, String senderRole, ChatMessageRequestDTO requestDTO) {
+        return diffuser(nouveauMessage(colisId, senderId, senderRole, requestDTO));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ChatMessageResponseDTO> getConversation(Long colisId) {
         List<ChatMessage> messages = chatMessageRepository.findByColisId(colisId);
+        List<ChatMessage> enAttente = tamponMessagesChat.enAttente(colisId);
+        if (messages.isEmpty() && enAttente.isEmpty()) {
+            // Colis archivé : sa conversation a été déplacée avec lui
+            messages = chatMessageRepository.findArchivesByColisId(colisId);
+        }
+        if (!enAttente.isEmpty()) {
+            // Messages déjà diffusés mais pas encore enregistrés ; un message peut être vu des deux côtés
+            Map<Long, ChatMessage> parId = new LinkedHashMap<>();
+            messages.forEach(m -> parId.put(m.getId(), m));
+            enAttente.forEach(m -> parId.putIfAbsent(m.getId(), m));
+            messages = parId.values().stream()
+                    .sorted(Comparator.comparing(ChatMessage::getTimestamp))
+                    .collect(Collectors.toList());
+        }
         return messages.stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public NonLusChatDTO getNonLus(Long colisId, String role) {
+        return lecturesChat.nonLus(colisId, role);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public NonLusChatDTO marquerLu(Long colisId, Long participantId, String role, Long messageId) {
+        if (messageId == null) {
+            throw new IllegalArgumentException("Le champ 'messageId' est obligatoire.");
+        }
+        long dernierLu = lecturesChat.marquerLu(colisId, participantId, role, messageId);
+        messagingTemplate.convertAndSend("/topic/chat/" + colisId + "/evenements",
+                new EvenementChatDTO(EvenementChatDTO.LU, colisId, participantId, role, null, dernierLu));
+        return lecturesChat.nonLus(colisId, role);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void signalerSaisie(Long colisId, Long participantId, String role, boolean enCours) {
+        messagingTemplate.convertAndSend("/topic/chat/" + colisId + "/evenements",
+                new EvenementChatDTO(EvenementChatDTO.SAISIE, colisId, participantId, role, enCours, null));
+    }
+
+    /**
+     * Confie le message au tampon d'écriture puis le diffuse : l'enregistrement en base se fait en différé,
+     * par lots. Refusé si le tampon est plein : rien n'est diffusé qui ne sera pas enregistré.
+     */
+    private ChatMessageResponseDTO diffuser(ChatMessage chatMessage) {
+        tamponMessagesChat.ajouter(chatMessage);
+        lecturesChat.surMessage(chatMessage);
+        eventPublisher.publishEvent(new MessageChatEvenement(chatMessage.getColisId()));
+
+        // Notifier en temps réel via WebSocket
+        ChatMessageResponseDTO responseDTO = mapToResponseDTO(chatMessage);
+        messagingTemplate.convertAndSend("/topic/chat/" + chatMessage.getColisId(), responseDTO);
+        return responseDTO;
+    }
+
+    /**
+     * Crée le message avec son identifiant définitif (attribué ici, pas par la base) et son horodatage.
+     */
+    private ChatMessage nouveauMessage(Long colisId, Long senderId, String senderRole, ChatMessageRequestDTO requestDTO) {
+        // Refusé ici (REST comme STOMP) plutôt qu'à l'écriture différée, où il ne pourrait plus être signalé
+        if (requestDTO.getPhoto() != null && requestDTO.getPhoto().length > taillePhotoMax) {
+            throw new IllegalArgumentException("La photo dépasse la taille maximale de " + taillePhotoMax + " octets.");
+        }
+        if (requestDTO.getMessage() != null && requestDTO.getMessage().length() > LONGUEUR_MESSAGE_MAX) {
+            throw new IllegalArgumentException("Le message dépasse " + LONGUEUR_MESSAGE_MAX + " caractères.");
+        }
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.setId(referenceColisGenerator.nextId());
+        chatMessage.setColisId(colisId);
+        chatMessage.setSenderId(senderId);
+        chatMessage.setSenderRole(senderRole);
+        chatMessage.setMessage(requestDTO.getMessage());
+        chatMessage.setTimestamp(LocalDateTime.now());
+        chatMessage.setPhoto(requestDTO.getPhoto()); // Peut être null si aucune image n'est envoyée
+        return chatMessage;
+    }
+
     private ChatMessageResponseDTO mapToResponseDTO(ChatMessage message) {
         ChatMessageResponseDTO dto = new ChatMessageResponseDTO();
         dto.setId(message.getId());
@@ -2,12 +2,18 @@ package com.nova.colis.service;
 
 import com.nova.colis.dto.ClientDTO;
 import com.nova.colis.dto.ClientRequestDTO;
+import com.nova.colis.exception.ConflictException;
 import com.nova.colis.exception.ResourceNotFoundException;
 import com.nova.colis.model.Client;
+import com.nova.colis.model.Identite;
+import com.nova.colis.model.TypeCompte;
 import com.nova.colis.repository.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,15 +31,25 @@ public class ClientServiceImpl implements ClientService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private VerificateurMotDePasse verificateurMotDePasse;
+
+    @Autowired
+    private ClientStatistiquesService clientStatistiquesService;
+
+    // Unicité des emails et recherche des comptes par email
+    @Autowired
+    private AnnuaireIdentites annuaireIdentites;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
-     * Inscrit un nouveau client en vérifiant d'abord que l'email n'existe pas déjà.
+     * Inscrit un nouveau client. L'unicité de l'email est garantie par l'annuaire des identités :
+     * un email déjà utilisé fait échouer l'insertion, convertie en conflit (409).
      */
     @Override
     public ClientDTO registerClient(ClientRequestDTO clientRequestDTO) {
-        if (clientRepository.existsByEmail(clientRequestDTO.getEmail())) {
-            throw new RuntimeException("Email déjà utilisé");
-        }
-
         Client client = new Client();
         client.setEmail(clientRequestDTO.getEmail());
         if (clientRequestDTO.getPassword() != null && !clientRequestDTO.getPassword().isEmpty()) {
@@ -52,7 +68,18 @@ public class ClientServiceImpl implements ClientService {
             client.setPhoto(clientRequestDTO.getPhoto());
         }
 
-        Client savedClient = clientRepository.save(client);
+        Client savedClient;
+        try {
+            savedClient = transactionTemplate.execute(tx -> {
+                Identite identite = annuaireIdentites.reserver(client.getEmail(), TypeCompte.CLIENT);
+                Client c = clientRepository.save(client);
+                identite.setCompteId(c.getId());
+                clientStatistiquesService.initialiser(c.getId());
+                return c;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Email déjà utilisé");
+        }
         return mapToDTO(savedClient);
     }
 
@@ -61,17 +88,25 @@ public class ClientServiceImpl implements ClientService {
      */
     @Override
     public ClientDTO login(String email, String password) {
-        // 1. Recherche du client par email
-        Optional<Client> optionalClient = clientRepository.findByEmail(email);
+        // 1. Recherche du client par email (annuaire des identités, puis clé primaire)
+        Optional<Client> optionalClient = annuaireIdentites.trouverCompte(email, TypeCompte.CLIENT)
+                .flatMap(clientRepository::findById);
         if (optionalClient.isEmpty()) {
-            return null; // Pas de client correspondant à cet email
+            // Pas de client correspondant à cet email : même coût de vérification qu'un mot de passe incorrect
+            verificateurMotDePasse.verifier(password, null);
+            return null;
         }
 
         Client client = optionalClient.get();
         // 2. Vérification du mot de passe (chiffré en base)
-        if (!passwordEncoder.matches(password, client.getPassword())) {
+        if (!verificateurMotDePasse.verifier(password, client.getPassword())) {
             return null; // Mot de passe incorrect
         }
+        // Hachage produit avec un ancien coût BCrypt : remplacé maintenant que le mot de passe est connu
+        if (verificateurMotDePasse.doitRehacher(client.getPassword())) {
+            clientRepository.remplacerMotDePasse(client.getId(), client.getPassword(),
+                    verificateurMotDePasse.hacher(password));
+        }
 
         // 3. Conversion en DTO et renvoi
         return mapToDTO(client);
@@ -81,6 +116,7 @@ public class ClientServiceImpl implements ClientService {
      * Récupère un client par son ID.
      */
     @Override
+    @Transactional(readOnly = true)
     public ClientDTO getClientById(Long id) {
         Client client = clientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Client", "id", id));
@@ -91,6 +127,7 @@ public class ClientServiceImpl implements ClientService {
      * Récupère la liste de tous les clients.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ClientDTO> getAllClients() {
         return clientRepository.findAll().stream()
                 .map(this::mapToDTO)
@@ -102,10 +139,20 @@ public class ClientServiceImpl implements ClientService {
      */
     @Override
     public ClientDTO updateClient(Long id, ClientRequestDTO clientRequestDTO) {
+        try {
+            return transactionTemplate.execute(tx -> mettreAJour(id, clientRequestDTO));
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Email déjà utilisé");
+        }
+    }
+
+    private ClientDTO mettreAJour(Long id, ClientRequestDTO clientRequestDTO) {
         Client client = clientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Client", "id", id));
 
-        if (clientRequestDTO.getEmail() != null && !clientRequestDTO.getEmail().isEmpty()) {
+        if (clientRequestDTO.getEmail() != null && !clientRequestDTO.getEmail().isEmpty()
+                && !clientRequestDTO.getEmail().equals(client.getEmail())) {
+            annuaireIdentites.changerEmail(TypeCompte.CLIENT, id, clientRequestDTO.getEmail());
             client.setEmail(clientRequestDTO.getEmail());
         }
 
@@ -148,12 +195,18 @@ public class ClientServiceImpl implements ClientService {
 
     /**
      * Supprime un client par son ID.
+     * Suppression logique : le compte est désactivé immédiatement ; ses colis puis la ligne sont
+     * effacés plus tard, par lots, par {@link PurgeSuppressions}.
      */
     @Override
     public void deleteClient(Long id) {
         Client client = clientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Client", "id", id));
-        clientRepository.delete(client);
+        transactionTemplate.executeWithoutResult(tx -> {
+            clientRepository.delete(client);
+            annuaireIdentites.supprimer(TypeCompte.CLIENT, id);
+        });
+        clientStatistiquesService.supprimer(id);
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ClientStatistiquesDTO;
+import com.nova.colis.model.ClientStatistiques;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ClientStatistiquesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Maintient les agrégats par client (table client_statistiques).
+ *
+ * Toute modification d'un colis se traduit par un {@link #retirer} de son ancien état suivi
+ * d'un {@link #ajouter} du nouvel état, dans la même transaction que l'écriture du colis.
+ * Chacun est un incrément atomique de la ligne du client, créée au besoin
+ * ({@link ClientStatistiquesRepository#appliquerDeltas}).
+ */
+@Service
+public class ClientStatistiquesService {
+
+    @Autowired
+    private ClientStatistiquesRepository clientStatistiquesRepository;
+
+    @Transactional
+    public void initialiser(Long clientId) {
+        if (!clientStatistiquesRepository.existsById(clientId)) {
+            clientStatistiquesRepository.save(new ClientStatistiques(clientId));
+        }
+    }
+
+    /**
+     * Comptabilise un colis dans l'état donné.
+     */
+    @Transactional
+    public void ajouter(Long clientId, StatutColis statut, long prixTotal, LocalDateTime dateLivraison) {
+        boolean livre = statut == StatutColis.LIVRE;
+        appliquer(clientId, statut, 1, livre ? prixTotal : 0, livre ? dateLivraison : null);
+    }
+
+    /**
+     * Retire un colis de l'état où il était comptabilisé.
+     * La date de dernière livraison n'est pas recalculée.
+     */
+    @Transactional
+    public void retirer(Long clientId, StatutColis statut, long prixTotal) {
+        appliquer(clientId, statut, -1, statut == StatutColis.LIVRE ? -prixTotal : 0, null);
+    }
+
+    @Transactional
+    public void supprimer(Long clientId) {
+        clientStatistiquesRepository.deleteById(clientId);
+    }
+
+    public ClientStatistiquesDTO getStatistiques(Long clientId) {
+        ClientStatistiques stats = clientStatistiquesRepository.findById(clientId)
+                .orElseGet(() -> new ClientStatistiques(clientId));
+        Map<StatutColis, Long> nombreParStatut = new EnumMap<>(StatutColis.class);
+        for (StatutColis statut : StatutColis.values()) {
+            nombreParStatut.put(statut, stats.getNombre(statut));
+        }
+        ClientStatistiquesDTO dto = new ClientStatistiquesDTO();
+        dto.setClientId(clientId);
+        dto.setNombreParStatut(nombreParStatut);
+        dto.setTotalDepense(stats.getTotalDepense());
+        dto.setDerniereLivraison(stats.getDerniereLivraison());
+        return dto;
+    }
+
+    private void appliquer(Long clientId, StatutColis statut, long delta, long depense, LocalDateTime livraison) {
+        clientStatistiquesRepository.appliquerDeltas(clientId,
+                statut == StatutColis.EN_ATTENTE ? delta : 0,
+                statut == StatutColis.RECUPERE ? delta : 0,
+                statut == StatutColis.EN_COURS_DE_LIVRAISON ? delta : 0,
+                statut == StatutColis.LIVRE ? delta : 0,
+                statut == StatutColis.ANNULE ? delta : 0,
+                depense, livraison);
+    }
+}
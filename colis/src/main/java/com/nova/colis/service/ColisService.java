@@ -2,7 +2,14 @@ package com.nova.colis.service;
 
 import com.nova.colis.dto.ColisDTO;
 import com.nova.colis.dto.ColisRequestDTO;
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.dto.PageColisDTO;
+import com.nova.colis.dto.ResultatRechercheDTO;
+import com.nova.colis.model.StatutColis;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface ColisService {
 
@@ -10,11 +17,35 @@ public interface ColisService {
     ColisDTO getColisById(Long id);
     List<ColisDTO> getAllColis();
 
+    // Listes allégées (sans les colonnes TEXT), pour les écrans de liste
+    List<ColisSummaryDTO> getAllColisSummaries();
+
+    List<ColisSummaryDTO> getColisSummariesByLivreur(Long livreurId, Collection<StatutColis> statuts);
+
+    // Historique d'un client, paginé par curseur ("avant" = id du dernier colis de la page précédente)
+    PageColisDTO getColisDuClient(Long clientId, Long avant, int taille);
+
+    // Recherche plein texte (référence, noms, téléphones, adresses), triée par pertinence
+    ResultatRechercheDTO rechercherColis(String texte, int page, int taille);
+
     ColisDTO updateColis(Long id, ColisRequestDTO colisRequestDTO);
 
+    /**
+     * Mise à jour partielle (JSON Merge Patch) : seuls les champs présents sont modifiés,
+     * un champ à null est effacé.
+     */
+    ColisDTO patchColis(Long id, Map<String, Object> patch);
+
+    // Coordonnées géocodées après l'enregistrement, ignorées si l'adresse a changé entre-temps
+    void enregistrerPositions(Long id, String adresseEnlevement, Optional<FournisseurGeocodage.Position> enlevement,
+                              String adresseLivraison, Optional<FournisseurGeocodage.Position> livraison);
+
     void deleteColis(Long id);
 
     ColisDTO updateStatutColis(Long id, String nouveauStatut);
 
+    // Transitions successives appliquées dans une même transaction ; seul l'état final est notifié au client
+    ColisDTO enchainerStatuts(Long id, List<StatutColis> etapes);
+
     ColisDTO enregistrerPaiement(Long id, ColisRequestDTO dtoPaiement);
 }
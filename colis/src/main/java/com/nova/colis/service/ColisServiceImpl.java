@@ -3,21 +3,40 @@ package com.nova.colis.service;
 import com.nova.colis.dto.ClientDTO;
 import com.nova.colis.dto.ColisDTO;
 import com.nova.colis.dto.ColisRequestDTO;
+import com.nova.colis.dto.ColisSummaryDTO;
 import com.nova.colis.dto.LivreurDTO;
+import com.nova.colis.dto.PageColisDTO;
+import com.nova.colis.dto.ResultatRechercheDTO;
+import com.nova.colis.exception.ConflictException;
 import com.nova.colis.exception.ResourceNotFoundException;
 import com.nova.colis.model.Colis;
 import com.nova.colis.model.StatutColis;
-import com.nova.colis.model.TypeColis;
+import com.nova.colis.model.StatutPaiement;
+import com.nova.colis.model.TypeExpedition;
 import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.LivreurRepository;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ColisServiceImpl implements ColisService {
@@ -25,6 +44,49 @@ public class ColisServiceImpl implements ColisService {
     @Autowired
     private ColisRepository colisRepository;
 
+    // Réservation du créneau "colis actif" des livreurs
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Index en mémoire des colis en cours par livreur
+    @Autowired
+    private LivreurColisIndex livreurColisIndex;
+
+    // Agrégats par client maintenus à chaque écriture
+    @Autowired
+    private ClientStatistiquesService clientStatistiquesService;
+
+    // Index de recherche plein texte, mis à jour à chaque écriture
+    @Autowired
+    private IndexRechercheColis indexRechercheColis;
+
+    private static final int TAILLE_PAGE_MAX = 100;
+
+    // Champs acceptés par le PATCH (le statut passe par /statut, les prix sont calculés)
+    private static final Set<String> CHAMPS_MODIFIABLES = Set.of(
+            "typeColis", "description", "poids", "dimensions", "valeurDeclaree", "assurance",
+            "nomExpediteur", "telephoneExpediteur", "emailExpediteur", "adresseEnlevement", "villeDepart",
+            "nomDestinataire", "telephoneDestinataire", "emailDestinataire", "adresseLivraison", "villeDestination",
+            "latitudeDestination", "longitudeDestination",
+            "livreurId", "nomLivreur", "telephoneLivreur",
+            "dateLivraisonEstimee", "modePaiement", "paiementInfo",
+            "historiqueSuivi", "coordonneesGPS", "preuveLivraison");
+
+    // Champs figés dès que le colis a quitté le statut EN_ATTENTE
+    private static final Set<String> CHAMPS_MODIFIABLES_EN_ATTENTE = Set.of(
+            "adresseEnlevement", "adresseLivraison", "villeDestination", "latitudeDestination",
+            "longitudeDestination", "livreurId");
+
+    // Champs entrant dans le calcul du tarif, figés hors EN_ATTENTE et dès que le paiement est réglé
+    private static final Set<String> CHAMPS_TARIFAIRES = Set.of(
+            "typeColis", "poids", "villeDestination", "assurance", "valeurDeclaree");
+
     // Service pour récupérer les informations du client
     @Autowired
     private ClientService clientService;
@@ -37,110 +99,416 @@ public class ColisServiceImpl implements ColisService {
     @Autowired
     private FirebaseMessagingService firebaseMessagingService;
 
+    // Générateur de références uniques et ordonnées dans le temps
+    @Autowired
+    private ReferenceColisGenerator referenceColisGenerator;
+
+    @Autowired
+    private GrilleTarifaire grilleTarifaire;
+
+    @Autowired
+    private GrandLivreService grandLivreService;
+
+    // Événements de statut consommés après commit (tableau de bord)
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public ColisDTO createColis(ColisRequestDTO dto) {
         Colis colis = mapToEntity(dto);
-        colis.setReferenceColis("COL-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        // Initialisation de la géolocalisation à partir des coordonnées du client
+        colis.setReferenceColis(referenceColisGenerator.nextReference());
+        // Géolocalisation initiale aux coordonnées du client, remplacées par celles du point d'enlèvement
+        // une fois son adresse géocodée
         ClientDTO clientDTO = clientService.getClientById(dto.getClientId());
         if (clientDTO.getLatitude() != null && clientDTO.getLongitude() != null) {
             String coords = String.format(Locale.US, "%.6f,%.6f", clientDTO.getLatitude(), clientDTO.getLongitude());
             colis.setCoordonneesGPS(coords);
         }
         calculTarif(colis);
-        Colis saved = colisRepository.save(colis);
+        Colis saved = transactionTemplate.execute(tx -> {
+            Colis c = colisRepository.save(colis);
+            reporterGeocodage(c, null, null, destinationExplicite(dto));
+            clientStatistiquesService.ajouter(c.getClientId(), c.getStatutColis(), c.getPrixTotal(),
+                    c.getDateLivraisonEffective());
+            eventPublisher.publishEvent(new ColisStatutEvenement(c.getId(), c.getLivreurId(), null,
+                    c.getStatutColis(), c.getDatePriseEnCharge(), c.getDateLivraisonEffective()));
+            return c;
+        });
+        livreurColisIndex.mettreAJour(mapToSummary(saved));
+        indexRechercheColis.indexer(saved);
         return mapToDTO(saved);
     }
 
+    /**
+     * Un colis absent de la table vive est cherché dans l'archive (colis terminés anciens).
+     */
     @Override
+    @Transactional(readOnly = true)
     public ColisDTO getColisById(Long id) {
         Colis colis = colisRepository.findById(id)
+                .or(() -> colisRepository.findArchiveById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
         return mapToDTO(colis);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ColisDTO> getAllColis() {
         return colisRepository.findAll().stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ColisSummaryDTO> getAllColisSummaries() {
+        return colisRepository.findAllSummaries();
+    }
+
+    /**
+     * Les statuts non terminaux sont servis par l'index en mémoire ;
+     * l'historique (LIVRE, ANNULE) est lu en base.
+     */
+    @Override
+    public List<ColisSummaryDTO> getColisSummariesByLivreur(Long livreurId, Collection<StatutColis> statuts) {
+        if (LivreurColisIndex.STATUTS_INDEXES.containsAll(statuts)) {
+            return livreurColisIndex.getColis(livreurId, statuts);
+        }
+        return colisRepository.findSummariesByLivreurIdAndStatutIn(livreurId, statuts);
+    }
+
+    /**
+     * Historique des colis d'un client, du plus récent au plus ancien, paginé par curseur
+     * sur l'identifiant : chaque page est un parcours d'index borné, quelle que soit sa profondeur.
+     * Les colis archivés sont fusionnés dans le même ordre : l'historique reste complet.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageColisDTO getColisDuClient(Long clientId, Long avant, int taille) {
+        int limite = Math.max(1, Math.min(taille, TAILLE_PAGE_MAX));
+        // Une ligne de plus que la page : sa présence indique qu'une page suivante existe
+        List<ColisSummaryDTO> colis = avant == null
+                ? colisRepository.findSummariesByClientId(clientId, Limit.of(limite + 1))
+                : colisRepository.findSummariesByClientIdAndIdLessThan(clientId, avant, Limit.of(limite + 1));
+        List<Colis> archives = colisRepository.findArchivesByClientId(clientId,
+                avant == null ? Long.MAX_VALUE : avant, limite + 1);
+        if (!archives.isEmpty()) {
+            colis = Stream.concat(colis.stream(), archives.stream().map(this::mapToSummary))
+                    .sorted(Comparator.comparing(ColisSummaryDTO::getId).reversed())
+                    .limit(limite + 1)
+                    .collect(Collectors.toList());
+        }
+        if (colis.size() <= limite) {
+            return new PageColisDTO(colis, null);
+        }
+        colis = colis.subList(0, limite);
+        return new PageColisDTO(colis, colis.get(limite - 1).getId());
+    }
+
+    /**
+     * L'index Lucene fournit les identifiants par pertinence ; les résumés sont ensuite
+     * lus par clé primaire et remis dans l'ordre du classement.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResultatRechercheDTO rechercherColis(String texte, int page, int taille) {
+        int limite = Math.max(1, Math.min(taille, TAILLE_PAGE_MAX));
+        int numeroPage = Math.max(0, page);
+        IndexRechercheColis.Resultat resultat = indexRechercheColis.rechercher(texte, numeroPage * limite, limite);
+        List<Long> ids = resultat.getIds();
+        List<ColisSummaryDTO> colis = ids.isEmpty()
+                ? List.of()
+                : colisRepository.findSummariesByIdIn(ids).stream()
+                        .sorted(Comparator.comparingInt(c -> ids.indexOf(c.getId())))
+                        .collect(Collectors.toList());
+        return new ResultatRechercheDTO(colis, resultat.getTotal(), numeroPage, limite);
+    }
+
     @Override
     public ColisDTO updateColis(Long id, ColisRequestDTO dto) {
-        Colis colis = colisRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
-        updateEntityFromDTO(colis, dto);
-        calculTarif(colis);
-        Colis updated = colisRepository.save(colis);
+        AtomicBoolean transition = new AtomicBoolean();
+        Colis updated = transactionTemplate.execute(tx -> {
+            Colis colis = colisRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
+            Long ancienClientId = colis.getClientId();
+            Long ancienLivreurId = colis.getLivreurId();
+            StatutColis ancienStatut = colis.getStatutColis();
+            long ancienPrix = colis.getPrixTotal();
+            String ancienneAdresseEnlevement = colis.getAdresseEnlevement();
+            String ancienneAdresseLivraison = colis.getAdresseLivraison();
+            boolean tarifModifiable = tarifModifiable(colis);
+            updateEntityFromDTO(colis, dto);
+            reporterGeocodage(colis, ancienneAdresseEnlevement, ancienneAdresseLivraison, destinationExplicite(dto));
+            if (tarifModifiable) {
+                calculTarif(colis);
+            }
+            Colis c = colisRepository.save(colis);
+            mettreAJourStatistiques(ancienClientId, ancienStatut, ancienPrix, c);
+            publierReaffectation(ancienLivreurId, c);
+            // Un changement de statut passe par la machine à états et ses contrôles de concurrence, dans la
+            // même transaction : une transition refusée (409) annule aussi les autres modifications
+            if (dto.getStatutColis() != null && dto.getStatutColis() != ancienStatut) {
+                c = appliquerTransition(id, dto.getStatutColis());
+                transition.set(true);
+            }
+            return c;
+        });
+        livreurColisIndex.mettreAJour(mapToSummary(updated));
+        indexRechercheColis.indexer(updated);
+        if (transition.get()) {
+            notifierClient(updated);
+        }
+        return mapToDTO(updated);
+    }
+
+    /**
+     * Applique un JSON Merge Patch sur le colis. Seules les propriétés présentes dans le patch
+     * sont copiées sur l'entité ; avec {@code @DynamicUpdate}, l'UPDATE ne porte que sur ces colonnes.
+     * Les champs calculés ou gérés par le serveur ne sont pas modifiables par ce biais.
+     */
+    @Override
+    public ColisDTO patchColis(Long id, Map<String, Object> patch) {
+        for (String champ : patch.keySet()) {
+            if (!CHAMPS_MODIFIABLES.contains(champ)) {
+                throw new IllegalArgumentException("Le champ '" + champ + "' ne peut pas être modifié par PATCH.");
+            }
+        }
+        Colis updated = transactionTemplate.execute(tx -> {
+            Colis colis = colisRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
+            if (colis.getStatutColis() != StatutColis.EN_ATTENTE
+                    && !Collections.disjoint(patch.keySet(), CHAMPS_MODIFIABLES_EN_ATTENTE)) {
+                throw new ConflictException("Les champs " + CHAMPS_MODIFIABLES_EN_ATTENTE
+                        + " ne sont modifiables que pour un colis EN_ATTENTE.");
+            }
+            if (colis.getTourneeId() != null && patch.containsKey("livreurId")) {
+                throw new ConflictException("Le colis " + id + " est engagé dans une tournée : son livreur est fixé.");
+            }
+            if (!tarifModifiable(colis) && !Collections.disjoint(patch.keySet(), CHAMPS_TARIFAIRES)) {
+                throw new ConflictException("Les champs " + CHAMPS_TARIFAIRES
+                        + " sont figés une fois le colis pris en charge ou son paiement réglé.");
+            }
+            Long ancienLivreurId = colis.getLivreurId();
+            long ancienPrix = colis.getPrixTotal();
+            String ancienneAdresseEnlevement = colis.getAdresseEnlevement();
+            String ancienneAdresseLivraison = colis.getAdresseLivraison();
+            try {
+                objectMapper.updateValue(colis, patch);
+            } catch (JsonMappingException e) {
+                throw new IllegalArgumentException("Patch invalide : " + e.getOriginalMessage(), e);
+            }
+            reporterGeocodage(colis, ancienneAdresseEnlevement, ancienneAdresseLivraison,
+                    patch.containsKey("latitudeDestination") || patch.containsKey("longitudeDestination"));
+            if (!Collections.disjoint(patch.keySet(), CHAMPS_TARIFAIRES)) {
+                calculTarif(colis);
+            }
+            Colis c = colisRepository.save(colis);
+            mettreAJourStatistiques(c.getClientId(), c.getStatutColis(), ancienPrix, c);
+            publierReaffectation(ancienLivreurId, c);
+            return c;
+        });
+        livreurColisIndex.mettreAJour(mapToSummary(updated));
+        indexRechercheColis.indexer(updated);
         return mapToDTO(updated);
     }
 
+    /**
+     * Reporte les coordonnées géocodées après l'enregistrement. Une position est ignorée si son adresse a changé
+     * depuis, ou si des coordonnées ont été renseignées entre-temps (destination fournie explicitement).
+     * Tant que le colis est EN_ATTENTE, sa géolocalisation est celle du point d'enlèvement.
+     */
+    @Override
+    public void enregistrerPositions(Long id, String adresseEnlevement, Optional<FournisseurGeocodage.Position> enlevement,
+                                     String adresseLivraison, Optional<FournisseurGeocodage.Position> livraison) {
+        Colis updated = transactionTemplate.execute(tx -> {
+            Colis colis = colisRepository.findById(id).orElse(null);
+            if (colis == null || colis.getStatutColis() != StatutColis.EN_ATTENTE) {
+                return null;
+            }
+            boolean modifie = false;
+            if (enlevement.isPresent() && Objects.equals(adresseEnlevement, colis.getAdresseEnlevement())
+                    && colis.getLatitudeEnlevement() == null) {
+                colis.setLatitudeEnlevement(enlevement.get().getLatitude());
+                colis.setLongitudeEnlevement(enlevement.get().getLongitude());
+                colis.setCoordonneesGPS(String.format(Locale.US, "%.6f,%.6f",
+                        colis.getLatitudeEnlevement(), colis.getLongitudeEnlevement()));
+                modifie = true;
+            }
+            if (livraison.isPresent() && Objects.equals(adresseLivraison, colis.getAdresseLivraison())
+                    && colis.getLatitudeDestination() == null) {
+                colis.setLatitudeDestination(livraison.get().getLatitude());
+                colis.setLongitudeDestination(livraison.get().getLongitude());
+                modifie = true;
+            }
+            return modifie ? colisRepository.save(colis) : null;
+        });
+        if (updated != null) {
+            livreurColisIndex.mettreAJour(mapToSummary(updated));
+            indexRechercheColis.indexer(updated);
+        }
+    }
+
+    /**
+     * Suppression logique : le colis disparaît des lectures immédiatement ; la ligne et sa conversation
+     * sont effacées plus tard par {@link PurgeSuppressions}.
+     */
     @Override
     public void deleteColis(Long id) {
-        Colis colis = colisRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
-        colisRepository.delete(colis);
+        transactionTemplate.executeWithoutResult(tx -> {
+            Colis colis = colisRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
+            colisRepository.delete(colis);
+            // Un colis supprimé en cours de livraison ne doit pas garder le créneau de son livreur
+            if (colis.getLivreurId() != null && StatutColis.ACTIFS.contains(colis.getStatutColis())) {
+                livreurRepository.libererColisActif(colis.getLivreurId(), id);
+            }
+            clientStatistiquesService.retirer(colis.getClientId(), colis.getStatutColis(), colis.getPrixTotal());
+            eventPublisher.publishEvent(new ColisStatutEvenement(id, colis.getLivreurId(), colis.getStatutColis(),
+                    null, colis.getDatePriseEnCharge(), colis.getDateLivraisonEffective(), colis.getTourneeId()));
+        });
+        livreurColisIndex.retirer(id);
+        indexRechercheColis.supprimer(id);
     }
 
     /**
      * Mise à jour du statut du colis et de sa géolocalisation en fonction du nouveau statut.
      * Lorsqu'il passe à RECUPERE (c'est-à-dire que le livreur est arrivé pour récupérer le colis),
      * une notification push est envoyée au client.
+     *
+     * La transition suit la machine à états de {@link StatutColis} et s'applique par UPDATE
+     * conditionnel sur le statut lu : si une autre requête a modifié le colis entre-temps,
+     * ou si le livreur porte déjà un autre colis, une {@link ConflictException} (409) est levée.
+     * Les colis d'une tournée échappent à cette dernière règle ; leurs arrêts suivent la transition.
      */
     @Override
     public ColisDTO updateStatutColis(Long id, String nouveauStatut) {
+        return enchainerStatuts(id, List.of(StatutColis.valueOf(nouveauStatut)));
+    }
+
+    @Override
+    public ColisDTO enchainerStatuts(Long id, List<StatutColis> etapes) {
+        Colis saved = transactionTemplate.execute(tx -> {
+            Colis c = null;
+            for (StatutColis etape : etapes) {
+                c = appliquerTransition(id, etape);
+            }
+            return c;
+        });
+        livreurColisIndex.mettreAJour(mapToSummary(saved));
+        indexRechercheColis.indexer(saved);
+        ColisDTO dto = mapToDTO(saved);
+
+        // Envoi de la notification push au client, hors transaction
+        notifierClient(saved);
+
+        return dto;
+    }
+
+    private Colis appliquerTransition(Long id, StatutColis statutEnum) {
         Colis colis = colisRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
-        StatutColis statutEnum = StatutColis.valueOf(nouveauStatut);
+        StatutColis statutActuel = colis.getStatutColis();
+        if (!statutActuel.peutPasserA(statutEnum)) {
+            throw new ConflictException("Transition de statut interdite : " + statutActuel + " -> " + statutEnum);
+        }
+
+        Long livreurId = colis.getLivreurId();
+        String coordonneesGPS = colis.getCoordonneesGPS();
+        LocalDateTime datePriseEnCharge = colis.getDatePriseEnCharge();
+        LocalDateTime dateLivraisonEffective = colis.getDateLivraisonEffective();
 
         if (statutEnum == StatutColis.RECUPERE) {
-            if (colis.getLivreurId() == null) {
+            if (livreurId == null) {
                 throw new IllegalArgumentException("Le colis ne peut être récupéré sans un livreur assigné.");
             }
-            // Vérifier si le livreur a déjà un colis actif
-            List<StatutColis> statutsActifs = Arrays.asList(StatutColis.RECUPERE, StatutColis.EN_COURS_DE_LIVRAISON);
-            List<Colis> colisActifs = colisRepository.findByLivreurIdAndStatutColisIn(colis.getLivreurId(), statutsActifs);
-            if (!colisActifs.isEmpty()) {
-                throw new IllegalStateException("Ce livreur a déjà un colis en cours de livraison.");
+            // Réserver le créneau du livreur : échoue si un autre colis est déjà actif.
+            // Un colis de tournée est couvert par le créneau de sa tournée.
+            if (colis.getTourneeId() == null && livreurRepository.reserverColisActif(livreurId, id) == 0) {
+                throw new ConflictException("Ce livreur a déjà un colis en cours de livraison.");
             }
             // Mise à jour de la géolocalisation en fonction de la position actuelle du livreur
-            LivreurDTO livreurDTO = livreurService.getLivreurById(colis.getLivreurId());
-            if (livreurDTO.getLatitudeActuelle() != null && livreurDTO.getLongitudeActuelle() != null) {
-                String coords = String.format(Locale.US, "%.6f,%.6f",
-                        livreurDTO.getLatitudeActuelle(), livreurDTO.getLongitudeActuelle());
-                colis.setCoordonneesGPS(coords);
-            }
-            colis.setDatePriseEnCharge(LocalDateTime.now());
+            coordonneesGPS = positionLivreur(livreurId, coordonneesGPS);
+            datePriseEnCharge = LocalDateTime.now();
         } else if (statutEnum == StatutColis.EN_COURS_DE_LIVRAISON) {
-            if (colis.getLivreurId() != null) {
-                LivreurDTO livreurDTO = livreurService.getLivreurById(colis.getLivreurId());
-                if (livreurDTO.getLatitudeActuelle() != null && livreurDTO.getLongitudeActuelle() != null) {
-                    String coords = String.format(Locale.US, "%.6f,%.6f",
-                            livreurDTO.getLatitudeActuelle(), livreurDTO.getLongitudeActuelle());
-                    colis.setCoordonneesGPS(coords);
-                }
+            if (livreurId != null) {
+                coordonneesGPS = positionLivreur(livreurId, coordonneesGPS);
+            }
+            if (datePriseEnCharge == null) {
+                datePriseEnCharge = LocalDateTime.now();
             }
-            colis.setDatePriseEnCharge(LocalDateTime.now());
         } else if (statutEnum == StatutColis.LIVRE) {
-            colis.setDateLivraisonEffective(LocalDateTime.now());
+            dateLivraisonEffective = LocalDateTime.now();
         } else if (statutEnum == StatutColis.EN_ATTENTE) {
-            if (colis.getCoordonneesGPS() == null) {
+            if (coordonneesGPS == null) {
                 ClientDTO clientDTO = clientService.getClientById(colis.getClientId());
                 if (clientDTO.getLatitude() != null && clientDTO.getLongitude() != null) {
-                    String coords = String.format(Locale.US, "%.6f,%.6f",
+                    coordonneesGPS = String.format(Locale.US, "%.6f,%.6f",
                             clientDTO.getLatitude(), clientDTO.getLongitude());
-                    colis.setCoordonneesGPS(coords);
                 }
             }
         }
 
-        // Mise à jour du statut
-        colis.setStatutColis(statutEnum);
-        Colis saved = colisRepository.save(colis);
-        ColisDTO dto = mapToDTO(saved);
+        // Le colis quitte les mains du livreur : libérer son créneau
+        if (livreurId != null && StatutColis.ACTIFS.contains(statutActuel) && !StatutColis.ACTIFS.contains(statutEnum)) {
+            livreurRepository.libererColisActif(livreurId, id);
+        }
+
+        // Mise à jour du statut, uniquement si personne ne l'a modifié depuis la lecture
+        int lignes = colisRepository.transitionStatut(id, statutActuel, statutEnum,
+                coordonneesGPS, datePriseEnCharge, dateLivraisonEffective);
+        if (lignes == 0) {
+            throw new ConflictException("Le statut du colis " + id + " a été modifié par une autre requête.");
+        }
+        clientStatistiquesService.retirer(colis.getClientId(), statutActuel, colis.getPrixTotal());
+        clientStatistiquesService.ajouter(colis.getClientId(), statutEnum, colis.getPrixTotal(), dateLivraisonEffective);
+        eventPublisher.publishEvent(new ColisStatutEvenement(id, livreurId, statutActuel, statutEnum,
+                datePriseEnCharge, dateLivraisonEffective, colis.getTourneeId()));
+        if (statutEnum == StatutColis.LIVRE) {
+            // Comptabilisé seulement s'il est déjà payé ; sinon le webhook de paiement s'en chargera
+            grandLivreService.comptabiliser(id);
+        }
+        return colisRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
+    }
+
+    /**
+     * Reporte sur les agrégats client le passage d'un colis de l'état (client, statut, prix) lu
+     * avant modification à son état enregistré.
+     */
+    private void mettreAJourStatistiques(Long ancienClientId, StatutColis ancienStatut, long ancienPrix, Colis c) {
+        if (Objects.equals(ancienClientId, c.getClientId()) && ancienStatut == c.getStatutColis()
+                && ancienPrix == c.getPrixTotal()) {
+            return;
+        }
+        clientStatistiquesService.retirer(ancienClientId, ancienStatut, ancienPrix);
+        clientStatistiquesService.ajouter(c.getClientId(), c.getStatutColis(), c.getPrixTotal(),
+                c.getDateLivraisonEffective());
+    }
+
+    /**
+     * Un changement de livreur équivaut, pour les agrégats, au retrait du colis chez l'ancien livreur
+     * suivi de son ajout chez le nouveau, dans le même statut.
+     */
+    private void publierReaffectation(Long ancienLivreurId, Colis c) {
+        if (Objects.equals(ancienLivreurId, c.getLivreurId())) {
+            return;
+        }
+        eventPublisher.publishEvent(new ColisStatutEvenement(c.getId(), ancienLivreurId, c.getStatutColis(), null,
+                c.getDatePriseEnCharge(), c.getDateLivraisonEffective()));
+        eventPublisher.publishEvent(new ColisStatutEvenement(c.getId(), c.getLivreurId(), null, c.getStatutColis(),
+                c.getDatePriseEnCharge(), c.getDateLivraisonEffective()));
+    }
+
+    private String positionLivreur(Long livreurId, String parDefaut) {
+        LivreurDTO livreurDTO = livreurService.getLivreurById(livreurId);
+        if (livreurDTO.getLatitudeActuelle() != null && livreurDTO.getLongitudeActuelle() != null) {
+            return String.format(Locale.US, "%.6f,%.6f",
+                    livreurDTO.getLatitudeActuelle(), livreurDTO.getLongitudeActuelle());
+        }
+        return parDefaut;
+    }
 
-        // Envoi de la notification push au client
+    private void notifierClient(Colis saved) {
         ClientDTO clientDTO = clientService.getClientById(saved.getClientId());
         if (clientDTO != null && clientDTO.getFcmToken() != null) {
             String title = "Mise à jour de votre commande";
@@ -163,115 +531,107 @@ public class ColisServiceImpl implements ColisService {
             }
             firebaseMessagingService.sendNotification(title, message, clientDTO.getFcmToken());
         }
-
-        return dto;
     }
 
     @Override
     public ColisDTO enregistrerPaiement(Long id, ColisRequestDTO dtoPaiement) {
-        Colis colis = colisRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
-        if (dtoPaiement.getModePaiement() != null) {
-            colis.setModePaiement(dtoPaiement.getModePaiement());
-        }
-        if (dtoPaiement.getStatutPaiement() != null) {
-            colis.setStatutPaiement(dtoPaiement.getStatutPaiement());
-        }
-        if (dtoPaiement.getPaiementInfo() != null) {
-            colis.setPaiementInfo(dtoPaiement.getPaiementInfo());
-        }
-        Colis saved = colisRepository.save(colis);
+        Colis saved = transactionTemplate.execute(tx -> {
+            Colis colis = colisRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", id));
+            if (dtoPaiement.getModePaiement() != null) {
+                colis.setModePaiement(dtoPaiement.getModePaiement());
+            }
+            if (dtoPaiement.getStatutPaiement() != null) {
+                colis.setStatutPaiement(dtoPaiement.getStatutPaiement());
+            }
+            if (dtoPaiement.getPaiementInfo() != null) {
+                colis.setPaiementInfo(dtoPaiement.getPaiementInfo());
+            }
+            Colis c = colisRepository.save(colis);
+            if (c.getStatutPaiement() == StatutPaiement.PAYE && c.getStatutColis() == StatutColis.LIVRE) {
+                grandLivreService.comptabiliser(id);
+            }
+            return c;
+        });
         return mapToDTO(saved);
     }
 
+    /**
+     * Applique la grille tarifaire ; "villeDestination" porte le type d'expédition (Urbain, Interurbain, International).
+     */
     private void calculTarif(Colis colis) {
         if (colis.getPoids() == null) {
             colis.setPoids(0.0);
         }
-        double poids = colis.getPoids();
-        double basePrice = 0.0;
-        String expeditionType = colis.getVilleDestination();
-        switch (colis.getTypeColis()) {
-            case STANDARD:
-                if ("Urbain".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 3000;
-                    else if (poids <= 10) basePrice = 4500;
-                    else if (poids <= 20) basePrice = 7500;
-                    else if (poids <= 30) basePrice = 11000;
-                } else if ("Interurbain".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 7500;
-                    else if (poids <= 10) basePrice = 10000;
-                    else if (poids <= 20) basePrice = 15000;
-                    else if (poids <= 30) basePrice = 20000;
-                } else if ("International".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 34650;
-                    else if (poids <= 10) basePrice = 66300;
-                    else if (poids <= 20) basePrice = 130600;
-                    else if (poids <= 30) basePrice = 196000;
-                }
-                break;
-            case OBJET_DE_VALEUR:
-                if ("Urbain".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 4000;
-                    else if (poids <= 10) basePrice = 6000;
-                    else if (poids <= 20) basePrice = 9500;
-                    else if (poids <= 30) basePrice = 14000;
-                } else if ("Interurbain".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 8000;
-                    else if (poids <= 10) basePrice = 12000;
-                    else if (poids <= 20) basePrice = 18000;
-                    else if (poids <= 30) basePrice = 25000;
-                } else if ("International".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 36382;
-                    else if (poids <= 10) basePrice = 69615;
-                    else if (poids <= 20) basePrice = 137130;
-                    else if (poids <= 30) basePrice = 205800;
-                }
-                break;
-            case VOLUMINEUX:
-                if ("Urbain".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 8000;
-                    else if (poids <= 10) basePrice = 12000;
-                    else if (poids <= 20) basePrice = 18000;
-                    else if (poids <= 30) basePrice = 26000;
-                } else if ("Interurbain".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 15000;
-                    else if (poids <= 10) basePrice = 20000;
-                    else if (poids <= 20) basePrice = 30000;
-                    else if (poids <= 30) basePrice = 40000;
-                } else if ("International".equalsIgnoreCase(expeditionType)) {
-                    if (poids <= 5) basePrice = 65000;
-                    else if (poids <= 10) basePrice = 100000;
-                    else if (poids <= 20) basePrice = 150000;
-                    else if (poids <= 30) basePrice = 250000;
-                }
-                break;
-        }
-        if (Boolean.TRUE.equals(colis.getAssurance())) {
-            basePrice *= 1.05;
-        }
-        double livreurShare = basePrice * 0.75;
-        double plateformeShare = basePrice * 0.25;
-        colis.setPrixTotal(basePrice);
-        colis.setFraisLivraison(livreurShare);
-        colis.setCommissionPlateforme(plateformeShare);
+        GrilleTarifaire.Tarif tarif = grilleTarifaire.calculer(colis.getTypeColis(),
+                TypeExpedition.depuisLibelle(colis.getVilleDestination()), colis.getPoids(), colis.getAssurance());
+        colis.setPrixTotal(tarif.getPrixTotal());
+        colis.setFraisLivraison(tarif.getFraisLivraison());
+        colis.setCommissionPlateforme(tarif.getCommissionPlateforme());
     }
 
+    /**
+     * Le tarif n'est recalculé que tant que le colis attend sa prise en charge et que son paiement
+     * n'est ni réglé ni annulé ; au-delà, le prix facturé ne bouge plus.
+     */
+    private static boolean tarifModifiable(Colis colis) {
+        return (colis.getStatutColis() == null || colis.getStatutColis() == StatutColis.EN_ATTENTE)
+                && (colis.getStatutPaiement() == null || colis.getStatutPaiement() == StatutPaiement.EN_ATTENTE);
+    }
+
+    // Un colis naît EN_ATTENTE : les statuts suivants ne s'atteignent que par la machine à états
     private Colis mapToEntity(ColisRequestDTO dto) {
         Colis c = new Colis();
         updateEntityFromDTO(c, dto);
+        c.setStatutColis(StatutColis.EN_ATTENTE);
         return c;
     }
 
+    private static boolean destinationExplicite(ColisRequestDTO dto) {
+        return dto.getLatitudeDestination() != null && dto.getLongitudeDestination() != null;
+    }
+
+    /**
+     * Efface les coordonnées d'une adresse modifiée, plutôt que de les laisser pointer vers l'ancienne adresse,
+     * et publie son géocodage, fait après le commit par {@link GeocodageColis}. Seul un colis EN_ATTENTE est
+     * concerné (seul statut où les adresses sont modifiables) ; des coordonnées de destination fournies
+     * explicitement priment sur le géocodage.
+     */
+    private void reporterGeocodage(Colis c, String ancienneAdresseEnlevement, String ancienneAdresseLivraison,
+                                   boolean destinationExplicite) {
+        if (c.getStatutColis() != null && c.getStatutColis() != StatutColis.EN_ATTENTE) {
+            return;
+        }
+        String enlevement = null;
+        if (!Objects.equals(ancienneAdresseEnlevement, c.getAdresseEnlevement())) {
+            c.setLatitudeEnlevement(null);
+            c.setLongitudeEnlevement(null);
+            enlevement = c.getAdresseEnlevement();
+        }
+        String livraison = null;
+        if (!destinationExplicite && !Objects.equals(ancienneAdresseLivraison, c.getAdresseLivraison())) {
+            c.setLatitudeDestination(null);
+            c.setLongitudeDestination(null);
+            livraison = c.getAdresseLivraison();
+        }
+        if (enlevement != null || livraison != null) {
+            eventPublisher.publishEvent(new AdressesColisEvenement(c.getId(), enlevement, livraison));
+        }
+    }
+
     private void updateEntityFromDTO(Colis c, ColisRequestDTO dto) {
-        if (dto.getTypeColis() != null) {
-            c.setTypeColis(dto.getTypeColis());
+        // Un PUT sur un colis au tarif figé ignore les champs tarifaires, comme les adresses hors EN_ATTENTE
+        boolean tarifModifiable = tarifModifiable(c);
+        if (tarifModifiable) {
+            if (dto.getTypeColis() != null) {
+                c.setTypeColis(dto.getTypeColis());
+            }
+            c.setPoids(dto.getPoids());
+            c.setValeurDeclaree(dto.getValeurDeclaree());
+            c.setAssurance(dto.getAssurance());
         }
         c.setDescription(dto.getDescription());
-        c.setPoids(dto.getPoids());
         c.setDimensions(dto.getDimensions());
-        c.setValeurDeclaree(dto.getValeurDeclaree());
-        c.setAssurance(dto.getAssurance());
         if (dto.getClientId() != null) {
             c.setClientId(dto.getClientId());
         }
@@ -285,18 +645,24 @@ public class ColisServiceImpl implements ColisService {
             if (dto.getAdresseLivraison() != null) {
                 c.setAdresseLivraison(dto.getAdresseLivraison());
             }
-            if (dto.getVilleDestination() != null) {
+            if (tarifModifiable && dto.getVilleDestination() != null) {
                 c.setVilleDestination(dto.getVilleDestination());
             }
+            if (dto.getLatitudeDestination() != null && dto.getLongitudeDestination() != null) {
+                c.setLatitudeDestination(dto.getLatitudeDestination());
+                c.setLongitudeDestination(dto.getLongitudeDestination());
+            }
         }
         c.setNomDestinataire(dto.getNomDestinataire());
         c.setTelephoneDestinataire(dto.getTelephoneDestinataire());
         c.setEmailDestinataire(dto.getEmailDestinataire());
-        c.setLivreurId(dto.getLivreurId());
-        c.setNomLivreur(dto.getNomLivreur());
-        c.setTelephoneLivreur(dto.getTelephoneLivreur());
-        if (dto.getStatutColis() != null) {
-            c.setStatutColis(dto.getStatutColis());
+        // Le livreur d'un colis de tournée est celui de la tournée ; hors EN_ATTENTE, il tient le créneau
+        // "colis actif" du livreur et ne change plus, comme pour le PATCH
+        if (c.getTourneeId() == null
+                && (c.getStatutColis() == null || c.getStatutColis() == StatutColis.EN_ATTENTE)) {
+            c.setLivreurId(dto.getLivreurId());
+            c.setNomLivreur(dto.getNomLivreur());
+            c.setTelephoneLivreur(dto.getTelephoneLivreur());
         }
         if (dto.getDatePriseEnCharge() != null) {
             c.setDatePriseEnCharge(dto.getDatePriseEnCharge());
@@ -310,9 +676,7 @@ public class ColisServiceImpl implements ColisService {
         if (dto.getModePaiement() != null) {
             c.setModePaiement(dto.getModePaiement());
         }
-        if (dto.getStatutPaiement() != null) {
-            c.setStatutPaiement(dto.getStatutPaiement());
-        }
+        // Le statut de paiement ne change que par /paiement et le webhook, qui tiennent le grand livre à jour
         if (dto.getPaiementInfo() != null) {
             c.setPaiementInfo(dto.getPaiementInfo());
         }
@@ -323,6 +687,12 @@ public class ColisServiceImpl implements ColisService {
         c.setPreuveLivraison(dto.getPreuveLivraison());
     }
 
+    private ColisSummaryDTO mapToSummary(Colis c) {
+        return new ColisSummaryDTO(c.getId(), c.getReferenceColis(), c.getStatutColis(), c.getClientId(),
+                c.getLivreurId(), c.getNomLivreur(), c.getPrixTotal(), c.getDateCreation(),
+                c.getDatePriseEnCharge(), c.getDateLivraisonEstimee(), c.getDateLivraisonEffective(), c.getVersion());
+    }
+
     private ColisDTO mapToDTO(Colis c) {
         ColisDTO dto = new ColisDTO();
         dto.setId(c.getId());
@@ -344,6 +714,10 @@ public class ColisServiceImpl implements ColisService {
         dto.setEmailDestinataire(c.getEmailDestinataire());
         dto.setAdresseLivraison(c.getAdresseLivraison());
         dto.setVilleDestination(c.getVilleDestination());
+        dto.setLatitudeEnlevement(c.getLatitudeEnlevement());
+        dto.setLongitudeEnlevement(c.getLongitudeEnlevement());
+        dto.setLatitudeDestination(c.getLatitudeDestination());
+        dto.setLongitudeDestination(c.getLongitudeDestination());
         dto.setLivreurId(c.getLivreurId());
         dto.setNomLivreur(c.getNomLivreur());
         dto.setTelephoneLivreur(c.getTelephoneLivreur());
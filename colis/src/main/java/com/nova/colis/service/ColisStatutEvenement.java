@@ -0,0 +1,67 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.StatutColis;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement publié à chaque création, changement de statut ou suppression d'un colis.
+ * {@code ancienStatut} est null à la création, {@code nouveauStatut} est null à la suppression.
+ * Publié dans la transaction de la modification : les écouteurs {@code @TransactionalEventListener}
+ * ne le reçoivent qu'après le commit, les écouteurs {@code @EventListener} y participent (arrêts de tournée).
+ */
+public class ColisStatutEvenement {
+
+    private final Long colisId;
+    private final Long livreurId;
+    private final StatutColis ancienStatut;
+    private final StatutColis nouveauStatut;
+    private final LocalDateTime datePriseEnCharge;
+    private final LocalDateTime dateLivraisonEffective;
+    private final Long tourneeId;
+
+    public ColisStatutEvenement(Long colisId, Long livreurId, StatutColis ancienStatut, StatutColis nouveauStatut,
+                                LocalDateTime datePriseEnCharge, LocalDateTime dateLivraisonEffective) {
+        this(colisId, livreurId, ancienStatut, nouveauStatut, datePriseEnCharge, dateLivraisonEffective, null);
+    }
+
+    public ColisStatutEvenement(Long colisId, Long livreurId, StatutColis ancienStatut, StatutColis nouveauStatut,
+                                LocalDateTime datePriseEnCharge, LocalDateTime dateLivraisonEffective, Long tourneeId) {
+        this.tourneeId = tourneeId;
+        this.colisId = colisId;
+        this.livreurId = livreurId;
+        this.ancienStatut = ancienStatut;
+        this.nouveauStatut = nouveauStatut;
+        this.datePriseEnCharge = datePriseEnCharge;
+        this.dateLivraisonEffective = dateLivraisonEffective;
+    }
+
+    public Long getColisId() {
+        return colisId;
+    }
+
+    public Long getLivreurId() {
+        return livreurId;
+    }
+
+    public StatutColis getAncienStatut() {
+        return ancienStatut;
+    }
+
+    public StatutColis getNouveauStatut() {
+        return nouveauStatut;
+    }
+
+    public LocalDateTime getDatePriseEnCharge() {
+        return datePriseEnCharge;
+    }
+
+    public LocalDateTime getDateLivraisonEffective() {
+        return dateLivraisonEffective;
+    }
+
+    // Tournée du colis, ou null s'il est livré seul
+    public Long getTourneeId() {
+        return tourneeId;
+    }
+}
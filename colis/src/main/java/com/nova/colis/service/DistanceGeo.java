@@ -0,0 +1,46 @@
+package com.nova.colis.service;
+
+/**
+ * Calculs de distance entre coordonnées GPS (degrés décimaux), en mètres.
+ */
+public final class DistanceGeo {
+
+    static final double RAYON_TERRE_METRES = 6_371_008.8;
+
+    private DistanceGeo() {
+    }
+
+    /**
+     * Distance orthodromique (formule de haversine).
+     */
+    public static double haversineMetres(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RAYON_TERRE_METRES * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Lit une position au format "lat,lon" (champ coordonneesGPS).
+     *
+     * @return {latitude, longitude}, ou null si la chaîne est absente ou invalide
+     */
+    public static double[] lirePosition(String coordonnees) {
+        if (coordonnees == null) {
+            return null;
+        }
+        int virgule = coordonnees.indexOf(',');
+        if (virgule < 0) {
+            return null;
+        }
+        try {
+            double lat = Double.parseDouble(coordonnees.substring(0, virgule).trim());
+            double lon = Double.parseDouble(coordonnees.substring(virgule + 1).trim());
+            return new double[]{lat, lon};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.EstimationLivraisonDTO;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisEtaView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimation de l'heure d'arrivée (dateLivraisonEstimee) des colis EN_COURS_DE_LIVRAISON.
+ *
+ * La vitesse "à vol d'oiseau" (distance départ -> destination / durée du trajet) de chaque livraison
+ * terminée alimente des statistiques en mémoire par cellule (zone de destination d'environ 2 km x heure
+ * de départ). À chaque position reçue d'un livreur, l'estimation de ses colis en cours est recalculée
+ * en O(1) par colis : distance restante / vitesse de la cellule, avec repli sur la zone toutes heures
+ * confondues, puis sur l'heure toutes zones confondues, puis sur une vitesse par défaut.
+ * L'estimation est poussée sur /topic/suivi/{colisId} ; elle n'est écrite en base que lorsqu'elle
+ * a bougé d'au moins {@code eta.seuil-ecriture-secondes}.
+ *
+ * Les statistiques sont locales à l'instance et repartent de zéro au démarrage.
+ */
+@Component
+public class EstimateurEta {
+
+    static final String TOPIC_SUIVI = "/topic/suivi/";
+
+    static final double TAILLE_ZONE_DEGRES = 0.02;
+    // Une cellule n'est utilisée qu'à partir de ce nombre de livraisons observées
+    static final int ECHANTILLONS_MIN = 3;
+    // Vitesses moyennes retenues pour l'apprentissage (m/s) : au-delà, trajet aberrant (GPS, oubli de statut)
+    private static final double VITESSE_MIN = 0.3;
+    private static final double VITESSE_MAX = 40.0;
+    private static final int TOUTES_HEURES = 24;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // Les résumés des colis d'un livreur portent l'estimation enregistrée
+    @Autowired
+    private LivreurColisIndex livreurColisIndex;
+
+    @Value("${eta.vitesse-defaut-kmh:18}")
+    private double vitesseDefautKmh = 18;
+
+    @Value("${eta.seuil-ecriture-secondes:120}")
+    private long seuilEcritureSecondes = 120;
+
+    private final Clock clock;
+
+    // (zone, heure) et (zone, toutes heures) -> statistiques
+    private final Map<Long, CelluleVitesse> cellules = new ConcurrentHashMap<>();
+    private final CelluleVitesse[] parHeure = new CelluleVitesse[TOUTES_HEURES];
+
+    // livreurId -> colisId -> trajet en cours
+    private final Map<Long, Map<Long, Trajet>> trajetsParLivreur = new ConcurrentHashMap<>();
+
+    public EstimateurEta() {
+        this(Clock.systemDefaultZone());
+    }
+
+    EstimateurEta(Clock clock) {
+        this.clock = clock;
+        for (int h = 0; h < TOUTES_HEURES; h++) {
+            parHeure[h] = new CelluleVitesse();
+        }
+    }
+
+    /**
+     * Reprend le suivi des colis déjà en cours au démarrage. Leur heure de départ est inconnue :
+     * ils sont estimés mais n'alimentent pas les statistiques.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        for (ColisEtaView colis : colisRepository.findEtaByLivreurIdIsNotNullAndStatutColis(StatutColis.EN_COURS_DE_LIVRAISON)) {
+            suivre(colis, false);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surChangementDeStatut(ColisStatutEvenement evenement) {
+        if (evenement.getNouveauStatut() == StatutColis.EN_COURS_DE_LIVRAISON && evenement.getLivreurId() != null) {
+            colisRepository.findEtaById(evenement.getColisId()).ifPresent(colis -> {
+                Trajet trajet = suivre(colis, true);
+                if (trajet != null && trajet.latitudeDepart != null) {
+                    diffuser(trajet, estimer(trajet, trajet.latitudeDepart, trajet.longitudeDepart));
+                }
+            });
+            return;
+        }
+        Trajet trajet = retirer(evenement.getColisId(), evenement.getLivreurId());
+        if (trajet != null && evenement.getNouveauStatut() == StatutColis.LIVRE) {
+            apprendre(trajet, clock.millis());
+        }
+    }
+
+    /**
+     * Nouvelle position d'un livreur : recalcule, diffuse et enregistre l'estimation de ses colis en cours.
+     */
+    public void surPosition(Long livreurId, double latitude, double longitude) {
+        Map<Long, Trajet> trajets = trajetsParLivreur.get(livreurId);
+        if (trajets == null) {
+            return;
+        }
+        for (Trajet trajet : trajets.values()) {
+            if (trajet.latitudeDepart == null) {
+                // Première position connue après le départ
+                trajet.latitudeDepart = latitude;
+                trajet.longitudeDepart = longitude;
+            }
+            EstimationLivraisonDTO estimation = estimer(trajet, latitude, longitude);
+            diffuser(trajet, estimation);
+            long eta = estimation.getDateLivraisonEstimee().atZone(clock.getZone()).toInstant().toEpochMilli();
+            if (Math.abs(eta - trajet.derniereEtaEcrite) >= seuilEcritureSecondes * 1000) {
+                if (colisRepository.updateDateLivraisonEstimee(trajet.colisId, estimation.getDateLivraisonEstimee()) > 0) {
+                    livreurColisIndex.mettreAJourEta(trajet.colisId, estimation.getDateLivraisonEstimee());
+                }
+                trajet.derniereEtaEcrite = eta;
+            }
+        }
+    }
+
+    EstimationLivraisonDTO estimer(Trajet trajet, double latitude, double longitude) {
+        long maintenant = clock.millis();
+        int heure = LocalDateTime.ofInstant(Instant.ofEpochMilli(maintenant), clock.getZone()).getHour();
+        double distance = DistanceGeo.haversineMetres(latitude, longitude,
+                trajet.latitudeDestination, trajet.longitudeDestination);
+
+        double vitesse = vitesseDefautKmh / 3.6;
+        long echantillons = 0;
+        CelluleVitesse[] candidats = {
+                cellules.get(cle(trajet.zone, heure)),
+                cellules.get(cle(trajet.zone, TOUTES_HEURES)),
+                parHeure[heure]
+        };
+        for (CelluleVitesse cellule : candidats) {
+            if (cellule != null) {
+                synchronized (cellule) {
+                    if (cellule.echantillons >= ECHANTILLONS_MIN) {
+                        vitesse = cellule.distance / cellule.duree;
+                        echantillons = cellule.echantillons;
+                        break;
+                    }
+                }
+            }
+        }
+
+        LocalDateTime eta = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(maintenant + (long) (distance / vitesse * 1000)), clock.getZone());
+        return new EstimationLivraisonDTO(trajet.colisId, trajet.livreurId, latitude, longitude,
+                Math.round(distance), Math.round(vitesse * 36) / 10.0, echantillons, eta);
+    }
+
+    /**
+     * Ajoute la vitesse moyenne d'un trajet terminé à sa cellule, à sa zone et à son heure de départ.
+     */
+    void apprendre(Trajet trajet, long arriveeMs) {
+        if (!trajet.apprendre || trajet.latitudeDepart == null) {
+            return;
+        }
+        double secondes = (arriveeMs - trajet.departMs) / 1000.0;
+        double distance = DistanceGeo.haversineMetres(trajet.latitudeDepart, trajet.longitudeDepart,
+                trajet.latitudeDestination, trajet.longitudeDestination);
+        if (secondes <= 0 || distance / secondes < VITESSE_MIN || distance / secondes > VITESSE_MAX) {
+            return;
+        }
+        int heure = LocalDateTime.ofInstant(Instant.ofEpochMilli(trajet.departMs), clock.getZone()).getHour();
+        cellules.computeIfAbsent(cle(trajet.zone, heure), k -> new CelluleVitesse()).ajouter(distance, secondes);
+        cellules.computeIfAbsent(cle(trajet.zone, TOUTES_HEURES), k -> new CelluleVitesse()).ajouter(distance, secondes);
+        parHeure[heure].ajouter(distance, secondes);
+    }
+
+    Trajet suivre(ColisEtaView colis, boolean apprendre) {
+        if (colis.getLivreurId() == null || colis.getLatitudeDestination() == null
+                || colis.getLongitudeDestination() == null) {
+            return null;
+        }
+        Trajet trajet = new Trajet(colis.getId(), colis.getLivreurId(), colis.getLatitudeDestination(),
+                colis.getLongitudeDestination(), clock.millis(), apprendre);
+        double[] position = DistanceGeo.lirePosition(colis.getCoordonneesGPS());
+        if (position != null) {
+            trajet.latitudeDepart = position[0];
+            trajet.longitudeDepart = position[1];
+        }
+        trajetsParLivreur.computeIfAbsent(colis.getLivreurId(), k -> new ConcurrentHashMap<>())
+                .put(colis.getId(), trajet);
+        return trajet;
+    }
+
+    private Trajet retirer(Long colisId, Long livreurId) {
+        if (livreurId == null) {
+            return null;
+        }
+        Trajet[] retire = new Trajet[1];
+        trajetsParLivreur.computeIfPresent(livreurId, (id, trajets) -> {
+            retire[0] = trajets.remove(colisId);
+            return trajets.isEmpty() ? null : trajets;
+        });
+        return retire[0];
+    }
+
+    private void diffuser(Trajet trajet, EstimationLivraisonDTO estimation) {
+        messagingTemplate.convertAndSend(TOPIC_SUIVI + trajet.colisId, estimation);
+    }
+
+    /**
+     * Zone de destination : maille de {@link #TAILLE_ZONE_DEGRES} degrés.
+     */
+    static long zone(double latitude, double longitude) {
+        long ligne = (long) Math.floor((latitude + 90) / TAILLE_ZONE_DEGRES);
+        long colonne = (long) Math.floor((longitude + 180) / TAILLE_ZONE_DEGRES);
+        return ligne * 100_000L + colonne;
+    }
+
+    private static long cle(long zone, int heure) {
+        return zone * 32 + heure;
+    }
+
+    /**
+     * Colis en cours de livraison suivi par l'estimateur.
+     */
+    static final class Trajet {
+        final Long colisId;
+        final Long livreurId;
+        final double latitudeDestination;
+        final double longitudeDestination;
+        final long zone;
+        final long departMs;
+        final boolean apprendre;
+        volatile Double latitudeDepart;
+        volatile Double longitudeDepart;
+        volatile long derniereEtaEcrite;
+
+        Trajet(Long colisId, Long livreurId, double latitudeDestination, double longitudeDestination,
+               long departMs, boolean apprendre) {
+            this.colisId = colisId;
+            this.livreurId = livreurId;
+            this.latitudeDestination = latitudeDestination;
+            this.longitudeDestination = longitudeDestination;
+            this.zone = zone(latitudeDestination, longitudeDestination);
+            this.departMs = departMs;
+            this.apprendre = apprendre;
+        }
+    }
+
+    /**
+     * Cumuls de distance et de durée des livraisons d'une cellule. Les cumuls sont divisés par deux
+     * lorsqu'ils dépassent {@link #ECHANTILLONS_MAX} livraisons, pour suivre l'évolution du trafic.
+     */
+    static final class CelluleVitesse {
+        static final int ECHANTILLONS_MAX = 200;
+
+        double distance;
+        double duree;
+        long echantillons;
+
+        synchronized void ajouter(double metres, double secondes) {
+            if (echantillons >= ECHANTILLONS_MAX) {
+                distance /= 2;
+                duree /= 2;
+                echantillons /= 2;
+            }
+            distance += metres;
+            duree += secondes;
+            echantillons++;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.nova.colis.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compteur d'événements sur une fenêtre glissante, découpée en tranches d'une minute.
+ *
+ * Chaque tranche porte le numéro de la minute qu'elle compte ; une tranche trouvée avec un numéro
+ * périmé est remise à zéro par compare-and-set. Aucun verrou : un incrément concurrent à la remise
+ * à zéro d'une tranche peut être perdu, ce qui est sans conséquence pour un tableau de bord.
+ */
+public class FenetreGlissante {
+
+    private static final long MINUTE_MS = 60_000L;
+
+    private final int minutes;
+    private final AtomicLongArray numeros;
+    private final AtomicLongArray compteurs;
+
+    public FenetreGlissante(int minutes) {
+        this.minutes = minutes;
+        this.numeros = new AtomicLongArray(minutes);
+        this.compteurs = new AtomicLongArray(minutes);
+    }
+
+    public void ajouter(long maintenantMs) {
+        long minute = maintenantMs / MINUTE_MS;
+        int i = (int) (minute % minutes);
+        long numero = numeros.get(i);
+        if (numero != minute && numeros.compareAndSet(i, numero, minute)) {
+            compteurs.set(i, 0);
+        }
+        compteurs.incrementAndGet(i);
+    }
+
+    /**
+     * @return le nombre d'événements des {@code minutes} dernières minutes (minute en cours comprise).
+     */
+    public long total(long maintenantMs) {
+        long minuteCourante = maintenantMs / MINUTE_MS;
+        long total = 0;
+        for (int i = 0; i < minutes; i++) {
+            if (minuteCourante - numeros.get(i) < minutes) {
+                total += compteurs.get(i);
+            }
+        }
+        return total;
+    }
+}
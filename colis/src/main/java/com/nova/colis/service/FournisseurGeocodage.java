@@ -0,0 +1,41 @@
+package com.nova.colis.service;
+
+import java.util.Optional;
+
+/**
+ * Fournisseur de géocodage (adresse -> coordonnées). Implémentations :
+ * {@link FournisseurGeocodageNominatim} (par défaut) et {@link FournisseurGeocodageLocale}
+ * ("geocodage.fournisseur=locale", sans appel réseau).
+ *
+ * Les appels passent par {@link GeocodageService}, qui normalise l'adresse et met les résultats en cache.
+ */
+public interface FournisseurGeocodage {
+
+    /**
+     * @param adresse adresse déjà normalisée
+     * @return la position de l'adresse, ou vide si elle est introuvable
+     * @throws RuntimeException si le fournisseur est indisponible (le résultat n'est alors pas mis en cache)
+     */
+    Optional<Position> geocoder(String adresse);
+
+    /**
+     * Coordonnées GPS en degrés décimaux.
+     */
+    final class Position {
+        private final double latitude;
+        private final double longitude;
+
+        public Position(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.nova.colis.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Géocodage local, sans appel réseau (développement et tests) : "geocodage.fournisseur=locale".
+ *
+ * Chaque adresse reçoit une position déterministe dans l'agglomération de Libreville ;
+ * une adresse contenant "introuvable" n'est pas trouvée.
+ */
+@Component
+@ConditionalOnProperty(name = "geocodage.fournisseur", havingValue = "locale")
+public class FournisseurGeocodageLocale implements FournisseurGeocodage {
+
+    private static final double LATITUDE_MIN = 0.30;
+    private static final double LONGITUDE_MIN = 9.38;
+    private static final double ETENDUE = 0.20;
+
+    private final AtomicLong appels = new AtomicLong();
+
+    @Override
+    public Optional<Position> geocoder(String adresse) {
+        appels.incrementAndGet();
+        if (adresse.contains("introuvable")) {
+            return Optional.empty();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(adresse.getBytes(StandardCharsets.UTF_8));
+        long empreinte = crc.getValue();
+        double latitude = LATITUDE_MIN + ETENDUE * (empreinte & 0xFFFF) / 0xFFFF;
+        double longitude = LONGITUDE_MIN + ETENDUE * ((empreinte >>> 16) & 0xFFFF) / 0xFFFF;
+        return Optional.of(new Position(latitude, longitude));
+    }
+
+    /**
+     * @return le nombre d'appels reçus (les résultats servis par le cache n'en font pas partie)
+     */
+    public long getNombreAppels() {
+        return appels.get();
+    }
+}
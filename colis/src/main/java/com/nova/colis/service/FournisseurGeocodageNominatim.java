@@ -0,0 +1,55 @@
+package com.nova.colis.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.Optional;
+
+/**
+ * Géocodage par l'API de recherche de Nominatim (OpenStreetMap), limité au pays configuré.
+ */
+@Component
+@ConditionalOnProperty(name = "geocodage.fournisseur", havingValue = "nominatim", matchIfMissing = true)
+public class FournisseurGeocodageNominatim implements FournisseurGeocodage {
+
+    private final RestClient restClient;
+    private final String pays;
+
+    public FournisseurGeocodageNominatim(@Value("${geocodage.nominatim.url:https://nominatim.openstreetmap.org}") String url,
+                                         @Value("${geocodage.pays:ga}") String pays,
+                                         @Value("${geocodage.timeout-ms:3000}") int timeoutMs,
+                                         @Value("${geocodage.user-agent:nova-colis}") String userAgent) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = RestClient.builder()
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                // Nominatim exige un User-Agent identifiant l'application
+                .defaultHeader("User-Agent", userAgent)
+                .build();
+        this.pays = pays;
+    }
+
+    @Override
+    public Optional<Position> geocoder(String adresse) {
+        JsonNode resultats = restClient.get()
+                .uri(uri -> uri.path("/search")
+                        .queryParam("q", adresse)
+                        .queryParam("format", "jsonv2")
+                        .queryParam("limit", 1)
+                        .queryParam("countrycodes", pays)
+                        .build())
+                .retrieve()
+                .body(JsonNode.class);
+        if (resultats == null || !resultats.isArray() || resultats.isEmpty()) {
+            return Optional.empty();
+        }
+        JsonNode premier = resultats.get(0);
+        return Optional.of(new Position(premier.path("lat").asDouble(), premier.path("lon").asDouble()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.nova.colis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Géocodage des adresses d'un colis après son enregistrement, sur le pool "geocodageExecutor" :
+ * la requête de création ou de modification n'attend pas le fournisseur, limité à un appel par seconde.
+ * Les coordonnées sont reportées par {@link ColisService#enregistrerPositions}, qui les ignore si
+ * l'adresse a changé entre-temps.
+ */
+@Component
+public class GeocodageColis {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeocodageColis.class);
+
+    // Un conflit de version signifie qu'une écriture concurrente a eu lieu : on relit et on réessaie
+    private static final int TENTATIVES = 3;
+
+    @Autowired
+    private GeocodageService geocodageService;
+
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    @Qualifier("geocodageExecutor")
+    private Executor geocodageExecutor;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surAdressesModifiees(AdressesColisEvenement evenement) {
+        try {
+            geocodageExecutor.execute(() -> geocoder(evenement));
+        } catch (TaskRejectedException e) {
+            logger.warn("Géocodage du colis {} abandonné : file pleine", evenement.getColisId());
+        }
+    }
+
+    void geocoder(AdressesColisEvenement evenement) {
+        Optional<FournisseurGeocodage.Position> enlevement = evenement.getAdresseEnlevement() == null
+                ? Optional.empty() : geocodageService.geocoder(evenement.getAdresseEnlevement());
+        Optional<FournisseurGeocodage.Position> livraison = evenement.getAdresseLivraison() == null
+                ? Optional.empty() : geocodageService.geocoder(evenement.getAdresseLivraison());
+        if (enlevement.isEmpty() && livraison.isEmpty()) {
+            return;
+        }
+        for (int tentative = 1; ; tentative++) {
+            try {
+                colisService.enregistrerPositions(evenement.getColisId(), evenement.getAdresseEnlevement(),
+                        enlevement, evenement.getAdresseLivraison(), livraison);
+                return;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (tentative == TENTATIVES) {
+                    logger.warn("Coordonnées du colis {} non enregistrées : {}", evenement.getColisId(), e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+}
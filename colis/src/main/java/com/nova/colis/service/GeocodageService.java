@@ -0,0 +1,322 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.GeocodageCache;
+import com.nova.colis.repository.GeocodageCacheRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Géocodage des adresses d'enlèvement et de livraison.
+ *
+ * Les adresses sont d'abord normalisées (accents, casse, ponctuation, abréviations courantes) :
+ * "Bd Triomphal, Imm. Arambo" et "boulevard triomphal immeuble arambo" partagent la même entrée.
+ * Les résultats sont mis en cache à deux niveaux :
+ * <ul>
+ *     <li>un cache proche en mémoire (LRU, {@code geocodage.near-cache.taille} entrées) ;</li>
+ *     <li>la table geocodage_cache, partagée entre instances et bornée à {@code geocodage.cache.taille-max}
+ *     lignes : les moins récemment utilisées sont purgées périodiquement.</li>
+ * </ul>
+ * Seul un défaut des deux caches déclenche un appel au {@link FournisseurGeocodage}. Une adresse introuvable
+ * est aussi mémorisée, pendant {@code geocodage.cache.echec-jours} ; une erreur du fournisseur ne l'est pas.
+ *
+ * Les appels au fournisseur sont espacés d'au moins {@code geocodage.fournisseur.intervalle-ms} sur l'instance
+ * (Nominatim n'accepte qu'une requête par seconde) : un appelant attend son créneau, ou renonce s'il est plus
+ * loin que {@code geocodage.fournisseur.attente-max-ms}. Des demandes simultanées pour la même adresse ne
+ * donnent lieu qu'à un appel, dont le résultat est partagé. Avec plusieurs instances, l'intervalle est à
+ * multiplier par leur nombre.
+ */
+@Service
+public class GeocodageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeocodageService.class);
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+
+    // Abréviations courantes dans les adresses saisies par les marchands
+    private static final Map<String, String> ABREVIATIONS = Map.ofEntries(
+            Map.entry("bd", "boulevard"),
+            Map.entry("blvd", "boulevard"),
+            Map.entry("av", "avenue"),
+            Map.entry("ave", "avenue"),
+            Map.entry("qtr", "quartier"),
+            Map.entry("qt", "quartier"),
+            Map.entry("rte", "route"),
+            Map.entry("imm", "immeuble"),
+            Map.entry("carr", "carrefour"),
+            Map.entry("car", "carrefour"),
+            Map.entry("st", "saint"),
+            Map.entry("ste", "sainte"),
+            Map.entry("pl", "place"),
+            Map.entry("lbv", "libreville"));
+
+    // Le dernier accès d'une ligne n'est réécrit qu'au-delà de ce délai : l'ordre LRU reste approximatif,
+    // mais un accès en lecture ne coûte pas une écriture à chaque fois
+    private static final long DELAI_TOUCHER_HEURES = 24;
+
+    @Autowired
+    private FournisseurGeocodage fournisseur;
+
+    @Autowired
+    private GeocodageCacheRepository geocodageCacheRepository;
+
+    @Value("${geocodage.near-cache.taille:2000}")
+    private int tailleProcheCache = 2000;
+
+    @Value("${geocodage.cache.taille-max:100000}")
+    private int tailleMaxCache = 100000;
+
+    @Value("${geocodage.cache.echec-jours:7}")
+    private long joursEchec = 7;
+
+    @Value("${geocodage.fournisseur.intervalle-ms:1000}")
+    private long intervalleFournisseur = 1000;
+
+    @Value("${geocodage.fournisseur.attente-max-ms:30000}")
+    private long attenteMaxFournisseur = 30000;
+
+    private final Clock clock;
+
+    // Cache proche : LinkedHashMap en ordre d'accès, protégé par son propre verrou
+    private final Map<String, Resultat> procheCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Resultat> eldest) {
+            return size() > tailleProcheCache;
+        }
+    };
+
+    // Appels au fournisseur en cours, par clé : les demandes concurrentes attendent le même résultat
+    private final Map<String, CompletableFuture<Optional<FournisseurGeocodage.Position>>> appelsEnCours =
+            new ConcurrentHashMap<>();
+
+    // Prochain instant (millisecondes de l'horloge) où le fournisseur peut être appelé
+    private final Object cadence = new Object();
+    private long prochainCreneau;
+
+    public GeocodageService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    GeocodageService(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param adresse adresse saisie librement (peut être null)
+     * @return la position de l'adresse, ou vide si elle est absente, introuvable ou si le fournisseur
+     * est indisponible ou saturé
+     */
+    public Optional<FournisseurGeocodage.Position> geocoder(String adresse) {
+        String normalisee = normaliser(adresse);
+        if (normalisee.isEmpty()) {
+            return Optional.empty();
+        }
+        String cle = cle(normalisee);
+        LocalDateTime maintenant = LocalDateTime.now(clock);
+
+        Resultat resultat;
+        synchronized (procheCache) {
+            resultat = procheCache.get(cle);
+        }
+        if (resultat != null && !resultat.estExpire(maintenant)) {
+            return resultat.position();
+        }
+
+        Optional<GeocodageCache> ligne = geocodageCacheRepository.findById(cle);
+        if (ligne.isPresent()) {
+            resultat = Resultat.depuis(ligne.get(), joursEchec);
+            if (!resultat.estExpire(maintenant)) {
+                if (ligne.get().getDernierAcces() == null
+                        || ligne.get().getDernierAcces().isBefore(maintenant.minusHours(DELAI_TOUCHER_HEURES))) {
+                    geocodageCacheRepository.toucher(cle, maintenant);
+                }
+                memoriser(cle, resultat);
+                return resultat.position();
+            }
+        }
+
+        CompletableFuture<Optional<FournisseurGeocodage.Position>> appel = new CompletableFuture<>();
+        CompletableFuture<Optional<FournisseurGeocodage.Position>> enCours = appelsEnCours.putIfAbsent(cle, appel);
+        if (enCours != null) {
+            return enCours.join();
+        }
+        try {
+            Optional<FournisseurGeocodage.Position> position = interrogerFournisseur(cle, normalisee, maintenant);
+            appel.complete(position);
+            return position;
+        } catch (RuntimeException e) {
+            appel.complete(Optional.empty());
+            throw e;
+        } finally {
+            appelsEnCours.remove(cle, appel);
+        }
+    }
+
+    private Optional<FournisseurGeocodage.Position> interrogerFournisseur(String cle, String normalisee,
+                                                                        LocalDateTime maintenant) {
+        // Un appel concurrent vient peut-être de se terminer : son résultat est déjà dans le cache proche
+        Resultat resultat;
+        synchronized (procheCache) {
+            resultat = procheCache.get(cle);
+        }
+        if (resultat != null && !resultat.estExpire(maintenant)) {
+            return resultat.position();
+        }
+        if (!attendreCreneau()) {
+            logger.warn("Géocodage de '{}' abandonné : fournisseur saturé", normalisee);
+            return Optional.empty();
+        }
+        Optional<FournisseurGeocodage.Position> position;
+        try {
+            position = fournisseur.geocoder(normalisee);
+        } catch (RuntimeException e) {
+            logger.warn("Géocodage impossible pour '{}' : {}", normalisee, e.getMessage());
+            return Optional.empty();
+        }
+        Double latitude = position.map(FournisseurGeocodage.Position::getLatitude).orElse(null);
+        Double longitude = position.map(FournisseurGeocodage.Position::getLongitude).orElse(null);
+        geocodageCacheRepository.enregistrer(cle, normalisee, latitude, longitude, position.isPresent(), maintenant);
+        memoriser(cle, new Resultat(position, position.isPresent() ? null : maintenant.plusDays(joursEchec)));
+        return position;
+    }
+
+    /**
+     * Réserve le prochain créneau d'appel au fournisseur et l'attend.
+     *
+     * @return false si le créneau est au-delà de l'attente maximale (rien n'est alors réservé)
+     */
+    private boolean attendreCreneau() {
+        long attente;
+        synchronized (cadence) {
+            long maintenant = clock.millis();
+            long creneau = Math.max(maintenant, prochainCreneau);
+            attente = creneau - maintenant;
+            if (attente > attenteMaxFournisseur) {
+                return false;
+            }
+            prochainCreneau = creneau + intervalleFournisseur;
+        }
+        if (attente > 0) {
+            try {
+                Thread.sleep(attente);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Borne la table de cache : ne garde que les {@code geocodage.cache.taille-max} lignes les plus
+     * récemment utilisées.
+     */
+    @Scheduled(fixedDelayString = "${geocodage.cache.purge-ms:3600000}")
+    public void purger() {
+        // Date d'accès de la dernière ligne conservée : tout ce qui est plus ancien est supprimé
+        List<LocalDateTime> seuil = geocodageCacheRepository.findDerniersAcces(
+                PageRequest.of(Math.max(tailleMaxCache - 1, 0), 1));
+        if (seuil.isEmpty() || seuil.get(0) == null) {
+            return;
+        }
+        int supprimees = geocodageCacheRepository.supprimerAccedesAvant(seuil.get(0));
+        if (supprimees > 0) {
+            logger.info("Cache de géocodage : {} adresse(s) purgée(s)", supprimees);
+        }
+    }
+
+    /**
+     * Forme canonique d'une adresse : sans accents, en minuscules, mots séparés par une espace,
+     * abréviations développées.
+     */
+    static String normaliser(String adresse) {
+        if (adresse == null) {
+            return "";
+        }
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(adresse, Normalizer.Form.NFD)).replaceAll("");
+        String[] mots = SEPARATEURS.split(sansAccents.toLowerCase(Locale.ROOT));
+        StringBuilder sb = new StringBuilder(adresse.length());
+        for (String mot : mots) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            sb.append(ABREVIATIONS.getOrDefault(mot, mot));
+        }
+        return sb.toString();
+    }
+
+    void viderProcheCache() {
+        synchronized (procheCache) {
+            procheCache.clear();
+        }
+    }
+
+    private void memoriser(String cle, Resultat resultat) {
+        synchronized (procheCache) {
+            procheCache.put(cle, resultat);
+        }
+    }
+
+    private static String cle(String normalisee) {
+        try {
+            byte[] empreinte = MessageDigest.getInstance("SHA-256").digest(normalisee.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(empreinte);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Résultat mis en cache ; un échec expire pour laisser au fournisseur une chance de connaître l'adresse plus tard.
+     */
+    private static final class Resultat {
+        private final Optional<FournisseurGeocodage.Position> position;
+        private final LocalDateTime expiration;
+
+        Resultat(Optional<FournisseurGeocodage.Position> position, LocalDateTime expiration) {
+            this.position = position;
+            this.expiration = expiration;
+        }
+
+        Optional<FournisseurGeocodage.Position> position() {
+            return position;
+        }
+
+        static Resultat depuis(GeocodageCache ligne, long joursEchec) {
+            if (ligne.isTrouve() && ligne.getLatitude() != null && ligne.getLongitude() != null) {
+                return new Resultat(Optional.of(new FournisseurGeocodage.Position(ligne.getLatitude(),
+                        ligne.getLongitude())), null);
+            }
+            LocalDateTime creation = ligne.getDateCreation() != null ? ligne.getDateCreation() : LocalDateTime.MIN;
+            return new Resultat(Optional.empty(), creation.plusDays(joursEchec));
+        }
+
+        boolean estExpire(LocalDateTime maintenant) {
+            return expiration != null && !maintenant.isBefore(expiration);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ReleveGainsDTO;
+import com.nova.colis.model.EcritureComptable;
+import com.nova.colis.repository.CommissionPlateformeJourRepository;
+import com.nova.colis.repository.EcritureComptableRepository;
+import com.nova.colis.repository.GainLivreurJourRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Grand livre des colis livrés et payés, et cumuls journaliers par livreur et pour la plateforme.
+ *
+ * {@link #comptabiliser} est appelé après chaque événement qui peut rendre un colis à la fois LIVRE
+ * et PAYE (livraison, webhook de paiement, paiement saisi manuellement), dans la transaction de cet
+ * événement. Il est idempotent : l'écriture et les incréments n'ont lieu qu'une fois par colis.
+ */
+@Service
+public class GrandLivreService {
+
+    /** Période maximale d'un relevé, pour borner la lecture des cumuls. */
+    private static final int JOURS_MAX = 366;
+
+    @Autowired
+    private EcritureComptableRepository ecritureComptableRepository;
+
+    @Autowired
+    private GainLivreurJourRepository gainLivreurJourRepository;
+
+    @Autowired
+    private CommissionPlateformeJourRepository commissionPlateformeJourRepository;
+
+    /**
+     * @return true si le colis vient d'être comptabilisé, false s'il ne remplit pas les conditions
+     *         ou l'était déjà.
+     */
+    @Transactional
+    public boolean comptabiliser(Long colisId) {
+        if (ecritureComptableRepository.creerSiLivreEtPaye(colisId) == 0) {
+            return false;
+        }
+        EcritureComptable ecriture = ecritureComptableRepository.findByColisId(colisId).orElseThrow();
+        if (ecriture.getLivreurId() != null) {
+            gainLivreurJourRepository.ajouter(ecriture.getLivreurId(), ecriture.getJour(), ecriture.getFraisLivraison());
+        }
+        commissionPlateformeJourRepository.ajouter(ecriture.getJour(), ecriture.getMontantTotal(),
+                ecriture.getCommissionPlateforme());
+        return true;
+    }
+
+    public ReleveGainsDTO getGainsLivreur(Long livreurId, LocalDate du, LocalDate au) {
+        verifierPeriode(du, au);
+        List<ReleveGainsDTO.Jour> jours = gainLivreurJourRepository
+                .findByLivreurIdAndJourBetweenOrderByJourAsc(livreurId, du, au).stream()
+                .map(g -> new ReleveGainsDTO.Jour(g.getJour(), g.getNbColis(), g.getTotalFraisLivraison(), null))
+                .collect(Collectors.toList());
+        return new ReleveGainsDTO(du, au, jours);
+    }
+
+    public ReleveGainsDTO getCommissionsPlateforme(LocalDate du, LocalDate au) {
+        verifierPeriode(du, au);
+        List<ReleveGainsDTO.Jour> jours = commissionPlateformeJourRepository
+                .findByJourBetweenOrderByJourAsc(du, au).stream()
+                .map(c -> new ReleveGainsDTO.Jour(c.getJour(), c.getNbColis(), c.getTotalCommission(), c.getTotalEncaisse()))
+                .collect(Collectors.toList());
+        return new ReleveGainsDTO(du, au, jours);
+    }
+
+    private static void verifierPeriode(LocalDate du, LocalDate au) {
+        if (du.isAfter(au)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin.");
+        }
+        if (du.plusDays(JOURS_MAX).isBefore(au)) {
+            throw new IllegalArgumentException("La période ne peut pas dépasser " + JOURS_MAX + " jours.");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.nova.colis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nova.colis.dto.DevisTarifDTO;
+import com.nova.colis.dto.GrilleTarifaireDTO;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.model.TypeExpedition;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Grille tarifaire des colis, sans accès à la base.
+ *
+ * Les montants sont des entiers en unités mineures de la devise (XAF, qui n'a pas de décimales) :
+ * la majoration d'assurance est arrondie au franc le plus proche, et la répartition livreur /
+ * plateforme est exacte (fraisLivraison + commissionPlateforme == prixTotal).
+ *
+ * Tous les tarifs possibles (type x zone x tranche de poids x assurance) sont calculés une fois
+ * au démarrage : un devis est une simple lecture de tableau. La grille complète est aussi
+ * sérialisée une seule fois, avec une empreinte SHA-256 servie comme ETag fort.
+ */
+@Component
+public class GrilleTarifaire {
+
+    /** Bornes supérieures (incluses) des tranches de poids, en kg. */
+    static final int[] TRANCHES_POIDS = {5, 10, 20, 30};
+
+    public static final String DEVISE = "XAF";
+
+    static final int MAJORATION_ASSURANCE_POURCENT = 5;
+    static final int PART_PLATEFORME_POURCENT = 25;
+
+    /** Prix de base en XAF, indexés par [TypeColis][TypeExpedition][tranche]. */
+    private static final long[][][] PRIX_BASE = {
+            // STANDARD
+            {
+                    {3000, 4500, 7500, 11000},      // Urbain
+                    {7500, 10000, 15000, 20000},    // Interurbain
+                    {34650, 66300, 130600, 196000}  // International
+            },
+            // OBJET_DE_VALEUR
+            {
+                    {4000, 6000, 9500, 14000},
+                    {8000, 12000, 18000, 25000},
+                    {36382, 69615, 137130, 205800}
+            },
+            // VOLUMINEUX
+            {
+                    {8000, 12000, 18000, 26000},
+                    {15000, 20000, 30000, 40000},
+                    {65000, 100000, 150000, 250000}
+            }
+    };
+
+    private static final Tarif HORS_GRILLE = new Tarif(0);
+
+    /** Tarifs pré-calculés indexés par [TypeColis][TypeExpedition][tranche][assurance ? 1 : 0]. */
+    private final Tarif[][][][] tarifs;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private byte[] grilleJson;
+    private String etag;
+
+    public GrilleTarifaire() {
+        tarifs = new Tarif[TypeColis.values().length][TypeExpedition.values().length][TRANCHES_POIDS.length][2];
+        for (int t = 0; t < tarifs.length; t++) {
+            for (int e = 0; e < tarifs[t].length; e++) {
+                for (int p = 0; p < TRANCHES_POIDS.length; p++) {
+                    long base = PRIX_BASE[t][e][p];
+                    tarifs[t][e][p][0] = new Tarif(base);
+                    tarifs[t][e][p][1] = new Tarif(base + pourcentage(base, MAJORATION_ASSURANCE_POURCENT));
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    void serialiserGrille() throws JsonProcessingException, NoSuchAlgorithmException {
+        grilleJson = objectMapper.writeValueAsBytes(construireGrille());
+        byte[] empreinte = MessageDigest.getInstance("SHA-256").digest(grilleJson);
+        etag = "\"" + HexFormat.of().formatHex(empreinte, 0, 16) + "\"";
+    }
+
+    /**
+     * Tarif appliqué à la création d'un colis. Une zone inconnue ou un poids hors grille
+     * donnent un tarif nul, comme auparavant ; un poids absent compte pour 0 kg.
+     */
+    public Tarif calculer(TypeColis typeColis, TypeExpedition expedition, Double poids, Boolean assurance) {
+        int tranche = tranche(poids == null ? 0.0 : poids);
+        if (typeColis == null || expedition == null || tranche < 0) {
+            return HORS_GRILLE;
+        }
+        return tarifs[typeColis.ordinal()][expedition.ordinal()][tranche][Boolean.TRUE.equals(assurance) ? 1 : 0];
+    }
+
+    /**
+     * Devis du simulateur de prix : contrairement à {@link #calculer}, les paramètres hors grille sont refusés.
+     */
+    public DevisTarifDTO devis(TypeColis typeColis, String expedition, double poids, boolean assurance) {
+        TypeExpedition zone = TypeExpedition.depuisLibelle(expedition);
+        if (zone == null) {
+            throw new IllegalArgumentException("Type d'expédition inconnu : " + expedition);
+        }
+        if (!(poids >= 0) || tranche(poids) < 0) {
+            throw new IllegalArgumentException("Le poids doit être compris entre 0 et "
+                    + TRANCHES_POIDS[TRANCHES_POIDS.length - 1] + " kg.");
+        }
+        Tarif tarif = calculer(typeColis, zone, poids, assurance);
+        return new DevisTarifDTO(typeColis, zone, poids, assurance,
+                tarif.getPrixTotal(), tarif.getFraisLivraison(), tarif.getCommissionPlateforme());
+    }
+
+    /**
+     * @return la grille complète sérialisée en JSON (ne pas modifier le tableau renvoyé).
+     */
+    public byte[] getGrilleJson() {
+        return grilleJson;
+    }
+
+    /**
+     * @return l'ETag fort de la grille ; il ne change que si les tarifs changent.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    private GrilleTarifaireDTO construireGrille() {
+        List<GrilleTarifaireDTO.Ligne> lignes = new ArrayList<>();
+        for (TypeColis type : TypeColis.values()) {
+            for (TypeExpedition zone : TypeExpedition.values()) {
+                for (int p = 0; p < TRANCHES_POIDS.length; p++) {
+                    Tarif[] tarif = tarifs[type.ordinal()][zone.ordinal()][p];
+                    lignes.add(new GrilleTarifaireDTO.Ligne(type, zone, TRANCHES_POIDS[p],
+                            tarif[0].getPrixTotal(), tarif[1].getPrixTotal()));
+                }
+            }
+        }
+        return new GrilleTarifaireDTO(DEVISE, MAJORATION_ASSURANCE_POURCENT,
+                100 - PART_PLATEFORME_POURCENT, PART_PLATEFORME_POURCENT, lignes);
+    }
+
+    /**
+     * @return {@code pourcent} % de {@code montant}, arrondi à l'unité la plus proche (au-dessus en cas d'égalité).
+     */
+    static long pourcentage(long montant, int pourcent) {
+        return Math.floorDiv(montant * pourcent + 50, 100);
+    }
+
+    /**
+     * @return l'indice de la tranche de poids, ou -1 au-delà de la dernière tranche.
+     */
+    private static int tranche(double poids) {
+        for (int i = 0; i < TRANCHES_POIDS.length; i++) {
+            if (poids <= TRANCHES_POIDS[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tarif d'un colis (en XAF) : prix total et sa répartition entre le livreur et la plateforme.
+     */
+    public static final class Tarif {
+        private final long prixTotal;
+        private final long fraisLivraison;
+        private final long commissionPlateforme;
+
+        Tarif(long prixTotal) {
+            this.prixTotal = prixTotal;
+            this.commissionPlateforme = pourcentage(prixTotal, PART_PLATEFORME_POURCENT);
+            // Le livreur reçoit le reste : aucun franc n'est perdu ni créé par l'arrondi
+            this.fraisLivraison = prixTotal - commissionPlateforme;
+        }
+
+        public long getPrixTotal() {
+            return prixTotal;
+        }
+
+        public long getFraisLivraison() {
+            return fraisLivraison;
+        }
+
+        public long getCommissionPlateforme() {
+            return commissionPlateforme;
+        }
+    }
+}
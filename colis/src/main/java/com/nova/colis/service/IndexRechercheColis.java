@@ -0,0 +1,378 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.Colis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisRechercheView;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Index de recherche plein texte des colis (Lucene embarqué, stocké sur le disque local).
+ *
+ * Champs indexés : référence (préfixe), noms expéditeur/destinataire et adresses (texte
+ * sans accents, préfixe et approximatif), téléphones (chiffres seuls, avec et sans indicatif,
+ * préfixe et approximatif). L'index est mis à jour à chaque écriture de {@link ColisServiceImpl},
+ * rendu visible aux recherches sans commit (lecteur temps réel), et validé sur disque périodiquement.
+ *
+ * Chaque document porte l'id et la version du colis. Au démarrage, l'empreinte de l'index
+ * (nombre de documents, somme des ids, somme des versions) est comparée à celle de la table :
+ * un colis manquant, en trop ou indexé dans une version dépassée provoque la reconstruction.
+ * Toute écriture qui change la version d'un colis doit donc le réindexer, même si elle ne touche
+ * aucun champ indexé (statut, paiement, tournée).
+ *
+ * L'index est local à l'instance et n'a qu'un écrivain : il ne reçoit que les écritures faites par
+ * cette instance. L'application doit donc tourner en une seule instance ; une écriture faite
+ * ailleurs n'est rattrapée qu'au prochain démarrage, par la vérification d'empreinte.
+ */
+@Component
+public class IndexRechercheColis {
+
+    static final String CHAMP_ID = "id";
+    static final String CHAMP_REFERENCE = "reference";
+    static final String CHAMP_NOM = "nom";
+    static final String CHAMP_ADRESSE = "adresse";
+    static final String CHAMP_TELEPHONE = "telephone";
+    static final String CHAMP_VERSION = "version";
+
+    // Numéros locaux : les 8 derniers chiffres, pour trouver un numéro saisi sans indicatif
+    private static final int CHIFFRES_NUMERO_LOCAL = 8;
+    private static final int TAILLE_LOT_RECONSTRUCTION = 1000;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    private final Analyzer analyzer = new Analyzer() {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream filtre = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, filtre);
+        }
+    };
+
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public IndexRechercheColis(@Value("${colis.recherche.index-dir:data/index-colis}") String repertoire) {
+        try {
+            writer = new IndexWriter(FSDirectory.open(Path.of(repertoire)), new IndexWriterConfig(analyzer));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir l'index de recherche " + repertoire, e);
+        }
+    }
+
+    /**
+     * Reconstruit l'index depuis la base si son contenu ne correspond plus (premier démarrage,
+     * arrêt brutal avant le dernier commit, écriture manquée...).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifier() throws IOException {
+        Object[] base = colisRepository.calculerEmpreinteRecherche().get(0);
+        long[] attendue = {((Number) base[0]).longValue(), ((Number) base[1]).longValue(),
+                ((Number) base[2]).longValue()};
+        if (!Arrays.equals(attendue, empreinte())) {
+            reconstruire();
+        }
+    }
+
+    /**
+     * @return nombre de documents, somme des ids et somme des versions des colis indexés
+     */
+    long[] empreinte() throws IOException {
+        long[] empreinte = new long[3];
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            for (LeafReaderContext feuille : reader.leaves()) {
+                Bits vivants = feuille.reader().getLiveDocs();
+                NumericDocValues ids = feuille.reader().getNumericDocValues(CHAMP_ID);
+                NumericDocValues versions = feuille.reader().getNumericDocValues(CHAMP_VERSION);
+                for (int doc = 0; doc < feuille.reader().maxDoc(); doc++) {
+                    if (vivants != null && !vivants.get(doc)) {
+                        continue;
+                    }
+                    empreinte[0]++;
+                    empreinte[1] += valeur(ids, doc);
+                    empreinte[2] += valeur(versions, doc);
+                }
+            }
+        }
+        return empreinte;
+    }
+
+    public void reconstruire() throws IOException {
+        writer.deleteAll();
+        Long dernierId = 0L;
+        List<ColisRechercheView> lot;
+        do {
+            lot = colisRepository.findByIdGreaterThanOrderByIdAsc(dernierId, Limit.of(TAILLE_LOT_RECONSTRUCTION));
+            for (ColisRechercheView colis : lot) {
+                writer.addDocument(document(colis.getId(), colis.getVersion(), colis.getReferenceColis(),
+                        colis.getNomExpediteur(), colis.getNomDestinataire(),
+                        colis.getAdresseEnlevement(), colis.getAdresseLivraison(),
+                        colis.getTelephoneExpediteur(), colis.getTelephoneDestinataire()));
+                dernierId = colis.getId();
+            }
+        } while (lot.size() == TAILLE_LOT_RECONSTRUCTION);
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    public void indexer(Colis colis) {
+        try {
+            writer.updateDocument(new Term(CHAMP_ID, colis.getId().toString()),
+                    document(colis.getId(), colis.getVersion(), colis.getReferenceColis(),
+                            colis.getNomExpediteur(), colis.getNomDestinataire(),
+                            colis.getAdresseEnlevement(), colis.getAdresseLivraison(),
+                            colis.getTelephoneExpediteur(), colis.getTelephoneDestinataire()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Réindexe des colis modifiés par une requête groupée, sans entité chargée (paiement, tournée).
+     * Les colis supprimés entre-temps sont ignorés.
+     */
+    public void reindexer(Collection<Long> ids) {
+        try {
+            for (ColisRechercheView colis : colisRepository.findRechercheByIdIn(ids)) {
+                writer.updateDocument(new Term(CHAMP_ID, colis.getId().toString()),
+                        document(colis.getId(), colis.getVersion(), colis.getReferenceColis(),
+                                colis.getNomExpediteur(), colis.getNomDestinataire(),
+                                colis.getAdresseEnlevement(), colis.getAdresseLivraison(),
+                                colis.getTelephoneExpediteur(), colis.getTelephoneDestinataire()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void supprimer(Long colisId) {
+        try {
+            writer.deleteDocuments(new Term(CHAMP_ID, colisId.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Recherche les colis correspondant à tous les mots de la requête.
+     *
+     * @return les identifiants de la page demandée, par pertinence décroissante, et le nombre total de résultats.
+     */
+    public Resultat rechercher(String texte, int debut, int nombre) {
+        Query query = construireRequete(texte);
+        if (query == null) {
+            return new Resultat(List.of(), 0);
+        }
+        try {
+            searcherManager.maybeRefresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, debut + nombre);
+                List<Long> ids = new ArrayList<>();
+                for (int i = debut; i < top.scoreDocs.length; i++) {
+                    ScoreDoc hit = top.scoreDocs[i];
+                    ids.add(Long.valueOf(searcher.storedFields().document(hit.doc).get(CHAMP_ID)));
+                }
+                return new Resultat(ids, top.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${colis.recherche.commit-ms:5000}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    @PreDestroy
+    public void fermer() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private Document document(Long id, Long version, String reference, String nomExpediteur, String nomDestinataire,
+                              String adresseEnlevement, String adresseLivraison,
+                              String telephoneExpediteur, String telephoneDestinataire) {
+        Document doc = new Document();
+        doc.add(new StringField(CHAMP_ID, id.toString(), Field.Store.YES));
+        doc.add(new NumericDocValuesField(CHAMP_ID, id));
+        doc.add(new NumericDocValuesField(CHAMP_VERSION, version == null ? 0 : version));
+        if (reference != null) {
+            String ref = reference.toLowerCase(Locale.ROOT);
+            doc.add(new StringField(CHAMP_REFERENCE, ref, Field.Store.NO));
+            // Permet aussi de chercher la référence sans son préfixe "COL-"
+            String prefixe = ReferenceColisGenerator.PREFIXE.toLowerCase(Locale.ROOT);
+            if (ref.startsWith(prefixe)) {
+                doc.add(new StringField(CHAMP_REFERENCE, ref.substring(prefixe.length()), Field.Store.NO));
+            }
+        }
+        ajouterTexte(doc, CHAMP_NOM, nomExpediteur);
+        ajouterTexte(doc, CHAMP_NOM, nomDestinataire);
+        ajouterTexte(doc, CHAMP_ADRESSE, adresseEnlevement);
+        ajouterTexte(doc, CHAMP_ADRESSE, adresseLivraison);
+        ajouterTelephone(doc, telephoneExpediteur);
+        ajouterTelephone(doc, telephoneDestinataire);
+        return doc;
+    }
+
+    private static long valeur(NumericDocValues valeurs, int doc) throws IOException {
+        return valeurs != null && valeurs.advanceExact(doc) ? valeurs.longValue() : 0;
+    }
+
+    private static void ajouterTexte(Document doc, String champ, String valeur) {
+        if (valeur != null && !valeur.isBlank()) {
+            doc.add(new TextField(champ, valeur, Field.Store.NO));
+        }
+    }
+
+    private static void ajouterTelephone(Document doc, String telephone) {
+        String chiffres = chiffres(telephone);
+        if (chiffres.isEmpty()) {
+            return;
+        }
+        doc.add(new StringField(CHAMP_TELEPHONE, chiffres, Field.Store.NO));
+        if (chiffres.length() > CHIFFRES_NUMERO_LOCAL) {
+            doc.add(new StringField(CHAMP_TELEPHONE,
+                    chiffres.substring(chiffres.length() - CHIFFRES_NUMERO_LOCAL), Field.Store.NO));
+        }
+    }
+
+    /**
+     * Chaque mot de la requête doit correspondre à au moins un champ :
+     * référence (préfixe), téléphone (préfixe ou à une ou deux erreurs près),
+     * nom ou adresse (exact, préfixe ou approximatif).
+     */
+    Query construireRequete(String texte) {
+        if (texte == null || texte.isBlank()) {
+            return null;
+        }
+        BooleanQuery.Builder requete = new BooleanQuery.Builder();
+        for (String mot : texte.trim().split("\\s+")) {
+            BooleanQuery.Builder alternatives = new BooleanQuery.Builder();
+            String motMinuscule = mot.toLowerCase(Locale.ROOT);
+            if (motMinuscule.length() >= 3) {
+                ajouter(alternatives, new PrefixQuery(new Term(CHAMP_REFERENCE, motMinuscule)), 5f);
+            }
+            String chiffres = chiffres(mot);
+            if (chiffres.length() >= 3) {
+                ajouter(alternatives, new PrefixQuery(new Term(CHAMP_TELEPHONE, chiffres)), 3f);
+            }
+            if (chiffres.length() >= 6) {
+                int distance = chiffres.length() >= 8 ? 2 : 1;
+                ajouter(alternatives, new FuzzyQuery(new Term(CHAMP_TELEPHONE, chiffres), distance), 2f);
+            }
+            for (String terme : analyser(mot)) {
+                for (String champ : new String[]{CHAMP_NOM, CHAMP_ADRESSE}) {
+                    float poids = CHAMP_NOM.equals(champ) ? 2f : 1f;
+                    ajouter(alternatives, new TermQuery(new Term(champ, terme)), 2f * poids);
+                    if (terme.length() >= 2) {
+                        ajouter(alternatives, new PrefixQuery(new Term(champ, terme)), poids);
+                    }
+                    if (terme.length() >= 4) {
+                        int distance = terme.length() >= 7 ? 2 : 1;
+                        ajouter(alternatives, new FuzzyQuery(new Term(champ, terme), distance), 0.5f * poids);
+                    }
+                }
+            }
+            requete.add(alternatives.build(), BooleanClause.Occur.MUST);
+        }
+        return requete.build();
+    }
+
+    private static void ajouter(BooleanQuery.Builder builder, Query query, float boost) {
+        builder.add(new BoostQuery(query, boost), BooleanClause.Occur.SHOULD);
+    }
+
+    private List<String> analyser(String texte) {
+        List<String> termes = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(CHAMP_NOM, texte)) {
+            CharTermAttribute terme = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                termes.add(terme.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return termes;
+    }
+
+    private static String chiffres(String valeur) {
+        return valeur == null ? "" : valeur.replaceAll("\\D", "");
+    }
+
+    /**
+     * Identifiants d'une page de résultats et nombre total de correspondances.
+     */
+    public static class Resultat {
+        private final List<Long> ids;
+        private final long total;
+
+        public Resultat(List<Long> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.nova.colis.service;
+
+import com.nova.colis.config.JwtConfig;
+import com.nova.colis.dto.JetonsDTO;
+import com.nova.colis.repository.ClientRepository;
+import com.nova.colis.repository.LivreurRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Émission des jetons JWT (accès et rafraîchissement) et renouvellement sans état.
+ *
+ * Le sujet du jeton est l'identifiant du compte ; le rôle (ROLE_CLIENT, ROLE_LIVREUR...) et l'email
+ * sont repris dans les claims, si bien qu'une requête authentifiée n'a besoin d'aucune lecture en base.
+ * Le renouvellement, lui, relit le rôle du compte : un compte supprimé ou dont le rôle a changé ne peut
+ * plus prolonger sa session. La date de connexion ("auth_time") est reportée d'un jeton à l'autre ;
+ * aucun jeton n'est valable au-delà de {@code securite.jwt.session-max-heures} après elle.
+ */
+@Service
+public class JetonService {
+
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_AUTH_TIME = "auth_time";
+
+    private static final String EMETTEUR = "nova-colis";
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Autowired
+    private SecretKey cleJwt;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @Value("${securite.jwt.acces-minutes:15}")
+    private long accesMinutes = 15;
+
+    @Value("${securite.jwt.rafraichissement-heures:24}")
+    private long rafraichissementHeures = 24;
+
+    @Value("${securite.jwt.session-max-heures:168}")
+    private long sessionMaxHeures = 168;
+
+    private final Clock clock;
+
+    private JwtDecoder decodeurRafraichissement;
+
+    public JetonService() {
+        this(Clock.systemUTC());
+    }
+
+    JetonService(Clock clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void initialiser() {
+        decodeurRafraichissement = JwtConfig.decodeur(cleJwt, JwtConfig.TYPE_RAFRAICHISSEMENT);
+    }
+
+    /**
+     * @return un jeton d'accès et un jeton de rafraîchissement pour le compte
+     */
+    public JetonsDTO emettre(Long id, String email, String role) {
+        return emettre(id, email, role, clock.instant());
+    }
+
+    /**
+     * Échange un jeton de rafraîchissement valide contre une nouvelle paire de jetons.
+     *
+     * @throws BadCredentialsException si le jeton est invalide, expiré ou n'est pas un jeton de rafraîchissement,
+     * si la session a atteint sa durée maximale, ou si le compte a été supprimé ou a changé de rôle
+     */
+    public JetonsDTO rafraichir(String jetonRafraichissement) {
+        if (jetonRafraichissement == null || jetonRafraichissement.isBlank()) {
+            throw new BadCredentialsException("Jeton de rafraîchissement manquant.");
+        }
+        Jwt jwt;
+        try {
+            jwt = decodeurRafraichissement.decode(jetonRafraichissement);
+        } catch (JwtException e) {
+            throw new BadCredentialsException("Jeton de rafraîchissement invalide.", e);
+        }
+        Long id = Long.valueOf(jwt.getSubject());
+        String role = jwt.getClaimAsString(CLAIM_ROLE);
+        Optional<String> roleActuel = "ROLE_LIVREUR".equals(role)
+                ? livreurRepository.findRoleById(id) : clientRepository.findRoleById(id);
+        if (roleActuel.isEmpty() || !roleActuel.get().equals(role)) {
+            throw new BadCredentialsException("Compte supprimé ou modifié : reconnexion nécessaire.");
+        }
+        // Jetons émis avant l'ajout de auth_time : la date d'émission en tient lieu
+        Instant connexion = jwt.hasClaim(CLAIM_AUTH_TIME) ? jwt.getClaimAsInstant(CLAIM_AUTH_TIME) : jwt.getIssuedAt();
+        if (!clock.instant().isBefore(finDeSession(connexion))) {
+            throw new BadCredentialsException("Session expirée : reconnexion nécessaire.");
+        }
+        return emettre(id, jwt.getClaimAsString(CLAIM_EMAIL), role, connexion);
+    }
+
+    private JetonsDTO emettre(Long id, String email, String role, Instant connexion) {
+        Instant maintenant = clock.instant();
+        Instant finSession = finDeSession(connexion);
+        Instant finAcces = plusTot(maintenant.plus(Duration.ofMinutes(accesMinutes)), finSession);
+        String acces = signer(id, email, role, JwtConfig.TYPE_ACCES, maintenant, finAcces, connexion);
+        String rafraichissement = signer(id, email, role, JwtConfig.TYPE_RAFRAICHISSEMENT, maintenant,
+                plusTot(maintenant.plus(Duration.ofHours(rafraichissementHeures)), finSession), connexion);
+        return new JetonsDTO(acces, rafraichissement, Duration.between(maintenant, finAcces).toSeconds());
+    }
+
+    private Instant finDeSession(Instant connexion) {
+        return connexion.plus(Duration.ofHours(sessionMaxHeures));
+    }
+
+    private static Instant plusTot(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private String signer(Long id, String email, String role, String type, Instant maintenant, Instant expiration,
+                          Instant connexion) {
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+                .issuer(EMETTEUR)
+                .subject(String.valueOf(id))
+                .issuedAt(maintenant)
+                .expiresAt(expiration)
+                .claim(CLAIM_AUTH_TIME, connexion.getEpochSecond())
+                .claim(JwtConfig.CLAIM_TYPE, type);
+        if (email != null) {
+            claims.claim(CLAIM_EMAIL, email);
+        }
+        if (role != null) {
+            claims.claim(CLAIM_ROLE, role);
+        }
+        JwsHeader entete = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(entete, claims.build())).getTokenValue();
+    }
+}
@@ -0,0 +1,289 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local en ajout seul des messages du chat acceptés mais pas encore enregistrés en base.
+ *
+ * Le journal est découpé en segments "chat-NNN.journal" d'au plus {@code tailleSegment} octets ;
+ * un segment est supprimé dès que tous ses messages sont en base. Format d'un enregistrement :
+ * [longueur du contenu (int)][contenu][CRC32 du contenu (int)] ; à la relecture, un enregistrement
+ * tronqué ou corrompu (arrêt brutal pendant l'écriture) marque la fin du segment.
+ *
+ * Les écritures sont séquentielles ; le fsync est partagé : un appelant qui attend derrière un fsync
+ * en cours trouve en général ses octets déjà sur disque et n'en déclenche pas un second.
+ */
+final class JournalChat {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalChat.class);
+
+    private static final String PREFIXE = "chat-";
+    private static final String SUFFIXE = ".journal";
+
+    private final Path repertoire;
+    private final long tailleSegment;
+
+    private final Object verrouEcriture = new Object();
+    private final Object verrouSynchro = new Object();
+
+    // Protégés par verrouEcriture
+    private FileChannel segment;
+    private long numeroSegment;
+    private long tailleSegmentCourant;
+    private long derniereSequence;
+    private long octetsEcrits;
+    // Segments pleins : {numéro, dernière séquence écrite}
+    private final Deque<long[]> segmentsPleins = new ArrayDeque<>();
+
+    // Protégé par verrouSynchro
+    private long octetsSynchronises;
+
+    JournalChat(Path repertoire, long tailleSegment) throws IOException {
+        this.repertoire = Files.createDirectories(repertoire);
+        this.tailleSegment = tailleSegment;
+    }
+
+    /**
+     * @return les messages des segments laissés par l'exécution précédente, dans l'ordre d'écriture
+     */
+    List<ChatMessage> relire() throws IOException {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (Path fichier : segmentsExistants()) {
+            ByteBuffer contenu = ByteBuffer.wrap(Files.readAllBytes(fichier));
+            ChatMessage message;
+            while ((message = decoder(contenu)) != null) {
+                messages.add(message);
+            }
+            if (contenu.hasRemaining()) {
+                logger.warn("Journal du chat {} : {} octet(s) final(aux) illisible(s) ignoré(s)", fichier, contenu.remaining());
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Supprime les segments existants (à appeler une fois leurs messages relus et enregistrés)
+     * et ouvre un nouveau segment.
+     */
+    void ouvrir() throws IOException {
+        long numero = 0;
+        for (Path fichier : segmentsExistants()) {
+            numero = Math.max(numero, numero(fichier) + 1);
+            Files.delete(fichier);
+        }
+        synchronized (verrouEcriture) {
+            numeroSegment = numero;
+            segment = ouvrirSegment(numeroSegment);
+        }
+    }
+
+    /**
+     * Ajoute un message à la fin du journal, sans fsync (voir {@link #forcer(long)}).
+     *
+     * @param sequence numéro d'ordre du message dans la file du tampon
+     * @return la position logique à atteindre pour que ce message soit durable
+     */
+    long ajouter(ChatMessage message, long sequence) throws IOException {
+        ByteBuffer enregistrement = encoder(message);
+        synchronized (verrouEcriture) {
+            if (tailleSegmentCourant > 0 && tailleSegmentCourant + enregistrement.remaining() > tailleSegment) {
+                changerDeSegment();
+            }
+            int taille = enregistrement.remaining();
+            while (enregistrement.hasRemaining()) {
+                segment.write(enregistrement);
+            }
+            tailleSegmentCourant += taille;
+            octetsEcrits += taille;
+            derniereSequence = sequence;
+            return octetsEcrits;
+        }
+    }
+
+    /**
+     * Rend durable (fsync) tout ce qui a été écrit jusqu'à {@code position} au moins.
+     */
+    void forcer(long position) throws IOException {
+        synchronized (verrouSynchro) {
+            if (octetsSynchronises >= position) {
+                return;
+            }
+            long cible;
+            FileChannel canal;
+            synchronized (verrouEcriture) {
+                cible = octetsEcrits;
+                canal = segment;
+            }
+            try {
+                canal.force(false);
+            } catch (ClosedChannelException e) {
+                // Segment fermé entre-temps : il a été synchronisé avant sa fermeture
+            }
+            octetsSynchronises = cible;
+        }
+    }
+
+    /**
+     * Supprime les segments pleins dont tous les messages sont enregistrés en base.
+     */
+    void liberer(long sequenceEnregistree) {
+        synchronized (verrouEcriture) {
+            while (!segmentsPleins.isEmpty() && segmentsPleins.peekFirst()[1] <= sequenceEnregistree) {
+                Path fichier = fichier(segmentsPleins.pollFirst()[0]);
+                try {
+                    Files.deleteIfExists(fichier);
+                } catch (IOException e) {
+                    logger.warn("Suppression impossible du segment {} : {}", fichier, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Ferme le journal ; si tout est enregistré, les segments sont supprimés.
+     */
+    void fermer(boolean toutEnregistre) throws IOException {
+        synchronized (verrouEcriture) {
+            segment.force(false);
+            segment.close();
+            if (toutEnregistre) {
+                liberer(Long.MAX_VALUE);
+                Files.deleteIfExists(fichier(numeroSegment));
+            }
+        }
+    }
+
+    private void changerDeSegment() throws IOException {
+        segment.force(false);
+        segment.close();
+        segmentsPleins.addLast(new long[]{numeroSegment, derniereSequence});
+        numeroSegment++;
+        segment = ouvrirSegment(numeroSegment);
+        tailleSegmentCourant = 0;
+    }
+
+    private FileChannel ouvrirSegment(long numero) throws IOException {
+        return FileChannel.open(fichier(numero), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segmentsExistants() throws IOException {
+        List<Path> fichiers = new ArrayList<>();
+        try (DirectoryStream<Path> flux = Files.newDirectoryStream(repertoire, PREFIXE + "*" + SUFFIXE)) {
+            flux.forEach(fichiers::add);
+        }
+        // Numéros sur largeur fixe : l'ordre des noms est l'ordre d'écriture
+        Collections.sort(fichiers);
+        return fichiers;
+    }
+
+    private Path fichier(long numero) {
+        return repertoire.resolve(String.format("%s%019d%s", PREFIXE, numero, SUFFIXE));
+    }
+
+    private static long numero(Path fichier) {
+        String nom = fichier.getFileName().toString();
+        return Long.parseLong(nom.substring(PREFIXE.length(), nom.length() - SUFFIXE.length()));
+    }
+
+    static ByteBuffer encoder(ChatMessage message) {
+        byte[] role = octets(message.getSenderRole());
+        byte[] texte = octets(message.getMessage());
+        byte[] photo = message.getPhoto();
+        int contenu = 3 * Long.BYTES + Long.BYTES + Integer.BYTES
+                + 3 * Integer.BYTES + longueur(role) + longueur(texte) + longueur(photo);
+        ByteBuffer tampon = ByteBuffer.allocate(Integer.BYTES + contenu + Integer.BYTES);
+        tampon.putInt(contenu);
+        tampon.putLong(message.getId()).putLong(message.getColisId()).putLong(message.getSenderId());
+        tampon.putLong(message.getTimestamp().toEpochSecond(ZoneOffset.UTC)).putInt(message.getTimestamp().getNano());
+        ecrireOctets(tampon, role);
+        ecrireOctets(tampon, texte);
+        ecrireOctets(tampon, photo);
+        CRC32 crc = new CRC32();
+        crc.update(tampon.array(), Integer.BYTES, contenu);
+        tampon.putInt((int) crc.getValue());
+        return tampon.flip();
+    }
+
+    /**
+     * @return le message suivant, ou null en fin de segment (ou sur un enregistrement incomplet ou corrompu,
+     * auquel cas la position du tampon est laissée au début de cet enregistrement)
+     */
+    static ChatMessage decoder(ByteBuffer tampon) {
+        int debut = tampon.position();
+        if (tampon.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int contenu = tampon.getInt();
+        if (contenu <= 0 || tampon.remaining() < (long) contenu + Integer.BYTES) {
+            tampon.position(debut);
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(tampon.array(), tampon.arrayOffset() + tampon.position(), contenu);
+        if (tampon.getInt(tampon.position() + contenu) != (int) crc.getValue()) {
+            tampon.position(debut);
+            return null;
+        }
+        ChatMessage message = new ChatMessage();
+        message.setId(tampon.getLong());
+        message.setColisId(tampon.getLong());
+        message.setSenderId(tampon.getLong());
+        long secondes = tampon.getLong();
+        message.setTimestamp(LocalDateTime.ofEpochSecond(secondes, tampon.getInt(), ZoneOffset.UTC));
+        message.setSenderRole(texte(lireOctets(tampon)));
+        message.setMessage(texte(lireOctets(tampon)));
+        message.setPhoto(lireOctets(tampon));
+        tampon.getInt(); // CRC déjà vérifié
+        return message;
+    }
+
+    private static byte[] octets(String texte) {
+        return texte == null ? null : texte.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String texte(byte[] octets) {
+        return octets == null ? null : new String(octets, StandardCharsets.UTF_8);
+    }
+
+    private static int longueur(byte[] octets) {
+        return octets == null ? 0 : octets.length;
+    }
+
+    private static void ecrireOctets(ByteBuffer tampon, byte[] octets) {
+        tampon.putInt(octets == null ? -1 : octets.length);
+        if (octets != null) {
+            tampon.put(octets);
+        }
+    }
+
+    private static byte[] lireOctets(ByteBuffer tampon) {
+        int longueur = tampon.getInt();
+        if (longueur < 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        tampon.get(octets);
+        return octets;
+    }
+}
@@ -0,0 +1,301 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.NonLusChatDTO;
+import com.nova.colis.model.ChatLecture;
+import com.nova.colis.model.ChatMessage;
+import com.nova.colis.model.TypeCompte;
+import com.nova.colis.repository.ChatLectureRepository;
+import com.nova.colis.repository.ChatMessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Accusés de lecture et compteurs de messages non lus du chat.
+ *
+ * Pour chaque colis dont le chat est consulté, l'état est chargé une fois (table chat_lectures et
+ * identifiants des messages postérieurs au dernier lu), puis maintenu en mémoire : chaque message
+ * diffusé incrémente le compteur du destinataire, chaque accusé de lecture le réduit. Un compteur
+ * se lit donc sans requête.
+ *
+ * Le dernier message lu de chaque participant est enregistré en différé, toutes les
+ * {@code chat.lectures.flush-ms} ms, une ligne par participant ; l'état d'un colis terminé,
+ * supprimé ou réaffecté est oublié et rechargé au besoin.
+ *
+ * Plusieurs instances : un message ou un accusé traité par une autre instance n'est pas vu ici en direct.
+ * L'état d'un colis est donc rechargé depuis chat_messages et chat_lectures
+ * {@code chat.lectures.ttl-ms} ms après son chargement : un compteur a au plus ce retard sur les autres
+ * instances. Les états périmés sont purgés, et au plus {@code chat.lectures.etats-max} colis restent
+ * en mémoire (les moins récemment chargés sont oubliés d'abord).
+ */
+@Component
+public class LecturesChat {
+
+    private static final Logger logger = LoggerFactory.getLogger(LecturesChat.class);
+
+    @Autowired
+    private ChatLectureRepository chatLectureRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private AutorisationsChat autorisationsChat;
+
+    @Autowired
+    private TamponMessagesChat tamponMessagesChat;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${chat.lectures.ttl-ms:30000}")
+    private long ttlMs = 30000;
+
+    @Value("${chat.lectures.etats-max:10000}")
+    private int etatsMax = 10000;
+
+    private final Map<Long, EtatColis> etats = new ConcurrentHashMap<>();
+
+    // Derniers messages lus pas encore enregistrés
+    private final Map<ChatLecture.Cle, Long> aEnregistrer = new ConcurrentHashMap<>();
+
+    /**
+     * @param role rôle du participant (ROLE_CLIENT ou ROLE_LIVREUR), déjà autorisé pour ce colis
+     */
+    public NonLusChatDTO nonLus(Long colisId, String role) {
+        EtatColis etat = etat(colisId);
+        synchronized (etat) {
+            Cote cote = etat.cote(typeCompte(role));
+            return new NonLusChatDTO(colisId, cote.nonLus.size(), cote.dernierLu > 0 ? cote.dernierLu : null);
+        }
+    }
+
+    /**
+     * Avance le dernier message lu du participant (il ne recule jamais).
+     *
+     * @return le dernier message lu après la mise à jour
+     */
+    public long marquerLu(Long colisId, Long participantId, String role, long messageId) {
+        TypeCompte type = typeCompte(role);
+        EtatColis etat = etat(colisId);
+        long dernierLu;
+        synchronized (etat) {
+            Cote cote = etat.cote(type);
+            if (messageId > cote.dernierLu) {
+                cote.dernierLu = messageId;
+                cote.nonLus.headSet(messageId, true).clear();
+            }
+            dernierLu = cote.dernierLu;
+        }
+        aEnregistrer.merge(new ChatLecture.Cle(colisId, type, participantId), dernierLu, Math::max);
+        return dernierLu;
+    }
+
+    /**
+     * Compte un message diffusé comme non lu par son destinataire, si l'état du colis est en mémoire
+     * (sinon il sera relu au chargement).
+     */
+    public void surMessage(ChatMessage message) {
+        TypeCompte expediteur = typeCompte(message.getSenderRole());
+        if (expediteur == null) {
+            return;
+        }
+        // Attend la fin d'un chargement en cours pour ce colis, qui a pu manquer ce message
+        etats.computeIfPresent(message.getColisId(), (colisId, etat) -> {
+            synchronized (etat) {
+                etat.compter(message.getId(), expediteur);
+            }
+            return etat;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surChangementDeStatut(ColisStatutEvenement evenement) {
+        if (evenement.getNouveauStatut() == null || evenement.getNouveauStatut().isTerminal()) {
+            etats.remove(evenement.getColisId());
+        }
+    }
+
+    /**
+     * Oublie les états périmés, puis les plus anciens si la limite de taille est dépassée.
+     */
+    @Scheduled(fixedDelayString = "${chat.lectures.ttl-ms:30000}")
+    public void purger() {
+        long maintenant = System.nanoTime();
+        etats.entrySet().removeIf(entree -> entree.getValue().estPerime(maintenant, ttlMs));
+        int excedent = etats.size() - etatsMax;
+        if (excedent > 0) {
+            etats.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entree -> entree.getValue().chargeLe - maintenant))
+                    .limit(excedent)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(etats::remove);
+        }
+    }
+
+    int nombreEtats() {
+        return etats.size();
+    }
+
+    /**
+     * Enregistre les derniers messages lus modifiés depuis le passage précédent.
+     */
+    @Scheduled(fixedDelayString = "${chat.lectures.flush-ms:2000}")
+    @PreDestroy
+    public void enregistrer() {
+        if (aEnregistrer.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<ChatLecture.Cle, Long>> lot = new ArrayList<>();
+        aEnregistrer.forEach((cle, messageId) -> lot.add(new AbstractMap.SimpleImmutableEntry<>(cle, messageId)));
+        try {
+            transactionTemplate.executeWithoutResult(tx -> lot.forEach(this::enregistrer));
+        } catch (DataIntegrityViolationException e) {
+            // Colis supprimé entre-temps : les autres lignes sont enregistrées une par une
+            for (Map.Entry<ChatLecture.Cle, Long> lecture : lot) {
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> enregistrer(lecture));
+                } catch (DataIntegrityViolationException ignoree) {
+                    logger.debug("Lecture du colis {} abandonnée : colis supprimé", lecture.getKey().getColisId());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Échec de l'enregistrement de {} accusés de lecture, nouvel essai au prochain passage", lot.size(), e);
+            return;
+        }
+        // Une lecture plus récente arrivée entre-temps reste à enregistrer
+        lot.forEach(lecture -> aEnregistrer.remove(lecture.getKey(), lecture.getValue()));
+    }
+
+    /**
+     * @return le type de compte correspondant à un rôle, ou null pour un autre rôle
+     */
+    static TypeCompte typeCompte(String role) {
+        if ("ROLE_CLIENT".equals(role)) {
+            return TypeCompte.CLIENT;
+        }
+        if ("ROLE_LIVREUR".equals(role)) {
+            return TypeCompte.LIVREUR;
+        }
+        return null;
+    }
+
+    private void enregistrer(Map.Entry<ChatLecture.Cle, Long> lecture) {
+        ChatLecture.Cle cle = lecture.getKey();
+        chatLectureRepository.enregistrer(cle.getColisId(), cle.getTypeCompte().name(), cle.getParticipantId(),
+                lecture.getValue());
+    }
+
+    private EtatColis etat(Long colisId) {
+        AutorisationsChat.Participants participants = autorisationsChat.participants(colisId);
+        EtatColis etat = etats.get(colisId);
+        if (etat != null && etat.concerne(participants) && !etat.estPerime(System.nanoTime(), ttlMs)) {
+            return etat;
+        }
+        if (etat != null) {
+            // Réaffectation : les compteurs du nouveau livreur sont rechargés ; état périmé : les messages
+            // et lectures des autres instances sont relus
+            etats.remove(colisId, etat);
+        }
+        EtatColis charge = etats.computeIfAbsent(colisId, id -> charger(id, participants));
+        if (etats.size() > etatsMax) {
+            purger();
+        }
+        return charge;
+    }
+
+    private EtatColis charger(Long colisId, AutorisationsChat.Participants participants) {
+        EtatColis etat = new EtatColis(participants.getClientId(), participants.getLivreurId());
+        for (ChatLecture lecture : chatLectureRepository.findByColisId(colisId)) {
+            Cote cote = etat.cote(lecture.getTypeCompte());
+            if (Objects.equals(lecture.getParticipantId(), cote.participantId)) {
+                cote.dernierLu = Math.max(cote.dernierLu, lecture.getDernierMessageLu());
+            }
+        }
+        for (TypeCompte type : TypeCompte.values()) {
+            Cote cote = etat.cote(type);
+            if (cote.participantId == null) {
+                continue;
+            }
+            Long pasEncoreEnregistre = aEnregistrer.get(new ChatLecture.Cle(colisId, type, cote.participantId));
+            if (pasEncoreEnregistre != null) {
+                cote.dernierLu = Math.max(cote.dernierLu, pasEncoreEnregistre);
+            }
+            String roleExpediteur = type == TypeCompte.CLIENT ? "ROLE_LIVREUR" : "ROLE_CLIENT";
+            cote.nonLus.addAll(chatMessageRepository.findIdsApres(colisId, roleExpediteur, cote.dernierLu));
+        }
+        // Messages diffusés mais pas encore écrits en base
+        for (ChatMessage message : tamponMessagesChat.enAttente(colisId)) {
+            TypeCompte expediteur = typeCompte(message.getSenderRole());
+            if (expediteur != null) {
+                etat.compter(message.getId(), expediteur);
+            }
+        }
+        return etat;
+    }
+
+    /**
+     * État de lecture d'un colis : un côté par type de participant. Protégé par son propre moniteur.
+     */
+    private static final class EtatColis {
+        private final Cote[] cotes = new Cote[TypeCompte.values().length];
+        // Instant du chargement (System.nanoTime)
+        private final long chargeLe = System.nanoTime();
+
+        EtatColis(Long clientId, Long livreurId) {
+            cotes[TypeCompte.CLIENT.ordinal()] = new Cote(clientId);
+            cotes[TypeCompte.LIVREUR.ordinal()] = new Cote(livreurId);
+        }
+
+        Cote cote(TypeCompte type) {
+            return cotes[type.ordinal()];
+        }
+
+        boolean estPerime(long maintenant, long ttlMs) {
+            return maintenant - chargeLe >= TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        }
+
+        boolean concerne(AutorisationsChat.Participants participants) {
+            return Objects.equals(cote(TypeCompte.CLIENT).participantId, participants.getClientId())
+                    && Objects.equals(cote(TypeCompte.LIVREUR).participantId, participants.getLivreurId());
+        }
+
+        void compter(Long messageId, TypeCompte expediteur) {
+            Cote destinataire = cote(expediteur == TypeCompte.CLIENT ? TypeCompte.LIVREUR : TypeCompte.CLIENT);
+            if (messageId > destinataire.dernierLu) {
+                // Ensemble : un message vu à la fois au chargement et à sa diffusion n'est compté qu'une fois
+                destinataire.nonLus.add(messageId);
+            }
+        }
+    }
+
+    private static final class Cote {
+        private final Long participantId;
+        private long dernierLu;
+        // Messages de l'autre participant postérieurs au dernier lu
+        private final TreeSet<Long> nonLus = new TreeSet<>();
+
+        Cote(Long participantId) {
+            this.participantId = participantId;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.nova.colis.service;
+
+import com.nova.colis.exception.TropDeRequetesException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limitation des tentatives de connexion par adresse IP et par email (seau à jetons).
+ *
+ * Chaque seau est représenté par une seule date, l'"heure d'arrivée théorique" de l'algorithme GCRA,
+ * équivalent exact d'un seau à jetons : une tentative est acceptée tant que cette date ne dépasse pas
+ * maintenant + (capacité - 1) x intervalle, et la repousse d'un intervalle. La mise à jour est un
+ * compareAndSet, sans verrou.
+ *
+ * La mémoire est bornée par construction : les clés sont réparties sur un tableau de taille fixe
+ * ({@code securite.login.limiteur.emplacements}). Deux clés qui tombent sur le même emplacement
+ * partagent leur seau ; la limite n'en est que plus stricte pour elles, jamais plus laxiste.
+ */
+@Component
+public class LimiteurConnexions {
+
+    private final Seau parIp;
+    private final Seau parEmail;
+    private final Clock clock;
+    // Graine propre à l'instance : la répartition des clés sur les emplacements n'est pas prévisible
+    private final int graine;
+
+    public LimiteurConnexions(@Value("${securite.login.limiteur.emplacements:65536}") int emplacements,
+                              @Value("${securite.login.ip.capacite:20}") int capaciteIp,
+                              @Value("${securite.login.ip.par-minute:10}") int parMinuteIp,
+                              @Value("${securite.login.email.capacite:5}") int capaciteEmail,
+                              @Value("${securite.login.email.par-minute:1}") int parMinuteEmail) {
+        this(emplacements, capaciteIp, parMinuteIp, capaciteEmail, parMinuteEmail, Clock.systemUTC(),
+                new SecureRandom().nextInt());
+    }
+
+    LimiteurConnexions(int emplacements, int capaciteIp, int parMinuteIp, int capaciteEmail, int parMinuteEmail,
+                       Clock clock, int graine) {
+        // Arrondi à la puissance de deux supérieure, pour un simple masque
+        int taille = Integer.highestOneBit(Math.max(emplacements - 1, 1)) << 1;
+        this.parIp = new Seau(taille, capaciteIp, parMinuteIp);
+        this.parEmail = new Seau(taille, capaciteEmail, parMinuteEmail);
+        this.clock = clock;
+        this.graine = graine;
+    }
+
+    /**
+     * Consomme un jeton pour l'adresse IP, puis pour l'email.
+     *
+     * @throws TropDeRequetesException si l'un des deux seaux est vide
+     */
+    public void verifier(String adresseIp, String email) {
+        long maintenant = clock.millis();
+        long attente = parIp.prendre(index(adresseIp == null ? "" : adresseIp), maintenant);
+        if (attente > 0) {
+            throw new TropDeRequetesException("Trop de tentatives de connexion depuis cette adresse.", secondes(attente));
+        }
+        String cleEmail = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        attente = parEmail.prendre(index(cleEmail), maintenant);
+        if (attente > 0) {
+            throw new TropDeRequetesException("Trop de tentatives de connexion pour ce compte.", secondes(attente));
+        }
+    }
+
+    private int index(String cle) {
+        int h = (cle.hashCode() ^ graine) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long secondes(long millis) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis + 999));
+    }
+
+    /**
+     * Ensemble de seaux à jetons de même capacité et même débit.
+     */
+    private static final class Seau {
+        private final AtomicLongArray arriveeTheorique;
+        private final int masque;
+        private final long intervalleMs;
+        private final long toleranceMs;
+
+        Seau(int taille, int capacite, int parMinute) {
+            this.arriveeTheorique = new AtomicLongArray(taille);
+            this.masque = taille - 1;
+            this.intervalleMs = TimeUnit.MINUTES.toMillis(1) / Math.max(parMinute, 1);
+            this.toleranceMs = intervalleMs * (Math.max(capacite, 1) - 1);
+        }
+
+        /**
+         * @return 0 si un jeton a été pris, sinon le délai (ms) avant qu'un jeton soit disponible
+         */
+        long prendre(int index, long maintenant) {
+            int i = index & masque;
+            while (true) {
+                long arrivee = arriveeTheorique.get(i);
+                long base = Math.max(arrivee, maintenant);
+                long avance = base - maintenant;
+                if (avance > toleranceMs) {
+                    return avance - toleranceMs;
+                }
+                if (arriveeTheorique.compareAndSet(i, arrivee, base + intervalleMs)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ColisRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index en mémoire des colis non terminés de chaque livreur (livreurId -> colisId -> résumé).
+ *
+ * Alimenté au démarrage puis maintenu en écriture directe par {@link ColisServiceImpl}
+ * à chaque création, affectation, changement de statut ou suppression. La question
+ * "que transporte ce livreur en ce moment ?" est ainsi servie sans requête MySQL.
+ *
+ * Deux mises à jour d'un même colis peuvent arriver dans le désordre (elles sont publiées
+ * après leurs commits respectifs) : chacune porte la version du colis et une version plus
+ * ancienne que celle déjà indexée est ignorée. Les deux tables sont modifiées ensemble sous
+ * le verrou de l'entrée du colis dans {@code entrees}.
+ *
+ * L'index est local à l'instance et reconstruit à chaque démarrage : il suppose que toutes
+ * les écritures de colis passent par cette instance. Avec plusieurs instances de l'application,
+ * les écritures faites ailleurs n'y apparaîtraient pas.
+ */
+@Component
+public class LivreurColisIndex {
+
+    /** Statuts servis par l'index (tous les statuts non terminaux). */
+    public static final Set<StatutColis> STATUTS_INDEXES = EnumSet.of(
+            StatutColis.EN_ATTENTE, StatutColis.RECUPERE, StatutColis.EN_COURS_DE_LIVRAISON);
+
+    // Versions des colis sortis de l'index conservées pour écarter une mise à jour en retard
+    private static final int TAILLE_RETIRES = 10_000;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    private final Map<Long, Map<Long, ColisSummaryDTO>> colisParLivreur = new ConcurrentHashMap<>();
+
+    // Index inverse colisId -> (livreurId, version), pour retirer un colis lors d'une réaffectation
+    private final Map<Long, Entree> entrees = new ConcurrentHashMap<>();
+
+    // colisId -> dernière version vue d'un colis retiré de l'index, les plus anciens évincés en premier
+    private final Map<Long, Long> retires = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > TAILLE_RETIRES;
+        }
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        for (ColisSummaryDTO colis : colisRepository.findSummariesByLivreurIdNotNullAndStatutIn(STATUTS_INDEXES)) {
+            mettreAJour(colis);
+        }
+    }
+
+    /**
+     * Enregistre l'état courant d'un colis : il est retiré de son ancien livreur
+     * et ajouté au nouveau s'il est encore affecté et non terminé.
+     * Un état plus ancien que celui déjà enregistré est ignoré.
+     */
+    public void mettreAJour(ColisSummaryDTO colis) {
+        Long livreurId = colis.getLivreurId();
+        boolean indexe = livreurId != null && STATUTS_INDEXES.contains(colis.getStatutColis());
+        entrees.compute(colis.getId(), (id, entree) -> {
+            Long versionConnue = entree != null ? entree.version : retires.get(id);
+            if (perimee(colis.getVersion(), versionConnue)) {
+                return entree;
+            }
+            if (entree != null && (!indexe || !entree.livreurId.equals(livreurId))) {
+                retirerDuLivreur(entree.livreurId, id);
+            }
+            if (!indexe) {
+                // Marqueur posé seulement pour un colis qui sort de l'index : les colis jamais indexés
+                // (nouveaux colis sans livreur) n'évincent pas les marqueurs des colis retirés ou supprimés
+                if (entree != null) {
+                    retires.put(id, colis.getVersion());
+                } else {
+                    retires.replace(id, colis.getVersion());
+                }
+                return null;
+            }
+            retires.remove(id);
+            colisParLivreur.computeIfAbsent(livreurId, k -> new ConcurrentHashMap<>()).put(id, colis);
+            return new Entree(livreurId, colis.getVersion());
+        });
+    }
+
+    /**
+     * Reporte l'heure d'arrivée estimée d'un colis indexé. Cette écriture de {@link EstimateurEta} ne change pas
+     * la version du colis : elle s'applique sans contrôle de version, sur une copie du résumé déjà servi.
+     */
+    public void mettreAJourEta(Long colisId, LocalDateTime dateLivraisonEstimee) {
+        entrees.computeIfPresent(colisId, (id, entree) -> {
+            colisParLivreur.computeIfPresent(entree.livreurId, (k, colis) -> {
+                colis.computeIfPresent(id, (cle, resume) -> avecEta(resume, dateLivraisonEstimee));
+                return colis;
+            });
+            return entree;
+        });
+    }
+
+    public void retirer(Long colisId) {
+        entrees.compute(colisId, (id, entree) -> {
+            if (entree != null) {
+                retirerDuLivreur(entree.livreurId, id);
+            }
+            // Un colis supprimé ne revient pas : aucune version ultérieure ne doit le réindexer
+            retires.put(id, Long.MAX_VALUE);
+            return null;
+        });
+    }
+
+    /**
+     * @return les colis du livreur dont le statut est dans {@code statuts} (qui doit être inclus
+     * dans {@link #STATUTS_INDEXES}), du plus récent au plus ancien.
+     */
+    public List<ColisSummaryDTO> getColis(Long livreurId, Collection<StatutColis> statuts) {
+        Map<Long, ColisSummaryDTO> colis = colisParLivreur.get(livreurId);
+        List<ColisSummaryDTO> resultat = new ArrayList<>();
+        if (colis != null) {
+            for (ColisSummaryDTO c : colis.values()) {
+                if (statuts.contains(c.getStatutColis())) {
+                    resultat.add(c);
+                }
+            }
+        }
+        resultat.sort(Comparator.comparing(ColisSummaryDTO::getId).reversed());
+        return resultat;
+    }
+
+    private static boolean perimee(Long version, Long versionConnue) {
+        return version != null && versionConnue != null && version < versionConnue;
+    }
+
+    private static ColisSummaryDTO avecEta(ColisSummaryDTO c, LocalDateTime dateLivraisonEstimee) {
+        return new ColisSummaryDTO(c.getId(), c.getReferenceColis(), c.getStatutColis(), c.getClientId(),
+                c.getLivreurId(), c.getNomLivreur(), c.getPrixTotal(), c.getDateCreation(),
+                c.getDatePriseEnCharge(), dateLivraisonEstimee, c.getDateLivraisonEffective(), c.getVersion());
+    }
+
+    private void retirerDuLivreur(Long livreurId, Long colisId) {
+        colisParLivreur.computeIfPresent(livreurId, (k, colis) -> {
+            colis.remove(colisId);
+            return colis.isEmpty() ? null : colis;
+        });
+    }
+
+    private static final class Entree {
+        private final Long livreurId;
+        private final Long version;
+
+        private Entree(Long livreurId, Long version) {
+            this.livreurId = livreurId;
+            this.version = version;
+        }
+    }
+}
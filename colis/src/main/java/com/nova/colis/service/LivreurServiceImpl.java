@@ -2,15 +2,20 @@ package com.nova.colis.service;
 
 import com.nova.colis.dto.LivreurDTO;
 import com.nova.colis.dto.LivreurRequestDTO;
+import com.nova.colis.exception.ConflictException;
 import com.nova.colis.exception.ResourceNotFoundException;
+import com.nova.colis.model.Identite;
 import com.nova.colis.model.Livreur;
-import com.nova.colis.model.Colis;
 import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeCompte;
 import com.nova.colis.repository.LivreurRepository;
 import com.nova.colis.repository.ColisRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,12 +34,24 @@ public class LivreurServiceImpl implements LivreurService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private VerificateurMotDePasse verificateurMotDePasse;
+
+    @Autowired
+    private EstimateurEta estimateurEta;
+
+    @Autowired
+    private MoteurGeofences moteurGeofences;
+
+    // Unicité des emails et recherche des comptes par email
+    @Autowired
+    private AnnuaireIdentites annuaireIdentites;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Override
     public LivreurDTO registerLivreur(LivreurRequestDTO request) {
-        if (livreurRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Cet email est déjà utilisé par un autre livreur.");
-        }
-
         // Conversion DTO -> Entité
         Livreur livreur = new Livreur();
         livreur.setEmail(request.getEmail());
@@ -52,26 +69,46 @@ public class LivreurServiceImpl implements LivreurService {
         livreur.setLongitudeActuelle(request.getLongitudeActuelle());
         livreur.setRole("ROLE_LIVREUR");
 
-        Livreur saved = livreurRepository.save(livreur);
+        // L'unicité de l'email est garantie par l'insertion dans l'annuaire des identités
+        Livreur saved;
+        try {
+            saved = transactionTemplate.execute(tx -> {
+                Identite identite = annuaireIdentites.reserver(livreur.getEmail(), TypeCompte.LIVREUR);
+                Livreur l = livreurRepository.save(livreur);
+                identite.setCompteId(l.getId());
+                return l;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Cet email est déjà utilisé par un autre livreur.");
+        }
         return mapToDTO(saved);
     }
 
     @Override
     public LivreurDTO login(String email, String password) {
-        Optional<Livreur> optional = livreurRepository.findByEmail(email);
+        Optional<Livreur> optional = annuaireIdentites.trouverCompte(email, TypeCompte.LIVREUR)
+                .flatMap(livreurRepository::findById);
         if (optional.isEmpty()) {
-            return null; // Aucun livreur avec cet email
+            // Aucun livreur avec cet email : même coût de vérification qu'un mot de passe invalide
+            verificateurMotDePasse.verifier(password, null);
+            return null;
         }
         Livreur livreur = optional.get();
 
         // Vérification du mot de passe
-        if (!passwordEncoder.matches(password, livreur.getPassword())) {
+        if (!verificateurMotDePasse.verifier(password, livreur.getPassword())) {
             return null; // Mot de passe invalide
         }
+        // Hachage produit avec un ancien coût BCrypt : remplacé maintenant que le mot de passe est connu
+        if (verificateurMotDePasse.doitRehacher(livreur.getPassword())) {
+            livreurRepository.remplacerMotDePasse(livreur.getId(), livreur.getPassword(),
+                    verificateurMotDePasse.hacher(password));
+        }
         return mapToDTO(livreur);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public LivreurDTO getLivreurById(Long id) {
         Livreur livreur = livreurRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livreur", "id", id));
@@ -79,6 +116,7 @@ public class LivreurServiceImpl implements LivreurService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<LivreurDTO> getAllLivreurs() {
         return livreurRepository.findAll().stream()
                 .map(this::mapToDTO)
@@ -87,11 +125,21 @@ public class LivreurServiceImpl implements LivreurService {
 
     @Override
     public LivreurDTO updateLivreur(Long id, LivreurRequestDTO request) {
+        try {
+            return transactionTemplate.execute(tx -> mettreAJour(id, request));
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Cet email est déjà utilisé par un autre livreur.");
+        }
+    }
+
+    private LivreurDTO mettreAJour(Long id, LivreurRequestDTO request) {
         Livreur livreur = livreurRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livreur", "id", id));
 
         // Mise à jour des champs
-        if (request.getEmail() != null && !request.getEmail().isEmpty()) {
+        if (request.getEmail() != null && !request.getEmail().isEmpty()
+                && !request.getEmail().equals(livreur.getEmail())) {
+            annuaireIdentites.changerEmail(TypeCompte.LIVREUR, id, request.getEmail());
             livreur.setEmail(request.getEmail());
         }
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
@@ -141,21 +189,30 @@ public class LivreurServiceImpl implements LivreurService {
         Livreur updated = livreurRepository.save(livreur);
 
         // Mettre à jour les colis assignés à ce livreur qui sont en cours de livraison
-        List<Colis> colisEnCours = colisRepository.findByLivreurIdAndStatutColis(id, StatutColis.EN_COURS_DE_LIVRAISON);
         String nouvellePosition = latitude + "," + longitude;
-        for (Colis colis : colisEnCours) {
-            colis.setCoordonneesGPS(nouvellePosition);
-            colisRepository.save(colis);
+        colisRepository.updateCoordonneesGPS(id, StatutColis.EN_COURS_DE_LIVRAISON, nouvellePosition);
+
+        // Nouvelle estimation de l'heure d'arrivée de ces colis, poussée sur /topic/suivi/{colisId}
+        // et détection des arrivées aux points d'enlèvement et de livraison
+        if (latitude != null && longitude != null) {
+            estimateurEta.surPosition(id, latitude, longitude);
+            moteurGeofences.evaluer(id, latitude, longitude);
         }
 
         return mapToDTO(updated);
     }
 
+    /**
+     * Suppression logique : la ligne est effacée plus tard par {@link PurgeSuppressions}.
+     */
     @Override
     public void deleteLivreur(Long id) {
         Livreur livreur = livreurRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livreur", "id", id));
-        livreurRepository.delete(livreur);
+        transactionTemplate.executeWithoutResult(tx -> {
+            livreurRepository.delete(livreur);
+            annuaireIdentites.supprimer(TypeCompte.LIVREUR, id);
+        });
     }
 
     /**
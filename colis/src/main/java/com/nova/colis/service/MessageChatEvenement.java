@@ -0,0 +1,17 @@
+package com.nova.colis.service;
+
+/**
+ * Événement publié pour chaque message de chat enregistré.
+ */
+public class MessageChatEvenement {
+
+    private final Long colisId;
+
+    public MessageChatEvenement(Long colisId) {
+        this.colisId = colisId;
+    }
+
+    public Long getColisId() {
+        return colisId;
+    }
+}
@@ -0,0 +1,281 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ClientDTO;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeArret;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisGeofenceView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Détection automatique des arrivées par clôtures géographiques (cercles).
+ *
+ * Chaque colis actif d'un livreur a une clôture : autour du point d'enlèvement (coordonnées du client)
+ * tant qu'il est RECUPERE, ou EN_ATTENTE dans une tournée, autour du point de livraison une fois
+ * EN_COURS_DE_LIVRAISON. Les clôtures
+ * sont rangées par livreur dans des tableaux primitifs : une position n'est testée que contre les
+ * clôtures de son livreur, avec la distance équirectangulaire (précise à quelques mètres près à
+ * l'échelle d'une clôture), sans aucune allocation tant qu'aucune entrée n'est détectée.
+ *
+ * À l'entrée dans une clôture, un {@link ArriveeColisEvenement} est publié, poussé sur
+ * /topic/suivi/{colisId}, et une notification est envoyée au client sur le pool "notificationExecutor".
+ * Le statut du colis n'est pas modifié : le livreur le confirme toujours lui-même.
+ */
+@Component
+public class MoteurGeofences {
+
+    // Sortie d'une clôture au-delà de rayon x 1,2 : une position qui oscille sur le bord ne produit qu'une arrivée
+    static final double FACTEUR_SORTIE = 1.2;
+
+    private static final double DEGRES_EN_RADIANS = Math.PI / 180;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private FirebaseMessagingService firebaseMessagingService;
+
+    @Autowired
+    @Qualifier("notificationExecutor")
+    private Executor notificationExecutor;
+
+    @Value("${geofence.rayon-enlevement-metres:100}")
+    private double rayonEnlevementMetres = 100;
+
+    @Value("${geofence.rayon-livraison-metres:100}")
+    private double rayonLivraisonMetres = 100;
+
+    private final Map<Long, CloturesLivreur> cloturesParLivreur = new ConcurrentHashMap<>();
+
+    // Index inverse colisId -> livreurId, pour retirer la clôture d'un colis
+    private final Map<Long, Long> livreurParColis = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        for (ColisGeofenceView colis : colisRepository.findGeofencesByStatutIn(StatutColis.ACTIFS)) {
+            enregistrer(colis);
+        }
+        for (ColisGeofenceView colis : colisRepository.findGeofencesEnAttenteDeTournee()) {
+            enregistrer(colis);
+        }
+    }
+
+    /**
+     * Pose la clôture d'enlèvement des colis qui viennent d'être affectés à une tournée.
+     */
+    public void suivre(Collection<Long> colisIds) {
+        for (Long colisId : colisIds) {
+            colisRepository.findGeofenceById(colisId).ifPresent(this::enregistrer);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surChangementDeStatut(ColisStatutEvenement evenement) {
+        retirer(evenement.getColisId());
+        if (evenement.getLivreurId() != null && evenement.getNouveauStatut() != null
+                && StatutColis.ACTIFS.contains(evenement.getNouveauStatut())) {
+            colisRepository.findGeofenceById(evenement.getColisId()).ifPresent(this::enregistrer);
+        }
+    }
+
+    /**
+     * Teste une position du livreur contre ses clôtures. Appelé à chaque position reçue.
+     */
+    public void evaluer(Long livreurId, double latitude, double longitude) {
+        CloturesLivreur clotures = cloturesParLivreur.get(livreurId);
+        if (clotures == null) {
+            return;
+        }
+        // Signalées hors du verrou des clôtures : publication et diffusion ne bloquent pas les autres positions
+        for (Arrivee arrivee : clotures.evaluer(latitude * DEGRES_EN_RADIANS, longitude * DEGRES_EN_RADIANS)) {
+            signalerArrivee(arrivee.colisId, arrivee.reference, livreurId, arrivee.clientId, arrivee.type);
+        }
+    }
+
+    void enregistrer(ColisGeofenceView colis) {
+        TypeArret type = colis.getStatutColis() == StatutColis.EN_COURS_DE_LIVRAISON
+                ? TypeArret.LIVRAISON : TypeArret.ENLEVEMENT;
+        Double latitude = type == TypeArret.ENLEVEMENT ? colis.getLatitudeEnlevement() : colis.getLatitudeDestination();
+        Double longitude = type == TypeArret.ENLEVEMENT ? colis.getLongitudeEnlevement() : colis.getLongitudeDestination();
+        if (colis.getLivreurId() == null || latitude == null || longitude == null) {
+            return;
+        }
+        double rayon = type == TypeArret.ENLEVEMENT ? rayonEnlevementMetres : rayonLivraisonMetres;
+        retirer(colis.getId());
+        livreurParColis.put(colis.getId(), colis.getLivreurId());
+        cloturesParLivreur.compute(colis.getLivreurId(), (id, clotures) -> {
+            CloturesLivreur c = clotures != null ? clotures : new CloturesLivreur();
+            c.ajouter(colis.getId(), colis.getReferenceColis(), colis.getClientId(), type,
+                    latitude * DEGRES_EN_RADIANS, longitude * DEGRES_EN_RADIANS, rayon / DistanceGeo.RAYON_TERRE_METRES);
+            return c;
+        });
+    }
+
+    void retirer(Long colisId) {
+        Long livreurId = livreurParColis.remove(colisId);
+        if (livreurId != null) {
+            cloturesParLivreur.computeIfPresent(livreurId, (id, clotures) -> clotures.retirer(colisId) ? null : clotures);
+        }
+    }
+
+    /**
+     * Entrée détectée : événement, diffusion sur le topic de suivi, notification push au client (asynchrone).
+     */
+    void signalerArrivee(long colisId, String reference, long livreurId, Long clientId, TypeArret type) {
+        ArriveeColisEvenement arrivee = new ArriveeColisEvenement(colisId, reference, livreurId, clientId,
+                type, LocalDateTime.now());
+        eventPublisher.publishEvent(arrivee);
+        messagingTemplate.convertAndSend(EstimateurEta.TOPIC_SUIVI + colisId, arrivee);
+        if (clientId != null) {
+            notificationExecutor.execute(() -> notifierClient(arrivee));
+        }
+    }
+
+    private void notifierClient(ArriveeColisEvenement arrivee) {
+        ClientDTO client = clientService.getClientById(arrivee.getClientId());
+        if (client == null || client.getFcmToken() == null) {
+            return;
+        }
+        String message = arrivee.getTypeArret() == TypeArret.ENLEVEMENT
+                ? "Le livreur est arrivé pour récupérer votre colis " + arrivee.getReferenceColis() + "."
+                : "Le livreur est arrivé à l'adresse de livraison du colis " + arrivee.getReferenceColis() + ".";
+        firebaseMessagingService.sendNotification("Livreur arrivé", message, client.getFcmToken());
+    }
+
+    /**
+     * Clôtures d'un livreur, en tableaux parallèles. Coordonnées en radians ; les rayons sont exprimés
+     * en radians de grand cercle pour comparer directement les carrés, sans racine ni conversion.
+     */
+    static final class CloturesLivreur {
+        private int taille;
+        private long[] colisIds = new long[4];
+        private String[] references = new String[4];
+        private Long[] clientIds = new Long[4];
+        private TypeArret[] types = new TypeArret[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private double[] cosLatitudes = new double[4];
+        private double[] rayonsEntreeCarres = new double[4];
+        private double[] rayonsSortieCarres = new double[4];
+        private boolean[] dedans = new boolean[4];
+
+        synchronized void ajouter(long colisId, String reference, Long clientId, TypeArret type,
+                                  double latitude, double longitude, double rayon) {
+            if (taille == colisIds.length) {
+                int capacite = taille * 2;
+                colisIds = Arrays.copyOf(colisIds, capacite);
+                references = Arrays.copyOf(references, capacite);
+                clientIds = Arrays.copyOf(clientIds, capacite);
+                types = Arrays.copyOf(types, capacite);
+                latitudes = Arrays.copyOf(latitudes, capacite);
+                longitudes = Arrays.copyOf(longitudes, capacite);
+                cosLatitudes = Arrays.copyOf(cosLatitudes, capacite);
+                rayonsEntreeCarres = Arrays.copyOf(rayonsEntreeCarres, capacite);
+                rayonsSortieCarres = Arrays.copyOf(rayonsSortieCarres, capacite);
+                dedans = Arrays.copyOf(dedans, capacite);
+            }
+            int i = taille++;
+            colisIds[i] = colisId;
+            references[i] = reference;
+            clientIds[i] = clientId;
+            types[i] = type;
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+            cosLatitudes[i] = Math.cos(latitude);
+            rayonsEntreeCarres[i] = rayon * rayon;
+            rayonsSortieCarres[i] = rayon * rayon * FACTEUR_SORTIE * FACTEUR_SORTIE;
+            dedans[i] = false;
+        }
+
+        /**
+         * @return true si le livreur n'a plus aucune clôture
+         */
+        synchronized boolean retirer(long colisId) {
+            for (int i = 0; i < taille; i++) {
+                if (colisIds[i] == colisId) {
+                    // Le dernier élément prend la place de l'élément retiré
+                    int dernier = --taille;
+                    colisIds[i] = colisIds[dernier];
+                    references[i] = references[dernier];
+                    clientIds[i] = clientIds[dernier];
+                    types[i] = types[dernier];
+                    latitudes[i] = latitudes[dernier];
+                    longitudes[i] = longitudes[dernier];
+                    cosLatitudes[i] = cosLatitudes[dernier];
+                    rayonsEntreeCarres[i] = rayonsEntreeCarres[dernier];
+                    rayonsSortieCarres[i] = rayonsSortieCarres[dernier];
+                    dedans[i] = dedans[dernier];
+                    references[dernier] = null;
+                    clientIds[dernier] = null;
+                    break;
+                }
+            }
+            return taille == 0;
+        }
+
+        /**
+         * Met à jour l'état dedans / dehors de chaque clôture.
+         *
+         * @return les entrées détectées, à signaler une fois le verrou relâché (liste vide sans allocation sinon)
+         */
+        synchronized List<Arrivee> evaluer(double latitude, double longitude) {
+            List<Arrivee> arrivees = Collections.emptyList();
+            for (int i = 0; i < taille; i++) {
+                double x = (longitude - longitudes[i]) * cosLatitudes[i];
+                double y = latitude - latitudes[i];
+                double distanceCarree = x * x + y * y;
+                if (!dedans[i] && distanceCarree <= rayonsEntreeCarres[i]) {
+                    dedans[i] = true;
+                    if (arrivees.isEmpty()) {
+                        arrivees = new ArrayList<>(1);
+                    }
+                    arrivees.add(new Arrivee(colisIds[i], references[i], clientIds[i], types[i]));
+                } else if (dedans[i] && distanceCarree > rayonsSortieCarres[i]) {
+                    dedans[i] = false;
+                }
+            }
+            return arrivees;
+        }
+    }
+
+    static final class Arrivee {
+        private final long colisId;
+        private final String reference;
+        private final Long clientId;
+        private final TypeArret type;
+
+        private Arrivee(long colisId, String reference, Long clientId, TypeArret type) {
+            this.colisId = colisId;
+            this.reference = reference;
+            this.clientId = clientId;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.nova.colis.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Ordonnancement des arrêts d'une tournée : plus proche voisin, puis amélioration 2-opt,
+ * sur les distances de haversine entre arrêts.
+ *
+ * Le parcours est ouvert (pas de retour au point de départ) et respecte les précédences :
+ * l'arrêt {@code predecesseur[i]} (l'enlèvement d'un colis) est toujours visité avant l'arrêt i
+ * (sa livraison). Un échange 2-opt qui inverserait une telle paire est refusé.
+ */
+@Component
+public class OptimiseurTournee {
+
+    // Nombre maximal de passes 2-opt complètes (le parcours converge en pratique bien avant)
+    static final int PASSES_MAX = 50;
+
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * @param latDepart    position du livreur, ou null si elle est inconnue (le départ est alors libre)
+     * @param lat          latitudes des arrêts
+     * @param lon          longitudes des arrêts
+     * @param predecesseur pour chaque arrêt, l'indice de l'arrêt à visiter avant lui, ou -1
+     */
+    public Parcours ordonner(Double latDepart, Double lonDepart, double[] lat, double[] lon, int[] predecesseur) {
+        int n = lat.length;
+        // Matrice des distances ; l'indice n est le point de départ (à distance nulle de tout s'il est inconnu)
+        double[][] d = new double[n + 1][n + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                d[i][j] = d[j][i] = DistanceGeo.haversineMetres(lat[i], lon[i], lat[j], lon[j]);
+            }
+            if (latDepart != null && lonDepart != null) {
+                d[n][i] = d[i][n] = DistanceGeo.haversineMetres(latDepart, lonDepart, lat[i], lon[i]);
+            }
+        }
+
+        int[] route = plusProcheVoisin(d, n, predecesseur);
+        deuxOpt(d, n, route, predecesseur);
+        return new Parcours(route, longueur(d, n, route));
+    }
+
+    private static int[] plusProcheVoisin(double[][] d, int n, int[] predecesseur) {
+        int[] route = new int[n];
+        boolean[] visite = new boolean[n];
+        int courant = n;
+        for (int k = 0; k < n; k++) {
+            int meilleur = -1;
+            for (int j = 0; j < n; j++) {
+                boolean accessible = !visite[j] && (predecesseur[j] < 0 || visite[predecesseur[j]]);
+                if (accessible && (meilleur < 0 || d[courant][j] < d[courant][meilleur])) {
+                    meilleur = j;
+                }
+            }
+            if (meilleur < 0) {
+                throw new IllegalArgumentException("Précédences circulaires entre les arrêts de la tournée.");
+            }
+            route[k] = meilleur;
+            visite[meilleur] = true;
+            courant = meilleur;
+        }
+        return route;
+    }
+
+    private static void deuxOpt(double[][] d, int n, int[] route, int[] predecesseur) {
+        int[] position = new int[n];
+        for (int k = 0; k < n; k++) {
+            position[route[k]] = k;
+        }
+        boolean ameliore = true;
+        for (int passe = 0; ameliore && passe < PASSES_MAX; passe++) {
+            ameliore = false;
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    // Inverser route[i..j] remplace les arêtes (a,b) et (c,e) par (a,c) et (b,e)
+                    int a = i == 0 ? n : route[i - 1];
+                    int b = route[i];
+                    int c = route[j];
+                    double delta = d[a][c] - d[a][b];
+                    if (j + 1 < n) {
+                        int e = route[j + 1];
+                        delta += d[b][e] - d[c][e];
+                    }
+                    if (delta < -EPSILON && inversionPossible(route, position, predecesseur, i, j)) {
+                        inverser(route, position, i, j);
+                        ameliore = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * L'inversion de route[i..j] n'est interdite que si un arrêt et son prédécesseur sont tous deux dans le segment.
+     */
+    private static boolean inversionPossible(int[] route, int[] position, int[] predecesseur, int i, int j) {
+        for (int k = i; k <= j; k++) {
+            int p = predecesseur[route[k]];
+            if (p >= 0 && position[p] >= i && position[p] <= j) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void inverser(int[] route, int[] position, int i, int j) {
+        while (i < j) {
+            int tmp = route[i];
+            route[i] = route[j];
+            route[j] = tmp;
+            position[route[i]] = i;
+            position[route[j]] = j;
+            i++;
+            j--;
+        }
+    }
+
+    private static double longueur(double[][] d, int n, int[] route) {
+        double total = 0;
+        int precedent = n;
+        for (int arret : route) {
+            total += d[precedent][arret];
+            precedent = arret;
+        }
+        return total;
+    }
+
+    /**
+     * Ordre de visite (indices des arrêts) et longueur du parcours en mètres.
+     */
+    public static final class Parcours {
+        private final int[] ordre;
+        private final double distanceMetres;
+
+        Parcours(int[] ordre, double distanceMetres) {
+            this.ordre = ordre;
+            this.distanceMetres = distanceMetres;
+        }
+
+        public int[] getOrdre() {
+            return ordre;
+        }
+
+        public double getDistanceMetres() {
+            return distanceMetres;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.IntentionPaiementDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface PaiementService {
+
+    // Ouvre (ou retrouve) l'intention de paiement d'un colis, hors du thread de la requête
+    CompletableFuture<IntentionPaiementDTO> creerIntention(Long colisId);
+
+    // Traite une notification de la passerelle ; le futur est complété une fois le statut enregistré
+    CompletableFuture<Void> traiterNotification(String payload, String signature);
+}
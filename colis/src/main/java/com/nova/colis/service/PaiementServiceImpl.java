@@ -0,0 +1,163 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.IntentionPaiementDTO;
+import com.nova.colis.exception.ConflictException;
+import com.nova.colis.exception.ResourceNotFoundException;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.StatutPaiement;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisPaiementView;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paiements des colis via la {@link PasserellePaiement}.
+ *
+ * - Création : l'appel à la passerelle s'exécute sur le pool "paiementExecutor", avec un délai maximal.
+ *   La clé d'idempotence dépend du colis et de son montant : un double clic ou un rejeu après
+ *   expiration du délai renvoie la même intention, sans double débit.
+ * - Notifications : chaque webhook est placé dans une file bornée ; les mises à jour de statutPaiement
+ *   sont appliquées par lots (une requête UPDATE par statut), et la réponse au webhook n'est envoyée
+ *   qu'une fois son lot enregistré. En cas d'échec, la passerelle renvoie la notification.
+ *   Les colis déjà livrés qui deviennent payés sont comptabilisés dans la même transaction.
+ */
+@Service
+public class PaiementServiceImpl implements PaiementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaiementServiceImpl.class);
+
+    private static final int TAILLE_LOT = 500;
+
+    /** Statuts à partir desquels chaque statut notifié peut être appliqué. */
+    private static final Map<StatutPaiement, Set<StatutPaiement>> TRANSITIONS = new EnumMap<>(Map.of(
+            StatutPaiement.PAYE, EnumSet.of(StatutPaiement.EN_ATTENTE, StatutPaiement.ANNULE),
+            StatutPaiement.ANNULE, EnumSet.of(StatutPaiement.EN_ATTENTE)));
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private PasserellePaiement passerellePaiement;
+
+    @Autowired
+    private GrandLivreService grandLivreService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // La mise à jour change la version des colis : l'index de recherche doit la suivre
+    @Autowired
+    private IndexRechercheColis indexRechercheColis;
+
+    @Autowired
+    @Qualifier("paiementExecutor")
+    private Executor paiementExecutor;
+
+    @Value("${paiement.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private final BlockingQueue<MiseAJour> notifications = new ArrayBlockingQueue<>(10_000);
+
+    @Override
+    public CompletableFuture<IntentionPaiementDTO> creerIntention(Long colisId) {
+        ColisPaiementView colis = colisRepository.findPaiementById(colisId)
+                .orElseThrow(() -> new ResourceNotFoundException("Colis", "id", colisId));
+        if (colis.getStatutPaiement() == StatutPaiement.PAYE) {
+            throw new ConflictException("Le colis " + colisId + " est déjà payé.");
+        }
+        if (colis.getPrixTotal() <= 0) {
+            throw new ConflictException("Le colis " + colisId + " n'a pas de montant à régler.");
+        }
+        long montant = colis.getPrixTotal();
+        String devise = GrilleTarifaire.DEVISE.toLowerCase(Locale.ROOT);
+        String cleIdempotence = "colis-" + colisId + "-" + montant;
+
+        return CompletableFuture.supplyAsync(() -> {
+            PasserellePaiement.Intention intention = passerellePaiement.creerIntention(montant, devise,
+                    cleIdempotence, Map.of("colisId", colisId.toString()));
+            colisRepository.enregistrerPaymentIntent(colisId, intention.getId());
+            return new IntentionPaiementDTO(colisId, intention.getId(), intention.getClientSecret(), montant, devise);
+        }, paiementExecutor).orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Void> traiterNotification(String payload, String signature) {
+        PasserellePaiement.Evenement evenement = passerellePaiement.lireEvenement(payload, signature);
+        if (evenement == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        MiseAJour miseAJour = new MiseAJour(evenement.getColisId(), evenement.getStatut());
+        if (!notifications.offer(miseAJour)) {
+            throw new TaskRejectedException("File des notifications de paiement pleine.");
+        }
+        return miseAJour.enregistree;
+    }
+
+    /**
+     * Applique les notifications en attente, par lots.
+     */
+    @Scheduled(fixedDelayString = "${paiement.webhook.flush-ms:200}")
+    @PreDestroy
+    public void vider() {
+        List<MiseAJour> lot = new ArrayList<>(TAILLE_LOT);
+        while (notifications.drainTo(lot, TAILLE_LOT) > 0) {
+            Map<StatutPaiement, List<MiseAJour>> parStatut = new EnumMap<>(StatutPaiement.class);
+            for (MiseAJour miseAJour : lot) {
+                parStatut.computeIfAbsent(miseAJour.statut, s -> new ArrayList<>()).add(miseAJour);
+            }
+            parStatut.forEach(this::appliquer);
+            lot.clear();
+        }
+    }
+
+    private void appliquer(StatutPaiement statut, List<MiseAJour> lot) {
+        try {
+            List<Long> ids = lot.stream().map(m -> m.colisId).distinct().toList();
+            transactionTemplate.executeWithoutResult(tx -> {
+                colisRepository.updateStatutPaiement(ids, statut, TRANSITIONS.get(statut));
+                if (statut == StatutPaiement.PAYE) {
+                    // Colis déjà livrés : le paiement les rend comptabilisables
+                    colisRepository.findIdsByIdInAndStatut(ids, StatutColis.LIVRE)
+                            .forEach(grandLivreService::comptabiliser);
+                }
+            });
+            indexRechercheColis.reindexer(ids);
+            lot.forEach(m -> m.enregistree.complete(null));
+        } catch (RuntimeException e) {
+            logger.warn("Échec de l'enregistrement de {} statuts de paiement {}", lot.size(), statut, e);
+            lot.forEach(m -> m.enregistree.completeExceptionally(e));
+        }
+    }
+
+    private static final class MiseAJour {
+        final Long colisId;
+        final StatutPaiement statut;
+        final CompletableFuture<Void> enregistree = new CompletableFuture<>();
+
+        MiseAJour(Long colisId, StatutPaiement statut) {
+            this.colisId = colisId;
+            this.statut = statut;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.StatutPaiement;
+
+import java.util.Map;
+
+/**
+ * Passerelle de paiement externe (Stripe en production, {@link PasserellePaiementLocale} en local et en test).
+ * L'implémentation est choisie par la propriété "paiement.passerelle".
+ */
+public interface PasserellePaiement {
+
+    /**
+     * Crée une intention de paiement. Deux appels avec la même clé d'idempotence
+     * renvoient la même intention, sans double débit.
+     *
+     * @param montant en unités mineures de la devise
+     */
+    Intention creerIntention(long montant, String devise, String cleIdempotence, Map<String, String> metadonnees);
+
+    /**
+     * Vérifie la signature d'une notification (webhook) et la traduit en changement de statut de paiement.
+     *
+     * @return l'événement, ou null s'il ne concerne pas le statut de paiement d'un colis
+     * @throws IllegalArgumentException si la signature ou le contenu est invalide
+     */
+    Evenement lireEvenement(String payload, String signature);
+
+    /**
+     * Statut de paiement correspondant à un type d'événement Stripe, ou null pour les événements sans effet
+     * (un échec de paiement laisse le colis EN_ATTENTE : le client peut réessayer).
+     */
+    static StatutPaiement statutPourEvenement(String type) {
+        if ("payment_intent.succeeded".equals(type)) {
+            return StatutPaiement.PAYE;
+        }
+        if ("payment_intent.canceled".equals(type)) {
+            return StatutPaiement.ANNULE;
+        }
+        return null;
+    }
+
+    /**
+     * Intention de paiement créée par la passerelle.
+     */
+    final class Intention {
+        private final String id;
+        private final String clientSecret;
+
+        public Intention(String id, String clientSecret) {
+            this.id = id;
+            this.clientSecret = clientSecret;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getClientSecret() {
+            return clientSecret;
+        }
+    }
+
+    /**
+     * Nouveau statut de paiement d'un colis, notifié par la passerelle.
+     */
+    final class Evenement {
+        private final Long colisId;
+        private final String intentionId;
+        private final StatutPaiement statut;
+
+        public Evenement(Long colisId, String intentionId, StatutPaiement statut) {
+            this.colisId = colisId;
+            this.intentionId = intentionId;
+            this.statut = statut;
+        }
+
+        public Long getColisId() {
+            return colisId;
+        }
+
+        public String getIntentionId() {
+            return intentionId;
+        }
+
+        public StatutPaiement getStatut() {
+            return statut;
+        }
+    }
+}
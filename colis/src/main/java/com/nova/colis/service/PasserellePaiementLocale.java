@@ -0,0 +1,62 @@
+package com.nova.colis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nova.colis.model.StatutPaiement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passerelle de paiement locale, sans appel réseau (développement et tests) : "paiement.passerelle=locale".
+ *
+ * Respecte le contrat d'idempotence de Stripe et accepte des webhooks au format Stripe
+ * ({"type": ..., "data": {"object": {"id": ..., "metadata": {"colisId": ...}}}}) sans vérifier de signature.
+ */
+@Component
+@ConditionalOnProperty(name = "paiement.passerelle", havingValue = "locale")
+public class PasserellePaiementLocale implements PasserellePaiement {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Intention> intentions = new ConcurrentHashMap<>();
+    private final AtomicLong compteur = new AtomicLong();
+
+    @Override
+    public Intention creerIntention(long montant, String devise, String cleIdempotence, Map<String, String> metadonnees) {
+        return intentions.computeIfAbsent(cleIdempotence, cle -> {
+            String id = "pi_local_" + compteur.incrementAndGet();
+            return new Intention(id, id + "_secret");
+        });
+    }
+
+    @Override
+    public Evenement lireEvenement(String payload, String signature) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notification de paiement illisible.", e);
+        }
+        StatutPaiement statut = PasserellePaiement.statutPourEvenement(event.path("type").asText());
+        JsonNode intent = event.path("data").path("object");
+        JsonNode colisId = intent.path("metadata").path("colisId");
+        if (statut == null || colisId.isMissingNode()) {
+            return null;
+        }
+        return new Evenement(colisId.asLong(), intent.path("id").asText(), statut);
+    }
+
+    /**
+     * @return le nombre d'intentions réellement créées (les rejeux idempotents ne comptent pas).
+     */
+    public int getNombreIntentions() {
+        return intentions.size();
+    }
+}
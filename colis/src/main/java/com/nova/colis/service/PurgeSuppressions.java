@@ -0,0 +1,147 @@
+package com.nova.colis.service;
+
+import com.nova.colis.repository.ChatLectureRepository;
+import com.nova.colis.repository.ChatMessageRepository;
+import com.nova.colis.repository.ClientRepository;
+import com.nova.colis.repository.ClientStatistiquesRepository;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.LivreurRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Effacement différé des clients, livreurs et colis supprimés logiquement (colonne supprime).
+ *
+ * Les requêtes de suppression ne font que marquer la ligne ; ce traitement efface ensuite, par lots
+ * de {@code purge.lot} lignes dans des transactions courtes :
+ * - les colis encore visibles des clients supprimés, par {@link ColisService#deleteColis} (statistiques,
+ *   index et événements suivent le chemin habituel) ;
+ * - les colis marqués, avec leurs messages de chat et accusés de lecture ;
+ * - les colis archivés des clients supprimés et leurs conversations ;
+ * - les clients dont plus aucun colis ne dépend, et les livreurs.
+ */
+@Component
+public class PurgeSuppressions {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeSuppressions.class);
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatLectureRepository chatLectureRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientStatistiquesRepository clientStatistiquesRepository;
+
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${purge.lot:500}")
+    private int tailleLot;
+
+    // Pause entre deux lots, pour laisser passer le trafic et la réplication
+    @Value("${purge.pause-ms:100}")
+    private long pauseMs;
+
+    @Scheduled(fixedDelayString = "${purge.delai-ms:60000}")
+    public void purger() {
+        int colisDesClients = supprimerColisDesClientsSupprimes();
+        int colis = parLots(() -> colisRepository.findIdsSupprimes(tailleLot), ids -> {
+            chatLectureRepository.supprimerParColisIdIn(ids);
+            chatMessageRepository.supprimerParColisIdIn(ids);
+            colisRepository.supprimerParIdIn(ids);
+        });
+        int archives = parLots(() -> colisRepository.findIdsArchivesDeClientsSupprimes(tailleLot), ids -> {
+            chatMessageRepository.supprimerArchivesParColisIdIn(ids);
+            colisRepository.supprimerArchivesParIdIn(ids);
+        });
+        int clients = parLots(() -> clientRepository.findIdsPurgeables(tailleLot), ids -> {
+            // Recréées si un colis du client a été retiré après la suppression du compte
+            clientStatistiquesRepository.deleteAllByIdInBatch(ids);
+            clientRepository.purger(ids);
+        });
+        int livreurs = parLots(() -> livreurRepository.findIdsPurgeables(tailleLot), livreurRepository::purger);
+        if (colisDesClients + colis + archives + clients + livreurs > 0) {
+            logger.info("Purge : {} colis de clients supprimés retirés, {} colis, {} colis archivés, {} clients "
+                    + "et {} livreurs effacés", colisDesClients, colis, archives, clients, livreurs);
+        }
+    }
+
+    /**
+     * Retire un à un, par le service, les colis encore visibles des clients supprimés.
+     */
+    private int supprimerColisDesClientsSupprimes() {
+        int total = 0;
+        while (true) {
+            List<Long> ids = colisRepository.findIdsDeClientsSupprimes(tailleLot);
+            int supprimes = 0;
+            for (Long id : ids) {
+                try {
+                    colisService.deleteColis(id);
+                    supprimes++;
+                } catch (RuntimeException e) {
+                    logger.warn("Purge : colis {} non supprimé, nouvel essai au prochain passage : {}", id, e.getMessage());
+                }
+            }
+            total += supprimes;
+            // Un lot sans aucun succès n'est pas retenté dans ce passage
+            if (ids.size() < tailleLot || supprimes == 0 || !pause()) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Sélectionne puis efface des lots d'identifiants, chacun dans sa transaction, jusqu'à épuisement.
+     *
+     * @return le nombre de lignes traitées
+     */
+    private int parLots(Supplier<List<Long>> selection, Consumer<List<Long>> effacement) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = transactionTemplate.execute(tx -> {
+                List<Long> lot = selection.get();
+                if (!lot.isEmpty()) {
+                    effacement.accept(lot);
+                }
+                return lot;
+            });
+            total += ids.size();
+            if (ids.size() < tailleLot || !pause()) {
+                return total;
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.nova.colis.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur de références de colis ("COL-XXXXXXXXXXXXX").
+ *
+ * Chaque référence encode un identifiant de type Snowflake sur 63 bits :
+ * - 41 bits : millisecondes écoulées depuis {@link #EPOCH}
+ * - 10 bits : numéro du nœud (une valeur distincte par réplica)
+ * - 12 bits : séquence dans la milliseconde
+ *
+ * L'identifiant est encodé en base32 Crockford sur une largeur fixe de 13 caractères,
+ * ce qui conserve l'ordre chronologique dans l'ordre lexicographique de la colonne indexée.
+ * La génération ne prend aucun verrou : l'état (horodatage + séquence) tient dans un seul
+ * AtomicLong mis à jour par compare-and-set.
+ */
+@Component
+public class ReferenceColisGenerator {
+
+    public static final String PREFIXE = "COL-";
+
+    /** 2025-01-01T00:00:00Z */
+    static final long EPOCH = 1735689600000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LONGUEUR_ENCODEE = 13; // ceil(63 / 5)
+
+    private final long nodeId;
+    private final Clock clock;
+
+    /**
+     * Horodatage logique (décalé de SEQUENCE_BITS) combiné à la séquence courante.
+     * Un débordement de séquence se propage naturellement sur l'horodatage,
+     * ce qui garde les références strictement croissantes même si l'horloge recule.
+     */
+    private final AtomicLong etat = new AtomicLong();
+
+    @Autowired
+    public ReferenceColisGenerator(@Value("${colis.reference.node-id:0}") long nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    ReferenceColisGenerator(long nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("colis.reference.node-id doit être compris entre 0 et " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * @return une nouvelle référence unique, par ex. "COL-01HV3Q8Z0K4M2"
+     */
+    public String nextReference() {
+        return PREFIXE + encode(nextId());
+    }
+
+    /**
+     * @return un nouvel identifiant 63 bits strictement croissant pour ce nœud.
+     */
+    long nextId() {
+        while (true) {
+            long precedent = etat.get();
+            long maintenant = (clock.millis() - EPOCH) << SEQUENCE_BITS;
+            long suivant = maintenant > precedent ? maintenant : precedent + 1;
+            if (etat.compareAndSet(precedent, suivant)) {
+                long horodatage = suivant >>> SEQUENCE_BITS;
+                long sequence = suivant & ((1L << SEQUENCE_BITS) - 1);
+                return (horodatage << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * Encode un identifiant positif en base32 Crockford, complété à gauche par des zéros.
+     */
+    static String encode(long id) {
+        char[] buffer = new char[LONGUEUR_ENCODEE];
+        for (int i = LONGUEUR_ENCODEE - 1; i >= 0; i--) {
+            buffer[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(buffer);
+    }
+}
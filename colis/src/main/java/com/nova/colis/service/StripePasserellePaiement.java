@@ -0,0 +1,85 @@
+package com.nova.colis.service;
+
+import com.nova.colis.exception.PaiementException;
+import com.nova.colis.model.StatutPaiement;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeObject;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.Webhook;
+import com.stripe.param.PaymentIntentCreateParams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Passerelle Stripe. La clé secrète est lue dans la configuration (variable STRIPE_API_KEY)
+ * et passée à chaque requête : aucun état global {@code Stripe.apiKey} n'est utilisé.
+ */
+@Component
+@ConditionalOnProperty(name = "paiement.passerelle", havingValue = "stripe", matchIfMissing = true)
+public class StripePasserellePaiement implements PasserellePaiement {
+
+    private static final String METADONNEE_COLIS = "colisId";
+
+    @Value("${stripe.api-key:}")
+    private String apiKey;
+
+    @Value("${stripe.webhook-secret:}")
+    private String webhookSecret;
+
+    @Value("${stripe.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${stripe.read-timeout-ms:8000}")
+    private int readTimeoutMs;
+
+    @Override
+    public Intention creerIntention(long montant, String devise, String cleIdempotence, Map<String, String> metadonnees) {
+        if (apiKey.isBlank()) {
+            throw new PaiementException("La clé Stripe (stripe.api-key) n'est pas configurée.");
+        }
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(montant)
+                .setCurrency(devise)
+                .putAllMetadata(metadonnees)
+                .build();
+        RequestOptions options = RequestOptions.builder()
+                .setApiKey(apiKey)
+                .setIdempotencyKey(cleIdempotence)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(2)
+                .build();
+        try {
+            PaymentIntent intent = PaymentIntent.create(params, options);
+            return new Intention(intent.getId(), intent.getClientSecret());
+        } catch (StripeException e) {
+            throw new PaiementException("Stripe a refusé la création du paiement : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Evenement lireEvenement(String payload, String signature) {
+        Event event;
+        try {
+            event = Webhook.constructEvent(payload, signature, webhookSecret);
+        } catch (SignatureVerificationException e) {
+            throw new IllegalArgumentException("Signature Stripe invalide.", e);
+        }
+        StatutPaiement statut = PasserellePaiement.statutPourEvenement(event.getType());
+        StripeObject objet = event.getDataObjectDeserializer().getObject().orElse(null);
+        if (statut == null || !(objet instanceof PaymentIntent intent)) {
+            return null;
+        }
+        String colisId = intent.getMetadata() != null ? intent.getMetadata().get(METADONNEE_COLIS) : null;
+        if (colisId == null) {
+            return null;
+        }
+        return new Evenement(Long.valueOf(colisId), intent.getId(), statut);
+    }
+}
@@ -0,0 +1,197 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.TableauDeBordDTO;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ColisRepository;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tableau de bord opérationnel, entièrement en mémoire.
+ *
+ * Les compteurs sont chargés au démarrage (GROUP BY), puis tenus à jour par les
+ * événements {@link ColisStatutEvenement} et {@link MessageChatEvenement} reçus après commit :
+ * - colis par statut et livreurs ayant un colis RECUPERE ou EN_COURS_DE_LIVRAISON ;
+ * - livraisons et messages de chat sur une fenêtre glissante d'une heure ;
+ * - durées prise en charge -> livraison dans un histogramme HDR, par tranches d'une minute
+ *   sur la dernière heure (enregistrement concurrent sans verrou via {@link Recorder}).
+ * L'instantané est diffusé périodiquement sur /topic/dashboard et servi par GET /api/dashboard.
+ *
+ * Les événements ne couvrent que les écritures de cette instance : les compteurs de colis et de
+ * livreurs sont donc recalculés depuis la base toutes les {@code dashboard.reconciliation-ms} ms,
+ * ce qui rattrape les écritures d'autres instances et les événements perdus. Un événement reçu
+ * pendant le recalcul peut être compté deux fois ou pas du tout, jusqu'au recalcul suivant.
+ */
+@Service
+public class TableauDeBordService {
+
+    static final String TOPIC = "/topic/dashboard";
+
+    private static final int FENETRE_MINUTES = 60;
+    private static final long DUREE_MAX_SECONDES = Duration.ofDays(30).toSeconds();
+    private static final int CHIFFRES_SIGNIFICATIFS = 3;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final Clock clock;
+
+    private final Map<StatutColis, LongAdder> colisParStatut = new EnumMap<>(StatutColis.class);
+    private final Map<Long, Integer> colisActifsParLivreur = new ConcurrentHashMap<>();
+    private final FenetreGlissante livraisons = new FenetreGlissante(FENETRE_MINUTES);
+    private final FenetreGlissante messagesChat = new FenetreGlissante(FENETRE_MINUTES);
+
+    private final Recorder durees = new Recorder(DUREE_MAX_SECONDES, CHIFFRES_SIGNIFICATIFS);
+    // Histogrammes par minute de la dernière heure ; accédés uniquement sous le verrou de l'instance
+    private final Histogram[] dureesParMinute = new Histogram[FENETRE_MINUTES];
+    private final long[] minuteDesDurees = new long[FENETRE_MINUTES];
+    private Histogram intervalle;
+
+    public TableauDeBordService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    TableauDeBordService(Clock clock) {
+        this.clock = clock;
+        for (StatutColis statut : StatutColis.values()) {
+            colisParStatut.put(statut, new LongAdder());
+        }
+        for (int i = 0; i < FENETRE_MINUTES; i++) {
+            dureesParMinute[i] = new Histogram(DUREE_MAX_SECONDES, CHIFFRES_SIGNIFICATIFS);
+            minuteDesDurees[i] = -1;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        reconcilier();
+    }
+
+    /**
+     * Remplace les compteurs de colis et de livreurs en course par les valeurs de la base.
+     */
+    @Scheduled(initialDelayString = "${dashboard.reconciliation-ms:300000}",
+            fixedDelayString = "${dashboard.reconciliation-ms:300000}")
+    public void reconcilier() {
+        Map<StatutColis, Long> parStatut = new EnumMap<>(StatutColis.class);
+        for (Object[] ligne : colisRepository.compterParStatut()) {
+            parStatut.merge((StatutColis) ligne[0], (Long) ligne[1], Long::sum);
+        }
+        // Les colis archivés restent comptés dans leur statut
+        for (Object[] ligne : colisRepository.compterArchivesParStatut()) {
+            parStatut.merge(StatutColis.valueOf((String) ligne[0]), ((Number) ligne[1]).longValue(), Long::sum);
+        }
+        Map<Long, Integer> actifsParLivreur = new HashMap<>();
+        for (Object[] ligne : colisRepository.compterParLivreur(StatutColis.ACTIFS)) {
+            actifsParLivreur.put((Long) ligne[0], ((Long) ligne[1]).intValue());
+        }
+
+        colisParStatut.forEach((statut, compteur) -> {
+            long ecart = parStatut.getOrDefault(statut, 0L) - compteur.sum();
+            compteur.add(ecart);
+        });
+        colisActifsParLivreur.keySet().retainAll(actifsParLivreur.keySet());
+        colisActifsParLivreur.putAll(actifsParLivreur);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surChangementDeStatut(ColisStatutEvenement evenement) {
+        StatutColis ancien = evenement.getAncienStatut();
+        StatutColis nouveau = evenement.getNouveauStatut();
+        if (ancien != null) {
+            colisParStatut.get(ancien).decrement();
+        }
+        if (nouveau != null) {
+            colisParStatut.get(nouveau).increment();
+        }
+        Long livreurId = evenement.getLivreurId();
+        if (livreurId != null) {
+            boolean etaitActif = ancien != null && StatutColis.ACTIFS.contains(ancien);
+            boolean estActif = nouveau != null && StatutColis.ACTIFS.contains(nouveau);
+            if (!etaitActif && estActif) {
+                colisActifsParLivreur.merge(livreurId, 1, Integer::sum);
+            } else if (etaitActif && !estActif) {
+                colisActifsParLivreur.computeIfPresent(livreurId, (id, n) -> n > 1 ? n - 1 : null);
+            }
+        }
+        if (nouveau == StatutColis.LIVRE) {
+            livraisons.ajouter(clock.millis());
+            if (evenement.getDatePriseEnCharge() != null && evenement.getDateLivraisonEffective() != null) {
+                long secondes = Duration.between(evenement.getDatePriseEnCharge(),
+                        evenement.getDateLivraisonEffective()).toSeconds();
+                durees.recordValue(Math.max(0, Math.min(secondes, DUREE_MAX_SECONDES)));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void surMessageChat(MessageChatEvenement evenement) {
+        messagesChat.ajouter(clock.millis());
+    }
+
+    /**
+     * Diffuse l'instantané courant aux abonnés de /topic/dashboard.
+     */
+    @Scheduled(fixedRateString = "${dashboard.diffusion-ms:2000}")
+    public void diffuser() {
+        messagingTemplate.convertAndSend(TOPIC, getInstantane());
+    }
+
+    public synchronized TableauDeBordDTO getInstantane() {
+        long maintenant = clock.millis();
+        long minute = maintenant / 60_000L;
+
+        // Verse les durées enregistrées depuis le dernier appel dans la tranche de la minute courante
+        intervalle = durees.getIntervalHistogram(intervalle);
+        int tranche = (int) (minute % FENETRE_MINUTES);
+        if (minuteDesDurees[tranche] != minute) {
+            dureesParMinute[tranche].reset();
+            minuteDesDurees[tranche] = minute;
+        }
+        dureesParMinute[tranche].add(intervalle);
+
+        Histogram derniereHeure = new Histogram(DUREE_MAX_SECONDES, CHIFFRES_SIGNIFICATIFS);
+        for (int i = 0; i < FENETRE_MINUTES; i++) {
+            if (minute - minuteDesDurees[i] < FENETRE_MINUTES) {
+                derniereHeure.add(dureesParMinute[i]);
+            }
+        }
+
+        Map<StatutColis, Long> parStatut = new EnumMap<>(StatutColis.class);
+        colisParStatut.forEach((statut, compteur) -> parStatut.put(statut, compteur.sum()));
+
+        TableauDeBordDTO dto = new TableauDeBordDTO();
+        dto.setHorodatage(LocalDateTime.now(clock));
+        dto.setColisParStatut(parStatut);
+        dto.setLivreursEnCourse(colisActifsParLivreur.size());
+        dto.setLivraisonsDerniereHeure(livraisons.total(maintenant));
+        dto.setMessagesChatDerniereHeure(messagesChat.total(maintenant));
+        dto.setDureesLivraison(new TableauDeBordDTO.DureesLivraison(
+                derniereHeure.getTotalCount(),
+                derniereHeure.getTotalCount() > 0 ? derniereHeure.getMean() : 0,
+                derniereHeure.getValueAtPercentile(50),
+                derniereHeure.getValueAtPercentile(90),
+                derniereHeure.getValueAtPercentile(99),
+                derniereHeure.getMaxValue()));
+        return dto;
+    }
+}
@@ -0,0 +1,455 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enregistrement différé (write-behind) des messages du chat.
+ *
+ * Les messages sont diffusés dès leur acceptation, puis écrits par un thread dédié en INSERT multi-lignes :
+ * un lot part dès qu'il atteint {@code chat.tampon.lot} messages, ou {@code chat.tampon.flush-ms} ms après
+ * son premier message. Un commit MySQL couvre ainsi des dizaines de messages au lieu d'un seul.
+ *
+ * - Contre-pression : au plus {@code chat.tampon.capacite} messages acceptés et pas encore en base.
+ *   Au-delà, l'expéditeur attend jusqu'à {@code chat.tampon.attente-ms} ms qu'une place se libère,
+ *   puis le message est refusé ({@link TaskRejectedException}, 503).
+ * - Échec d'écriture : les insertions sont idempotentes (INSERT IGNORE sur l'identifiant attribué par
+ *   l'application). Tant que la base ne répond pas, le lot est retenté (la file se remplit, la contre-pression
+ *   joue). Si elle répond mais que le lot échoue encore après {@code chat.tampon.tentatives} essais, ou s'il
+ *   viole une contrainte, les messages sont écrits un par un : celui qui échoue est abandonné et journalisé
+ *   en erreur, sans bloquer les suivants.
+ * - Durabilité ({@code chat.journal.actif}) : chaque message est ajouté à un {@link JournalChat} local et
+ *   synchronisé sur disque (fsync) avant d'être accepté ; le journal est rejoué au démarrage.
+ *   Sans journal, un arrêt brutal perd les messages de moins de {@code chat.tampon.flush-ms} ms.
+ * - Réplique en lecture : un message enregistré reste servi par {@link #enAttente} pendant
+ *   {@code chat.tampon.retention-ms} ms, le temps qu'il parvienne à la réplique où se lit l'historique.
+ *   Valeur négative (défaut) : {@code replique.fenetre-ms} si {@code replique.url} est défini, 0 sinon.
+ */
+@Component
+public class TamponMessagesChat {
+
+    private static final Logger logger = LoggerFactory.getLogger(TamponMessagesChat.class);
+
+    private static final String INSERTION = "INSERT IGNORE INTO chat_messages "
+            + "(id, colis_id, sender_id, sender_role, message, photo, timestamp) VALUES ";
+    private static final String LIGNE = "(?, ?, ?, ?, ?, ?, ?)";
+
+    // Taille maximale (estimée) d'une requête : les photos jointes ne doivent pas dépasser max_allowed_packet
+    private static final long OCTETS_MAX_REQUETE = 4L * 1024 * 1024;
+
+    private static final long PAUSE_APRES_ECHEC_MS = 1000;
+
+    private static final String SONDE = "SELECT 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${chat.tampon.capacite:10000}")
+    private int capacite = 10000;
+
+    @Value("${chat.tampon.lot:200}")
+    private int tailleLot = 200;
+
+    @Value("${chat.tampon.flush-ms:10}")
+    private long flushMs = 10;
+
+    @Value("${chat.tampon.attente-ms:200}")
+    private long attenteMs = 200;
+
+    @Value("${chat.tampon.tentatives:5}")
+    private int tentatives = 5;
+
+    @Value("${chat.tampon.retention-ms:-1}")
+    private long retentionMs = -1;
+
+    @Value("${replique.url:}")
+    private String urlReplique = "";
+
+    @Value("${replique.fenetre-ms:2000}")
+    private long fenetreReplique = 2000;
+
+    @Value("${chat.journal.actif:false}")
+    private boolean journalActif;
+
+    @Value("${chat.journal.repertoire:data/chat-journal}")
+    private String repertoireJournal = "data/chat-journal";
+
+    @Value("${chat.journal.taille-segment-mo:64}")
+    private long tailleSegmentMo = 64;
+
+    private BlockingQueue<Entree> messages;
+
+    // Places libres : rendues une fois les messages en base, pas à leur sortie de la file
+    private Semaphore places;
+
+    // Ordonne numéro de séquence, journal et file
+    private final Object verrou = new Object();
+    private long sequence;
+
+    private JournalChat journal;
+
+    // Messages acceptés et pas encore en base, par identifiant (lectures de l'historique)
+    private final Map<Long, ChatMessage> nonEnregistres = new ConcurrentHashMap<>();
+
+    // Messages enregistrés depuis moins de retentionMs, et leurs échéances dans l'ordre d'écriture
+    private final Map<Long, ChatMessage> recemmentEnregistres = new ConcurrentHashMap<>();
+    private final Queue<Retenus> retenus = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean actif;
+    private Thread ecrivain;
+
+    @PostConstruct
+    public void demarrer() throws IOException {
+        ouvrir();
+        lancerEcrivain();
+    }
+
+    /**
+     * Prépare la file et, si le journal est actif, enregistre les messages laissés par l'exécution précédente.
+     */
+    void ouvrir() throws IOException {
+        if (retentionMs < 0) {
+            retentionMs = urlReplique == null || urlReplique.isBlank() ? 0 : fenetreReplique;
+        }
+        messages = new ArrayBlockingQueue<>(capacite);
+        places = new Semaphore(capacite);
+        if (journalActif) {
+            journal = new JournalChat(Path.of(repertoireJournal), tailleSegmentMo * 1024 * 1024);
+            List<ChatMessage> relus = journal.relire();
+            for (int debut = 0; debut < relus.size(); debut += tailleLot) {
+                inserer(relus.subList(debut, Math.min(debut + tailleLot, relus.size())));
+            }
+            if (!relus.isEmpty()) {
+                logger.info("Journal du chat : {} message(s) rejoué(s)", relus.size());
+            }
+            journal.ouvrir();
+        }
+    }
+
+    void lancerEcrivain() {
+        actif = true;
+        ecrivain = new Thread(this::boucle, "chat-ecriture");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+    /**
+     * Arrêt : le thread d'écriture s'arrête, puis tout ce qui reste est écrit.
+     */
+    @PreDestroy
+    public void arreter() throws InterruptedException, IOException {
+        actif = false;
+        if (ecrivain != null) {
+            ecrivain.interrupt();
+            ecrivain.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        vider();
+        if (journal != null) {
+            journal.fermer(nonEnregistres.isEmpty());
+        }
+    }
+
+    /**
+     * Accepte un message : à son retour, le message sera écrit en base (et il est déjà sur disque si le
+     * journal est actif).
+     *
+     * @throws TaskRejectedException si aucune place ne se libère à temps, ou si le journal est inutilisable
+     */
+    public void ajouter(ChatMessage message) {
+        try {
+            if (!places.tryAcquire(attenteMs, TimeUnit.MILLISECONDS)) {
+                throw new TaskRejectedException("File des messages du chat pleine.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Envoi du message interrompu.");
+        }
+        long position = 0;
+        synchronized (verrou) {
+            Entree entree = new Entree(message, ++sequence);
+            if (journal != null) {
+                try {
+                    position = journal.ajouter(message, entree.sequence);
+                } catch (IOException e) {
+                    places.release();
+                    throw new TaskRejectedException("Journal du chat indisponible.", e);
+                }
+            }
+            nonEnregistres.put(message.getId(), message);
+            messages.add(entree);
+        }
+        if (journal != null) {
+            try {
+                journal.forcer(position);
+            } catch (IOException e) {
+                // Le message est dans la file et sera enregistré : seule sa durabilité en cas d'arrêt brutal est perdue
+                logger.warn("Synchronisation du journal du chat impossible : {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return les messages du colis acceptés mais pas encore enregistrés, ou enregistrés depuis moins de
+     * {@code chat.tampon.retention-ms} ms, dans l'ordre d'arrivée
+     */
+    public List<ChatMessage> enAttente(Long colisId) {
+        oublierRetenus();
+        if (nonEnregistres.isEmpty() && recemmentEnregistres.isEmpty()) {
+            return List.of();
+        }
+        // Identifiants croissants dans l'ordre d'acceptation ; un message en cours de transfert d'une table à l'autre
+        // n'apparaît qu'une fois
+        Map<Long, ChatMessage> resultat = new TreeMap<>();
+        for (Map<Long, ChatMessage> messagesConnus : List.of(recemmentEnregistres, nonEnregistres)) {
+            for (ChatMessage message : messagesConnus.values()) {
+                if (colisId.equals(message.getColisId())) {
+                    resultat.put(message.getId(), message);
+                }
+            }
+        }
+        return new ArrayList<>(resultat.values());
+    }
+
+    /**
+     * Écrit immédiatement tout ce qui est dans la file (arrêt, tests).
+     */
+    synchronized void vider() {
+        List<Entree> lot = new ArrayList<>(tailleLot);
+        while (messages.drainTo(lot, tailleLot) > 0) {
+            ecrire(lot);
+            lot.clear();
+        }
+    }
+
+    private void boucle() {
+        List<Entree> lot = new ArrayList<>(tailleLot);
+        while (actif) {
+            oublierRetenus();
+            try {
+                Entree premier = messages.poll(1, TimeUnit.SECONDS);
+                if (premier == null) {
+                    continue;
+                }
+                lot.add(premier);
+                long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMs);
+                while (lot.size() < tailleLot) {
+                    if (messages.drainTo(lot, tailleLot - lot.size()) > 0) {
+                        continue;
+                    }
+                    long reste = echeance - System.nanoTime();
+                    Entree suivant = reste > 0 ? messages.poll(reste, TimeUnit.NANOSECONDS) : null;
+                    if (suivant == null) {
+                        break;
+                    }
+                    lot.add(suivant);
+                }
+            } catch (InterruptedException e) {
+                // Arrêt : le lot en cours est écrit ci-dessous, le reste par arreter()
+            }
+            if (!lot.isEmpty()) {
+                synchronized (this) {
+                    ecrire(lot);
+                }
+                lot.clear();
+            }
+        }
+    }
+
+    private void ecrire(List<Entree> lot) {
+        List<ChatMessage> lignes = new ArrayList<>(lot.size());
+        lot.forEach(entree -> lignes.add(entree.message));
+        boolean unParUn = false;
+        int echecs = 0;
+        while (true) {
+            try {
+                if (unParUn) {
+                    insererUnParUn(lignes);
+                } else {
+                    inserer(lignes);
+                }
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Erreur propre à un message : les autres sont enregistrés un par un
+                logger.warn("Lot de {} messages du chat refusé, enregistrement message par message", lignes.size(), e);
+                unParUn = true;
+            } catch (RuntimeException e) {
+                if (!unParUn && ++echecs >= tentatives && baseDisponible()) {
+                    // La base répond : c'est le lot lui-même qui échoue (message trop volumineux...)
+                    logger.warn("Lot de {} messages du chat en échec après {} essais, enregistrement message par message",
+                            lignes.size(), echecs, e);
+                    unParUn = true;
+                    continue;
+                }
+                logger.warn("Échec de l'enregistrement de {} messages du chat, nouvel essai dans {} ms",
+                        lignes.size(), PAUSE_APRES_ECHEC_MS, e);
+                if (!actif) {
+                    logger.error("Arrêt : {} message(s) du chat non enregistré(s){}", lignes.size(),
+                            journal != null ? ", conservé(s) dans le journal" : "");
+                    return;
+                }
+                try {
+                    Thread.sleep(PAUSE_APRES_ECHEC_MS);
+                } catch (InterruptedException interruption) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if (retentionMs > 0) {
+            lignes.forEach(message -> recemmentEnregistres.put(message.getId(), message));
+            retenus.add(new Retenus(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retentionMs), lignes));
+        }
+        lignes.forEach(message -> nonEnregistres.remove(message.getId()));
+        places.release(lot.size());
+        if (journal != null) {
+            journal.liberer(lot.get(lot.size() - 1).sequence);
+        }
+    }
+
+    /**
+     * Écrit des messages en une transaction, en requêtes INSERT multi-lignes.
+     */
+    private void inserer(List<ChatMessage> lot) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            int debut = 0;
+            while (debut < lot.size()) {
+                int fin = debut;
+                long octets = 0;
+                while (fin < lot.size() && (fin == debut || octets + taille(lot.get(fin)) <= OCTETS_MAX_REQUETE)) {
+                    octets += taille(lot.get(fin));
+                    fin++;
+                }
+                List<ChatMessage> lignes = lot.subList(debut, fin);
+                jdbcTemplate.update(requete(lignes.size()), ps -> lier(ps, lignes));
+                debut = fin;
+            }
+        });
+    }
+
+    private void oublierRetenus() {
+        long maintenant = System.nanoTime();
+        Retenus plusAncien;
+        while ((plusAncien = retenus.peek()) != null && maintenant - plusAncien.echeance >= 0) {
+            if (retenus.remove(plusAncien)) {
+                plusAncien.messages.forEach(message -> recemmentEnregistres.remove(message.getId()));
+            }
+        }
+    }
+
+    /**
+     * Écrit les messages un à un ; un message refusé alors que la base répond est abandonné.
+     *
+     * @throws RuntimeException si la base ne répond plus : le lot sera retenté (les insertions sont idempotentes)
+     */
+    private void insererUnParUn(List<ChatMessage> lot) {
+        for (ChatMessage message : lot) {
+            try {
+                inserer(List.of(message));
+            } catch (RuntimeException e) {
+                if (!(e instanceof DataIntegrityViolationException) && !baseDisponible()) {
+                    throw e;
+                }
+                logger.error("Message {} du colis {} (expéditeur {} {}, {} octets) abandonné : {}", message.getId(),
+                        message.getColisId(), message.getSenderRole(), message.getSenderId(), taille(message),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private boolean baseDisponible() {
+        try {
+            jdbcTemplate.queryForObject(SONDE, Integer.class);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String requete(int lignes) {
+        StringBuilder sql = new StringBuilder(INSERTION.length() + lignes * (LIGNE.length() + 2)).append(INSERTION);
+        for (int i = 0; i < lignes; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(LIGNE);
+        }
+        return sql.toString();
+    }
+
+    private static void lier(PreparedStatement ps, List<ChatMessage> lignes) throws SQLException {
+        int i = 1;
+        for (ChatMessage message : lignes) {
+            ps.setLong(i++, message.getId());
+            ps.setLong(i++, message.getColisId());
+            ps.setLong(i++, message.getSenderId());
+            ps.setString(i++, message.getSenderRole());
+            ps.setString(i++, message.getMessage());
+            if (message.getPhoto() != null) {
+                ps.setBytes(i++, message.getPhoto());
+            } else {
+                ps.setNull(i++, Types.BLOB);
+            }
+            ps.setObject(i++, message.getTimestamp());
+        }
+    }
+
+    private static long taille(ChatMessage message) {
+        long taille = 128;
+        if (message.getMessage() != null) {
+            taille += 4L * message.getMessage().length();
+        }
+        if (message.getPhoto() != null) {
+            taille += message.getPhoto().length;
+        }
+        return taille;
+    }
+
+    private static final class Retenus {
+        final long echeance;
+        final List<ChatMessage> messages;
+
+        Retenus(long echeance, List<ChatMessage> messages) {
+            this.echeance = echeance;
+            this.messages = messages;
+        }
+    }
+
+    private static final class Entree {
+        final ChatMessage message;
+        final long sequence;
+
+        Entree(ChatMessage message, long sequence) {
+            this.message = message;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.TourneeDTO;
+
+import java.util.List;
+
+public interface TourneeService {
+
+    // Crée la tournée du livreur avec ses arrêts ordonnés ; les colis passent RECUPERE
+    TourneeDTO creerTournee(Long livreurId, List<Long> colisIds);
+
+    TourneeDTO getTournee(Long id);
+
+    // Tournée EN_COURS du livreur
+    TourneeDTO getTourneeEnCours(Long livreurId);
+
+    // Valide un arrêt : enlèvement -> colis EN_COURS_DE_LIVRAISON, livraison -> colis LIVRE
+    TourneeDTO validerArret(Long tourneeId, Long arretId);
+}
@@ -0,0 +1,271 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.dto.TourneeDTO;
+import com.nova.colis.exception.ConflictException;
+import com.nova.colis.exception.ResourceNotFoundException;
+import com.nova.colis.model.ArretTournee;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.Livreur;
+import com.nova.colis.model.StatutArret;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.StatutTournee;
+import com.nova.colis.model.Tournee;
+import com.nova.colis.model.TypeArret;
+import com.nova.colis.repository.ArretTourneeRepository;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.LivreurRepository;
+import com.nova.colis.repository.TourneeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tournées multi-arrêts : un livreur enlève puis livre plusieurs colis dans l'ordre calculé
+ * par {@link OptimiseurTournee}.
+ *
+ * À la création, les colis restent EN_ATTENTE, simplement affectés à la tournée et à son livreur :
+ * la tournée, ses arrêts et ces affectations sont enregistrés dans une seule transaction.
+ * Le statut des colis reste piloté par {@link ColisService} : valider l'arrêt d'enlèvement fait passer
+ * le colis RECUPERE puis EN_COURS_DE_LIVRAISON, valider l'arrêt de livraison le fait passer LIVRE.
+ * Les arrêts suivent ces transitions grâce à {@link #surChangementDeStatut}, exécuté dans leur transaction.
+ * La tournée est close, et le livreur libéré, quand il ne reste plus d'arrêt à faire.
+ */
+@Service
+public class TourneeServiceImpl implements TourneeService {
+
+    static final int COLIS_MAX = 25;
+
+    @Autowired
+    private TourneeRepository tourneeRepository;
+
+    @Autowired
+    private ArretTourneeRepository arretTourneeRepository;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private OptimiseurTournee optimiseurTournee;
+
+    @Autowired
+    private LivreurColisIndex livreurColisIndex;
+
+    @Autowired
+    private IndexRechercheColis indexRechercheColis;
+
+    @Autowired
+    private MoteurGeofences moteurGeofences;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public TourneeDTO creerTournee(Long livreurId, List<Long> colisIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(colisIds));
+        if (ids.isEmpty() || ids.size() > COLIS_MAX) {
+            throw new IllegalArgumentException("Une tournée compte de 1 à " + COLIS_MAX + " colis.");
+        }
+        Livreur livreur = livreurRepository.findById(livreurId)
+                .orElseThrow(() -> new ResourceNotFoundException("Livreur", "id", livreurId));
+        Map<Long, Colis> parId = colisRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Colis::getId, Function.identity()));
+
+        // Deux arrêts par colis : 2k = enlèvement (position d'origine du colis), 2k + 1 = livraison
+        List<Colis> colis = new ArrayList<>();
+        double[] lat = new double[ids.size() * 2];
+        double[] lon = new double[ids.size() * 2];
+        int[] predecesseur = new int[ids.size() * 2];
+        for (Long id : ids) {
+            Colis c = parId.get(id);
+            if (c == null) {
+                throw new ResourceNotFoundException("Colis", "id", id);
+            }
+            if (c.getStatutColis() != StatutColis.EN_ATTENTE || c.getTourneeId() != null) {
+                throw new ConflictException("Le colis " + id + " n'est plus en attente d'enlèvement.");
+            }
+            if (c.getLivreurId() != null && !c.getLivreurId().equals(livreurId)) {
+                throw new ConflictException("Le colis " + id + " est affecté à un autre livreur.");
+            }
+            // Adresse d'enlèvement géocodée, à défaut la position initiale du colis
+            double[] enlevement = c.getLatitudeEnlevement() != null && c.getLongitudeEnlevement() != null
+                    ? new double[]{c.getLatitudeEnlevement(), c.getLongitudeEnlevement()}
+                    : DistanceGeo.lirePosition(c.getCoordonneesGPS());
+            if (enlevement == null || c.getLatitudeDestination() == null || c.getLongitudeDestination() == null) {
+                throw new IllegalArgumentException("Le colis " + id + " n'a pas de coordonnées d'enlèvement et de livraison.");
+            }
+            int k = colis.size();
+            lat[2 * k] = enlevement[0];
+            lon[2 * k] = enlevement[1];
+            predecesseur[2 * k] = -1;
+            lat[2 * k + 1] = c.getLatitudeDestination();
+            lon[2 * k + 1] = c.getLongitudeDestination();
+            predecesseur[2 * k + 1] = 2 * k;
+            colis.add(c);
+        }
+
+        OptimiseurTournee.Parcours parcours = optimiseurTournee.ordonner(
+                livreur.getLatitudeActuelle(), livreur.getLongitudeActuelle(), lat, lon, predecesseur);
+
+        Long tourneeId = transactionTemplate.execute(tx -> {
+            Tournee tournee = new Tournee();
+            tournee.setLivreurId(livreurId);
+            tournee.setDistanceEstimeeMetres(Math.round(parcours.getDistanceMetres()));
+            Long id = tourneeRepository.save(tournee).getId();
+            if (livreurRepository.reserverTournee(livreurId, id) == 0) {
+                throw new ConflictException("Ce livreur a déjà une tournée ou un colis en cours.");
+            }
+            for (Colis c : colis) {
+                if (colisRepository.affecterTournee(c.getId(), id, livreurId, nomComplet(livreur),
+                        livreur.getTelephone(), StatutColis.EN_ATTENTE) == 0) {
+                    throw new ConflictException("Le colis " + c.getId() + " a été modifié par une autre requête.");
+                }
+            }
+            List<ArretTournee> arrets = new ArrayList<>();
+            int[] ordre = parcours.getOrdre();
+            for (int rang = 0; rang < ordre.length; rang++) {
+                int arret = ordre[rang];
+                ArretTournee a = new ArretTournee();
+                a.setTourneeId(id);
+                a.setColisId(colis.get(arret / 2).getId());
+                a.setOrdre(rang + 1);
+                a.setTypeArret(arret % 2 == 0 ? TypeArret.ENLEVEMENT : TypeArret.LIVRAISON);
+                a.setStatut(StatutArret.A_FAIRE);
+                a.setLatitude(lat[arret]);
+                a.setLongitude(lon[arret]);
+                arrets.add(a);
+            }
+            arretTourneeRepository.saveAll(arrets);
+            return id;
+        });
+
+        // Les colis restent EN_ATTENTE jusqu'à leur enlèvement, désormais affectés au livreur
+        for (ColisSummaryDTO c : colisRepository.findSummariesByIdIn(ids)) {
+            livreurColisIndex.mettreAJour(c);
+        }
+        indexRechercheColis.reindexer(ids);
+        moteurGeofences.suivre(ids);
+        return getTournee(tourneeId);
+    }
+
+    @Override
+    public TourneeDTO getTournee(Long id) {
+        Tournee tournee = tourneeRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Tournee", "id", id));
+        return mapToDTO(tournee, arretTourneeRepository.findByTourneeIdOrderByOrdreAsc(id));
+    }
+
+    @Override
+    public TourneeDTO getTourneeEnCours(Long livreurId) {
+        Livreur livreur = livreurRepository.findById(livreurId)
+                .orElseThrow(() -> new ResourceNotFoundException("Livreur", "id", livreurId));
+        if (livreur.getTourneeActiveId() == null) {
+            throw new ResourceNotFoundException("Tournee", "livreurId", livreurId);
+        }
+        return getTournee(livreur.getTourneeActiveId());
+    }
+
+    @Override
+    public TourneeDTO validerArret(Long tourneeId, Long arretId) {
+        ArretTournee arret = arretTourneeRepository.findById(arretId)
+                .filter(a -> a.getTourneeId().equals(tourneeId))
+                .orElseThrow(() -> new ResourceNotFoundException("ArretTournee", "id", arretId));
+        if (arret.getStatut() != StatutArret.A_FAIRE) {
+            throw new ConflictException("Cet arrêt n'est plus à faire (" + arret.getStatut() + ").");
+        }
+        List<StatutColis> etapes;
+        if (arret.getTypeArret() == TypeArret.ENLEVEMENT) {
+            // Colis enlevé : il part aussitôt vers sa destination avec le reste de la tournée
+            etapes = List.of(StatutColis.RECUPERE, StatutColis.EN_COURS_DE_LIVRAISON);
+        } else {
+            arretTourneeRepository.findByTourneeIdAndColisIdAndTypeArret(tourneeId, arret.getColisId(), TypeArret.ENLEVEMENT)
+                    .filter(enlevement -> enlevement.getStatut() == StatutArret.A_FAIRE)
+                    .ifPresent(enlevement -> {
+                        throw new ConflictException("Le colis " + arret.getColisId() + " doit être enlevé avant d'être livré.");
+                    });
+            etapes = List.of(StatutColis.LIVRE);
+        }
+        colisService.enchainerStatuts(arret.getColisId(), etapes);
+        return getTournee(tourneeId);
+    }
+
+    /**
+     * Reporte une transition de statut d'un colis de tournée sur ses arrêts, dans la même transaction :
+     * RECUPERE (ou EN_COURS_DE_LIVRAISON) valide l'enlèvement, LIVRE la livraison ; une annulation, une remise
+     * en attente ou une suppression annule les arrêts restants (le colis remis en attente quitte la tournée).
+     */
+    @EventListener
+    public void surChangementDeStatut(ColisStatutEvenement evenement) {
+        Long tourneeId = evenement.getTourneeId();
+        StatutColis nouveau = evenement.getNouveauStatut();
+        if (tourneeId == null) {
+            return;
+        }
+        Long colisId = evenement.getColisId();
+        LocalDateTime maintenant = LocalDateTime.now();
+        if (nouveau == StatutColis.RECUPERE || nouveau == StatutColis.EN_COURS_DE_LIVRAISON) {
+            arretTourneeRepository.cloturerArrets(tourneeId, colisId, TypeArret.ENLEVEMENT,
+                    StatutArret.FAIT, maintenant, StatutArret.A_FAIRE);
+        } else if (nouveau == StatutColis.LIVRE) {
+            arretTourneeRepository.cloturerArrets(tourneeId, colisId, TypeArret.LIVRAISON,
+                    StatutArret.FAIT, maintenant, StatutArret.A_FAIRE);
+        } else {
+            arretTourneeRepository.cloturerArrets(tourneeId, colisId, null,
+                    StatutArret.ANNULE, maintenant, StatutArret.A_FAIRE);
+            if (nouveau == StatutColis.EN_ATTENTE) {
+                colisRepository.retirerDeTournee(colisId);
+            }
+        }
+        if (arretTourneeRepository.countByTourneeIdAndStatut(tourneeId, StatutArret.A_FAIRE) == 0
+                && tourneeRepository.terminer(tourneeId, maintenant, StatutTournee.EN_COURS, StatutTournee.TERMINEE) == 1) {
+            livreurRepository.libererTournee(evenement.getLivreurId(), tourneeId);
+        }
+    }
+
+    private static String nomComplet(Livreur livreur) {
+        String prenom = livreur.getPrenom() == null ? "" : livreur.getPrenom();
+        String nom = livreur.getNom() == null ? "" : livreur.getNom();
+        String complet = (prenom + " " + nom).trim();
+        return complet.isEmpty() ? null : complet;
+    }
+
+    private TourneeDTO mapToDTO(Tournee tournee, List<ArretTournee> arrets) {
+        TourneeDTO dto = new TourneeDTO();
+        dto.setId(tournee.getId());
+        dto.setLivreurId(tournee.getLivreurId());
+        dto.setStatut(tournee.getStatut());
+        dto.setDistanceEstimeeMetres(tournee.getDistanceEstimeeMetres());
+        dto.setDateCreation(tournee.getDateCreation());
+        dto.setDateFin(tournee.getDateFin());
+        List<TourneeDTO.Arret> liste = new ArrayList<>();
+        for (ArretTournee a : arrets) {
+            TourneeDTO.Arret arret = new TourneeDTO.Arret();
+            arret.setId(a.getId());
+            arret.setOrdre(a.getOrdre());
+            arret.setColisId(a.getColisId());
+            arret.setTypeArret(a.getTypeArret());
+            arret.setStatut(a.getStatut());
+            arret.setLatitude(a.getLatitude());
+            arret.setLongitude(a.getLongitude());
+            arret.setDateRealisation(a.getDateRealisation());
+            liste.add(arret);
+        }
+        dto.setArrets(liste);
+        return dto;
+    }
+}
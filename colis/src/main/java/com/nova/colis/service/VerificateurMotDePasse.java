@@ -0,0 +1,67 @@
+package com.nova.colis.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Vérification des mots de passe à la connexion (BCrypt, coût {@code securite.bcrypt.cout}).
+ *
+ * - Email inconnu : un hachage factice, de même coût, est vérifié quand même ; la durée de la
+ *   réponse ne révèle pas si un compte existe.
+ * - Coût modifié : un hachage produit avec un autre coût est signalé par {@link #doitRehacher},
+ *   pour être remplacé à la prochaine connexion réussie, seul moment où le mot de passe est connu.
+ */
+@Component
+public class VerificateurMotDePasse {
+
+    // $2a$10$... : le coût est le nombre à deux chiffres après la version
+    private static final Pattern COUT_BCRYPT = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${securite.bcrypt.cout:10}")
+    private int cout = 10;
+
+    private String hachageFactice;
+
+    @PostConstruct
+    void initialiser() {
+        hachageFactice = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * @param hachage le hachage enregistré, ou null si le compte n'existe pas
+     * @return true si le mot de passe correspond (toujours false sans hachage)
+     */
+    public boolean verifier(String motDePasse, String hachage) {
+        String candidat = motDePasse == null ? "" : motDePasse;
+        if (hachage == null) {
+            passwordEncoder.matches(candidat, hachageFactice);
+            return false;
+        }
+        return passwordEncoder.matches(candidat, hachage);
+    }
+
+    /**
+     * @return true si le hachage a été produit avec un coût différent du coût configuré
+     */
+    public boolean doitRehacher(String hachage) {
+        if (hachage == null) {
+            return false;
+        }
+        Matcher matcher = COUT_BCRYPT.matcher(hachage);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cout;
+    }
+
+    public String hacher(String motDePasse) {
+        return passwordEncoder.encode(motDePasse);
+    }
+}
@@ -0,0 +1,210 @@
+package com.nova.colis.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deux bases H2 distinctes jouent la primaire et la réplique ; chacune répond par son nom.
+ */
+class DataSourceRoutageTest {
+
+    private static final String LECTURE_SERVICE = "com.nova.colis.service.ColisServiceImpl.getAllColis";
+
+    private final HorlogeReglable horloge = new HorlogeReglable();
+    private final List<Long> marqueursEmis = new ArrayList<>();
+    private DataSource primaire;
+    private DataSource replique;
+    private CoherenceLectures coherence;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primaire = base("primaire");
+        replique = base("replique");
+        instance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        coherence.fermer();
+    }
+
+    @Test
+    void onlyReadOnlyServiceTransactionsGoToTheReplica() {
+        assertEquals("replique", lire(LECTURE_SERVICE));
+        assertEquals("primaire", ecrire());
+        // Transaction en lecture seule ouverte par un dépôt, et lecture hors transaction
+        assertEquals("primaire", lire("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById"));
+        assertEquals("primaire", jdbcTemplate.queryForObject("SELECT nom FROM base", String.class));
+    }
+
+    @Test
+    void clientReadsThePrimaryWhileItsMarkerIsRecent() {
+        // Requête anonyme : le marqueur ne dépend pas de l'authentification
+        coherence.ouvrir(null, marqueursEmis::add);
+        ecrire();
+        assertEquals(List.of(horloge.millis()), marqueursEmis);
+        assertEquals("primaire", lire(LECTURE_SERVICE));
+        coherence.fermer();
+
+        // Un autre client, sans marqueur, n'est pas concerné
+        coherence.ouvrir(null, marqueursEmis::add);
+        assertEquals("replique", lire(LECTURE_SERVICE));
+        coherence.fermer();
+
+        // Le marqueur renvoyé vaut sur une autre instance, jusqu'à la fin de la fenêtre
+        Long marqueur = marqueursEmis.get(0);
+        instance();
+        coherence.ouvrir(marqueur, marqueursEmis::add);
+        assertEquals("primaire", lire(LECTURE_SERVICE));
+        coherence.fermer();
+
+        horloge.avancer(2000);
+        coherence.ouvrir(marqueur, marqueursEmis::add);
+        assertEquals("replique", lire(LECTURE_SERVICE));
+    }
+
+    @Test
+    void rolledBackWriteEmitsNoMarker() {
+        coherence.ouvrir(null, marqueursEmis::add);
+        TransactionTemplate ecriture = new TransactionTemplate(transactionManager);
+        ecriture.executeWithoutResult(tx -> {
+            jdbcTemplate.update("UPDATE base SET nom = nom");
+            tx.setRollbackOnly();
+        });
+        assertTrue(marqueursEmis.isEmpty());
+        assertEquals("replique", lire(LECTURE_SERVICE));
+    }
+
+    @Test
+    void filterReturnsTheMarkerAndReadsItFromTheHeaderOrTheCookie() throws Exception {
+        FiltreCoherenceLectures filtre = new FiltreCoherenceLectures(coherence);
+
+        MockHttpServletResponse reponse = new MockHttpServletResponse();
+        filtre.doFilter(new MockHttpServletRequest("POST", "/api/colis"), reponse, (req, res) -> ecrire());
+        String marqueur = reponse.getHeader(CoherenceLectures.ENTETE);
+        assertEquals(String.valueOf(horloge.millis()), marqueur);
+        Cookie cookie = reponse.getCookie(CoherenceLectures.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(marqueur, cookie.getValue());
+        assertEquals(2, cookie.getMaxAge());
+
+        List<String> lus = new ArrayList<>();
+        MockHttpServletRequest parEntete = new MockHttpServletRequest("GET", "/api/colis");
+        parEntete.addHeader(CoherenceLectures.ENTETE, marqueur);
+        filtre.doFilter(parEntete, new MockHttpServletResponse(), (req, res) -> lus.add(lire(LECTURE_SERVICE)));
+        MockHttpServletRequest parCookie = new MockHttpServletRequest("GET", "/api/colis");
+        parCookie.setCookies(new Cookie(CoherenceLectures.COOKIE, marqueur));
+        filtre.doFilter(parCookie, new MockHttpServletResponse(), (req, res) -> lus.add(lire(LECTURE_SERVICE)));
+        MockHttpServletRequest invalide = new MockHttpServletRequest("GET", "/api/colis");
+        invalide.addHeader(CoherenceLectures.ENTETE, "demain");
+        filtre.doFilter(invalide, new MockHttpServletResponse(), (req, res) -> lus.add(lire(LECTURE_SERVICE)));
+        assertEquals(List.of("primaire", "primaire", "replique"), lus);
+
+        // Hors requête, rien ne subsiste sur le thread
+        assertEquals("replique", lire(LECTURE_SERVICE));
+    }
+
+    @Test
+    void replicaUrlReplacesTheSingleDataSourceWithTheRoutingOne() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+                .withUserConfiguration(RepliqueConfig.class)
+                .withPropertyValues("spring.datasource.url=jdbc:h2:mem:primaire;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa", "replique.url=jdbc:h2:mem:replique;DB_CLOSE_DELAY=-1")
+                .run(contexte -> {
+                    assertTrue(contexte.containsBean("filtreCoherenceLectures"));
+                    DataSource source = contexte.getBean(DataSource.class);
+                    assertInstanceOf(LazyConnectionDataSourceProxy.class, source);
+                    jdbcTemplate = new JdbcTemplate(source);
+                    transactionManager = new DataSourceTransactionManager(source);
+                    assertEquals("replique", lire(LECTURE_SERVICE));
+                    assertEquals("primaire", ecrire());
+                });
+    }
+
+    private String lire(String transaction) {
+        TransactionTemplate lecture = new TransactionTemplate(transactionManager);
+        lecture.setReadOnly(true);
+        lecture.setName(transaction);
+        return lecture.execute(tx -> jdbcTemplate.queryForObject("SELECT nom FROM base", String.class));
+    }
+
+    private String ecrire() {
+        TransactionTemplate ecriture = new TransactionTemplate(transactionManager);
+        ecriture.setName("com.nova.colis.service.ColisServiceImpl.updateColis");
+        return ecriture.execute(tx -> {
+            jdbcTemplate.update("UPDATE base SET nom = nom");
+            return jdbcTemplate.queryForObject("SELECT nom FROM base", String.class);
+        });
+    }
+
+    // Nouvelle instance de l'application, sur les mêmes bases et à la même heure
+    private void instance() {
+        coherence = new CoherenceLectures(2000, horloge);
+        DataSource source = new LazyConnectionDataSourceProxy(
+                new DataSourceRoutage(primaire, replique, "com.nova.colis.service.", coherence));
+        jdbcTemplate = new JdbcTemplate(source);
+        transactionManager = new DataSourceTransactionManager(source);
+    }
+
+    private static DataSource base(String nom) {
+        DriverManagerDataSource source = new DriverManagerDataSource("jdbc:h2:mem:" + nom + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(source);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS base (nom VARCHAR(20))");
+        jdbc.execute("DELETE FROM base");
+        jdbc.update("INSERT INTO base (nom) VALUES (?)", nom);
+        return source;
+    }
+
+    private static final class HorlogeReglable extends Clock {
+        private long millis = 1_000_000;
+
+        void avancer(long ms) {
+            millis += ms;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.nova.colis.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Accès aux gains d'un livreur : le livreur lui-même ou un administrateur.
+ */
+class SecurityConfigTest {
+
+    private final AuthorizationManager<RequestAuthorizationContext> gains = SecurityConfig.livreurConcerneOuAdmin();
+
+    @Test
+    void driverReadsOnlyTheirOwnEarnings() {
+        assertTrue(autorise("7", "ROLE_LIVREUR", "7"));
+        assertFalse(autorise("8", "ROLE_LIVREUR", "7"));
+    }
+
+    @Test
+    void clientIsRefusedAndAdminAllowed() {
+        assertFalse(autorise("7", "ROLE_CLIENT", "7"));
+        assertTrue(autorise("1", "ROLE_ADMIN", "7"));
+    }
+
+    private boolean autorise(String sujet, String role, String livreurId) {
+        Jwt jwt = Jwt.withTokenValue("jeton").header("alg", "HS256").subject(sujet).claim("role", role).build();
+        JwtAuthenticationToken authentification = new JwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList(role));
+        RequestAuthorizationContext contexte = new RequestAuthorizationContext(
+                new MockHttpServletRequest("GET", "/api/livreurs/" + livreurId + "/gains"), Map.of("id", livreurId));
+        return gains.authorize(() -> authentification, contexte).isGranted();
+    }
+}
@@ -0,0 +1,144 @@
+package com.nova.colis.repository;
+
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeColis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requêtes de projection {@link ColisRepository#SUMMARY} : chaque vue allégée doit reprendre
+ * les valeurs de l'entité, colonne par colonne, et respecter le filtre et l'ordre de sa requête.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:colis-projections;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ColisRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 9, 30);
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    private Colis attente;
+    private Colis enCours;
+    private Colis livre;
+    private Colis autreClient;
+
+    @BeforeEach
+    void setUp() {
+        attente = nouveauColis(1L, null, StatutColis.EN_ATTENTE, 0);
+        enCours = nouveauColis(1L, 7L, StatutColis.EN_COURS_DE_LIVRAISON, 1);
+        livre = nouveauColis(1L, 7L, StatutColis.LIVRE, 2);
+        autreClient = nouveauColis(2L, 8L, StatutColis.RECUPERE, 3);
+    }
+
+    @Test
+    void findAllSummariesMatchesEntities() {
+        List<ColisSummaryDTO> resumes = colisRepository.findAllSummaries();
+
+        assertEquals(4, resumes.size());
+        verifier(autreClient, resumes.get(0));
+        verifier(livre, resumes.get(1));
+        verifier(enCours, resumes.get(2));
+        verifier(attente, resumes.get(3));
+    }
+
+    @Test
+    void findSummariesByLivreurIdAndStatutInMatchesEntities() {
+        List<ColisSummaryDTO> resumes = colisRepository.findSummariesByLivreurIdAndStatutIn(7L,
+                Set.of(StatutColis.EN_COURS_DE_LIVRAISON, StatutColis.RECUPERE));
+
+        assertEquals(1, resumes.size());
+        verifier(enCours, resumes.get(0));
+    }
+
+    @Test
+    void findSummariesByLivreurIdNotNullAndStatutInMatchesEntities() {
+        List<ColisSummaryDTO> resumes = colisRepository.findSummariesByLivreurIdNotNullAndStatutIn(
+                Set.of(StatutColis.EN_ATTENTE, StatutColis.EN_COURS_DE_LIVRAISON, StatutColis.RECUPERE));
+
+        assertEquals(Set.of(enCours.getId(), autreClient.getId()),
+                resumes.stream().map(ColisSummaryDTO::getId).collect(Collectors.toSet()));
+        for (ColisSummaryDTO resume : resumes) {
+            verifier(resume.getId().equals(enCours.getId()) ? enCours : autreClient, resume);
+        }
+    }
+
+    @Test
+    void findSummariesByClientIdMatchesEntities() {
+        List<ColisSummaryDTO> resumes = colisRepository.findSummariesByClientId(1L, Limit.of(2));
+
+        assertEquals(2, resumes.size());
+        verifier(livre, resumes.get(0));
+        verifier(enCours, resumes.get(1));
+    }
+
+    @Test
+    void findSummariesByClientIdAndIdLessThanMatchesEntities() {
+        List<ColisSummaryDTO> resumes = colisRepository.findSummariesByClientIdAndIdLessThan(1L,
+                enCours.getId(), Limit.of(2));
+
+        assertEquals(1, resumes.size());
+        verifier(attente, resumes.get(0));
+    }
+
+    @Test
+    void findSummariesByIdInMatchesEntities() {
+        List<ColisSummaryDTO> resumes = colisRepository.findSummariesByIdIn(List.of(attente.getId(), livre.getId()));
+
+        assertEquals(2, resumes.size());
+        verifier(livre, resumes.get(0));
+        verifier(attente, resumes.get(1));
+    }
+
+    private static void verifier(Colis attendu, ColisSummaryDTO resume) {
+        assertEquals(attendu.getId(), resume.getId());
+        assertEquals(attendu.getReferenceColis(), resume.getReferenceColis());
+        assertEquals(attendu.getStatutColis(), resume.getStatutColis());
+        assertEquals(attendu.getClientId(), resume.getClientId());
+        assertEquals(attendu.getLivreurId(), resume.getLivreurId());
+        assertEquals(attendu.getNomLivreur(), resume.getNomLivreur());
+        assertEquals(Long.valueOf(attendu.getPrixTotal()), resume.getPrixTotal());
+        assertEquals(attendu.getDateCreation(), resume.getDateCreation());
+        assertEquals(attendu.getDatePriseEnCharge(), resume.getDatePriseEnCharge());
+        assertEquals(attendu.getDateLivraisonEstimee(), resume.getDateLivraisonEstimee());
+        assertEquals(attendu.getDateLivraisonEffective(), resume.getDateLivraisonEffective());
+        assertEquals(attendu.getVersion(), resume.getVersion());
+    }
+
+    private Colis nouveauColis(Long clientId, Long livreurId, StatutColis statut, int rang) {
+        Colis colis = new Colis();
+        colis.setReferenceColis("CLS-TEST-" + rang);
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setClientId(clientId);
+        colis.setLivreurId(livreurId);
+        colis.setNomLivreur(livreurId == null ? null : "Livreur " + livreurId);
+        colis.setStatutColis(statut);
+        colis.setPrixTotal(1000L + rang);
+        colis.setDateCreation(T0.plusHours(rang));
+        colis.setDatePriseEnCharge(livreurId == null ? null : T0.plusHours(rang + 1));
+        colis.setDateLivraisonEstimee(T0.plusDays(1).plusHours(rang));
+        colis.setDateLivraisonEffective(statut == StatutColis.LIVRE ? T0.plusDays(1) : null);
+        return colisRepository.save(colis);
+    }
+}
@@ -0,0 +1,170 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ClientRequestDTO;
+import com.nova.colis.exception.ConflictException;
+import com.nova.colis.model.Identite;
+import com.nova.colis.model.TypeCompte;
+import com.nova.colis.repository.ClientRepository;
+import com.nova.colis.repository.IdentiteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inscriptions concurrentes et recherche des comptes par email via l'annuaire des identités.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:identites;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "securite.bcrypt.cout=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ClientServiceImpl.class, AnnuaireIdentites.class, VerificateurMotDePasse.class,
+        AnnuaireIdentitesTest.Chiffrement.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AnnuaireIdentitesTest {
+
+    private static final int THREADS = 12;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private AnnuaireIdentites annuaireIdentites;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private IdentiteRepository identiteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private ClientStatistiquesService clientStatistiquesService;
+
+    @TestConfiguration
+    static class Chiffrement {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        identiteRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRegistrationsOfTheSameEmailCreateOneAccount() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Object>> resultats = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            // Même adresse, à la casse et aux espaces près
+            String email = i % 2 == 0 ? "Awa.Mba@Test.ga" : " awa.mba@test.GA ";
+            resultats.add(pool.submit(() -> {
+                depart.await();
+                return clientService.registerClient(demande(email));
+            }));
+        }
+        depart.countDown();
+        int succes = 0;
+        for (Future<Object> resultat : resultats) {
+            try {
+                resultat.get();
+                succes++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConflictException.class, e.getCause());
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, succes);
+        assertEquals(1, clientRepository.count());
+        assertEquals(1, identiteRepository.count());
+    }
+
+    @Test
+    void loginIgnoresEmailCase() {
+        Long id = clientService.registerClient(demande("Jean@Test.ga")).getId();
+
+        assertEquals(id, clientService.login("jean@test.ga", "secret").getId());
+        assertNull(clientService.login("JEAN@test.ga", "mauvais"));
+    }
+
+    @Test
+    void unknownEmailIsCachedUntilRegisteredHere() {
+        assertTrue(annuaireIdentites.trouverCompte("inconnu@test.ga", TypeCompte.CLIENT).isEmpty());
+
+        // Inscription faite par une autre instance : masquée par le cache négatif
+        Identite ailleurs = new Identite();
+        ailleurs.setEmailNormalise("inconnu@test.ga");
+        ailleurs.setTypeCompte(TypeCompte.CLIENT);
+        ailleurs.setCompteId(99L);
+        identiteRepository.save(ailleurs);
+        assertTrue(annuaireIdentites.trouverCompte("inconnu@test.ga", TypeCompte.CLIENT).isEmpty());
+
+        // Une inscription locale invalide l'entrée
+        assertThrows(ConflictException.class, () -> clientService.registerClient(demande("Inconnu@test.ga")));
+        assertEquals(99L, annuaireIdentites.trouverCompte("inconnu@test.ga", TypeCompte.CLIENT).orElseThrow());
+    }
+
+    @Test
+    void lookupDuringARegistrationDoesNotHideTheCommittedAccount() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            Identite identite = annuaireIdentites.reserver("Nouveau@test.ga", TypeCompte.CLIENT);
+            identite.setCompteId(42L);
+            identiteRepository.saveAndFlush(identite);
+            // Connexion concurrente, avant le commit : le compte n'est pas encore visible
+            try {
+                assertTrue(pool.submit(() -> annuaireIdentites.trouverCompte("nouveau@test.ga", TypeCompte.CLIENT))
+                        .get().isEmpty());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        pool.shutdown();
+
+        assertEquals(42L, annuaireIdentites.trouverCompte("nouveau@test.ga", TypeCompte.CLIENT).orElseThrow());
+    }
+
+    private static ClientRequestDTO demande(String email) {
+        ClientRequestDTO dto = new ClientRequestDTO();
+        dto.setEmail(email);
+        dto.setPassword("secret");
+        dto.setNom("Mba");
+        return dto;
+    }
+}
@@ -0,0 +1,134 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.ChatMessage;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ChatMessageRepository;
+import com.nova.colis.repository.ColisRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:archivage;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "archivage.jours=30",
+        "archivage.pause-ms=0"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ArchivageColis.class, ReferenceColisGenerator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArchivageColisTest {
+
+    @Autowired
+    private ArchivageColis archivage;
+
+    @Autowired
+    private ReferenceColisGenerator generateur;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private IndexRechercheColis indexRechercheColis;
+
+    @BeforeEach
+    void setUp() {
+        // Créées par Liquibase en production (CREATE TABLE ... LIKE)
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS colis_archive AS SELECT * FROM colis WITH NO DATA");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS chat_messages_archive AS SELECT * FROM chat_messages WITH NO DATA");
+        jdbcTemplate.execute("DELETE FROM colis_archive");
+        jdbcTemplate.execute("DELETE FROM chat_messages_archive");
+        chatMessageRepository.deleteAll();
+        colisRepository.deleteAll();
+    }
+
+    @Test
+    void oldTerminalParcelsAndTheirChatsMoveToTheArchiveInBatches() {
+        LocalDateTime ancien = LocalDateTime.now().minusDays(60);
+        Colis livre = colis(StatutColis.LIVRE, ancien, ancien);
+        Colis annule = colis(StatutColis.ANNULE, ancien, null);
+        Colis livreRecemment = colis(StatutColis.LIVRE, ancien, LocalDateTime.now().minusDays(2));
+        Colis enAttente = colis(StatutColis.EN_ATTENTE, ancien, null);
+        message(livre.getId(), "premier");
+        message(livre.getId(), "second");
+        message(enAttente.getId(), "toujours là");
+        ReflectionTestUtils.setField(archivage, "tailleLot", 1);
+
+        assertEquals(2, archivage.archiver());
+
+        assertEquals(List.of(livreRecemment.getId(), enAttente.getId()),
+                colisRepository.findAll().stream().map(Colis::getId).sorted().toList());
+        assertEquals(1, chatMessageRepository.count());
+        assertEquals(List.of("premier", "second"), chatMessageRepository.findArchivesByColisId(livre.getId())
+                .stream().map(ChatMessage::getMessage).toList());
+        verify(indexRechercheColis).supprimer(livre.getId());
+        verify(indexRechercheColis).supprimer(annule.getId());
+        verify(indexRechercheColis, never()).supprimer(livreRecemment.getId());
+
+        // Un second passage ne trouve plus rien
+        assertEquals(0, archivage.archiver());
+    }
+
+    @Test
+    void archivedParcelsRemainReadableById() {
+        LocalDateTime ancien = LocalDateTime.now().minusDays(60);
+        Colis livre = colis(StatutColis.LIVRE, ancien, ancien);
+        Colis actif = colis(StatutColis.EN_ATTENTE, ancien, null);
+        archivage.archiver();
+
+        assertTrue(colisRepository.findById(livre.getId()).isEmpty());
+        Colis archive = colisRepository.findArchiveById(livre.getId()).orElseThrow();
+        assertEquals(livre.getReferenceColis(), archive.getReferenceColis());
+        assertEquals(StatutColis.LIVRE, archive.getStatutColis());
+        assertEquals(List.of(livre.getId()), colisRepository.findArchivesByClientId(1L, actif.getId() + 1, 10)
+                .stream().map(Colis::getId).toList());
+        List<Object[]> parStatut = colisRepository.compterArchivesParStatut();
+        assertEquals(1, parStatut.size());
+        assertEquals("LIVRE", parStatut.get(0)[0]);
+    }
+
+    private Colis colis(StatutColis statut, LocalDateTime creation, LocalDateTime livraison) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setReferenceColis("COL-" + System.nanoTime());
+        colis.setClientId(1L);
+        colis.setStatutColis(statut);
+        colis.setDateCreation(creation);
+        colis.setDateLivraisonEffective(livraison);
+        return colisRepository.save(colis);
+    }
+
+    private void message(Long colisId, String texte) {
+        ChatMessage message = new ChatMessage(colisId, 10L, "ROLE_CLIENT", texte, LocalDateTime.now(), null);
+        message.setId(generateur.nextId());
+        chatMessageRepository.save(message);
+    }
+}
@@ -0,0 +1,101 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisParticipantsView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AutorisationsChatTest {
+
+    private ColisRepository colisRepository;
+    private AutorisationsChat autorisations;
+    private Map<String, Object> session;
+
+    @BeforeEach
+    void setUp() {
+        colisRepository = mock(ColisRepository.class);
+        autorisations = new AutorisationsChat();
+        ReflectionTestUtils.setField(autorisations, "colisRepository", colisRepository);
+        session = new ConcurrentHashMap<>();
+    }
+
+    @Test
+    void participantIsCheckedOnceThenServedFromTheSession() {
+        colis(1L, 10L, 20L, StatutColis.EN_ATTENTE);
+
+        autorisations.autoriser(utilisateur(10L, "ROLE_CLIENT"), 1L, session);
+        for (int i = 0; i < 5; i++) {
+            autorisations.autoriserEnvoi(utilisateur(10L, "ROLE_CLIENT"), 1L, session);
+        }
+        autorisations.autoriserEnvoi(utilisateur(20L, "ROLE_LIVREUR"), 1L, new ConcurrentHashMap<>());
+
+        verify(colisRepository, times(1)).findParticipantsById(1L);
+    }
+
+    @Test
+    void strangersAndAnonymousSessionsAreRejected() {
+        colis(1L, 10L, 20L, StatutColis.EN_ATTENTE);
+
+        assertThrows(AccessDeniedException.class,
+                () -> autorisations.autoriser(utilisateur(20L, "ROLE_CLIENT"), 1L, session));
+        assertThrows(AccessDeniedException.class,
+                () -> autorisations.autoriser(utilisateur(99L, "ROLE_LIVREUR"), 1L, session));
+        assertThrows(AccessDeniedException.class, () -> autorisations.autoriser(null, 1L, session));
+    }
+
+    @Test
+    void statusChangeIsSeenByAnAlreadyAuthorizedSession() {
+        colis(1L, 10L, 20L, StatutColis.EN_ATTENTE);
+        Principal client = utilisateur(10L, "ROLE_CLIENT");
+        autorisations.autoriserEnvoi(client, 1L, session);
+
+        // Réaffectation : l'ancien livreur perd l'accès, le chat se ferme à la livraison
+        colis(1L, 10L, 21L, StatutColis.LIVRE);
+        autorisations.surChangementDeStatut(new ColisStatutEvenement(1L, 21L, StatutColis.EN_COURS_DE_LIVRAISON,
+                StatutColis.LIVRE, null, null));
+
+        assertThrows(AccessDeniedException.class, () -> autorisations.autoriserEnvoi(client, 1L, session));
+        assertThrows(AccessDeniedException.class,
+                () -> autorisations.autoriser(utilisateur(20L, "ROLE_LIVREUR"), 1L, new ConcurrentHashMap<>()));
+        verify(colisRepository, times(2)).findParticipantsById(1L);
+    }
+
+    @Test
+    void chatTopicDestinationsAreRecognised() {
+        assertEquals(42L, AutorisationsChat.colisDuTopic("/topic/chat/42"));
+        assertNull(AutorisationsChat.colisDuTopic("/topic/dashboard"));
+        assertEquals(42L, AutorisationsChat.colisDuTopic("/topic/chat/42/evenements"));
+        assertNull(AutorisationsChat.colisDuTopic("/topic/chat/abc"));
+    }
+
+    private void colis(Long id, Long clientId, Long livreurId, StatutColis statut) {
+        ColisParticipantsView vue = mock(ColisParticipantsView.class);
+        when(vue.getId()).thenReturn(id);
+        when(vue.getClientId()).thenReturn(clientId);
+        when(vue.getLivreurId()).thenReturn(livreurId);
+        when(vue.getStatutColis()).thenReturn(statut);
+        when(colisRepository.findParticipantsById(id)).thenReturn(Optional.of(vue));
+    }
+
+    private static Principal utilisateur(Long id, String role) {
+        Jwt jwt = Jwt.withTokenValue("jeton")
+                .header("alg", "HS256")
+                .subject(String.valueOf(id))
+                .claim(JetonService.CLAIM_ROLE, role)
+                .build();
+        return new JwtAuthenticationToken(jwt);
+    }
+}
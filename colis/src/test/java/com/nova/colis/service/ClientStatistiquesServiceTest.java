@@ -0,0 +1,206 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ClientDTO;
+import com.nova.colis.dto.ClientStatistiquesDTO;
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.dto.LivreurDTO;
+import com.nova.colis.dto.PageColisDTO;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.Livreur;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ClientStatistiquesRepository;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.LivreurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Historique paginé par curseur d'un client et maintien incrémental de ses agrégats.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:colis-statistiques;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ColisServiceImpl.class, ReferenceColisGenerator.class, LivreurColisIndex.class,
+        ClientStatistiquesService.class, GrilleTarifaire.class, GrandLivreService.class,
+        JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClientStatistiquesServiceTest {
+
+    private static final Long CLIENT = 1L;
+
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private ClientStatistiquesService clientStatistiquesService;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @Autowired
+    private ClientStatistiquesRepository clientStatistiquesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private ClientService clientService;
+
+    @MockitoBean
+    private LivreurService livreurService;
+
+    @MockitoBean
+    private FirebaseMessagingService firebaseMessagingService;
+
+    @MockitoBean
+    private IndexRechercheColis indexRechercheColis;
+
+    @MockitoBean
+    private GeocodageService geocodageService;
+
+    @BeforeEach
+    void setUp() {
+        // Créée par Liquibase en production (CREATE TABLE ... LIKE)
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS colis_archive AS SELECT * FROM colis WITH NO DATA");
+        jdbcTemplate.execute("DELETE FROM colis_archive");
+        colisRepository.deleteAll();
+        livreurRepository.deleteAll();
+        clientStatistiquesRepository.deleteAll();
+        when(clientService.getClientById(anyLong())).thenReturn(new ClientDTO());
+        when(livreurService.getLivreurById(anyLong())).thenReturn(new LivreurDTO());
+    }
+
+    @Test
+    void keysetPagesFollowEachOtherWithoutOverlap() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(0, nouveauColis(CLIENT, null).getId());
+        }
+        nouveauColis(2L, null);
+
+        PageColisDTO premiere = colisService.getColisDuClient(CLIENT, null, 2);
+        assertEquals(ids.subList(0, 2), idsDe(premiere));
+        assertEquals(ids.get(1), premiere.getCurseurSuivant());
+
+        // Le curseur est exclu de la page suivante
+        PageColisDTO deuxieme = colisService.getColisDuClient(CLIENT, premiere.getCurseurSuivant(), 2);
+        assertEquals(ids.subList(2, 4), idsDe(deuxieme));
+
+        PageColisDTO derniere = colisService.getColisDuClient(CLIENT, deuxieme.getCurseurSuivant(), 2);
+        assertEquals(ids.subList(4, 5), idsDe(derniere));
+        assertNull(derniere.getCurseurSuivant());
+    }
+
+    @Test
+    void fullLastPageHasNoCursor() {
+        for (int i = 0; i < 4; i++) {
+            nouveauColis(CLIENT, null);
+        }
+
+        PageColisDTO premiere = colisService.getColisDuClient(CLIENT, null, 2);
+        PageColisDTO derniere = colisService.getColisDuClient(CLIENT, premiere.getCurseurSuivant(), 2);
+
+        assertEquals(2, derniere.getColis().size());
+        assertNull(derniere.getCurseurSuivant());
+        assertEquals(List.of(), idsDe(colisService.getColisDuClient(7L, null, 2)));
+    }
+
+    @Test
+    void aggregatesFollowTransitionsAndDeletion() {
+        Livreur livreur = nouveauLivreur();
+        Colis livre = nouveauColis(CLIENT, livreur.getId());
+        Colis supprime = nouveauColis(CLIENT, null);
+
+        colisService.updateStatutColis(livre.getId(), "RECUPERE");
+        colisService.updateStatutColis(livre.getId(), "EN_COURS_DE_LIVRAISON");
+        colisService.updateStatutColis(livre.getId(), "LIVRE");
+        colisService.deleteColis(supprime.getId());
+
+        ClientStatistiquesDTO stats = clientStatistiquesService.getStatistiques(CLIENT);
+        assertEquals(0L, stats.getNombreParStatut().get(StatutColis.EN_ATTENTE));
+        assertEquals(0L, stats.getNombreParStatut().get(StatutColis.RECUPERE));
+        assertEquals(0L, stats.getNombreParStatut().get(StatutColis.EN_COURS_DE_LIVRAISON));
+        assertEquals(1L, stats.getNombreParStatut().get(StatutColis.LIVRE));
+        assertEquals(livre.getPrixTotal(), stats.getTotalDepense());
+        assertEquals(colisRepository.findById(livre.getId()).orElseThrow().getDateLivraisonEffective(),
+                stats.getDerniereLivraison());
+    }
+
+    @Test
+    void concurrentIncrementsOnAMissingRowAreAllCounted() throws Exception {
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<?>> resultats = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            resultats.add(pool.submit(() -> {
+                depart.await();
+                clientStatistiquesService.ajouter(3L, StatutColis.EN_ATTENTE, 1000, null);
+                return null;
+            }));
+        }
+        depart.countDown();
+        for (Future<?> resultat : resultats) {
+            resultat.get();
+        }
+        pool.shutdown();
+
+        assertEquals((long) threads,
+                clientStatistiquesService.getStatistiques(3L).getNombreParStatut().get(StatutColis.EN_ATTENTE));
+    }
+
+    private static List<Long> idsDe(PageColisDTO page) {
+        return page.getColis().stream().map(ColisSummaryDTO::getId).collect(Collectors.toList());
+    }
+
+    private Livreur nouveauLivreur() {
+        Livreur livreur = new Livreur();
+        livreur.setEmail("livreur-" + System.nanoTime() + "@test.ga");
+        livreur.setRole("ROLE_LIVREUR");
+        return livreurRepository.save(livreur);
+    }
+
+    // Enregistré directement : les agrégats sont alimentés comme le ferait createColis
+    private Colis nouveauColis(Long clientId, Long livreurId) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setClientId(clientId);
+        colis.setLivreurId(livreurId);
+        colis.setPrixTotal(2500L);
+        Colis saved = colisRepository.save(colis);
+        clientStatistiquesService.ajouter(clientId, saved.getStatutColis(), saved.getPrixTotal(), null);
+        return saved;
+    }
+}
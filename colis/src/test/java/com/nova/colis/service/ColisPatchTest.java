@@ -0,0 +1,227 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ColisRequestDTO;
+import com.nova.colis.exception.ConflictException;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.StatutPaiement;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ColisRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PATCH d'un colis : seules les colonnes du patch sont écrites, les champs gérés par le serveur
+ * sont refusés et le tarif est figé une fois le colis pris en charge ou payé.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.nova.colis.service.ColisPatchTest$RequetesSql",
+        "spring.datasource.url=jdbc:h2:mem:colis-patch;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ColisServiceImpl.class, ReferenceColisGenerator.class, LivreurColisIndex.class,
+        ClientStatistiquesService.class, GrilleTarifaire.class, GrandLivreService.class,
+        JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ColisPatchTest {
+
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @MockitoBean
+    private ClientService clientService;
+
+    @MockitoBean
+    private LivreurService livreurService;
+
+    @MockitoBean
+    private FirebaseMessagingService firebaseMessagingService;
+
+    @MockitoBean
+    private IndexRechercheColis indexRechercheColis;
+
+    @MockitoBean
+    private GeocodageService geocodageService;
+
+    @BeforeEach
+    void setUp() {
+        colisRepository.deleteAll();
+        RequetesSql.REQUETES.clear();
+    }
+
+    @Test
+    void partialPatchWritesOnlyThePatchedColumns() {
+        Colis colis = nouveauColis(StatutColis.EN_ATTENTE, StatutPaiement.EN_ATTENTE);
+        RequetesSql.REQUETES.clear();
+
+        colisService.patchColis(colis.getId(), Map.of("description", "Cartons de livres"));
+
+        List<String> updates = RequetesSql.REQUETES.stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.startsWith("update colis "))
+                .collect(Collectors.toList());
+        assertEquals(1, updates.size());
+        String update = updates.get(0);
+        assertTrue(update.contains("description"));
+        assertFalse(update.contains("poids"));
+        assertFalse(update.contains("prix_total"));
+        assertFalse(update.contains("adresse_livraison"));
+        assertEquals("Cartons de livres", colisRepository.findById(colis.getId()).orElseThrow().getDescription());
+    }
+
+    @Test
+    void serverManagedFieldsAreRejected() {
+        Colis colis = nouveauColis(StatutColis.EN_ATTENTE, StatutPaiement.EN_ATTENTE);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> colisService.patchColis(colis.getId(), Map.of("prixTotal", 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> colisService.patchColis(colis.getId(), Map.of("statutColis", "LIVRE")));
+        assertThrows(IllegalArgumentException.class,
+                () -> colisService.patchColis(colis.getId(), Map.of("statutPaiement", "PAYE")));
+
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertEquals(colis.getPrixTotal(), relu.getPrixTotal());
+        assertEquals(StatutColis.EN_ATTENTE, relu.getStatutColis());
+    }
+
+    @Test
+    void pricingAndAddressesAreFrozenAfterPickup() {
+        Colis colis = nouveauColis(StatutColis.RECUPERE, StatutPaiement.EN_ATTENTE);
+
+        assertThrows(ConflictException.class, () -> colisService.patchColis(colis.getId(), Map.of("poids", 25.0)));
+        assertThrows(ConflictException.class,
+                () -> colisService.patchColis(colis.getId(), Map.of("typeColis", "FRAGILE")));
+        assertThrows(ConflictException.class,
+                () -> colisService.patchColis(colis.getId(), Map.of("adresseLivraison", "Akanda")));
+
+        // Les champs descriptifs restent modifiables
+        colisService.patchColis(colis.getId(), Map.of("description", "Fragile"));
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertEquals(2.0, relu.getPoids());
+        assertEquals(colis.getPrixTotal(), relu.getPrixTotal());
+        assertEquals("Fragile", relu.getDescription());
+    }
+
+    @Test
+    void pricingIsFrozenOncePaid() {
+        Colis colis = nouveauColis(StatutColis.EN_ATTENTE, StatutPaiement.PAYE);
+
+        assertThrows(ConflictException.class, () -> colisService.patchColis(colis.getId(), Map.of("assurance", true)));
+
+        // Un PUT complet ignore les champs tarifaires sans recalculer le prix
+        ColisRequestDTO dto = new ColisRequestDTO();
+        dto.setTypeColis(TypeColis.STANDARD);
+        dto.setPoids(25.0);
+        dto.setAssurance(true);
+        dto.setVilleDestination("Interurbain");
+        dto.setDescription("Réexpédié");
+        colisService.updateColis(colis.getId(), dto);
+
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertEquals(2.0, relu.getPoids());
+        assertEquals("Urbain", relu.getVilleDestination());
+        assertEquals(colis.getPrixTotal(), relu.getPrixTotal());
+        assertEquals("Réexpédié", relu.getDescription());
+    }
+
+    @Test
+    void putLeavesThePaymentStatusToThePaymentFlow() {
+        Colis livre = nouveauColis(StatutColis.LIVRE, StatutPaiement.EN_ATTENTE);
+        Colis paye = nouveauColis(StatutColis.EN_ATTENTE, StatutPaiement.PAYE);
+
+        ColisRequestDTO payer = new ColisRequestDTO();
+        payer.setStatutPaiement(StatutPaiement.PAYE);
+        colisService.updateColis(livre.getId(), payer);
+        ColisRequestDTO rembourser = new ColisRequestDTO();
+        rembourser.setStatutPaiement(StatutPaiement.EN_ATTENTE);
+        colisService.updateColis(paye.getId(), rembourser);
+
+        assertEquals(StatutPaiement.EN_ATTENTE, colisRepository.findById(livre.getId()).orElseThrow().getStatutPaiement());
+        assertEquals(StatutPaiement.PAYE, colisRepository.findById(paye.getId()).orElseThrow().getStatutPaiement());
+    }
+
+    @Test
+    void pendingParcelIsRepricedOnPatch() {
+        Colis colis = nouveauColis(StatutColis.EN_ATTENTE, StatutPaiement.EN_ATTENTE);
+
+        colisService.patchColis(colis.getId(), Map.of("poids", 25.0));
+
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertEquals(25.0, relu.getPoids());
+        assertNotEquals(colis.getPrixTotal(), relu.getPrixTotal());
+    }
+
+    @Test
+    void geocodedPositionIsIgnoredOnceTheAddressChanged() {
+        Colis colis = nouveauColis(StatutColis.EN_ATTENTE, StatutPaiement.EN_ATTENTE);
+        FournisseurGeocodage.Position position = new FournisseurGeocodage.Position(0.39, 9.45);
+
+        colisService.enregistrerPositions(colis.getId(), null, Optional.empty(), "Akanda", Optional.of(position));
+        assertNull(colisRepository.findById(colis.getId()).orElseThrow().getLatitudeDestination());
+
+        colisService.patchColis(colis.getId(), Map.of("adresseLivraison", "Akanda"));
+        colisService.enregistrerPositions(colis.getId(), null, Optional.empty(), "Akanda", Optional.of(position));
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertEquals(0.39, relu.getLatitudeDestination());
+        assertEquals(9.45, relu.getLongitudeDestination());
+
+        // Une nouvelle adresse efface les coordonnées de l'ancienne
+        colisService.patchColis(colis.getId(), Map.of("adresseLivraison", "Owendo"));
+        assertNull(colisRepository.findById(colis.getId()).orElseThrow().getLatitudeDestination());
+    }
+
+    private Colis nouveauColis(StatutColis statut, StatutPaiement paiement) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setPoids(2.0);
+        colis.setVilleDestination("Urbain");
+        colis.setAssurance(false);
+        colis.setPrixTotal(2500L);
+        colis.setClientId(1L);
+        colis.setStatutColis(statut);
+        colis.setStatutPaiement(paiement);
+        return colisRepository.save(colis);
+    }
+
+    /**
+     * Relève les requêtes SQL émises par Hibernate.
+     */
+    public static class RequetesSql implements StatementInspector {
+
+        static final List<String> REQUETES = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            REQUETES.add(sql);
+            return sql;
+        }
+    }
+}
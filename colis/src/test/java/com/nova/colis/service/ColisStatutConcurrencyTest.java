@@ -0,0 +1,270 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ClientDTO;
+import com.nova.colis.dto.ColisRequestDTO;
+import com.nova.colis.dto.LivreurDTO;
+import com.nova.colis.exception.ConflictException;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.Livreur;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.LivreurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test de charge concurrente des transitions de statut : plusieurs requêtes simultanées
+ * ne doivent jamais produire deux transitions gagnantes, ni deux colis actifs pour un livreur.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:colis;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ColisServiceImpl.class, ReferenceColisGenerator.class, LivreurColisIndex.class,
+        ClientStatistiquesService.class, GrilleTarifaire.class, GrandLivreService.class,
+        JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ColisStatutConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @MockitoBean
+    private ClientService clientService;
+
+    @MockitoBean
+    private LivreurService livreurService;
+
+    @MockitoBean
+    private FirebaseMessagingService firebaseMessagingService;
+
+    @MockitoBean
+    private IndexRechercheColis indexRechercheColis;
+
+    @MockitoBean
+    private GeocodageService geocodageService;
+
+    @BeforeEach
+    void setUp() {
+        colisRepository.deleteAll();
+        livreurRepository.deleteAll();
+        when(clientService.getClientById(anyLong())).thenReturn(new ClientDTO());
+        when(livreurService.getLivreurById(anyLong())).thenReturn(new LivreurDTO());
+    }
+
+    @Test
+    void onlyOneConcurrentTransitionWinsOnTheSameParcel() throws Exception {
+        Livreur livreur = nouveauLivreur();
+        Colis colis = nouveauColis(livreur.getId());
+
+        List<Callable<Object>> taches = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            taches.add(() -> colisService.updateStatutColis(colis.getId(), "RECUPERE"));
+        }
+        int succes = executerEnMemeTemps(taches);
+
+        assertEquals(1, succes);
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertEquals(StatutColis.RECUPERE, relu.getStatutColis());
+        assertEquals(1L, relu.getVersion());
+        // La version indexée pour la recherche suit celle de la table
+        verify(indexRechercheColis).indexer(argThat(c -> c.getId().equals(colis.getId()) && c.getVersion() == 1L));
+    }
+
+    @Test
+    void driverNeverHoldsTwoActiveParcels() throws Exception {
+        Livreur livreur = nouveauLivreur();
+        List<Callable<Object>> taches = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Colis colis = nouveauColis(livreur.getId());
+            taches.add(() -> colisService.updateStatutColis(colis.getId(), "RECUPERE"));
+        }
+        int succes = executerEnMemeTemps(taches);
+
+        assertEquals(1, succes);
+        List<Colis> actifs = colisRepository.findByLivreurIdAndStatutColisIn(livreur.getId(),
+                new ArrayList<>(StatutColis.ACTIFS));
+        assertEquals(1, actifs.size());
+        assertEquals(actifs.get(0).getId(),
+                livreurRepository.findById(livreur.getId()).orElseThrow().getColisActifId());
+    }
+
+    @Test
+    void driverSlotIsReleasedOnDelivery() {
+        Livreur livreur = nouveauLivreur();
+        Colis premier = nouveauColis(livreur.getId());
+        Colis second = nouveauColis(livreur.getId());
+
+        colisService.updateStatutColis(premier.getId(), "RECUPERE");
+        assertThrows(ConflictException.class, () -> colisService.updateStatutColis(second.getId(), "RECUPERE"));
+
+        colisService.updateStatutColis(premier.getId(), "EN_COURS_DE_LIVRAISON");
+        colisService.updateStatutColis(premier.getId(), "LIVRE");
+        colisService.updateStatutColis(second.getId(), "RECUPERE");
+
+        assertEquals(second.getId(), livreurRepository.findById(livreur.getId()).orElseThrow().getColisActifId());
+    }
+
+    @Test
+    void illegalTransitionIsRejected() {
+        Colis colis = nouveauColis(null);
+        assertThrows(ConflictException.class, () -> colisService.updateStatutColis(colis.getId(), "LIVRE"));
+        assertEquals(StatutColis.EN_ATTENTE, colisRepository.findById(colis.getId()).orElseThrow().getStatutColis());
+    }
+
+    @Test
+    void deletingAnActiveParcelReleasesTheDriverSlot() {
+        Livreur livreur = nouveauLivreur();
+        Colis premier = nouveauColis(livreur.getId());
+        Colis second = nouveauColis(livreur.getId());
+        colisService.updateStatutColis(premier.getId(), "RECUPERE");
+
+        colisService.deleteColis(premier.getId());
+        colisService.updateStatutColis(second.getId(), "RECUPERE");
+
+        assertEquals(second.getId(), livreurRepository.findById(livreur.getId()).orElseThrow().getColisActifId());
+    }
+
+    @Test
+    void putKeepsTheDriverOfAnActiveParcel() {
+        Livreur livreur = nouveauLivreur();
+        Livreur autre = nouveauLivreur();
+        Colis colis = nouveauColis(livreur.getId());
+        colisService.updateStatutColis(colis.getId(), "RECUPERE");
+
+        ColisRequestDTO sansLivreur = requete(null);
+        colisService.updateColis(colis.getId(), sansLivreur);
+        colisService.updateColis(colis.getId(), requete(autre.getId()));
+
+        assertEquals(livreur.getId(), colisRepository.findById(colis.getId()).orElseThrow().getLivreurId());
+        assertEquals(colis.getId(), livreurRepository.findById(livreur.getId()).orElseThrow().getColisActifId());
+        assertNull(livreurRepository.findById(autre.getId()).orElseThrow().getColisActifId());
+    }
+
+    @Test
+    void refusedStatusChangeRollsBackTheWholePut() {
+        Colis colis = nouveauColis(null);
+        ColisRequestDTO dto = requete(null);
+        dto.setDescription("modifiée");
+        dto.setStatutColis(StatutColis.LIVRE);
+
+        assertThrows(ConflictException.class, () -> colisService.updateColis(colis.getId(), dto));
+
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertNull(relu.getDescription());
+        assertEquals(StatutColis.EN_ATTENTE, relu.getStatutColis());
+        assertEquals(0L, relu.getVersion());
+    }
+
+    @Test
+    void putAppliesTheStatusChangeWithTheOtherFields() {
+        Livreur livreur = nouveauLivreur();
+        Colis colis = nouveauColis(null);
+        ColisRequestDTO dto = requete(livreur.getId());
+        dto.setDescription("modifiée");
+        dto.setStatutColis(StatutColis.RECUPERE);
+
+        colisService.updateColis(colis.getId(), dto);
+
+        Colis relu = colisRepository.findById(colis.getId()).orElseThrow();
+        assertEquals("modifiée", relu.getDescription());
+        assertEquals(StatutColis.RECUPERE, relu.getStatutColis());
+        assertEquals(colis.getId(), livreurRepository.findById(livreur.getId()).orElseThrow().getColisActifId());
+    }
+
+    @Test
+    void createdParcelIsAlwaysPending() {
+        ColisRequestDTO dto = requete(null);
+        dto.setClientId(1L);
+        dto.setStatutColis(StatutColis.LIVRE);
+
+        Long id = colisService.createColis(dto).getId();
+
+        assertEquals(StatutColis.EN_ATTENTE, colisRepository.findById(id).orElseThrow().getStatutColis());
+    }
+
+    private int executerEnMemeTemps(List<Callable<Object>> taches) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(taches.size());
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Object>> resultats = new ArrayList<>();
+        for (Callable<Object> tache : taches) {
+            resultats.add(pool.submit(() -> {
+                depart.await();
+                return tache.call();
+            }));
+        }
+        depart.countDown();
+        int succes = 0;
+        for (Future<Object> resultat : resultats) {
+            try {
+                resultat.get();
+                succes++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConflictException.class, e.getCause());
+            }
+        }
+        pool.shutdown();
+        return succes;
+    }
+
+    private Livreur nouveauLivreur() {
+        Livreur livreur = new Livreur();
+        livreur.setEmail("livreur-" + System.nanoTime() + "@test.ga");
+        livreur.setRole("ROLE_LIVREUR");
+        return livreurRepository.save(livreur);
+    }
+
+    private static ColisRequestDTO requete(Long livreurId) {
+        ColisRequestDTO dto = new ColisRequestDTO();
+        dto.setTypeColis(TypeColis.STANDARD);
+        dto.setVilleDestination("Urbain");
+        dto.setLivreurId(livreurId);
+        return dto;
+    }
+
+    private Colis nouveauColis(Long livreurId) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setClientId(1L);
+        colis.setLivreurId(livreurId);
+        return colisRepository.save(colis);
+    }
+}
@@ -0,0 +1,147 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.dto.EstimationLivraisonDTO;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisEtaView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EstimateurEtaTest {
+
+    // Libreville : ~5,5 km entre le départ et la destination
+    private static final double LAT_DEPART = 0.3900;
+    private static final double LON_DEPART = 9.4500;
+    private static final double LAT_DEST = 0.4400;
+    private static final double LON_DEST = 9.4500;
+
+    private Instant maintenant = Instant.parse("2026-03-02T08:00:00Z");
+    private ColisRepository colisRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private EstimateurEta estimateur;
+    private final LivreurColisIndex livreurColisIndex = new LivreurColisIndex();
+
+    @BeforeEach
+    void setUp() {
+        colisRepository = mock(ColisRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        estimateur = new EstimateurEta(new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return maintenant;
+            }
+        });
+        ReflectionTestUtils.setField(estimateur, "colisRepository", colisRepository);
+        ReflectionTestUtils.setField(estimateur, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(estimateur, "livreurColisIndex", livreurColisIndex);
+    }
+
+    @Test
+    void usesDefaultSpeedUntilEnoughDeliveriesAreObserved() {
+        EstimateurEta.Trajet trajet = estimateur.suivre(colis(1L), true);
+        EstimationLivraisonDTO estimation = estimateur.estimer(trajet, LAT_DEPART, LON_DEPART);
+
+        assertEquals(0, estimation.getEchantillons());
+        assertEquals(18.0, estimation.getVitesseKmh());
+        assertEquals(5560, estimation.getDistanceRestanteMetres(), 10);
+    }
+
+    @Test
+    void learnsSpeedFromCompletedDeliveriesInTheSameCell() {
+        // Trois trajets de ~5,5 km en 20 minutes (~16,7 km/h)
+        for (long id = 1; id <= EstimateurEta.ECHANTILLONS_MIN; id++) {
+            livrer(id, Duration.ofMinutes(20));
+        }
+        EstimateurEta.Trajet trajet = estimateur.suivre(colis(10L), true);
+        EstimationLivraisonDTO estimation = estimateur.estimer(trajet, LAT_DEPART, LON_DEPART);
+
+        assertEquals(3, estimation.getEchantillons());
+        assertEquals(16.7, estimation.getVitesseKmh(), 0.1);
+        assertEquals(LocalDateTime.ofInstant(maintenant.plus(Duration.ofMinutes(20)), ZoneOffset.UTC),
+                estimation.getDateLivraisonEstimee().withNano(0));
+    }
+
+    @Test
+    void positionUpdatePushesEstimateAndWritesOnlySignificantChanges() {
+        estimateur.suivre(colis(1L), true);
+
+        estimateur.surPosition(7L, LAT_DEPART, LON_DEPART);
+        estimateur.surPosition(7L, LAT_DEPART + 0.0001, LON_DEPART);
+
+        verify(messagingTemplate, times(2)).convertAndSend(eq(EstimateurEta.TOPIC_SUIVI + 1L), any(Object.class));
+        verify(colisRepository, times(1)).updateDateLivraisonEstimee(eq(1L), any());
+    }
+
+    @Test
+    void writtenEstimateIsServedByTheDriverIndex() {
+        livreurColisIndex.mettreAJour(new ColisSummaryDTO(1L, "CLS-1", StatutColis.EN_COURS_DE_LIVRAISON, 1L, 7L,
+                null, 1000L, null, null, null, null, 3L));
+        when(colisRepository.updateDateLivraisonEstimee(eq(1L), any())).thenReturn(1);
+        estimateur.suivre(colis(1L), true);
+
+        estimateur.surPosition(7L, LAT_DEPART, LON_DEPART);
+
+        ColisSummaryDTO resume = livreurColisIndex.getColis(7L, LivreurColisIndex.STATUTS_INDEXES).get(0);
+        assertNotNull(resume.getDateLivraisonEstimee());
+        assertEquals(3L, resume.getVersion());
+    }
+
+    @Test
+    void deliveredParcelIsNoLongerTracked() {
+        when(colisRepository.findEtaById(1L)).thenReturn(Optional.of(colis(1L)));
+        estimateur.surChangementDeStatut(evenement(1L, StatutColis.RECUPERE, StatutColis.EN_COURS_DE_LIVRAISON));
+        estimateur.surChangementDeStatut(evenement(1L, StatutColis.EN_COURS_DE_LIVRAISON, StatutColis.LIVRE));
+        clearInvocations(messagingTemplate);
+
+        estimateur.surPosition(7L, LAT_DEPART, LON_DEPART);
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    private void livrer(Long id, Duration duree) {
+        when(colisRepository.findEtaById(id)).thenReturn(Optional.of(colis(id)));
+        estimateur.surChangementDeStatut(evenement(id, StatutColis.RECUPERE, StatutColis.EN_COURS_DE_LIVRAISON));
+        maintenant = maintenant.plus(duree);
+        estimateur.surChangementDeStatut(evenement(id, StatutColis.EN_COURS_DE_LIVRAISON, StatutColis.LIVRE));
+        maintenant = maintenant.minus(duree);
+    }
+
+    private static ColisStatutEvenement evenement(Long id, StatutColis ancien, StatutColis nouveau) {
+        return new ColisStatutEvenement(id, 7L, ancien, nouveau, null, null);
+    }
+
+    private static ColisEtaView colis(Long id) {
+        return new ColisEtaView() {
+            public Long getId() { return id; }
+            public Long getLivreurId() { return 7L; }
+            public StatutColis getStatutColis() { return StatutColis.EN_COURS_DE_LIVRAISON; }
+            public Double getLatitudeDestination() { return LAT_DEST; }
+            public Double getLongitudeDestination() { return LON_DEST; }
+            public String getCoordonneesGPS() { return LAT_DEPART + "," + LON_DEPART; }
+        };
+    }
+}
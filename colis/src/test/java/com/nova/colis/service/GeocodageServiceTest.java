@@ -0,0 +1,161 @@
+package com.nova.colis.service;
+
+import com.nova.colis.repository.GeocodageCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:geocodage;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "geocodage.fournisseur=locale",
+        "geocodage.fournisseur.intervalle-ms=0"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GeocodageService.class, FournisseurGeocodageLocale.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GeocodageServiceTest {
+
+    @Autowired
+    private GeocodageService geocodageService;
+
+    @Autowired
+    private FournisseurGeocodageLocale fournisseur;
+
+    @Autowired
+    private GeocodageCacheRepository geocodageCacheRepository;
+
+    @BeforeEach
+    void setUp() {
+        geocodageCacheRepository.deleteAll();
+        geocodageService.viderProcheCache();
+        ReflectionTestUtils.setField(geocodageService, "intervalleFournisseur", 0L);
+        ReflectionTestUtils.setField(geocodageService, "attenteMaxFournisseur", 30000L);
+        ReflectionTestUtils.setField(geocodageService, "prochainCreneau", 0L);
+    }
+
+    @Test
+    void normalizesAccentsPunctuationAndAbbreviations() {
+        assertEquals("boulevard triomphal immeuble arambo libreville",
+                GeocodageService.normaliser("  Bd. Triomphal, Imm Arambo — LBV "));
+        assertEquals("quartier louis carrefour sni", GeocodageService.normaliser("Qtr LOUIS / Carr. SNI"));
+        assertEquals("", GeocodageService.normaliser(null));
+    }
+
+    @Test
+    void repeatedAddressesAreServedWithoutCallingTheProvider() {
+        long appels = fournisseur.getNombreAppels();
+        Optional<FournisseurGeocodage.Position> premiere = geocodageService.geocoder("Bd Triomphal, Libreville");
+        assertTrue(premiere.isPresent());
+        assertEquals(appels + 1, fournisseur.getNombreAppels());
+
+        // Cache proche, puis table partagée (autre instance, ou après redémarrage)
+        Optional<FournisseurGeocodage.Position> proche = geocodageService.geocoder("boulevard triomphal libreville");
+        geocodageService.viderProcheCache();
+        Optional<FournisseurGeocodage.Position> table = geocodageService.geocoder("BOULEVARD Triomphal - Libreville");
+
+        assertEquals(appels + 1, fournisseur.getNombreAppels());
+        assertEquals(premiere.get().getLatitude(), proche.orElseThrow().getLatitude());
+        assertEquals(premiere.get().getLongitude(), table.orElseThrow().getLongitude());
+        assertEquals(1, geocodageCacheRepository.count());
+    }
+
+    @Test
+    void unknownAddressIsCachedToo() {
+        long appels = fournisseur.getNombreAppels();
+        assertTrue(geocodageService.geocoder("Adresse introuvable").isEmpty());
+        geocodageService.viderProcheCache();
+        assertTrue(geocodageService.geocoder("adresse introuvable").isEmpty());
+
+        assertEquals(appels + 1, fournisseur.getNombreAppels());
+        assertFalse(geocodageCacheRepository.findAll().get(0).isTrouve());
+    }
+
+    @Test
+    void providerCallsAreSpacedByTheConfiguredInterval() {
+        ReflectionTestUtils.setField(geocodageService, "intervalleFournisseur", 200L);
+        long debut = System.nanoTime();
+        geocodageService.geocoder("Rue Alpha");
+        geocodageService.geocoder("Rue Beta");
+        geocodageService.geocoder("Rue Gamma");
+
+        assertTrue(System.nanoTime() - debut >= TimeUnit.MILLISECONDS.toNanos(400));
+    }
+
+    @Test
+    void callerGivesUpWhenTheNextSlotIsTooFar() {
+        ReflectionTestUtils.setField(geocodageService, "intervalleFournisseur", 60000L);
+        ReflectionTestUtils.setField(geocodageService, "attenteMaxFournisseur", 100L);
+        long appels = fournisseur.getNombreAppels();
+        assertTrue(geocodageService.geocoder("Rue Delta").isPresent());
+        assertTrue(geocodageService.geocoder("Rue Epsilon").isEmpty());
+
+        // L'abandon n'est pas mémorisé : l'adresse sera géocodée plus tard
+        assertEquals(appels + 1, fournisseur.getNombreAppels());
+        assertEquals(1, geocodageCacheRepository.count());
+    }
+
+    @Test
+    void concurrentRequestsForTheSameAddressShareOneProviderCall() throws Exception {
+        ReflectionTestUtils.setField(geocodageService, "intervalleFournisseur", 500L);
+        long appels = fournisseur.getNombreAppels();
+        // Réserve le créneau courant : l'appel suivant attend 500 ms, les demandes concurrentes s'y joignent
+        geocodageService.geocoder("Rue Zeta");
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Optional<FournisseurGeocodage.Position>>> resultats = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            resultats.add(pool.submit(() -> {
+                depart.await();
+                return geocodageService.geocoder("Rue Eta, Libreville");
+            }));
+        }
+        depart.countDown();
+        for (Future<Optional<FournisseurGeocodage.Position>> resultat : resultats) {
+            assertTrue(resultat.get().isPresent());
+        }
+        pool.shutdown();
+
+        assertEquals(appels + 2, fournisseur.getNombreAppels());
+    }
+
+    @Test
+    void purgeKeepsOnlyTheMostRecentlyUsedRows() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            geocodageCacheRepository.enregistrer("cle" + i, "adresse " + i, 0.4, 9.4, true, maintenant.minusDays(i));
+        }
+        ReflectionTestUtils.setField(geocodageService, "tailleMaxCache", 3);
+
+        geocodageService.purger();
+
+        assertEquals(3, geocodageCacheRepository.count());
+        assertTrue(geocodageCacheRepository.existsById("cle0"));
+        assertFalse(geocodageCacheRepository.existsById("cle4"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ReleveGainsDTO;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.StatutPaiement;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.CommissionPlateformeJourRepository;
+import com.nova.colis.repository.EcritureComptableRepository;
+import com.nova.colis.repository.GainLivreurJourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:grandlivre;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(GrandLivreService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GrandLivreServiceTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2026, 3, 14);
+
+    @Autowired
+    private GrandLivreService grandLivreService;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private EcritureComptableRepository ecritureComptableRepository;
+
+    @Autowired
+    private GainLivreurJourRepository gainLivreurJourRepository;
+
+    @Autowired
+    private CommissionPlateformeJourRepository commissionPlateformeJourRepository;
+
+    @BeforeEach
+    void setUp() {
+        ecritureComptableRepository.deleteAll();
+        gainLivreurJourRepository.deleteAll();
+        commissionPlateformeJourRepository.deleteAll();
+        colisRepository.deleteAll();
+    }
+
+    @Test
+    void parcelIsRecordedOnceEvenUnderConcurrentCalls() throws Exception {
+        Colis colis = nouveauColis(5L, StatutColis.LIVRE, StatutPaiement.PAYE, 7500);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Boolean>> resultats = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            resultats.add(pool.submit(() -> {
+                depart.await();
+                return grandLivreService.comptabiliser(colis.getId());
+            }));
+        }
+        depart.countDown();
+        int comptabilises = 0;
+        for (Future<Boolean> resultat : resultats) {
+            comptabilises += resultat.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertEquals(1, comptabilises);
+        ReleveGainsDTO gains = grandLivreService.getGainsLivreur(5L, JOUR, JOUR);
+        assertEquals(1, gains.getNbColis());
+        assertEquals(5625, gains.getMontant());
+        ReleveGainsDTO plateforme = grandLivreService.getCommissionsPlateforme(JOUR, JOUR);
+        assertEquals(1875, plateforme.getMontant());
+        assertEquals(7500L, plateforme.getEncaisse());
+    }
+
+    @Test
+    void unpaidOrUndeliveredParcelsAreNotRecorded() {
+        assertFalse(grandLivreService.comptabiliser(nouveauColis(5L, StatutColis.LIVRE, StatutPaiement.EN_ATTENTE, 3000).getId()));
+        assertFalse(grandLivreService.comptabiliser(nouveauColis(5L, StatutColis.EN_COURS_DE_LIVRAISON, StatutPaiement.PAYE, 3000).getId()));
+        assertEquals(0, ecritureComptableRepository.count());
+    }
+
+    @Test
+    void rollupsAccumulatePerDriverAndDay() {
+        grandLivreService.comptabiliser(nouveauColis(5L, StatutColis.LIVRE, StatutPaiement.PAYE, 3000).getId());
+        grandLivreService.comptabiliser(nouveauColis(5L, StatutColis.LIVRE, StatutPaiement.PAYE, 4500).getId());
+        grandLivreService.comptabiliser(nouveauColis(6L, StatutColis.LIVRE, StatutPaiement.PAYE, 10000).getId());
+
+        ReleveGainsDTO gains = grandLivreService.getGainsLivreur(5L, JOUR.withDayOfMonth(1), JOUR);
+        assertEquals(2, gains.getNbColis());
+        assertEquals(2250 + 3375, gains.getMontant());
+        ReleveGainsDTO plateforme = grandLivreService.getCommissionsPlateforme(JOUR, JOUR);
+        assertEquals(3, plateforme.getNbColis());
+        assertEquals(17500L, plateforme.getEncaisse());
+        assertEquals(plateforme.getEncaisse() - plateforme.getMontant(),
+                gains.getMontant() + grandLivreService.getGainsLivreur(6L, JOUR, JOUR).getMontant());
+    }
+
+    private Colis nouveauColis(Long livreurId, StatutColis statut, StatutPaiement paiement, long prix) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setClientId(1L);
+        colis.setLivreurId(livreurId);
+        colis.setStatutColis(statut);
+        colis.setStatutPaiement(paiement);
+        colis.setPrixTotal(prix);
+        colis.setCommissionPlateforme(prix / 4);
+        colis.setFraisLivraison(prix - prix / 4);
+        colis.setDateLivraisonEffective(JOUR.atTime(10, 30));
+        return colisRepository.save(colis);
+    }
+}
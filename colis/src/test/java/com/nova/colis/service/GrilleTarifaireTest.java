@@ -0,0 +1,57 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.DevisTarifDTO;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.model.TypeExpedition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrilleTarifaireTest {
+
+    private final GrilleTarifaire grille = new GrilleTarifaire();
+
+    @Test
+    void appliesWeightBracketsAndInsurance() {
+        assertEquals(3000, grille.calculer(TypeColis.STANDARD, TypeExpedition.URBAIN, 5.0, false).getPrixTotal());
+        assertEquals(4500, grille.calculer(TypeColis.STANDARD, TypeExpedition.URBAIN, 5.01, false).getPrixTotal());
+        GrilleTarifaire.Tarif assure = grille.calculer(TypeColis.VOLUMINEUX, TypeExpedition.INTERURBAIN, 12.0, true);
+        assertEquals(31500, assure.getPrixTotal());
+        assertEquals(23625, assure.getFraisLivraison());
+        assertEquals(7875, assure.getCommissionPlateforme());
+    }
+
+    @Test
+    void insuranceIsRoundedAndSplitIsExact() {
+        GrilleTarifaire.Tarif tarif = grille.calculer(TypeColis.OBJET_DE_VALEUR, TypeExpedition.INTERNATIONAL, 1.0, true);
+        assertEquals(38201, tarif.getPrixTotal());
+        assertEquals(9550, tarif.getCommissionPlateforme());
+        assertEquals(28651, tarif.getFraisLivraison());
+        for (TypeColis type : TypeColis.values()) {
+            for (TypeExpedition zone : TypeExpedition.values()) {
+                for (double poids : new double[]{1, 7, 15, 25}) {
+                    for (boolean assurance : new boolean[]{false, true}) {
+                        GrilleTarifaire.Tarif t = grille.calculer(type, zone, poids, assurance);
+                        assertEquals(t.getPrixTotal(), t.getFraisLivraison() + t.getCommissionPlateforme());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void outOfGridParcelKeepsZeroTariff() {
+        assertEquals(0, grille.calculer(TypeColis.STANDARD, TypeExpedition.URBAIN, 31.0, false).getPrixTotal());
+        assertEquals(0, grille.calculer(TypeColis.STANDARD, null, 2.0, false).getPrixTotal());
+    }
+
+    @Test
+    void quoteParsesExpeditionAndRejectsOutOfGridParameters() {
+        DevisTarifDTO devis = grille.devis(TypeColis.OBJET_DE_VALEUR, "international", 20, false);
+        assertEquals(TypeExpedition.INTERNATIONAL, devis.getExpedition());
+        assertEquals(137130, devis.getPrixTotal());
+        assertThrows(IllegalArgumentException.class, () -> grille.devis(TypeColis.STANDARD, "Lune", 1, false));
+        assertThrows(IllegalArgumentException.class, () -> grille.devis(TypeColis.STANDARD, "Urbain", 45, false));
+        assertThrows(IllegalArgumentException.class, () -> grille.devis(TypeColis.STANDARD, "Urbain", -1, false));
+    }
+}
@@ -0,0 +1,121 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.Colis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisRechercheView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class IndexRechercheColisTest {
+
+    @TempDir
+    Path repertoire;
+
+    private IndexRechercheColis index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IndexRechercheColis(repertoire.toString());
+        index.indexer(colis(1L, "COL-01HV3Q8Z0K4M2", "Élodie Mba", "+241 06 12 34 56", "Quartier Louis, Libreville"));
+        index.indexer(colis(2L, "COL-01HV3Q8Z0K4M3", "Jean Ndong", "074 55 66 77", "Akanda, Cité des Ailes"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.fermer();
+    }
+
+    @Test
+    void findsByReferencePrefixWithOrWithoutPrefix() {
+        assertEquals(List.of(1L), index.rechercher("col-01hv3q8z0k4m2", 0, 10).getIds());
+        assertEquals(2, index.rechercher("01HV3Q8", 0, 10).getTotal());
+    }
+
+    @Test
+    void findsByNameIgnoringAccentsAndTypos() {
+        assertEquals(List.of(1L), index.rechercher("elodie", 0, 10).getIds());
+        assertEquals(List.of(2L), index.rechercher("Ndonng", 0, 10).getIds());
+        assertEquals(List.of(2L), index.rechercher("jean cite", 0, 10).getIds());
+    }
+
+    @Test
+    void findsByPartialOrMistypedPhone() {
+        assertEquals(List.of(1L), index.rechercher("06123456", 0, 10).getIds());
+        assertEquals(List.of(2L), index.rechercher("0745", 0, 10).getIds());
+        assertEquals(List.of(2L), index.rechercher("07455667", 0, 10).getIds());
+        assertEquals(List.of(1L), index.rechercher("06123457", 0, 10).getIds());
+    }
+
+    @Test
+    void deletedParcelIsNoLongerFound() {
+        index.supprimer(1L);
+        assertTrue(index.rechercher("elodie", 0, 10).getIds().isEmpty());
+    }
+
+    @Test
+    void staleVersionTriggersRebuildEvenWithTheSameCount() throws Exception {
+        ColisRepository colisRepository = mock(ColisRepository.class);
+        ReflectionTestUtils.setField(index, "colisRepository", colisRepository);
+        when(colisRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of());
+
+        // Même nombre, mêmes ids et mêmes versions : rien à faire
+        when(colisRepository.calculerEmpreinteRecherche()).thenReturn(List.<Object[]>of(new Object[]{2L, 3L, 0L}));
+        index.verifier();
+        verify(colisRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+
+        // Le colis 2 a été modifié sans que l'index le voie
+        when(colisRepository.calculerEmpreinteRecherche()).thenReturn(List.<Object[]>of(new Object[]{2L, 3L, 1L}));
+        index.verifier();
+        verify(colisRepository).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void fingerprintFollowsUpdatesAndDeletions() throws Exception {
+        Colis modifie = colis(2L, "COL-01HV3Q8Z0K4M3", "Jean Ndong", "074 55 66 77", "Akanda");
+        modifie.setVersion(4L);
+        index.indexer(modifie);
+        assertArrayEquals(new long[]{2, 3, 4}, index.empreinte());
+
+        index.supprimer(1L);
+        assertArrayEquals(new long[]{1, 2, 4}, index.empreinte());
+    }
+
+    @Test
+    void reindexedParcelsKeepTheFingerprintInStepWithTheTable() throws Exception {
+        ColisRepository colisRepository = mock(ColisRepository.class);
+        ReflectionTestUtils.setField(index, "colisRepository", colisRepository);
+        ColisRechercheView paye = mock(ColisRechercheView.class);
+        when(paye.getId()).thenReturn(2L);
+        when(paye.getReferenceColis()).thenReturn("COL-01HV3Q8Z0K4M3");
+        when(paye.getNomDestinataire()).thenReturn("Jean Ndong");
+        when(paye.getVersion()).thenReturn(1L);
+        when(colisRepository.findRechercheByIdIn(List.of(2L, 3L))).thenReturn(List.of(paye));
+
+        // Le colis 3 a disparu entre-temps : il n'est pas ajouté
+        index.reindexer(List.of(2L, 3L));
+
+        assertArrayEquals(new long[]{2, 3, 1}, index.empreinte());
+        assertEquals(List.of(2L), index.rechercher("ndong", 0, 10).getIds());
+    }
+
+    private static Colis colis(Long id, String reference, String nom, String telephone, String adresse) {
+        Colis colis = new Colis();
+        colis.setId(id);
+        colis.setReferenceColis(reference);
+        colis.setNomDestinataire(nom);
+        colis.setTelephoneDestinataire(telephone);
+        colis.setAdresseLivraison(adresse);
+        return colis;
+    }
+}
@@ -0,0 +1,135 @@
+package com.nova.colis.service;
+
+import com.nova.colis.config.JwtConfig;
+import com.nova.colis.dto.JetonsDTO;
+import com.nova.colis.repository.ClientRepository;
+import com.nova.colis.repository.LivreurRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JetonServiceTest {
+
+    private final JwtConfig config = new JwtConfig();
+    private final MockEnvironment environnementTest = new MockEnvironment();
+    private final SecretKey cle;
+    private final JwtDecoder decodeurAcces;
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private final LivreurRepository livreurRepository = mock(LivreurRepository.class);
+
+    JetonServiceTest() {
+        environnementTest.setActiveProfiles("test");
+        cle = config.cleJwt("", environnementTest);
+        decodeurAcces = config.jwtDecoder(cle);
+        when(clientRepository.findRoleById(anyLong())).thenReturn(Optional.of("ROLE_CLIENT"));
+        when(livreurRepository.findRoleById(anyLong())).thenReturn(Optional.of("ROLE_LIVREUR"));
+    }
+
+    @Test
+    void accessTokenCarriesIdentityAndRole() {
+        JetonsDTO jetons = service(Clock.systemUTC()).emettre(42L, "awa@test.ga", "ROLE_LIVREUR");
+
+        Jwt jwt = decodeurAcces.decode(jetons.getAccessToken());
+        assertEquals("42", jwt.getSubject());
+        assertEquals("ROLE_LIVREUR", jwt.getClaimAsString(JetonService.CLAIM_ROLE));
+        assertEquals("awa@test.ga", jwt.getClaimAsString(JetonService.CLAIM_EMAIL));
+        assertEquals(15 * 60, jetons.getExpiresIn());
+    }
+
+    @Test
+    void refreshTokenIsOnlyAcceptedForRefresh() {
+        JetonService service = service(Clock.systemUTC());
+        JetonsDTO jetons = service.emettre(7L, "client@test.ga", "ROLE_CLIENT");
+
+        assertThrows(JwtException.class, () -> decodeurAcces.decode(jetons.getRefreshToken()));
+        assertThrows(BadCredentialsException.class, () -> service.rafraichir(jetons.getAccessToken()));
+
+        JetonsDTO renouveles = service.rafraichir(jetons.getRefreshToken());
+        assertEquals("7", decodeurAcces.decode(renouveles.getAccessToken()).getSubject());
+    }
+
+    @Test
+    void expiredOrForeignTokensAreRejected() {
+        Clock avantHier = Clock.fixed(Instant.now().minus(Duration.ofDays(2)), ZoneOffset.UTC);
+        JetonsDTO expires = service(avantHier).emettre(1L, "a@test.ga", "ROLE_CLIENT");
+        assertThrows(JwtException.class, () -> decodeurAcces.decode(expires.getAccessToken()));
+        assertThrows(BadCredentialsException.class, () -> service(Clock.systemUTC()).rafraichir(expires.getRefreshToken()));
+
+        // Jeton signé avec une autre clé
+        JetonService autre = new JetonService(Clock.systemUTC());
+        SecretKey autreCle = config.cleJwt("", environnementTest);
+        ReflectionTestUtils.setField(autre, "jwtEncoder", config.jwtEncoder(autreCle));
+        ReflectionTestUtils.setField(autre, "cleJwt", autreCle);
+        autre.initialiser();
+        assertThrows(JwtException.class,
+                () -> decodeurAcces.decode(autre.emettre(1L, "a@test.ga", "ROLE_CLIENT").getAccessToken()));
+    }
+
+    @Test
+    void deletedOrDemotedAccountCannotRefresh() {
+        JetonService service = service(Clock.systemUTC());
+        JetonsDTO client = service.emettre(7L, "client@test.ga", "ROLE_CLIENT");
+        JetonsDTO livreur = service.emettre(8L, "livreur@test.ga", "ROLE_LIVREUR");
+
+        // Compte supprimé logiquement : il n'est plus lu
+        when(clientRepository.findRoleById(7L)).thenReturn(Optional.empty());
+        assertThrows(BadCredentialsException.class, () -> service.rafraichir(client.getRefreshToken()));
+
+        when(livreurRepository.findRoleById(8L)).thenReturn(Optional.of("ROLE_SUSPENDU"));
+        assertThrows(BadCredentialsException.class, () -> service.rafraichir(livreur.getRefreshToken()));
+    }
+
+    @Test
+    void refreshKeepsTheLoginTimeAndCannotExtendTheSession() {
+        Instant connexion = Instant.now().minus(Duration.ofHours(20)).truncatedTo(ChronoUnit.SECONDS);
+        JetonsDTO jetons = service(Clock.fixed(connexion, ZoneOffset.UTC)).emettre(7L, "client@test.ga", "ROLE_CLIENT");
+
+        JetonService service = service(Clock.systemUTC());
+        ReflectionTestUtils.setField(service, "sessionMaxHeures", 21L);
+        JetonsDTO renouveles = service.rafraichir(jetons.getRefreshToken());
+
+        JwtDecoder decodeurRafraichissement = JwtConfig.decodeur(cle, JwtConfig.TYPE_RAFRAICHISSEMENT);
+        Jwt rafraichissement = decodeurRafraichissement.decode(renouveles.getRefreshToken());
+        assertEquals(connexion, rafraichissement.getClaimAsInstant(JetonService.CLAIM_AUTH_TIME));
+        assertEquals(connexion.plus(Duration.ofHours(21)), rafraichissement.getExpiresAt());
+        assertEquals(connexion, decodeurAcces.decode(renouveles.getAccessToken())
+                .getClaimAsInstant(JetonService.CLAIM_AUTH_TIME));
+
+        // Session arrivée à son terme : le jeton de rafraîchissement, encore valide, est refusé
+        ReflectionTestUtils.setField(service, "sessionMaxHeures", 20L);
+        assertThrows(BadCredentialsException.class, () -> service.rafraichir(jetons.getRefreshToken()));
+    }
+
+    @Test
+    void missingSecretFailsOutsideDevAndTestProfiles() {
+        assertThrows(IllegalStateException.class, () -> config.cleJwt("", new MockEnvironment()));
+        assertThrows(IllegalStateException.class, () -> config.cleJwt(" ", new MockEnvironment()));
+    }
+
+    private JetonService service(Clock clock) {
+        JetonService service = new JetonService(clock);
+        ReflectionTestUtils.setField(service, "jwtEncoder", config.jwtEncoder(cle));
+        ReflectionTestUtils.setField(service, "cleJwt", cle);
+        ReflectionTestUtils.setField(service, "clientRepository", clientRepository);
+        ReflectionTestUtils.setField(service, "livreurRepository", livreurRepository);
+        service.initialiser();
+        return service;
+    }
+}
@@ -0,0 +1,168 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.ChatLecture;
+import com.nova.colis.model.ChatMessage;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeCompte;
+import com.nova.colis.repository.ChatLectureRepository;
+import com.nova.colis.repository.ChatMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:lectures;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LecturesChat.class, ReferenceColisGenerator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LecturesChatTest {
+
+    private static final Long COLIS = 1L;
+    private static final Long CLIENT = 10L;
+    private static final Long LIVREUR = 20L;
+
+    @Autowired
+    private LecturesChat lecturesChat;
+
+    @Autowired
+    private ReferenceColisGenerator generateur;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatLectureRepository chatLectureRepository;
+
+    @MockitoBean
+    private AutorisationsChat autorisationsChat;
+
+    @MockitoBean
+    private TamponMessagesChat tamponMessagesChat;
+
+    @BeforeEach
+    void setUp() {
+        chatMessageRepository.deleteAll();
+        chatLectureRepository.deleteAll();
+        lecturesChat.surChangementDeStatut(new ColisStatutEvenement(COLIS, LIVREUR, StatutColis.EN_ATTENTE, null,
+                null, null));
+        participants(LIVREUR);
+    }
+
+    @Test
+    void countersAreLoadedOnceThenMaintainedInMemory() {
+        ChatMessage premier = enregistrer("ROLE_LIVREUR");
+        enregistrer("ROLE_LIVREUR");
+        enregistrer("ROLE_LIVREUR");
+        enregistrer("ROLE_CLIENT");
+
+        assertEquals(3, lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getNonLus());
+        assertEquals(1, lecturesChat.nonLus(COLIS, "ROLE_LIVREUR").getNonLus());
+
+        // Diffusé, pas encore en base : compté depuis la mémoire
+        lecturesChat.surMessage(message("ROLE_LIVREUR"));
+        assertEquals(4, lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getNonLus());
+
+        lecturesChat.marquerLu(COLIS, CLIENT, "ROLE_CLIENT", premier.getId());
+        assertEquals(3, lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getNonLus());
+        assertEquals(premier.getId(), lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getDernierMessageLu());
+    }
+
+    @Test
+    void readMarkerNeverMovesBackAndIsReloadedFromTheTable() {
+        enregistrer("ROLE_LIVREUR");
+        ChatMessage deuxieme = enregistrer("ROLE_LIVREUR");
+        ChatMessage troisieme = enregistrer("ROLE_LIVREUR");
+
+        assertEquals(troisieme.getId(), lecturesChat.marquerLu(COLIS, CLIENT, "ROLE_CLIENT", troisieme.getId()));
+        assertEquals(troisieme.getId(), lecturesChat.marquerLu(COLIS, CLIENT, "ROLE_CLIENT", deuxieme.getId()));
+        lecturesChat.enregistrer();
+
+        ChatLecture lecture = chatLectureRepository.findById(
+                new ChatLecture.Cle(COLIS, TypeCompte.CLIENT, CLIENT)).orElseThrow();
+        assertEquals(troisieme.getId(), lecture.getDernierMessageLu());
+
+        // État oublié (colis terminé puis relu) : le marqueur vient de la table
+        lecturesChat.surChangementDeStatut(new ColisStatutEvenement(COLIS, LIVREUR, StatutColis.EN_COURS_DE_LIVRAISON,
+                StatutColis.LIVRE, null, null));
+        assertEquals(0, lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getNonLus());
+    }
+
+    @Test
+    void newDriverDoesNotInheritThePreviousDriversReadMarker() {
+        enregistrer("ROLE_CLIENT");
+        ChatMessage dernier = enregistrer("ROLE_CLIENT");
+        lecturesChat.marquerLu(COLIS, LIVREUR, "ROLE_LIVREUR", dernier.getId());
+        assertEquals(0, lecturesChat.nonLus(COLIS, "ROLE_LIVREUR").getNonLus());
+
+        participants(21L);
+        assertEquals(2, lecturesChat.nonLus(COLIS, "ROLE_LIVREUR").getNonLus());
+    }
+
+    @Test
+    void messagesWrittenByAnotherInstanceAreCountedAfterTheTtl() throws InterruptedException {
+        ReflectionTestUtils.setField(lecturesChat, "ttlMs", 100L);
+        try {
+            enregistrer("ROLE_LIVREUR");
+            assertEquals(1, lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getNonLus());
+
+            // Diffusé par une autre instance : seulement en base
+            enregistrer("ROLE_LIVREUR");
+            assertEquals(1, lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getNonLus());
+
+            Thread.sleep(150);
+            assertEquals(2, lecturesChat.nonLus(COLIS, "ROLE_CLIENT").getNonLus());
+        } finally {
+            ReflectionTestUtils.setField(lecturesChat, "ttlMs", 30000L);
+        }
+    }
+
+    @Test
+    void trackedParcelsAreBounded() {
+        ReflectionTestUtils.setField(lecturesChat, "etatsMax", 2);
+        try {
+            for (long colisId = 100; colisId < 105; colisId++) {
+                when(autorisationsChat.participants(colisId))
+                        .thenReturn(new AutorisationsChat.Participants(CLIENT, LIVREUR, StatutColis.EN_ATTENTE));
+                lecturesChat.nonLus(colisId, "ROLE_CLIENT");
+            }
+            assertTrue(lecturesChat.nombreEtats() <= 2);
+        } finally {
+            ReflectionTestUtils.setField(lecturesChat, "etatsMax", 10000);
+        }
+    }
+
+    private void participants(Long livreurId) {
+        when(autorisationsChat.participants(COLIS))
+                .thenReturn(new AutorisationsChat.Participants(CLIENT, livreurId, StatutColis.EN_ATTENTE));
+    }
+
+    private ChatMessage enregistrer(String role) {
+        return chatMessageRepository.save(message(role));
+    }
+
+    private ChatMessage message(String role) {
+        Long expediteur = "ROLE_CLIENT".equals(role) ? CLIENT : LIVREUR;
+        ChatMessage message = new ChatMessage(COLIS, expediteur, role, "bonjour", LocalDateTime.now(), null);
+        message.setId(generateur.nextId());
+        return message;
+    }
+}
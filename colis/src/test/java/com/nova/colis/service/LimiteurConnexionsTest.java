@@ -0,0 +1,99 @@
+package com.nova.colis.service;
+
+import com.nova.colis.exception.TropDeRequetesException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteurConnexionsTest {
+
+    private final HorlogeManuelle horloge = new HorlogeManuelle();
+
+    // 20 tentatives par IP (10/min), 5 par email (1/min)
+    private final LimiteurConnexions limiteur = new LimiteurConnexions(1024, 20, 10, 5, 1, horloge, 0);
+
+    @Test
+    void emailBucketAllowsBurstThenRefills() {
+        for (int i = 0; i < 5; i++) {
+            limiteur.verifier("10.0.0." + i, "Awa@Test.ga");
+        }
+        TropDeRequetesException refus = assertThrows(TropDeRequetesException.class,
+                () -> limiteur.verifier("10.0.0.9", "awa@test.ga "));
+        assertEquals(60, refus.getDelaiSecondes());
+
+        horloge.avancer(TimeUnit.MINUTES.toMillis(1));
+        limiteur.verifier("10.0.0.9", "awa@test.ga");
+        assertThrows(TropDeRequetesException.class, () -> limiteur.verifier("10.0.0.9", "awa@test.ga"));
+    }
+
+    @Test
+    void ipBucketLimitsAttemptsAcrossEmails() {
+        for (int i = 0; i < 20; i++) {
+            limiteur.verifier("192.168.1.1", "compte" + i + "@test.ga");
+        }
+        assertThrows(TropDeRequetesException.class, () -> limiteur.verifier("192.168.1.1", "autre@test.ga"));
+        limiteur.verifier("192.168.1.2", "autre@test.ga");
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedCapacity() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger acceptees = new AtomicInteger();
+        List<Future<?>> taches = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            taches.add(pool.submit(() -> {
+                try {
+                    limiteur.verifier("172.16.0.1", "cible@test.ga");
+                    acceptees.incrementAndGet();
+                } catch (TropDeRequetesException e) {
+                    // attendu au-delà de la capacité
+                }
+            }));
+        }
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        pool.shutdown();
+        assertEquals(5, acceptees.get());
+    }
+
+    private static final class HorlogeManuelle extends Clock {
+        private volatile long millis = 1_700_000_000_000L;
+
+        void avancer(long ms) {
+            millis += ms;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ColisSummaryDTO;
+import com.nova.colis.model.StatutColis;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LivreurColisIndexTest {
+
+    private final LivreurColisIndex index = new LivreurColisIndex();
+
+    @Test
+    void reassignmentMovesTheParcelToTheNewDriver() {
+        index.mettreAJour(resume(1L, 7L, StatutColis.EN_ATTENTE, 0L));
+        index.mettreAJour(resume(2L, 7L, StatutColis.EN_ATTENTE, 0L));
+        index.mettreAJour(resume(1L, 8L, StatutColis.EN_ATTENTE, 1L));
+
+        assertEquals(List.of(2L), ids(7L));
+        assertEquals(List.of(1L), ids(8L));
+
+        // Désaffecté : il ne figure plus chez personne
+        index.mettreAJour(resume(1L, null, StatutColis.EN_ATTENTE, 2L));
+        assertEquals(List.of(), ids(8L));
+    }
+
+    @Test
+    void olderVersionArrivingLateIsIgnored() {
+        index.mettreAJour(resume(1L, 7L, StatutColis.EN_ATTENTE, 0L));
+        index.mettreAJour(resume(1L, 8L, StatutColis.RECUPERE, 2L));
+        index.mettreAJour(resume(1L, 7L, StatutColis.EN_ATTENTE, 1L));
+
+        assertEquals(List.of(), ids(7L));
+        assertEquals(List.of(1L), ids(8L));
+        assertEquals(StatutColis.RECUPERE, index.getColis(8L, LivreurColisIndex.STATUTS_INDEXES).get(0).getStatutColis());
+    }
+
+    @Test
+    void lateUpdateDoesNotResurrectATerminatedParcel() {
+        index.mettreAJour(resume(1L, 7L, StatutColis.EN_COURS_DE_LIVRAISON, 2L));
+        index.mettreAJour(resume(1L, 7L, StatutColis.LIVRE, 3L));
+        index.mettreAJour(resume(1L, 7L, StatutColis.EN_COURS_DE_LIVRAISON, 2L));
+
+        assertEquals(List.of(), ids(7L));
+    }
+
+    @Test
+    void deletedParcelIsNeverReindexed() {
+        index.mettreAJour(resume(1L, 7L, StatutColis.EN_ATTENTE, 0L));
+        index.retirer(1L);
+        index.mettreAJour(resume(1L, 7L, StatutColis.RECUPERE, 1L));
+
+        assertEquals(List.of(), ids(7L));
+    }
+
+    @Test
+    void unassignedParcelsDoNotEvictTheDeletionMarkers() {
+        index.mettreAJour(resume(1L, 7L, StatutColis.EN_ATTENTE, 0L));
+        index.retirer(1L);
+        for (long id = 2; id < 20_002; id++) {
+            index.mettreAJour(resume(id, null, StatutColis.EN_ATTENTE, 0L));
+        }
+        index.mettreAJour(resume(1L, 7L, StatutColis.RECUPERE, 1L));
+
+        assertEquals(List.of(), ids(7L));
+    }
+
+    private List<Long> ids(Long livreurId) {
+        return index.getColis(livreurId, LivreurColisIndex.STATUTS_INDEXES).stream()
+                .map(ColisSummaryDTO::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static ColisSummaryDTO resume(Long id, Long livreurId, StatutColis statut, Long version) {
+        return new ColisSummaryDTO(id, "CLS-" + id, statut, 1L, livreurId, null, 1000L,
+                null, null, null, null, version);
+    }
+}
@@ -0,0 +1,126 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeArret;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.projection.ColisGeofenceView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MoteurGeofencesTest {
+
+    private static final double LAT_CLIENT = 0.3900;
+    private static final double LON_CLIENT = 9.4500;
+    private static final double LAT_DEST = 0.4400;
+    private static final double LON_DEST = 9.4500;
+    // ~0,0009° de latitude = ~100 m
+    private static final double CENT_METRES = 0.0009;
+
+    private ColisRepository colisRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private MoteurGeofences moteur;
+
+    @BeforeEach
+    void setUp() {
+        colisRepository = mock(ColisRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        moteur = new MoteurGeofences();
+        ReflectionTestUtils.setField(moteur, "colisRepository", colisRepository);
+        ReflectionTestUtils.setField(moteur, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(moteur, "messagingTemplate", mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(moteur, "clientService", mock(ClientService.class));
+        ReflectionTestUtils.setField(moteur, "firebaseMessagingService", mock(FirebaseMessagingService.class));
+        ReflectionTestUtils.setField(moteur, "notificationExecutor", (Executor) Runnable::run);
+    }
+
+    @Test
+    void entryIntoPickupFenceIsReportedOnceUntilTheDriverLeaves() {
+        moteur.enregistrer(colis(1L, 7L, StatutColis.RECUPERE));
+
+        moteur.evaluer(7L, LAT_CLIENT - 5 * CENT_METRES, LON_CLIENT);
+        verifyNoInteractions(eventPublisher);
+
+        moteur.evaluer(7L, LAT_CLIENT - 0.5 * CENT_METRES, LON_CLIENT);
+        // Oscillation sur le bord de la clôture : pas de nouvelle arrivée
+        moteur.evaluer(7L, LAT_CLIENT - 1.1 * CENT_METRES, LON_CLIENT);
+        moteur.evaluer(7L, LAT_CLIENT - 0.9 * CENT_METRES, LON_CLIENT);
+
+        ArgumentCaptor<Object> evenement = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(1)).publishEvent(evenement.capture());
+        ArriveeColisEvenement arrivee = (ArriveeColisEvenement) evenement.getValue();
+        assertEquals(1L, arrivee.getColisId());
+        assertEquals(TypeArret.ENLEVEMENT, arrivee.getTypeArret());
+
+        // Sortie franche puis retour : nouvelle arrivée
+        moteur.evaluer(7L, LAT_CLIENT - 3 * CENT_METRES, LON_CLIENT);
+        moteur.evaluer(7L, LAT_CLIENT, LON_CLIENT);
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void onlyTheDriversOwnFencesAreTested() {
+        moteur.enregistrer(colis(1L, 7L, StatutColis.RECUPERE));
+
+        moteur.evaluer(8L, LAT_CLIENT, LON_CLIENT);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void fenceMovesToDestinationWhenParcelIsOnItsWay() {
+        moteur.enregistrer(colis(1L, 7L, StatutColis.RECUPERE));
+        when(colisRepository.findGeofenceById(1L)).thenReturn(Optional.of(colis(1L, 7L, StatutColis.EN_COURS_DE_LIVRAISON)));
+        moteur.surChangementDeStatut(new ColisStatutEvenement(1L, 7L, StatutColis.RECUPERE,
+                StatutColis.EN_COURS_DE_LIVRAISON, null, null));
+
+        moteur.evaluer(7L, LAT_CLIENT, LON_CLIENT);
+        verifyNoInteractions(eventPublisher);
+
+        moteur.evaluer(7L, LAT_DEST, LON_DEST);
+        ArgumentCaptor<Object> evenement = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(evenement.capture());
+        assertEquals(TypeArret.LIVRAISON, ((ArriveeColisEvenement) evenement.getValue()).getTypeArret());
+
+        moteur.surChangementDeStatut(new ColisStatutEvenement(1L, 7L, StatutColis.EN_COURS_DE_LIVRAISON,
+                StatutColis.LIVRE, null, null));
+        moteur.evaluer(7L, LAT_DEST + 3 * CENT_METRES, LON_DEST);
+        moteur.evaluer(7L, LAT_DEST, LON_DEST);
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void tourParcelWaitingForPickupGetsAPickupFence() {
+        when(colisRepository.findGeofenceById(1L)).thenReturn(Optional.of(colis(1L, 7L, StatutColis.EN_ATTENTE)));
+        moteur.suivre(List.of(1L));
+
+        moteur.evaluer(7L, LAT_CLIENT, LON_CLIENT);
+        ArgumentCaptor<Object> evenement = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(evenement.capture());
+        assertEquals(TypeArret.ENLEVEMENT, ((ArriveeColisEvenement) evenement.getValue()).getTypeArret());
+    }
+
+    private static ColisGeofenceView colis(Long id, Long livreurId, StatutColis statut) {
+        return new ColisGeofenceView() {
+            public Long getId() { return id; }
+            public String getReferenceColis() { return "COL-" + id; }
+            public Long getLivreurId() { return livreurId; }
+            public Long getClientId() { return 3L; }
+            public StatutColis getStatutColis() { return statut; }
+            public Double getLatitudeEnlevement() { return LAT_CLIENT; }
+            public Double getLongitudeEnlevement() { return LON_CLIENT; }
+            public Double getLatitudeDestination() { return LAT_DEST; }
+            public Double getLongitudeDestination() { return LON_DEST; }
+        };
+    }
+}
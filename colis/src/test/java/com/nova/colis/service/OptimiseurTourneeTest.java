@@ -0,0 +1,56 @@
+package com.nova.colis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimiseurTourneeTest {
+
+    private final OptimiseurTournee optimiseur = new OptimiseurTournee();
+
+    @Test
+    void visitsPointsAlongALineInOrder() {
+        double[] lat = {0.40, 0.43, 0.41, 0.42};
+        double[] lon = {9.45, 9.45, 9.45, 9.45};
+        OptimiseurTournee.Parcours parcours = optimiseur.ordonner(0.39, 9.45, lat, lon, new int[]{-1, -1, -1, -1});
+
+        assertArrayEquals(new int[]{0, 2, 3, 1}, parcours.getOrdre());
+        assertEquals(DistanceGeo.haversineMetres(0.39, 9.45, 0.43, 9.45), parcours.getDistanceMetres(), 1);
+    }
+
+    @Test
+    void pickupAlwaysPrecedesDelivery() {
+        // La livraison (1) est tout près du départ, l'enlèvement (0) loin : il faut quand même enlever d'abord
+        double[] lat = {0.50, 0.391};
+        double[] lon = {9.45, 9.45};
+        int[] ordre = optimiseur.ordonner(0.39, 9.45, lat, lon, new int[]{-1, 0}).getOrdre();
+        assertArrayEquals(new int[]{0, 1}, ordre);
+    }
+
+    @Test
+    void randomToursAlwaysRespectPrecedences() {
+        Random random = new Random(42);
+        for (int essai = 0; essai < 200; essai++) {
+            int colis = 1 + random.nextInt(8);
+            double[] lat = new double[colis * 2];
+            double[] lon = new double[colis * 2];
+            int[] predecesseur = new int[colis * 2];
+            for (int i = 0; i < lat.length; i++) {
+                lat[i] = 0.35 + random.nextDouble() * 0.15;
+                lon[i] = 9.40 + random.nextDouble() * 0.15;
+                predecesseur[i] = i % 2 == 0 ? -1 : i - 1;
+            }
+            int[] ordre = optimiseur.ordonner(0.40, 9.45, lat, lon, predecesseur).getOrdre();
+
+            int[] position = new int[ordre.length];
+            for (int k = 0; k < ordre.length; k++) {
+                position[ordre[k]] = k;
+            }
+            for (int i = 1; i < lat.length; i += 2) {
+                assertTrue(position[i - 1] < position[i], "livraison avant enlèvement");
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.nova.colis.service;
+
+import com.nova.colis.config.PaiementConfig;
+import com.nova.colis.dto.IntentionPaiementDTO;
+import com.nova.colis.exception.ConflictException;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.StatutPaiement;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.EcritureComptableRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:paiement;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "paiement.passerelle=locale"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PaiementServiceImpl.class, PasserellePaiementLocale.class, PaiementConfig.class, GrandLivreService.class,
+        JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaiementServiceTest {
+
+    @Autowired
+    private PaiementServiceImpl paiementService;
+
+    @Autowired
+    private PasserellePaiementLocale passerelle;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private EcritureComptableRepository ecritureComptableRepository;
+
+    @Autowired
+    private GrandLivreService grandLivreService;
+
+    @MockitoBean
+    private IndexRechercheColis indexRechercheColis;
+
+    @BeforeEach
+    void setUp() {
+        ecritureComptableRepository.deleteAll();
+        colisRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRequestsForTheSameParcelShareOneIntent() throws Exception {
+        Colis colis = nouveauColis(7500);
+        int avant = passerelle.getNombreIntentions();
+
+        List<CompletableFuture<IntentionPaiementDTO>> demandes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            demandes.add(paiementService.creerIntention(colis.getId()));
+        }
+        String intentionId = demandes.get(0).get(5, TimeUnit.SECONDS).getPaymentIntentId();
+        for (CompletableFuture<IntentionPaiementDTO> demande : demandes) {
+            IntentionPaiementDTO intention = demande.get(5, TimeUnit.SECONDS);
+            assertEquals(intentionId, intention.getPaymentIntentId());
+            assertEquals(7500L, intention.getMontant());
+            assertEquals("xaf", intention.getDevise());
+        }
+        assertEquals(avant + 1, passerelle.getNombreIntentions());
+        assertEquals(intentionId, colisRepository.findById(colis.getId()).orElseThrow().getPaymentIntentId());
+    }
+
+    @Test
+    void webhooksAreAppliedInBatchesAndNeverDowngradeAPayment() throws Exception {
+        Colis premier = nouveauColis(3000);
+        Colis second = nouveauColis(4500);
+        Colis troisieme = nouveauColis(4500);
+
+        CompletableFuture<Void> a = paiementService.traiterNotification(evenement("payment_intent.succeeded", premier), null);
+        CompletableFuture<Void> b = paiementService.traiterNotification(evenement("payment_intent.succeeded", second), null);
+        CompletableFuture<Void> c = paiementService.traiterNotification(evenement("payment_intent.canceled", troisieme), null);
+        CompletableFuture<Void> d = paiementService.traiterNotification(evenement("payment_intent.canceled", premier), null);
+        assertFalse(a.isDone());
+
+        paiementService.vider();
+
+        CompletableFuture.allOf(a, b, c, d).get(1, TimeUnit.SECONDS);
+        assertEquals(StatutPaiement.PAYE, statutPaiement(premier));
+        assertEquals(StatutPaiement.PAYE, statutPaiement(second));
+        assertEquals(StatutPaiement.ANNULE, statutPaiement(troisieme));
+        assertEquals(1L, colisRepository.findById(second.getId()).orElseThrow().getVersion());
+        // Nouvelle version : les colis sont réindexés pour que l'empreinte de l'index reste celle de la table
+        verify(indexRechercheColis).reindexer(List.of(premier.getId(), second.getId()));
+    }
+
+    @Test
+    void paymentOfADeliveredParcelIsRecordedInTheLedger() throws Exception {
+        Colis colis = nouveauColis(3000);
+        colis.setStatutColis(StatutColis.LIVRE);
+        colis.setFraisLivraison(2250);
+        colis.setCommissionPlateforme(750);
+        colis = colisRepository.save(colis);
+
+        CompletableFuture<Void> a = paiementService.traiterNotification(evenement("payment_intent.succeeded", colis), null);
+        CompletableFuture<Void> b = paiementService.traiterNotification(evenement("payment_intent.succeeded", colis), null);
+        paiementService.vider();
+        CompletableFuture.allOf(a, b).get(1, TimeUnit.SECONDS);
+
+        assertTrue(ecritureComptableRepository.findByColisId(colis.getId()).isPresent());
+        assertEquals(750, grandLivreService.getCommissionsPlateforme(LocalDate.now(), LocalDate.now()).getMontant());
+    }
+
+    @Test
+    void ignoredEventsCompleteImmediately() {
+        Colis colis = nouveauColis(3000);
+        assertTrue(paiementService.traiterNotification(evenement("payment_intent.created", colis), null).isDone());
+    }
+
+    @Test
+    void paidParcelCannotOpenANewIntent() throws Exception {
+        Colis colis = nouveauColis(3000);
+        paiementService.traiterNotification(evenement("payment_intent.succeeded", colis), null);
+        paiementService.vider();
+        assertThrows(ConflictException.class, () -> paiementService.creerIntention(colis.getId()));
+    }
+
+    private StatutPaiement statutPaiement(Colis colis) {
+        return colisRepository.findById(colis.getId()).orElseThrow().getStatutPaiement();
+    }
+
+    private static String evenement(String type, Colis colis) {
+        return "{\"type\":\"" + type + "\",\"data\":{\"object\":{\"id\":\"pi_test_" + colis.getId()
+                + "\",\"metadata\":{\"colisId\":\"" + colis.getId() + "\"}}}}";
+    }
+
+    private Colis nouveauColis(long prix) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setClientId(1L);
+        colis.setPrixTotal(prix);
+        return colisRepository.save(colis);
+    }
+}
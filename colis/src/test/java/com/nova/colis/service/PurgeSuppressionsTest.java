@@ -0,0 +1,164 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.ChatMessage;
+import com.nova.colis.model.Client;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.Livreur;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ChatMessageRepository;
+import com.nova.colis.repository.ClientRepository;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.LivreurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:purge;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "purge.pause-ms=0"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PurgeSuppressions.class, ReferenceColisGenerator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PurgeSuppressionsTest {
+
+    @Autowired
+    private PurgeSuppressions purge;
+
+    @Autowired
+    private ReferenceColisGenerator generateur;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private ColisService colisService;
+
+    @BeforeEach
+    void setUp() {
+        // Créées par Liquibase en production (CREATE TABLE ... LIKE)
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS colis_archive AS SELECT * FROM colis WITH NO DATA");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS chat_messages_archive AS SELECT * FROM chat_messages WITH NO DATA");
+        for (String table : List.of("chat_messages_archive", "colis_archive", "chat_messages", "colis", "clients", "livreurs")) {
+            jdbcTemplate.execute("DELETE FROM " + table);
+        }
+        // Le service retire le colis par une suppression logique, comme ColisServiceImpl
+        doAnswer(invocation -> {
+            colisRepository.deleteById(invocation.getArgument(0));
+            return null;
+        }).when(colisService).deleteColis(anyLong());
+    }
+
+    @Test
+    void deletedParcelIsHiddenAtOnceThenErasedWithItsChat() {
+        Client client = client();
+        Colis colis = colis(client.getId());
+        message(colis.getId());
+
+        colisRepository.delete(colis);
+
+        assertTrue(colisRepository.findById(colis.getId()).isEmpty());
+        assertEquals(1, lignes("colis"));
+
+        purge.purger();
+
+        assertEquals(0, lignes("colis"));
+        assertEquals(0, lignes("chat_messages"));
+        assertTrue(clientRepository.findById(client.getId()).isPresent());
+    }
+
+    @Test
+    void deletedClientIsErasedOnceItsParcelsAndArchivesAreGone() {
+        ReflectionTestUtils.setField(purge, "tailleLot", 1);
+        Client client = client();
+        Client autre = client();
+        colis(client.getId());
+        colis(client.getId());
+        Colis archive = colis(client.getId());
+        Colis conserve = colis(autre.getId());
+        transactionTemplate.executeWithoutResult(tx -> {
+            colisRepository.copierDansArchive(List.of(archive.getId()));
+            colisRepository.supprimerParIdIn(List.of(archive.getId()));
+        });
+        Livreur livreur = new Livreur();
+        livreur.setEmail("livreur-" + System.nanoTime() + "@test.ga");
+        livreur = livreurRepository.save(livreur);
+
+        clientRepository.delete(client);
+        livreurRepository.delete(livreur);
+        assertTrue(clientRepository.findById(client.getId()).isEmpty());
+
+        purge.purger();
+
+        verify(colisService, times(2)).deleteColis(anyLong());
+        assertEquals(List.of(conserve.getId()), jdbcTemplate.queryForList("SELECT id FROM colis", Long.class));
+        assertEquals(0, lignes("colis_archive"));
+        assertEquals(List.of(autre.getId()), jdbcTemplate.queryForList("SELECT id FROM clients", Long.class));
+        assertEquals(0, lignes("livreurs"));
+    }
+
+    private int lignes(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private Client client() {
+        Client client = new Client();
+        client.setEmail("client-" + System.nanoTime() + "@test.ga");
+        return clientRepository.save(client);
+    }
+
+    private Colis colis(Long clientId) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setReferenceColis("COL-" + System.nanoTime());
+        colis.setClientId(clientId);
+        colis.setStatutColis(StatutColis.LIVRE);
+        return colisRepository.save(colis);
+    }
+
+    private void message(Long colisId) {
+        ChatMessage message = new ChatMessage(colisId, 10L, "ROLE_CLIENT", "bonjour", LocalDateTime.now(), null);
+        message.setId(generateur.nextId());
+        chatMessageRepository.save(message);
+    }
+}
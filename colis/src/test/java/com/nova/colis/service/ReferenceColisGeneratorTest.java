@@ -0,0 +1,99 @@
+package com.nova.colis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceColisGeneratorTest {
+
+    @Test
+    void referencesAreUniqueAcrossThreads() throws Exception {
+        ReferenceColisGenerator generator = new ReferenceColisGenerator(7);
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    references.add(generator.nextReference());
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+        assertEquals(160_000, references.size());
+    }
+
+    @Test
+    void referencesAreSortedEvenWhenClockGoesBackwards() {
+        MutableClock clock = new MutableClock(ReferenceColisGenerator.EPOCH + 1_000_000);
+        ReferenceColisGenerator generator = new ReferenceColisGenerator(1, clock);
+        String previous = generator.nextReference();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.millis -= 10_000;
+            }
+            String next = generator.nextReference();
+            assertTrue(next.compareTo(previous) > 0, next + " <= " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void replicasNeverCollide() {
+        Clock fixed = Clock.fixed(Instant.ofEpochMilli(ReferenceColisGenerator.EPOCH + 42), ZoneOffset.UTC);
+        ReferenceColisGenerator a = new ReferenceColisGenerator(1, fixed);
+        ReferenceColisGenerator b = new ReferenceColisGenerator(2, fixed);
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(references.add(a.nextReference()));
+            assertTrue(references.add(b.nextReference()));
+        }
+    }
+
+    @Test
+    void rejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new ReferenceColisGenerator(1024));
+    }
+
+    private static class MutableClock extends Clock {
+        long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
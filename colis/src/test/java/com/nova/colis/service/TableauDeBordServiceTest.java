@@ -0,0 +1,131 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.TableauDeBordDTO;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.repository.ColisRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TableauDeBordServiceTest {
+
+    private static final Instant DEPART = Instant.parse("2026-03-02T08:00:00Z");
+
+    private MutableClock clock;
+    private TableauDeBordService service;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(DEPART);
+        service = new TableauDeBordService(clock);
+    }
+
+    @Test
+    void countsFollowStatusTransitionsAndActiveDrivers() {
+        service.surChangementDeStatut(evenement(1L, 7L, null, StatutColis.EN_ATTENTE, null, null));
+        service.surChangementDeStatut(evenement(1L, 7L, StatutColis.EN_ATTENTE, StatutColis.RECUPERE, null, null));
+
+        TableauDeBordDTO dto = service.getInstantane();
+        assertEquals(0L, dto.getColisParStatut().get(StatutColis.EN_ATTENTE));
+        assertEquals(1L, dto.getColisParStatut().get(StatutColis.RECUPERE));
+        assertEquals(1, dto.getLivreursEnCourse());
+
+        service.surChangementDeStatut(evenement(1L, 7L, StatutColis.RECUPERE, StatutColis.ANNULE, null, null));
+        assertEquals(0, service.getInstantane().getLivreursEnCourse());
+    }
+
+    @Test
+    void deliveriesAndDurationsExpireAfterOneHour() {
+        LocalDateTime prise = LocalDateTime.of(2026, 3, 2, 7, 0);
+        service.surChangementDeStatut(evenement(1L, 7L, StatutColis.EN_COURS_DE_LIVRAISON, StatutColis.LIVRE,
+                prise, prise.plusMinutes(30)));
+        service.surChangementDeStatut(evenement(2L, 8L, StatutColis.EN_COURS_DE_LIVRAISON, StatutColis.LIVRE,
+                prise, prise.plusMinutes(90)));
+        service.surMessageChat(new MessageChatEvenement(1L));
+
+        TableauDeBordDTO dto = service.getInstantane();
+        assertEquals(2, dto.getLivraisonsDerniereHeure());
+        assertEquals(1, dto.getMessagesChatDerniereHeure());
+        assertEquals(2, dto.getDureesLivraison().getNombre());
+        assertEquals(1800, dto.getDureesLivraison().getP50(), 2);
+        assertEquals(5400, dto.getDureesLivraison().getMax(), 5);
+
+        clock.avancer(Duration.ofMinutes(61));
+        dto = service.getInstantane();
+        assertEquals(0, dto.getLivraisonsDerniereHeure());
+        assertEquals(0, dto.getMessagesChatDerniereHeure());
+        assertEquals(0, dto.getDureesLivraison().getNombre());
+    }
+
+    @Test
+    void reconciliationReplacesDriftedCountsWithTheDatabase() {
+        ColisRepository colisRepository = mock(ColisRepository.class);
+        ReflectionTestUtils.setField(service, "colisRepository", colisRepository);
+        // Écritures vues par cette instance
+        service.surChangementDeStatut(evenement(1L, 7L, null, StatutColis.EN_ATTENTE, null, null));
+        service.surChangementDeStatut(evenement(1L, 7L, StatutColis.EN_ATTENTE, StatutColis.RECUPERE, null, null));
+
+        // La base compte aussi les écritures d'une autre instance
+        when(colisRepository.compterParStatut()).thenReturn(List.of(
+                new Object[]{StatutColis.EN_ATTENTE, 3L}, new Object[]{StatutColis.RECUPERE, 2L}));
+        when(colisRepository.compterArchivesParStatut()).thenReturn(List.<Object[]>of(new Object[]{"LIVRE", 5}));
+        when(colisRepository.compterParLivreur(StatutColis.ACTIFS)).thenReturn(List.of(
+                new Object[]{8L, 1L}, new Object[]{9L, 1L}));
+        service.reconcilier();
+
+        TableauDeBordDTO dto = service.getInstantane();
+        assertEquals(3L, dto.getColisParStatut().get(StatutColis.EN_ATTENTE));
+        assertEquals(2L, dto.getColisParStatut().get(StatutColis.RECUPERE));
+        assertEquals(5L, dto.getColisParStatut().get(StatutColis.LIVRE));
+        assertEquals(0L, dto.getColisParStatut().get(StatutColis.ANNULE));
+        assertEquals(2, dto.getLivreursEnCourse());
+
+        // Les événements suivants s'appliquent aux valeurs recalculées
+        service.surChangementDeStatut(evenement(2L, 8L, StatutColis.RECUPERE, StatutColis.ANNULE, null, null));
+        assertEquals(1, service.getInstantane().getLivreursEnCourse());
+    }
+
+    private static ColisStatutEvenement evenement(Long colisId, Long livreurId, StatutColis ancien, StatutColis nouveau,
+                                                  LocalDateTime prise, LocalDateTime livraison) {
+        return new ColisStatutEvenement(colisId, livreurId, ancien, nouveau, prise, livraison);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void avancer(Duration duree) {
+            instant = instant.plus(duree);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
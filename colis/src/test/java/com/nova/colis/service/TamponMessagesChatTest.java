@@ -0,0 +1,231 @@
+package com.nova.colis.service;
+
+import com.nova.colis.model.ChatMessage;
+import com.nova.colis.repository.ChatMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:chat;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "chat.tampon.lot=100"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TamponMessagesChat.class, ReferenceColisGenerator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TamponMessagesChatTest {
+
+    @TempDir
+    Path repertoire;
+
+    @Autowired
+    private TamponMessagesChat tampon;
+
+    @Autowired
+    private ReferenceColisGenerator generateur;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        chatMessageRepository.deleteAll();
+    }
+
+    @Test
+    void acceptedMessagesAreWrittenInBatches() throws InterruptedException {
+        for (int i = 0; i < 450; i++) {
+            tampon.ajouter(message(1L, "message " + i, null));
+        }
+        long limite = System.currentTimeMillis() + 5000;
+        while (chatMessageRepository.count() < 450 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+
+        List<ChatMessage> enregistres = chatMessageRepository.findByColisId(1L);
+        assertEquals(450, enregistres.size());
+        assertTrue(tampon.enAttente(1L).isEmpty());
+    }
+
+    @Test
+    void fullBufferRejectsNewMessagesUntilItIsWritten() throws Exception {
+        TamponMessagesChat sansEcrivain = nouveauTampon(false);
+        ReflectionTestUtils.setField(sansEcrivain, "capacite", 2);
+        ReflectionTestUtils.setField(sansEcrivain, "attenteMs", 10L);
+        sansEcrivain.ouvrir();
+
+        sansEcrivain.ajouter(message(2L, "un", null));
+        sansEcrivain.ajouter(message(2L, "deux", null));
+        assertThrows(TaskRejectedException.class, () -> sansEcrivain.ajouter(message(2L, "trois", null)));
+        assertEquals(List.of("un", "deux"), sansEcrivain.enAttente(2L).stream().map(ChatMessage::getMessage).toList());
+
+        sansEcrivain.vider();
+        assertEquals(2, chatMessageRepository.findByColisId(2L).size());
+        sansEcrivain.ajouter(message(2L, "trois", null));
+    }
+
+    @Test
+    void writtenMessagesStayVisibleDuringTheRetentionDelay() throws Exception {
+        TamponMessagesChat avecRetention = nouveauTampon(false);
+        ReflectionTestUtils.setField(avecRetention, "retentionMs", 200L);
+        avecRetention.ouvrir();
+        avecRetention.ajouter(message(4L, "déjà en base", null));
+        avecRetention.vider();
+
+        // La réplique peut ne pas avoir encore le message : il reste servi depuis la mémoire
+        assertEquals(1, chatMessageRepository.findByColisId(4L).size());
+        assertEquals(List.of("déjà en base"), avecRetention.enAttente(4L).stream().map(ChatMessage::getMessage).toList());
+
+        Thread.sleep(250);
+        assertTrue(avecRetention.enAttente(4L).isEmpty());
+    }
+
+    @Test
+    void retentionDefaultsToTheReplicaWindowOnlyWithAReplica() throws Exception {
+        TamponMessagesChat sansReplique = nouveauTampon(false);
+        sansReplique.ouvrir();
+        assertEquals(0L, ReflectionTestUtils.getField(sansReplique, "retentionMs"));
+
+        TamponMessagesChat avecReplique = nouveauTampon(false);
+        ReflectionTestUtils.setField(avecReplique, "urlReplique", "jdbc:mysql://replique/transport_db");
+        ReflectionTestUtils.setField(avecReplique, "fenetreReplique", 3000L);
+        avecReplique.ouvrir();
+        assertEquals(3000L, ReflectionTestUtils.getField(avecReplique, "retentionMs"));
+    }
+
+    @Test
+    void journalIsReplayedAfterACrash() throws Exception {
+        TamponMessagesChat avantArret = nouveauTampon(true);
+        avantArret.ouvrir();
+        byte[] photo = {1, 2, 3, 4};
+        avantArret.ajouter(message(3L, "accentué é", null));
+        ChatMessage avecPhoto = message(3L, "photo jointe", photo);
+        avantArret.ajouter(avecPhoto);
+        // Arrêt brutal : rien n'a été écrit en base
+        assertEquals(0, chatMessageRepository.findByColisId(3L).size());
+
+        TamponMessagesChat apresRedemarrage = nouveauTampon(true);
+        apresRedemarrage.ouvrir();
+
+        List<ChatMessage> relus = chatMessageRepository.findByColisId(3L);
+        assertEquals(2, relus.size());
+        assertEquals("accentué é", relus.get(0).getMessage());
+        assertArrayEquals(photo, chatMessageRepository.findById(avecPhoto.getId()).orElseThrow().getPhoto());
+        try (Stream<Path> segments = Files.list(repertoire)) {
+            // Seul le nouveau segment, vide, subsiste
+            assertEquals(List.of(0L), segments.map(this::taille).toList());
+        }
+        apresRedemarrage.arreter();
+    }
+
+    @Test
+    void failingMessageIsDroppedOnceTheDatabaseAnswers() throws Exception {
+        TamponMessagesChat tamponFragile = nouveauTampon(false);
+        ReflectionTestUtils.setField(tamponFragile, "jdbcTemplate", new RefusMessage(jdbcTemplate, "trop gros"));
+        ReflectionTestUtils.setField(tamponFragile, "tentatives", 2);
+        ReflectionTestUtils.setField(tamponFragile, "capacite", 3);
+        // En service (sans thread d'écriture) : un échec n'est pas traité comme un arrêt
+        ReflectionTestUtils.setField(tamponFragile, "actif", true);
+        tamponFragile.ouvrir();
+        tamponFragile.ajouter(message(5L, "avant", null));
+        tamponFragile.ajouter(message(5L, "trop gros", null));
+        tamponFragile.ajouter(message(5L, "après", null));
+
+        tamponFragile.vider();
+
+        assertEquals(List.of("avant", "après"),
+                chatMessageRepository.findByColisId(5L).stream().map(ChatMessage::getMessage).toList());
+        assertTrue(tamponFragile.enAttente(5L).isEmpty());
+        // Les places du message abandonné sont rendues
+        tamponFragile.ajouter(message(5L, "suivant", null));
+    }
+
+    private TamponMessagesChat nouveauTampon(boolean journal) {
+        TamponMessagesChat nouveau = new TamponMessagesChat();
+        ReflectionTestUtils.setField(nouveau, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(nouveau, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(nouveau, "journalActif", journal);
+        ReflectionTestUtils.setField(nouveau, "repertoireJournal", repertoire.toString());
+        return nouveau;
+    }
+
+    private ChatMessage message(Long colisId, String texte, byte[] photo) {
+        ChatMessage message = new ChatMessage(colisId, 10L, "ROLE_CLIENT", texte, LocalDateTime.now(), photo);
+        message.setId(generateur.nextId());
+        return message;
+    }
+
+    /**
+     * Base qui répond, mais refuse toute insertion contenant un message donné sans violer de contrainte
+     * (comme un paquet trop gros pour max_allowed_packet).
+     */
+    private static final class RefusMessage extends JdbcTemplate {
+        private final String refuse;
+
+        RefusMessage(JdbcTemplate base, String refuse) {
+            super(base.getDataSource());
+            this.refuse = refuse;
+        }
+
+        @Override
+        public int update(String sql, PreparedStatementSetter pss) {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            try {
+                pss.setValues(ps);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            boolean contient = mockingDetails(ps).getInvocations().stream()
+                    .anyMatch(appel -> List.of(appel.getArguments()).contains(refuse));
+            if (contient) {
+                throw new RecoverableDataAccessException("Packet for query is too large");
+            }
+            return super.update(sql, pss);
+        }
+    }
+
+    private long taille(Path fichier) {
+        try {
+            return Files.size(fichier);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.nova.colis.service;
+
+import com.nova.colis.dto.ClientDTO;
+import com.nova.colis.dto.LivreurDTO;
+import com.nova.colis.dto.TourneeDTO;
+import com.nova.colis.exception.ConflictException;
+import com.nova.colis.model.Colis;
+import com.nova.colis.model.Livreur;
+import com.nova.colis.model.StatutArret;
+import com.nova.colis.model.StatutColis;
+import com.nova.colis.model.StatutTournee;
+import com.nova.colis.model.TypeArret;
+import com.nova.colis.model.TypeColis;
+import com.nova.colis.repository.ColisRepository;
+import com.nova.colis.repository.LivreurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:tournees;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TourneeServiceImpl.class, OptimiseurTournee.class, ColisServiceImpl.class, ReferenceColisGenerator.class,
+        LivreurColisIndex.class, ClientStatistiquesService.class, GrilleTarifaire.class, GrandLivreService.class,
+        JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TourneeServiceTest {
+
+    @Autowired
+    private TourneeService tourneeService;
+
+    @Autowired
+    private ColisService colisService;
+
+    @Autowired
+    private ColisRepository colisRepository;
+
+    @Autowired
+    private LivreurRepository livreurRepository;
+
+    @MockitoBean
+    private ClientService clientService;
+
+    @MockitoBean
+    private LivreurService livreurService;
+
+    @MockitoBean
+    private FirebaseMessagingService firebaseMessagingService;
+
+    @MockitoBean
+    private IndexRechercheColis indexRechercheColis;
+
+    @MockitoBean
+    private GeocodageService geocodageService;
+
+    @MockitoBean
+    private MoteurGeofences moteurGeofences;
+
+    private Livreur livreur;
+
+    @BeforeEach
+    void setUp() {
+        when(clientService.getClientById(anyLong())).thenReturn(new ClientDTO());
+        when(livreurService.getLivreurById(anyLong())).thenReturn(new LivreurDTO());
+        livreur = new Livreur();
+        livreur.setEmail("livreur-" + System.nanoTime() + "@test.ga");
+        livreur.setRole("ROLE_LIVREUR");
+        livreur.setLatitudeActuelle(0.39);
+        livreur.setLongitudeActuelle(9.45);
+        livreur = livreurRepository.save(livreur);
+    }
+
+    @Test
+    void driverCarriesSeveralParcelsAndTourClosesWhenAllStopsAreDone() {
+        List<Long> ids = List.of(colis(0.40, 0.45), colis(0.41, 0.44), colis(0.42, 0.43));
+        TourneeDTO tournee = tourneeService.creerTournee(livreur.getId(), ids);
+
+        assertEquals(6, tournee.getArrets().size());
+        for (Long id : ids) {
+            Colis colis = colisRepository.findById(id).orElseThrow();
+            assertEquals(StatutColis.EN_ATTENTE, colis.getStatutColis());
+            assertEquals(tournee.getId(), colis.getTourneeId());
+            assertEquals(livreur.getId(), colis.getLivreurId());
+        }
+        assertEquals(tournee.getId(), livreurRepository.findById(livreur.getId()).orElseThrow().getTourneeActiveId());
+        assertEquals(3, colisService.getColisSummariesByLivreur(livreur.getId(), List.of(StatutColis.EN_ATTENTE)).size());
+
+        for (TourneeDTO.Arret arret : tournee.getArrets()) {
+            tourneeService.validerArret(tournee.getId(), arret.getId());
+        }
+
+        TourneeDTO terminee = tourneeService.getTournee(tournee.getId());
+        assertEquals(StatutTournee.TERMINEE, terminee.getStatut());
+        assertTrue(terminee.getArrets().stream().allMatch(a -> a.getStatut() == StatutArret.FAIT));
+        for (Long id : ids) {
+            assertEquals(StatutColis.LIVRE, colisRepository.findById(id).orElseThrow().getStatutColis());
+        }
+        assertNull(livreurRepository.findById(livreur.getId()).orElseThrow().getTourneeActiveId());
+    }
+
+    @Test
+    void parcelIsPickedUpOnlyWhenItsPickupStopIsValidated() {
+        Long premier = colis(0.40, 0.45);
+        Long second = colis(0.41, 0.44);
+        TourneeDTO tournee = tourneeService.creerTournee(livreur.getId(), List.of(premier, second));
+        TourneeDTO.Arret enlevement = tournee.getArrets().stream()
+                .filter(a -> a.getColisId().equals(premier) && a.getTypeArret() == TypeArret.ENLEVEMENT)
+                .findFirst().orElseThrow();
+
+        tourneeService.validerArret(tournee.getId(), enlevement.getId());
+
+        assertEquals(StatutColis.EN_COURS_DE_LIVRAISON, colisRepository.findById(premier).orElseThrow().getStatutColis());
+        assertEquals(StatutColis.EN_ATTENTE, colisRepository.findById(second).orElseThrow().getStatutColis());
+        assertEquals(StatutArret.FAIT, tourneeService.getTournee(tournee.getId()).getArrets().stream()
+                .filter(a -> a.getId().equals(enlevement.getId())).findFirst().orElseThrow().getStatut());
+        // Le livreur d'un colis de tournée ne se change pas
+        assertThrows(ConflictException.class,
+                () -> colisService.patchColis(second, Map.of("livreurId", livreur.getId() + 1)));
+    }
+
+    @Test
+    void deliveryStopCannotBeValidatedBeforePickup() {
+        Long id = colis(0.40, 0.45);
+        TourneeDTO tournee = tourneeService.creerTournee(livreur.getId(), List.of(id));
+        TourneeDTO.Arret livraison = tournee.getArrets().stream()
+                .filter(a -> a.getTypeArret() == TypeArret.LIVRAISON).findFirst().orElseThrow();
+
+        assertThrows(ConflictException.class, () -> tourneeService.validerArret(tournee.getId(), livraison.getId()));
+    }
+
+    @Test
+    void singleParcelAndTourExcludeEachOther() {
+        Long horsTournee = colis(0.40, 0.45);
+        colisRepository.findById(horsTournee).ifPresent(c -> {
+            c.setLivreurId(livreur.getId());
+            colisRepository.save(c);
+        });
+        tourneeService.creerTournee(livreur.getId(), List.of(colis(0.41, 0.44)));
+
+        assertThrows(ConflictException.class, () -> colisService.updateStatutColis(horsTournee, "RECUPERE"));
+    }
+
+    @Test
+    void cancelledParcelLeavesRemainingStops() {
+        Long premier = colis(0.40, 0.45);
+        Long second = colis(0.41, 0.44);
+        TourneeDTO tournee = tourneeService.creerTournee(livreur.getId(), List.of(premier, second));
+
+        colisService.updateStatutColis(premier, "ANNULE");
+
+        TourneeDTO relue = tourneeService.getTournee(tournee.getId());
+        assertEquals(StatutTournee.EN_COURS, relue.getStatut());
+        assertTrue(relue.getArrets().stream().filter(a -> a.getColisId().equals(premier))
+                .allMatch(a -> a.getStatut() == StatutArret.ANNULE));
+    }
+
+    private Long colis(double latEnlevement, double latDestination) {
+        Colis colis = new Colis();
+        colis.setTypeColis(TypeColis.STANDARD);
+        colis.setClientId(1L);
+        colis.setCoordonneesGPS(latEnlevement + ",9.45");
+        colis.setLatitudeDestination(latDestination);
+        colis.setLongitudeDestination(9.46);
+        return colisRepository.save(colis).getId();
+    }
+}
@@ -0,0 +1,64 @@
+package com.nova.colis.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificateurMotDePasseTest {
+
+    @Test
+    void hashWithAnotherCostIsFlaggedForRehash() {
+        VerificateurMotDePasse verificateur = verificateur(5);
+        String ancien = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(verificateur.verifier("secret", ancien));
+        assertTrue(verificateur.doitRehacher(ancien));
+
+        String nouveau = verificateur.hacher("secret");
+        assertTrue(nouveau.startsWith("$2a$05$"));
+        assertFalse(verificateur.doitRehacher(nouveau));
+        assertTrue(verificateur.verifier("secret", nouveau));
+    }
+
+    @Test
+    void unknownAccountIsRejectedAfterAFullVerification() {
+        VerificateurMotDePasse verificateur = verificateur(4);
+        assertFalse(verificateur.verifier("secret", null));
+        assertFalse(verificateur.verifier(null, new BCryptPasswordEncoder(4).encode("secret")));
+    }
+
+    /**
+     * Débit de connexions par cœur selon le coût BCrypt, pour choisir "securite.bcrypt.cout" :
+     * mvn test -Dtest=VerificateurMotDePasseTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkLoginsPerSecondPerCore() {
+        for (int cout = 8; cout <= 12; cout++) {
+            VerificateurMotDePasse verificateur = verificateur(cout);
+            String hachage = verificateur.hacher("mot-de-passe");
+            for (int i = 0; i < 3; i++) {
+                verificateur.verifier("mot-de-passe", hachage);
+            }
+            int iterations = Math.max(5, 400 >> (cout - 8));
+            long debut = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                assertTrue(verificateur.verifier("mot-de-passe", hachage));
+            }
+            double secondes = (System.nanoTime() - debut) / 1e9;
+            System.out.printf("BCrypt coût %d : %.1f ms par connexion, %.1f connexions/s par cœur%n",
+                    cout, 1000 * secondes / iterations, iterations / secondes);
+        }
+    }
+
+    private static VerificateurMotDePasse verificateur(int cout) {
+        VerificateurMotDePasse verificateur = new VerificateurMotDePasse();
+        ReflectionTestUtils.setField(verificateur, "passwordEncoder", new BCryptPasswordEncoder(cout));
+        ReflectionTestUtils.setField(verificateur, "cout", cout);
+        verificateur.initialiser();
+        return verificateur;
+    }
+}